@@ -23,6 +23,13 @@ dependencies {
 	implementation("org.springframework.boot:spring-boot-starter-webflux")
 	implementation("org.springdoc:springdoc-openapi-starter-webflux-ui:2.6.0")
 	implementation("org.springframework.boot:spring-boot-starter-web")
+	implementation("org.springframework.boot:spring-boot-starter-actuator")
+	implementation("io.projectreactor.tools:blockhound:1.0.13.RELEASE")
+	implementation("org.hdrhistogram:HdrHistogram:2.2.2")
+	implementation("com.zaxxer:HikariCP")
+	implementation("com.h2database:h2")
+	implementation("io.r2dbc:r2dbc-h2")
+	implementation("io.r2dbc:r2dbc-pool")
 	testImplementation("org.springframework.boot:spring-boot-starter-test")
 	testImplementation("io.projectreactor:reactor-test")
 	testRuntimeOnly("org.junit.platform:junit-platform-launcher")
@@ -30,9 +37,35 @@ dependencies {
 
 tasks.withType<Test> {
 	useJUnitPlatform()
+	// Necessário para o BlockHound instrumentar métodos do JDK 21 (BlockingCallDetector)
+	jvmArgs("-XX:+AllowRedefinitionToAddDeleteMethods", "-XX:+EnableDynamicAgentLoading")
 	finalizedBy(tasks.jacocoTestReport)
 }
 
+// BlockHound.install é global na JVM e não pode ser desfeito: os testes com a tag "blockhound"
+// rodam em uma JVM própria, para não acusar chamadas bloqueantes dos demais testes
+tasks.test {
+	useJUnitPlatform {
+		excludeTags("blockhound")
+	}
+}
+
+val blockHoundTest by tasks.registering(Test::class) {
+	description = "Runs the tests that install BlockHound in a dedicated JVM."
+	group = "verification"
+	testClassesDirs = sourceSets.test.get().output.classesDirs
+	classpath = sourceSets.test.get().runtimeClasspath
+	useJUnitPlatform {
+		includeTags("blockhound")
+	}
+	forkEvery = 1
+	shouldRunAfter(tasks.test)
+}
+
+tasks.check {
+	dependsOn(blockHoundTest)
+}
+
 tasks.jacocoTestReport {
 	dependsOn(tasks.test)
 	reports {
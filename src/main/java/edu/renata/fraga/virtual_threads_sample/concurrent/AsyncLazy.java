@@ -0,0 +1,61 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Inicialização preguiçosa que não prende a carrier, no lugar de double-checked locking com
+ * {@code synchronized} ou de trabalho bloqueante em um bloco {@code static}.
+ * <p>
+ * A primeira thread a chamar {@link #get()} executa o inicializador; as demais esperam em um
+ * {@link CompletableFuture}, o que desmonta Virtual Threads. Se o inicializador falhar, a falha é
+ * entregue a quem estava esperando e a próxima chamada tenta de novo.
+ */
+public final class AsyncLazy<T> {
+
+    private final Supplier<? extends T> initializer;
+    private final AtomicReference<CompletableFuture<T>> value = new AtomicReference<>();
+
+    public AsyncLazy(Supplier<? extends T> initializer) {
+        this.initializer = initializer;
+    }
+
+    public T get() {
+        try {
+            return getAsync().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Future do valor; quem chama primeiro executa o inicializador na própria thread.
+     */
+    public CompletableFuture<T> getAsync() {
+        CompletableFuture<T> current = value.get();
+        if (current != null) {
+            return current;
+        }
+        CompletableFuture<T> created = new CompletableFuture<>();
+        if (!value.compareAndSet(null, created)) {
+            return value.get();
+        }
+        try {
+            created.complete(initializer.get());
+        } catch (RuntimeException | Error e) {
+            value.compareAndSet(created, null);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    public boolean isInitialized() {
+        CompletableFuture<T> current = value.get();
+        return current != null && current.isDone() && !current.isCompletedExceptionally();
+    }
+}
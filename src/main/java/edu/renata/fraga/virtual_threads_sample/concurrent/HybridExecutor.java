@@ -0,0 +1,196 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor que separa trabalho bloqueante de trabalho de CPU.
+ * <p>
+ * Tarefas {@link TaskKind#BLOCKING} rodam em uma Virtual Thread por tarefa; tarefas
+ * {@link TaskKind#CPU_BOUND} rodam em um {@link ForkJoinPool} com paralelismo igual ao
+ * número de núcleos, para não ocupar as carrier threads das Virtual Threads.
+ * <p>
+ * A classificação vem de {@link TaskProfile}, de um {@link TaskKind} explícito ou, na falta
+ * deles, da razão tempo de CPU / tempo de parede medida por chave de tarefa. No JDK 21 o
+ * tempo de CPU de uma Virtual Thread não é mensurável ({@code getCurrentThreadCpuTime()}
+ * retorna -1), por isso as amostras são coletadas no ForkJoinPool: as primeiras execuções de
+ * cada chave e, depois, uma a cada {@code resampleInterval} execuções.
+ */
+public class HybridExecutor implements Executor, AutoCloseable {
+
+    public static final double DEFAULT_CPU_RATIO_THRESHOLD = 0.5;
+    public static final int DEFAULT_WARMUP_SAMPLES = 3;
+    public static final int DEFAULT_RESAMPLE_INTERVAL = 64;
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final double EWMA_ALPHA = 0.3;
+
+    private final ExecutorService blockingExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ForkJoinPool cpuPool;
+    private final Map<String, TaskStats> statsByKey = new ConcurrentHashMap<>();
+    private final double cpuRatioThreshold;
+    private final int warmupSamples;
+    private final int resampleInterval;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final Map<TaskKind, Timer> timers = new EnumMap<>(TaskKind.class);
+
+    public HybridExecutor(MeterRegistry meterRegistry) {
+        this(meterRegistry, Runtime.getRuntime().availableProcessors(),
+                DEFAULT_CPU_RATIO_THRESHOLD, DEFAULT_WARMUP_SAMPLES, DEFAULT_RESAMPLE_INTERVAL);
+    }
+
+    public HybridExecutor(MeterRegistry meterRegistry, int cpuParallelism, double cpuRatioThreshold,
+                          int warmupSamples, int resampleInterval) {
+        if (cpuParallelism < 1 || warmupSamples < 1 || resampleInterval < 1) {
+            throw new IllegalArgumentException("cpuParallelism, warmupSamples and resampleInterval must be positive");
+        }
+        this.cpuPool = new ForkJoinPool(cpuParallelism);
+        this.cpuRatioThreshold = cpuRatioThreshold;
+        this.warmupSamples = warmupSamples;
+        this.resampleInterval = resampleInterval;
+        for (TaskKind kind : TaskKind.values()) {
+            String kindTag = kind.name().toLowerCase();
+            for (String source : new String[]{"declared", "sampling", "measured"}) {
+                counters.put(kind + "/" + source, Counter.builder("hybrid.executor.tasks")
+                        .description("Tarefas submetidas ao executor híbrido por classificação")
+                        .tag("kind", kindTag)
+                        .tag("source", source)
+                        .register(meterRegistry));
+            }
+            timers.put(kind, Timer.builder("hybrid.executor.execution")
+                    .description("Tempo de execução das tarefas por classificação")
+                    .tag("kind", kindTag)
+                    .register(meterRegistry));
+        }
+        meterRegistry.gauge("hybrid.executor.cpu.pool.active", cpuPool, ForkJoinPool::getActiveThreadCount);
+        meterRegistry.gauge("hybrid.executor.cpu.pool.queued", cpuPool, ForkJoinPool::getQueuedSubmissionCount);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        submit(Executors.callable(command), declaredKind(command), command.getClass().getName());
+    }
+
+    /**
+     * Submete a tarefa classificando-a por {@link TaskProfile} ou, sem anotação, pela classe da tarefa.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return submit(task, declaredKind(task), task.getClass().getName());
+    }
+
+    /**
+     * Submete a tarefa com uma chave de classificação explícita. Útil quando o mesmo lambda
+     * executa trabalhos de natureza diferente.
+     */
+    public <T> CompletableFuture<T> submit(String taskKey, Callable<T> task) {
+        return submit(task, null, taskKey);
+    }
+
+    /**
+     * Submete a tarefa com a classificação já conhecida, sem medição.
+     */
+    public <T> CompletableFuture<T> submit(TaskKind kind, Callable<T> task) {
+        return submit(task, kind, kind.name());
+    }
+
+    public TaskKind classificationOf(String taskKey) {
+        TaskStats stats = statsByKey.get(taskKey);
+        return stats == null ? null : stats.classify();
+    }
+
+    public double cpuRatioOf(String taskKey) {
+        TaskStats stats = statsByKey.get(taskKey);
+        return stats == null ? Double.NaN : stats.cpuRatio();
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task, TaskKind declaredKind, String taskKey) {
+        if (declaredKind != null) {
+            return dispatch(task, declaredKind, "declared", null);
+        }
+
+        TaskStats stats = statsByKey.computeIfAbsent(taskKey, key -> new TaskStats());
+        long submission = stats.submissions.incrementAndGet();
+        if (submission <= warmupSamples || submission % resampleInterval == 0) {
+            return dispatch(task, TaskKind.CPU_BOUND, "sampling", stats);
+        }
+        // Só as amostras medem: execuções classificadas disputam núcleos entre si e subestimariam a razão
+        return dispatch(task, stats.classify(), "measured", null);
+    }
+
+    private <T> CompletableFuture<T> dispatch(Callable<T> task, TaskKind kind, String source, TaskStats stats) {
+        counters.get(kind + "/" + source).increment();
+        Timer timer = timers.get(kind);
+
+        Executor target = kind == TaskKind.CPU_BOUND ? cpuPool : blockingExecutor;
+        return CompletableFuture.supplyAsync(() -> {
+            long startWall = System.nanoTime();
+            long startCpu = stats != null ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : -1;
+            try {
+                return task.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            } finally {
+                long wall = System.nanoTime() - startWall;
+                timer.record(wall, TimeUnit.NANOSECONDS);
+                if (startCpu >= 0) {
+                    long endCpu = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+                    if (endCpu >= 0) {
+                        stats.record(endCpu - startCpu, wall);
+                    }
+                }
+            }
+        }, target);
+    }
+
+    private static TaskKind declaredKind(Object task) {
+        TaskProfile profile = task.getClass().getAnnotation(TaskProfile.class);
+        return profile == null ? null : profile.value();
+    }
+
+    @Override
+    public void close() {
+        blockingExecutor.shutdown();
+        cpuPool.shutdown();
+    }
+
+    private final class TaskStats {
+        private final AtomicLong submissions = new AtomicLong();
+        private final AtomicLong ratioBits = new AtomicLong(Double.doubleToLongBits(Double.NaN));
+
+        void record(long cpuNanos, long wallNanos) {
+            double ratio = Math.min(1.0, cpuNanos / (double) Math.max(1, wallNanos));
+            ratioBits.updateAndGet(bits -> {
+                double current = Double.longBitsToDouble(bits);
+                double updated = Double.isNaN(current) ? ratio : current + EWMA_ALPHA * (ratio - current);
+                return Double.doubleToLongBits(updated);
+            });
+        }
+
+        double cpuRatio() {
+            return Double.longBitsToDouble(ratioBits.get());
+        }
+
+        TaskKind classify() {
+            double ratio = cpuRatio();
+            return !Double.isNaN(ratio) && ratio >= cpuRatioThreshold ? TaskKind.CPU_BOUND : TaskKind.BLOCKING;
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Executor com ordem por chave: tarefas da mesma chave (conta, sessão) rodam uma de cada vez,
+ * na ordem de submissão; chaves diferentes rodam em paralelo.
+ * <p>
+ * Substitui o padrão {@code synchronized (locks[hash(key) % n]) { handler.run(); }}, que no
+ * JDK 21 prende a carrier enquanto o handler bloqueia e serializa chaves sem relação que caem na
+ * mesma faixa de lock.
+ * <p>
+ * Cada chave ativa tem uma caixa de mensagens, como um ator. A submissão não usa lock: um CAS
+ * reserva lugar no contador da caixa e a tarefa entra numa {@link ConcurrentLinkedQueue}. Quem
+ * leva o contador de 0 para 1 agenda uma Virtual Thread que drena a caixa até esvaziá-la. Caixa
+ * vazia é retirada do mapa (o contador vai para -1 e submissões concorrentes criam outra), então a
+ * memória é proporcional às chaves com trabalho pendente, não a todas as chaves já vistas. Cada
+ * caixa aceita no máximo {@code maxMailboxSize} tarefas pendentes; além disso a submissão é
+ * rejeitada com {@link RejectedExecutionException}.
+ */
+public class KeyedSerialExecutor<K> implements AutoCloseable {
+
+    public static final int DEFAULT_MAX_MAILBOX_SIZE = 10_000;
+
+    private static final int RETIRED = -1;
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final int maxMailboxSize;
+    private final ConcurrentHashMap<K, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder mailboxesCreated = new LongAdder();
+    private final LongAdder mailboxesReclaimed = new LongAdder();
+    private final AtomicInteger peakMailboxDepth = new AtomicInteger();
+
+    public KeyedSerialExecutor() {
+        this(DEFAULT_MAX_MAILBOX_SIZE);
+    }
+
+    public KeyedSerialExecutor(int maxMailboxSize) {
+        this(Executors.newVirtualThreadPerTaskExecutor(), true, maxMailboxSize);
+    }
+
+    /**
+     * Usa o executor informado para drenar as caixas; ele não é encerrado em {@link #close()}.
+     */
+    public KeyedSerialExecutor(Executor executor, int maxMailboxSize) {
+        this(executor, false, maxMailboxSize);
+    }
+
+    private KeyedSerialExecutor(Executor executor, boolean ownsExecutor, int maxMailboxSize) {
+        if (maxMailboxSize < 1) {
+            throw new IllegalArgumentException("maxMailboxSize must be positive");
+        }
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.maxMailboxSize = maxMailboxSize;
+    }
+
+    /**
+     * Enfileira a tarefa na caixa da chave. Falhas da tarefa, inclusive {@link Error}, são contadas
+     * e não interrompem as tarefas seguintes da mesma chave.
+     *
+     * @throws RejectedExecutionException se a caixa da chave estiver cheia
+     */
+    public void execute(K key, Runnable task) {
+        while (true) {
+            Mailbox mailbox = mailboxes.get(key);
+            if (mailbox == null) {
+                Mailbox created = new Mailbox(key);
+                mailbox = mailboxes.putIfAbsent(key, created);
+                if (mailbox == null) {
+                    mailbox = created;
+                    mailboxesCreated.increment();
+                }
+            }
+
+            int size = mailbox.size.get();
+            if (size == RETIRED) {
+                // A drenagem acabou de retirar esta caixa: ajuda a removê-la e tenta de novo
+                mailboxes.remove(key, mailbox);
+                continue;
+            }
+            if (size >= maxMailboxSize) {
+                rejected.increment();
+                throw new RejectedExecutionException("Mailbox of key " + key + " is full (" + maxMailboxSize + " tasks)");
+            }
+            if (mailbox.size.compareAndSet(size, size + 1)) {
+                mailbox.tasks.add(task);
+                peakMailboxDepth.accumulateAndGet(size + 1, Math::max);
+                if (size == 0) {
+                    schedule(mailbox);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Como {@link #execute}, devolvendo o resultado da tarefa.
+     */
+    public <T> CompletableFuture<T> submit(K key, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        execute(key, () -> {
+            try {
+                future.complete(task.call());
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+                throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e);
+            } catch (Error e) {
+                future.completeExceptionally(e);
+                throw e;
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Executor que enfileira tudo na caixa de uma única chave.
+     */
+    public Executor forKey(K key) {
+        return task -> execute(key, task);
+    }
+
+    public int activeMailboxes() {
+        return mailboxes.size();
+    }
+
+    public int getMaxMailboxSize() {
+        return maxMailboxSize;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeMailboxes", mailboxes.size());
+        stats.put("maxMailboxSize", maxMailboxSize);
+        stats.put("peakMailboxDepth", peakMailboxDepth.get());
+        stats.put("executed", executed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("mailboxesCreated", mailboxesCreated.sum());
+        stats.put("mailboxesReclaimed", mailboxesReclaimed.sum());
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        if (ownsExecutor && executor instanceof ExecutorService executorService) {
+            executorService.close();
+        }
+    }
+
+    private void schedule(Mailbox mailbox) {
+        try {
+            executor.execute(() -> drain(mailbox));
+        } catch (RejectedExecutionException e) {
+            // Executor encerrado: descarta o que está na caixa e a retira
+            mailbox.tasks.clear();
+            mailbox.size.set(RETIRED);
+            mailboxes.remove(mailbox.key, mailbox);
+            throw e;
+        }
+    }
+
+    private void drain(Mailbox mailbox) {
+        int spins = 0;
+        while (true) {
+            Runnable task = mailbox.tasks.poll();
+            if (task == null) {
+                // O produtor reservou lugar no contador e ainda não inseriu a tarefa
+                if (++spins % SPINS_BEFORE_YIELD == 0) {
+                    Thread.yield();
+                } else {
+                    Thread.onSpinWait();
+                }
+                continue;
+            }
+            spins = 0;
+            int remaining;
+            Error error = null;
+            try {
+                task.run();
+                executed.increment();
+            } catch (RuntimeException e) {
+                failed.increment();
+            } catch (Error e) {
+                failed.increment();
+                error = e;
+            } finally {
+                // Sempre libera o lugar da tarefa: sem isso a caixa fica com contador positivo e
+                // nenhuma drenagem, e a chave trava
+                remaining = mailbox.size.decrementAndGet();
+            }
+            if (remaining == 0) {
+                // Caixa vazia: retira, a menos que um produtor tenha acabado de reservar lugar
+                // (nesse caso ele agendou uma nova drenagem)
+                if (mailbox.size.compareAndSet(0, RETIRED)) {
+                    mailboxes.remove(mailbox.key, mailbox);
+                    mailboxesReclaimed.increment();
+                }
+            } else if (error != null) {
+                // Esta drenagem termina com o erro; outra assume as tarefas seguintes da chave
+                try {
+                    schedule(mailbox);
+                } catch (RejectedExecutionException e) {
+                    error.addSuppressed(e);
+                }
+            }
+            if (error != null) {
+                throw error;
+            }
+            if (remaining == 0) {
+                return;
+            }
+        }
+    }
+
+    private final class Mailbox {
+        private final K key;
+        private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        // Tarefas pendentes (na fila ou em execução), ou RETIRED
+        private final AtomicInteger size = new AtomicInteger();
+
+        Mailbox(K key) {
+            this.key = key;
+        }
+    }
+}
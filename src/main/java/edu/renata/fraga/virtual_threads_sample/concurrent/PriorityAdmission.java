@@ -0,0 +1,469 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import edu.renata.fraga.virtual_threads_sample.metrics.LatencySummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admissão por prioridade na frente das Virtual Threads.
+ * <p>
+ * Virtual Threads ignoram {@code Thread.setPriority}, então a prioridade é aplicada antes: o
+ * trabalho de cada {@link RequestClass} espera em uma fila própria e no máximo
+ * {@code maxConcurrency} unidades ficam admitidas ao mesmo tempo. Quando uma vaga abre, a
+ * próxima fila é escolhida por stride scheduling (fila justa ponderada): cada admissão avança o
+ * "passe" da classe em {@code 1/peso} e vence a fila não vazia com o menor passe. Sem disputa a
+ * admissão é conservativa: uma classe sozinha usa todas as vagas.
+ * <p>
+ * Proteção contra inanição: se a cabeça de alguma fila espera há mais de
+ * {@code starvationThreshold}, a fila com a espera mais antiga é atendida primeiro,
+ * independentemente do peso.
+ * <p>
+ * Vagas reservadas: as últimas {@code interactiveReserve} vagas só são entregues a
+ * {@link RequestClass#INTERACTIVE}, então um acúmulo de batch e benchmark que ocupe as demais
+ * não faz uma requisição interativa esperar o fim de um deles.
+ * <p>
+ * Há duas formas de admissão: {@link #forClass(RequestClass)} devolve um executor que roda
+ * cada tarefa em uma Virtual Thread nova quando ela é admitida, e {@link #acquire(RequestClass)}
+ * bloqueia a thread atual até a admissão (ou até o prazo de {@link #acquire(RequestClass, Duration)})
+ * e devolve uma {@link Permit} que ocupa a vaga até ser fechada. A espera na fila de cada
+ * classe é medida em histogramas e em um {@link Timer}.
+ */
+public class PriorityAdmission implements AutoCloseable {
+
+    private static final long STRIDE_BASE = 1L << 20;
+
+    private final String name;
+    private final int maxConcurrency;
+    private final int interactiveReserve;
+    private final long starvationThresholdNanos;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<RequestClass, ClassQueue> queues = new EnumMap<>(RequestClass.class);
+    private final AtomicInteger running = new AtomicInteger();
+    // ReentrantLock em vez de synchronized: a escolha da fila roda em Virtual Threads e não deve fixá-las na carrier
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+    private long virtualTime;
+    private volatile boolean closed;
+
+    public PriorityAdmission(String name, int maxConcurrency, Duration starvationThreshold, MeterRegistry meterRegistry) {
+        this(name, maxConcurrency, defaultWeights(), starvationThreshold, meterRegistry);
+    }
+
+    public PriorityAdmission(String name, int maxConcurrency, Map<RequestClass, Integer> weights,
+                             Duration starvationThreshold, MeterRegistry meterRegistry) {
+        this(name, maxConcurrency, 0, weights, starvationThreshold, meterRegistry);
+    }
+
+    public PriorityAdmission(String name, int maxConcurrency, int interactiveReserve, Map<RequestClass, Integer> weights,
+                             Duration starvationThreshold, MeterRegistry meterRegistry) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        if (interactiveReserve < 0 || interactiveReserve >= maxConcurrency) {
+            throw new IllegalArgumentException("interactiveReserve must be between 0 and maxConcurrency - 1");
+        }
+        if (starvationThreshold.isNegative() || starvationThreshold.isZero()) {
+            throw new IllegalArgumentException("starvationThreshold must be positive");
+        }
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+        this.interactiveReserve = interactiveReserve;
+        this.starvationThresholdNanos = starvationThreshold.toNanos();
+        for (RequestClass requestClass : RequestClass.values()) {
+            int weight = weights.getOrDefault(requestClass, requestClass.defaultWeight());
+            if (weight < 1) {
+                throw new IllegalArgumentException("weight of " + requestClass.tag() + " must be positive");
+            }
+            ClassQueue queue = new ClassQueue(requestClass, weight, Timer.builder("priority.admission.queue")
+                    .description("Espera na fila de admissão por classe de requisição")
+                    .tag("admission", name)
+                    .tag("class", requestClass.tag())
+                    .register(meterRegistry));
+            Gauge.builder("priority.admission.queued", queue.queued, AtomicInteger::get)
+                    .description("Trabalho esperando admissão por classe de requisição")
+                    .tag("admission", name)
+                    .tag("class", requestClass.tag())
+                    .register(meterRegistry);
+            queues.put(requestClass, queue);
+        }
+        Gauge.builder("priority.admission.running", running, AtomicInteger::get)
+                .description("Trabalho admitido em andamento")
+                .tag("admission", name)
+                .register(meterRegistry);
+    }
+
+    public static Map<RequestClass, Integer> defaultWeights() {
+        Map<RequestClass, Integer> weights = new EnumMap<>(RequestClass.class);
+        for (RequestClass requestClass : RequestClass.values()) {
+            weights.put(requestClass, requestClass.defaultWeight());
+        }
+        return weights;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getInteractiveReserve() {
+        return interactiveReserve;
+    }
+
+    public int running() {
+        return running.get();
+    }
+
+    public int queued(RequestClass requestClass) {
+        return queues.get(requestClass).queued.get();
+    }
+
+    /**
+     * Executor que admite as tarefas na classe informada; cada tarefa admitida roda em uma
+     * Virtual Thread própria e libera a vaga ao terminar.
+     */
+    public Executor forClass(RequestClass requestClass) {
+        return task -> execute(requestClass, task);
+    }
+
+    public void execute(RequestClass requestClass, Runnable task) {
+        ensureOpen();
+        enqueue(new Entry(queues.get(requestClass), task));
+    }
+
+    /**
+     * Espera a admissão da thread atual na classe informada. A vaga fica ocupada até a
+     * {@link Permit} ser fechada.
+     *
+     * @throws InterruptedException se a thread for interrompida ainda na fila
+     * @throws RejectedExecutionException se a admissão estiver fechada
+     */
+    public Permit acquire(RequestClass requestClass) throws InterruptedException {
+        Entry entry = new Entry(queues.get(requestClass), null);
+        await(entry, () -> {
+            entry.granted.get();
+            return true;
+        });
+        return new Permit(requestClass, entry.queueNanos);
+    }
+
+    /**
+     * Como {@link #acquire(RequestClass)}, mas desiste da fila depois de {@code timeout}.
+     *
+     * @throws InterruptedException se a thread for interrompida ainda na fila
+     * @throws RejectedExecutionException se a admissão estiver fechada ou o prazo acabar antes da admissão
+     */
+    public Permit acquire(RequestClass requestClass, Duration timeout) throws InterruptedException {
+        Entry entry = new Entry(queues.get(requestClass), null);
+        boolean admitted = await(entry, () -> {
+            try {
+                entry.granted.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+                return true;
+            } catch (TimeoutException e) {
+                return false;
+            }
+        });
+        if (!admitted) {
+            entry.queue.timedOut.increment();
+            throw new RejectedExecutionException("Admission " + name + " timed out after " + timeout.toMillis()
+                    + " ms waiting for a " + requestClass.tag() + " slot");
+        }
+        return new Permit(requestClass, entry.queueNanos);
+    }
+
+    /**
+     * Enfileira a entrada e espera com {@code wait}. Se a espera acabar sem admissão (prazo ou
+     * interrupção), a entrada sai da fila; se a vaga chegou nesse meio-tempo, ela é devolvida.
+     */
+    private boolean await(Entry entry, Wait wait) throws InterruptedException {
+        ensureOpen();
+        enqueue(entry);
+        boolean admitted = false;
+        try {
+            admitted = wait.await();
+        } catch (ExecutionException e) {
+            throw new RejectedExecutionException("Admission " + name + " is closed", e.getCause());
+        } finally {
+            if (!admitted && !abandon(entry) && !entry.granted.isCompletedExceptionally()) {
+                // Admitida enquanto desistia (e não recusada pelo close): devolve a vaga
+                release();
+            }
+        }
+        return admitted;
+    }
+
+    /**
+     * Tira da fila uma entrada que desistiu de esperar. Retorna {@code false} se ela já tinha
+     * sido admitida.
+     */
+    private boolean abandon(Entry entry) {
+        dispatchLock.lock();
+        try {
+            if (!entry.queue.entries.remove(entry)) {
+                return false;
+            }
+            entry.queue.queued.decrementAndGet();
+            entry.queue.cancelled.increment();
+            return true;
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Wait {
+        boolean await() throws InterruptedException, ExecutionException;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", name);
+        result.put("maxConcurrency", maxConcurrency);
+        result.put("interactiveReserve", interactiveReserve);
+        result.put("running", running.get());
+        result.put("starvationThresholdMs", TimeUnit.NANOSECONDS.toMillis(starvationThresholdNanos));
+        Map<String, Object> classes = new LinkedHashMap<>();
+        for (ClassQueue queue : queues.values()) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("weight", queue.weight);
+            stats.put("queued", queue.queued.get());
+            stats.put("admitted", queue.admitted.sum());
+            stats.put("promotedByAging", queue.promoted.sum());
+            stats.put("cancelled", queue.cancelled.sum());
+            stats.put("timedOut", queue.timedOut.sum());
+            stats.put("queueLatency", LatencySummary.toMillis(queue.queueLatency));
+            classes.put(queue.requestClass.tag(), stats);
+        }
+        result.put("classes", classes);
+        return result;
+    }
+
+    public void resetStats() {
+        for (ClassQueue queue : queues.values()) {
+            queue.admitted.reset();
+            queue.promoted.reset();
+            queue.cancelled.reset();
+            queue.timedOut.reset();
+            queue.queueLatency.reset();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        dispatchLock.lock();
+        try {
+            for (ClassQueue queue : queues.values()) {
+                Entry entry;
+                while ((entry = queue.entries.poll()) != null) {
+                    queue.queued.decrementAndGet();
+                    entry.granted.completeExceptionally(new RejectedExecutionException("Admission " + name + " is closed"));
+                }
+            }
+        } finally {
+            dispatchLock.unlock();
+        }
+        executor.shutdown();
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new RejectedExecutionException("Admission " + name + " is closed");
+        }
+    }
+
+    private void enqueue(Entry entry) {
+        entry.queue.queued.incrementAndGet();
+        entry.queue.entries.add(entry);
+        dispatch();
+    }
+
+    private void release() {
+        running.decrementAndGet();
+        dispatch();
+    }
+
+    private void dispatch() {
+        dispatchLock.lock();
+        try {
+            while (!closed && running.get() < maxConcurrency) {
+                Entry entry = next();
+                if (entry == null) {
+                    return;
+                }
+                running.incrementAndGet();
+                ClassQueue queue = entry.queue;
+                entry.queueNanos = System.nanoTime() - entry.enqueuedNanos;
+                if (entry.admit()) {
+                    queue.admitted.increment();
+                    LatencySummary.record(queue.queueLatency, entry.queueNanos);
+                    queue.timer.record(entry.queueNanos, TimeUnit.NANOSECONDS);
+                } else {
+                    queue.cancelled.increment();
+                    running.decrementAndGet();
+                }
+            }
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    /**
+     * Escolhe e remove a próxima entrada. Chamado com {@code dispatchLock} adquirido.
+     */
+    private Entry next() {
+        long now = System.nanoTime();
+        // Nas vagas reservadas só a classe interativa disputa
+        boolean reservedOnly = running.get() >= maxConcurrency - interactiveReserve;
+        ClassQueue fairest = null;
+        ClassQueue starving = null;
+        long oldestEnqueued = 0;
+        for (ClassQueue queue : queues.values()) {
+            if (reservedOnly && queue.requestClass != RequestClass.INTERACTIVE) {
+                continue;
+            }
+            Entry head = queue.entries.peek();
+            if (head == null) {
+                queue.idle = true;
+                continue;
+            }
+            if (queue.idle) {
+                // Uma fila que ficou vazia não acumula crédito: volta a disputar a partir do tempo virtual atual
+                queue.pass = Math.max(queue.pass, virtualTime);
+                queue.idle = false;
+            }
+            if (fairest == null || queue.pass < fairest.pass) {
+                fairest = queue;
+            }
+            if (now - head.enqueuedNanos >= starvationThresholdNanos
+                    && (starving == null || head.enqueuedNanos - oldestEnqueued < 0)) {
+                starving = queue;
+                oldestEnqueued = head.enqueuedNanos;
+            }
+        }
+        if (fairest == null) {
+            return null;
+        }
+
+        ClassQueue chosen = fairest;
+        if (starving != null && starving != fairest) {
+            chosen = starving;
+            chosen.promoted.increment();
+        }
+        Entry entry = chosen.entries.poll();
+        chosen.queued.decrementAndGet();
+        virtualTime = Math.max(virtualTime, chosen.pass);
+        chosen.pass += chosen.stride;
+        return entry;
+    }
+
+    /**
+     * Vaga obtida por {@link #acquire(RequestClass)}. Fechar mais de uma vez não tem efeito.
+     */
+    public final class Permit implements AutoCloseable {
+
+        private final RequestClass requestClass;
+        private final long queueNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(RequestClass requestClass, long queueNanos) {
+            this.requestClass = requestClass;
+            this.queueNanos = queueNanos;
+        }
+
+        public RequestClass requestClass() {
+            return requestClass;
+        }
+
+        public Duration queueTime() {
+            return Duration.ofNanos(queueNanos);
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                release();
+            }
+        }
+    }
+
+    private static final class ClassQueue {
+        private final RequestClass requestClass;
+        private final int weight;
+        private final long stride;
+        private final Timer timer;
+        private final ConcurrentLinkedQueue<Entry> entries = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder promoted = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+        private final LongAdder timedOut = new LongAdder();
+        private final ConcurrentHistogram queueLatency = LatencySummary.newHistogram();
+        // Protegidos por dispatchLock
+        private long pass;
+        private boolean idle = true;
+
+        ClassQueue(RequestClass requestClass, int weight, Timer timer) {
+            this.requestClass = requestClass;
+            this.weight = weight;
+            this.stride = STRIDE_BASE / weight;
+            this.timer = timer;
+        }
+    }
+
+    private final class Entry {
+        private final ClassQueue queue;
+        private final Runnable task;
+        private final long enqueuedNanos = System.nanoTime();
+        private final CompletableFuture<Void> granted = new CompletableFuture<>();
+        private long queueNanos;
+
+        Entry(ClassQueue queue, Runnable task) {
+            this.queue = queue;
+            this.task = task;
+        }
+
+        /**
+         * Entrega a vaga: inicia a tarefa ou acorda a thread em {@link #acquire(RequestClass)}.
+         * Retorna {@code false} se a espera foi cancelada.
+         */
+        boolean admit() {
+            if (task == null) {
+                return granted.complete(null);
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        release();
+                    }
+                });
+                return true;
+            } catch (RejectedExecutionException e) {
+                return false;
+            }
+        }
+    }
+}
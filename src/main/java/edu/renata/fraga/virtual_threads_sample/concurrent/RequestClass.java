@@ -0,0 +1,46 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import java.util.Locale;
+
+/**
+ * Classe de prioridade de uma requisição, usada pela {@link PriorityAdmission}.
+ * <p>
+ * Virtual Threads ignoram {@code Thread.setPriority}: a prioridade só tem efeito na ordem em
+ * que o trabalho é admitido no executor. O peso padrão de cada classe é a fração relativa das
+ * admissões que ela recebe quando todas as filas têm trabalho esperando.
+ */
+public enum RequestClass {
+    /** Requisições curtas de usuário, como {@code /blocking} e {@code /api/info}. */
+    INTERACTIVE(16),
+    /** Trabalho em lote que pode esperar alguns instantes. */
+    BATCH(4),
+    /** Benchmarks e stress tests: usam toda a capacidade livre, mas cedem a vez às outras classes. */
+    BENCHMARK(1);
+
+    private final int defaultWeight;
+
+    RequestClass(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+
+    public int defaultWeight() {
+        return defaultWeight;
+    }
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Converte o valor de um header ({@code interactive}, {@code batch} ou {@code benchmark}).
+     *
+     * @throws IllegalArgumentException se o valor não for uma classe conhecida
+     */
+    public static RequestClass parse(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown request class: " + value);
+        }
+    }
+}
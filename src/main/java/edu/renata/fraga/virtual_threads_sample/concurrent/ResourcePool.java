@@ -0,0 +1,237 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import edu.renata.fraga.virtual_threads_sample.metrics.LatencySummary;
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Pool de objetos escassos (conexões, licenças, handles) para centenas de milhares de Virtual
+ * Threads esperando ao mesmo tempo.
+ * <p>
+ * As permissões ficam em um {@link Semaphore} justo: quem espera entra em uma fila FIFO e
+ * estaciona com {@code LockSupport.park}, que desmonta a Virtual Thread; cada devolução acorda
+ * só a primeira da fila, sem a manada de {@code notifyAll}. Não há {@code synchronized} nem
+ * {@code Object.wait}. Os objetos livres ficam em uma deque sem lock; o pool cria objetos sob
+ * demanda até {@code size} e valida cada um no empréstimo, trocando os inválidos.
+ * <p>
+ * Métricas: tempo de espera e de uso em histogramas, esperas esgotadas, pico de espera e
+ * utilização média (tempo emprestado sobre {@code size} vezes o tempo de vida do pool).
+ */
+public final class ResourcePool<T> implements AutoCloseable {
+
+    private final String name;
+    private final int size;
+    private final Supplier<? extends T> factory;
+    private final Predicate<? super T> validator;
+    private final Consumer<? super T> destroyer;
+    private final Semaphore permits;
+    private final ConcurrentLinkedDeque<T> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final long createdAt = System.nanoTime();
+
+    private final ConcurrentHistogram waitTime = LatencySummary.newHistogram();
+    private final ConcurrentHistogram holdTime = LatencySummary.newHistogram();
+    private final LongAdder heldNanos = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder invalidated = new LongAdder();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger peakWaiting = new AtomicInteger();
+    private final AtomicInteger borrowed = new AtomicInteger();
+
+    public ResourcePool(String name, int size, Supplier<? extends T> factory) {
+        this(name, size, factory, resource -> true, resource -> { });
+    }
+
+    /**
+     * @param validator verificação de saúde feita em cada empréstimo; objetos reprovados são
+     *                  destruídos e substituídos
+     * @param destroyer chamado para objetos reprovados, invalidados e no {@link #close()}
+     */
+    public ResourcePool(String name, int size, Supplier<? extends T> factory,
+                        Predicate<? super T> validator, Consumer<? super T> destroyer) {
+        if (size < 1) {
+            throw new IllegalArgumentException("size must be positive");
+        }
+        this.name = name;
+        this.size = size;
+        this.factory = factory;
+        this.validator = validator;
+        this.destroyer = destroyer;
+        this.permits = new Semaphore(size, true);
+    }
+
+    /**
+     * Empresta um objeto, esperando no máximo {@code timeout}; lança
+     * {@link ResourcePoolTimeoutException} se nenhum ficar livre a tempo.
+     */
+    public Lease acquire(Duration timeout) {
+        if (closed.get()) {
+            throw new IllegalStateException("Pool " + name + " is closed");
+        }
+        long requested = System.nanoTime();
+        peakWaiting.accumulateAndGet(waiting.incrementAndGet(), Math::max);
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        long granted = System.nanoTime();
+        LatencySummary.record(waitTime, granted - requested);
+        if (!acquired) {
+            timeouts.increment();
+            throw new ResourcePoolTimeoutException(name, timeout.toMillis());
+        }
+
+        T resource;
+        try {
+            resource = takeHealthyResource();
+        } catch (RuntimeException | Error e) {
+            permits.release();
+            throw e;
+        }
+        borrowed.incrementAndGet();
+        return new Lease(resource, granted);
+    }
+
+    /**
+     * Empresta um objeto, executa {@code action} e o devolve.
+     */
+    public <R> R withResource(Duration timeout, Function<? super T, R> action) {
+        try (Lease lease = acquire(timeout)) {
+            return action.apply(lease.get());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        double elapsedNanos = Math.max(1, System.nanoTime() - createdAt);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("name", name);
+        stats.put("size", size);
+        stats.put("borrowed", borrowed.get());
+        stats.put("idle", idle.size());
+        stats.put("waiting", waiting.get());
+        stats.put("peakWaiting", peakWaiting.get());
+        stats.put("created", created.sum());
+        stats.put("invalidated", invalidated.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("utilization", heldNanos.sum() / (size * elapsedNanos));
+        stats.put("waitTime", LatencySummary.toMillis(waitTime));
+        stats.put("holdTime", LatencySummary.toMillis(holdTime));
+        return stats;
+    }
+
+    /**
+     * Destrói os objetos livres e recusa novos empréstimos; objetos emprestados são destruídos
+     * ao serem devolvidos.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            T resource;
+            while ((resource = idle.pollFirst()) != null) {
+                destroyer.accept(resource);
+            }
+        }
+    }
+
+    private T takeHealthyResource() {
+        T resource;
+        while ((resource = idle.pollFirst()) != null) {
+            if (isHealthy(resource)) {
+                return resource;
+            }
+            invalidated.increment();
+            destroyer.accept(resource);
+        }
+        // Com a permissão em mãos, existe vaga para um objeto novo
+        resource = factory.get();
+        created.increment();
+        return resource;
+    }
+
+    private boolean isHealthy(T resource) {
+        try {
+            return validator.test(resource);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private void giveBack(T resource, long granted, boolean valid) {
+        long heldFor = System.nanoTime() - granted;
+        LatencySummary.record(holdTime, heldFor);
+        heldNanos.add(heldFor);
+        borrowed.decrementAndGet();
+        if (valid && !closed.get()) {
+            // LIFO: o objeto usado por último tende a estar "quente" (conexão viva, cache)
+            idle.offerFirst(resource);
+            // Um close() concorrente pode ter esvaziado a deque antes do offer: quem tirar o
+            // objeto de lá (este remove ou o close) é quem o destrói
+            if (closed.get() && idle.removeFirstOccurrence(resource)) {
+                destroyer.accept(resource);
+            }
+        } else {
+            if (!valid) {
+                invalidated.increment();
+            }
+            destroyer.accept(resource);
+        }
+        permits.release();
+    }
+
+    /**
+     * Empréstimo de um objeto; {@link #close()} devolve ao pool e {@link #invalidate()} descarta.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final T resource;
+        private final long granted;
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        private Lease(T resource, long granted) {
+            this.resource = resource;
+            this.granted = granted;
+        }
+
+        public T get() {
+            if (returned.get()) {
+                throw new IllegalStateException("Lease already returned");
+            }
+            return resource;
+        }
+
+        /**
+         * Descarta o objeto (ex.: conexão quebrada); o próximo empréstimo cria outro.
+         */
+        public void invalidate() {
+            if (returned.compareAndSet(false, true)) {
+                giveBack(resource, granted, false);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (returned.compareAndSet(false, true)) {
+                giveBack(resource, granted, true);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+/**
+ * Nenhum recurso do {@link ResourcePool} ficou livre dentro do tempo de espera.
+ */
+public class ResourcePoolTimeoutException extends RuntimeException {
+
+    public ResourcePoolTimeoutException(String poolName, long timeoutMillis) {
+        super("No resource available in pool " + poolName + " after " + timeoutMillis + " ms");
+    }
+}
@@ -0,0 +1,139 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Buffer circular pré-alocado, sem lock, com vários produtores, no estilo do LMAX Disruptor.
+ * <p>
+ * Os slots são criados uma vez pela fábrica e reaproveitados: o produtor reserva uma sequência
+ * com {@link #next()}, preenche o objeto do slot e chama {@link #publish(long)}; nenhuma mensagem
+ * aloca memória. A reserva é um CAS no cursor, e cada slot guarda em qual volta do buffer foi
+ * publicado, então consumidores enxergam só o trecho contíguo já publicado mesmo com produtores
+ * terminando fora de ordem.
+ * <p>
+ * Os consumidores se registram com {@link #addGatingSequences(Sequence...)}: o produtor não passa
+ * da volta anterior do consumidor mais atrasado e, com o buffer cheio, espera girando, cedendo a
+ * thread e por fim estacionando por alguns microssegundos (o que desmonta uma Virtual Thread).
+ */
+public final class RingBuffer<E> {
+
+    private static final int SPIN_TRIES = 100;
+    private static final int YIELD_TRIES = 100;
+    private static final long PARK_NANOS = 20_000;
+
+    private final Object[] slots;
+    private final int mask;
+    private final int indexShift;
+    private final AtomicIntegerArray publishedLaps;
+    private final Sequence cursor = new Sequence(-1);
+    private final Sequence gatingSequenceCache = new Sequence(-1);
+    private volatile Sequence[] gatingSequences = new Sequence[0];
+
+    public RingBuffer(int capacity, Supplier<E> slotFactory) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two");
+        }
+        this.slots = new Object[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = slotFactory.get();
+        }
+        this.mask = capacity - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(capacity);
+        this.publishedLaps = new AtomicIntegerArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            publishedLaps.set(i, -1);
+        }
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    /**
+     * Maior sequência já reservada por algum produtor (não necessariamente publicada).
+     */
+    public long cursor() {
+        return cursor.get();
+    }
+
+    public void addGatingSequences(Sequence... sequences) {
+        Sequence[] current = gatingSequences;
+        Sequence[] updated = Arrays.copyOf(current, current.length + sequences.length);
+        System.arraycopy(sequences, 0, updated, current.length, sequences.length);
+        gatingSequences = updated;
+    }
+
+    /**
+     * Reserva a próxima sequência, esperando enquanto o buffer estiver cheio.
+     */
+    public long next() {
+        int attempt = 0;
+        while (true) {
+            long current = cursor.get();
+            long next = current + 1;
+            long wrapPoint = next - slots.length;
+            long cachedGatingSequence = gatingSequenceCache.get();
+
+            if (wrapPoint > cachedGatingSequence || cachedGatingSequence > current) {
+                long gatingSequence = minimumSequence(gatingSequences, current);
+                if (wrapPoint > gatingSequence) {
+                    idle(attempt++);
+                    continue;
+                }
+                gatingSequenceCache.set(gatingSequence);
+            } else if (cursor.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(long sequence) {
+        return (E) slots[(int) sequence & mask];
+    }
+
+    public void publish(long sequence) {
+        publishedLaps.lazySet((int) sequence & mask, (int) (sequence >>> indexShift));
+    }
+
+    public boolean isPublished(long sequence) {
+        return publishedLaps.get((int) sequence & mask) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * Maior sequência entre {@code lowerBound} e {@code availableSequence} até a qual todas as
+     * anteriores já foram publicadas.
+     */
+    public long highestPublishedSequence(long lowerBound, long availableSequence) {
+        for (long sequence = lowerBound; sequence <= availableSequence; sequence++) {
+            if (!isPublished(sequence)) {
+                return sequence - 1;
+            }
+        }
+        return availableSequence;
+    }
+
+    static long minimumSequence(Sequence[] sequences, long minimum) {
+        for (Sequence sequence : sequences) {
+            minimum = Math.min(minimum, sequence.get());
+        }
+        return minimum;
+    }
+
+    /**
+     * Espera sem lock usada por produtores e consumidores: gira, depois cede a thread e por fim
+     * estaciona por alguns microssegundos.
+     */
+    static void idle(int attempt) {
+        if (attempt < SPIN_TRIES) {
+            Thread.onSpinWait();
+        } else if (attempt < SPIN_TRIES + YIELD_TRIES) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+}
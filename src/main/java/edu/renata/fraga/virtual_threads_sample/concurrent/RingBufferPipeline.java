@@ -0,0 +1,198 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/**
+ * Estágios de consumo de um {@link RingBuffer}, cada um com uma ou mais threads trabalhadoras de
+ * vida longa criadas pela {@link ThreadFactory} informada (Virtual Threads ou de plataforma).
+ * <p>
+ * Cada trabalhadora espera a sequência publicada (primeiro estágio) ou a do estágio anterior e
+ * então processa de uma vez tudo o que ficou disponível: um lote. Com {@code workers} trabalhadoras
+ * no estágio, a trabalhadora {@code i} trata as sequências em que {@code sequence % workers == i},
+ * sem disputa entre elas. O handler é avisado do último evento do seu lote ({@code endOfBatch}),
+ * o que permite acumular localmente e publicar o resultado uma vez por lote. Os produtores são
+ * limitados pelas trabalhadoras do último estágio. Como no Disruptor, as trabalhadoras começam
+ * depois do cursor do momento da criação: o que já foi publicado antes não é consumido.
+ * <p>
+ * Falhas dos handlers, inclusive {@link Error}, são contadas e o evento é dado como consumido:
+ * uma trabalhadora que morresse deixaria o estágio parado e produtores e {@link #drain()}
+ * esperando para sempre.
+ */
+public final class RingBufferPipeline<E> implements AutoCloseable {
+
+    private final RingBuffer<E> ringBuffer;
+    private final List<Thread> threads = new ArrayList<>();
+    private final Sequence[] lastStageSequences;
+    private final LongAdder events = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final AtomicLong maxBatchSize = new AtomicLong();
+    private volatile boolean running = true;
+
+    public RingBufferPipeline(RingBuffer<E> ringBuffer, ThreadFactory threadFactory, List<Stage<E>> stages) {
+        if (stages.isEmpty()) {
+            throw new IllegalArgumentException("at least one stage is required");
+        }
+        this.ringBuffer = ringBuffer;
+
+        List<Worker> workers = new ArrayList<>();
+        Sequence[] dependencies = null;
+        for (Stage<E> stage : stages) {
+            Sequence[] stageSequences = new Sequence[stage.workers()];
+            for (int i = 0; i < stage.workers(); i++) {
+                stageSequences[i] = new Sequence(ringBuffer.cursor());
+                workers.add(new Worker(stage.handlerFactory().apply(i), i, stage.workers(), stageSequences[i], dependencies));
+            }
+            dependencies = stageSequences;
+        }
+        this.lastStageSequences = dependencies;
+        ringBuffer.addGatingSequences(lastStageSequences);
+
+        for (Worker worker : workers) {
+            Thread thread = threadFactory.newThread(worker);
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    public RingBuffer<E> ringBuffer() {
+        return ringBuffer;
+    }
+
+    /**
+     * Espera o último estágio consumir tudo o que já foi reservado no buffer. Chamar depois que os
+     * produtores terminaram de publicar.
+     *
+     * @throws IllegalStateException se alguma trabalhadora terminou antes de consumir tudo
+     */
+    public void drain() {
+        long target = ringBuffer.cursor();
+        int attempt = 0;
+        while (RingBuffer.minimumSequence(lastStageSequences, Long.MAX_VALUE) < target) {
+            for (Thread thread : threads) {
+                if (!thread.isAlive()) {
+                    throw new IllegalStateException("Pipeline worker " + thread.getName() + " terminated before draining");
+                }
+            }
+            RingBuffer.idle(attempt++);
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(events.sum(), batches.sum(), maxBatchSize.get(), failed.sum());
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface BatchHandler<E> {
+
+        void onEvent(E event, long sequence, boolean endOfBatch);
+    }
+
+    /**
+     * Um estágio com {@code workers} trabalhadoras; a fábrica recebe o índice da trabalhadora e
+     * cria um handler para cada uma, então o handler pode guardar estado sem sincronização.
+     */
+    public record Stage<E>(String name, int workers, IntFunction<BatchHandler<E>> handlerFactory) {
+
+        public Stage {
+            if (workers < 1) {
+                throw new IllegalArgumentException("workers must be positive");
+            }
+        }
+    }
+
+    public record Stats(long events, long batches, long maxBatchSize, long failed) {
+
+        public double averageBatchSize() {
+            return batches == 0 ? 0.0 : (double) events / batches;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("events", events);
+            map.put("batches", batches);
+            map.put("averageBatchSize", averageBatchSize());
+            map.put("maxBatchSize", maxBatchSize);
+            map.put("failed", failed);
+            return map;
+        }
+    }
+
+    private final class Worker implements Runnable {
+
+        private final BatchHandler<E> handler;
+        private final int index;
+        private final int workerCount;
+        private final Sequence sequence;
+        private final Sequence[] dependencies;
+
+        private Worker(BatchHandler<E> handler, int index, int workerCount, Sequence sequence, Sequence[] dependencies) {
+            this.handler = handler;
+            this.index = index;
+            this.workerCount = workerCount;
+            this.sequence = sequence;
+            this.dependencies = dependencies;
+        }
+
+        @Override
+        public void run() {
+            long nextSequence = sequence.get() + 1;
+            int attempt = 0;
+            while (running) {
+                long availableSequence = availableSequence(nextSequence);
+                if (availableSequence < nextSequence) {
+                    RingBuffer.idle(attempt++);
+                    continue;
+                }
+                attempt = 0;
+
+                long first = nextSequence + Math.floorMod(index - nextSequence, workerCount);
+                long last = availableSequence - Math.floorMod(availableSequence - index, workerCount);
+                long batchSize = 0;
+                for (long current = first; current <= last; current += workerCount) {
+                    try {
+                        handler.onEvent(ringBuffer.get(current), current, current == last);
+                    } catch (Throwable e) {
+                        failed.increment();
+                    }
+                    batchSize++;
+                }
+                if (batchSize > 0) {
+                    events.add(batchSize);
+                    batches.increment();
+                    maxBatchSize.accumulateAndGet(batchSize, Math::max);
+                }
+
+                sequence.set(availableSequence);
+                nextSequence = availableSequence + 1;
+            }
+        }
+
+        private long availableSequence(long nextSequence) {
+            if (dependencies == null) {
+                return ringBuffer.highestPublishedSequence(nextSequence, ringBuffer.cursor());
+            }
+            return RingBuffer.minimumSequence(dependencies, Long.MAX_VALUE);
+        }
+    }
+}
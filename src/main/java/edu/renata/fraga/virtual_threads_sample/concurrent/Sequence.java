@@ -0,0 +1,63 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Posição de um produtor ou consumidor no {@link RingBuffer}.
+ * <p>
+ * O valor fica entre campos de preenchimento (56 bytes de cada lado) para que duas sequências,
+ * escritas por threads diferentes, nunca dividam a mesma linha de cache. O preenchimento usa
+ * herança porque a JVM pode reordenar os campos de uma classe, mas mantém os da superclasse antes.
+ */
+public final class Sequence extends SequenceValue {
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @SuppressWarnings("unused")
+    private long p9, p10, p11, p12, p13, p14, p15;
+
+    public Sequence(long initialValue) {
+        VALUE.setRelease(this, initialValue);
+    }
+
+    public long get() {
+        return value;
+    }
+
+    /**
+     * Publica o novo valor sem a barreira completa de uma escrita volátil: basta que as escritas
+     * anteriores (o conteúdo dos slots) fiquem visíveis antes dele.
+     */
+    public void set(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    public boolean compareAndSet(long expected, long newValue) {
+        return VALUE.compareAndSet(this, expected, newValue);
+    }
+
+    @Override
+    public String toString() {
+        return Long.toString(get());
+    }
+}
+
+abstract class SequenceLeftPadding {
+
+    @SuppressWarnings("unused")
+    private long p1, p2, p3, p4, p5, p6, p7;
+}
+
+abstract class SequenceValue extends SequenceLeftPadding {
+
+    protected volatile long value;
+}
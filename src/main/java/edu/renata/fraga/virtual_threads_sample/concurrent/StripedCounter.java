@@ -0,0 +1,65 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contador sem lock dividido em faixas, para substituir {@code synchronized (this) { count++; }}
+ * em código que passa a rodar em Virtual Threads.
+ * <p>
+ * Cada thread incrementa a faixa escolhida pelo seu ID, com CAS; a soma percorre todas as faixas
+ * e, com incrementos concorrentes, é apenas um retrato aproximado do momento. As faixas ficam a
+ * {@value #PADDING} posições de distância para não dividirem a mesma linha de cache.
+ */
+public final class StripedCounter {
+
+    private static final int PADDING = 8;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    public StripedCounter() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    public StripedCounter(int minimumStripes) {
+        if (minimumStripes < 1) {
+            throw new IllegalArgumentException("minimumStripes must be positive");
+        }
+        int stripes = Integer.highestOneBit(Math.max(1, minimumStripes - 1)) << 1;
+        this.mask = stripes - 1;
+        this.cells = new AtomicLongArray(stripes * PADDING);
+    }
+
+    public void increment() {
+        add(1);
+    }
+
+    public void add(long delta) {
+        int index = stripe() * PADDING;
+        long current = cells.get(index);
+        while (!cells.weakCompareAndSetVolatile(index, current, current + delta)) {
+            current = cells.get(index);
+        }
+    }
+
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i += PADDING) {
+            sum += cells.get(i);
+        }
+        return sum;
+    }
+
+    public int stripes() {
+        return mask + 1;
+    }
+
+    private int stripe() {
+        long id = Thread.currentThread().threadId();
+        // Mistura os bits do ID: Virtual Threads criadas em sequência caem em faixas diferentes
+        id ^= id >>> 33;
+        id *= 0xff51afd7ed558ccdL;
+        id ^= id >>> 33;
+        return (int) id & mask;
+    }
+}
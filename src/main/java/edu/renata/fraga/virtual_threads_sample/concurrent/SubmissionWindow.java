@@ -0,0 +1,103 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+
+/**
+ * Submete N tarefas a um executor mantendo no máximo {@code maxInFlight} em andamento.
+ * <p>
+ * A thread que submete pega uma permissão de um {@link Semaphore} antes de cada tarefa e a
+ * tarefa devolve a permissão ao terminar. Nenhum future ou resultado é guardado: a tarefa
+ * agrega o que precisar (contadores, histogramas) e a memória usada fica proporcional à janela,
+ * não a N. Falhas das tarefas são contadas, não propagadas.
+ * <p>
+ * A fábrica de tarefas é chamada na thread que submete, logo antes da entrega ao executor, então
+ * embrulhos que marcam o instante de submissão (como o {@code TaskTimer}) medem só a espera no
+ * executor, não a espera pela janela.
+ */
+public final class SubmissionWindow {
+
+    private final Executor executor;
+    private final int maxInFlight;
+
+    public SubmissionWindow(Executor executor, int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Executa {@code numberOfTasks} tarefas e retorna quando todas terminarem.
+     */
+    public Report run(long numberOfTasks, LongFunction<Runnable> taskFactory) {
+        Semaphore permits = new Semaphore(maxInFlight);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        LongAdder completed = new LongAdder();
+        LongAdder failed = new LongAdder();
+        long start = System.nanoTime();
+
+        try {
+            for (long i = 0; i < numberOfTasks; i++) {
+                permits.acquire();
+                Runnable task = taskFactory.apply(i);
+                peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    executor.execute(() -> {
+                        try {
+                            task.run();
+                            completed.increment();
+                        } catch (RuntimeException e) {
+                            failed.increment();
+                        } finally {
+                            inFlight.decrementAndGet();
+                            permits.release();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    inFlight.decrementAndGet();
+                    permits.release();
+                    throw e;
+                }
+            }
+            // Espera as últimas tarefas: todas as permissões voltam quando a janela esvazia
+            permits.acquire(maxInFlight);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+
+        return new Report(numberOfTasks, completed.sum(), failed.sum(), maxInFlight, peakInFlight.get(),
+                System.nanoTime() - start);
+    }
+
+    public record Report(long submitted, long completed, long failed, int maxInFlight, int peakInFlight,
+                         long durationNanos) {
+
+        public long durationMillis() {
+            return durationNanos / 1_000_000;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("submitted", submitted);
+            map.put("completed", completed);
+            map.put("failed", failed);
+            map.put("maxInFlight", maxInFlight);
+            map.put("peakInFlight", peakInFlight);
+            return map;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+/**
+ * Classificação de uma tarefa submetida ao {@link HybridExecutor}.
+ */
+public enum TaskKind {
+    /** Tarefa que passa a maior parte do tempo esperando I/O: vai para uma Virtual Thread por tarefa. */
+    BLOCKING,
+    /** Tarefa que ocupa CPU: vai para o ForkJoinPool limitado ao número de núcleos. */
+    CPU_BOUND
+}
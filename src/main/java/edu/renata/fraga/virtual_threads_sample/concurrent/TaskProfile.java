@@ -0,0 +1,18 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declara explicitamente o tipo de uma tarefa ({@link Runnable} ou {@link java.util.concurrent.Callable})
+ * submetida ao {@link HybridExecutor}, dispensando a classificação por medição.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TaskProfile {
+    TaskKind value();
+}
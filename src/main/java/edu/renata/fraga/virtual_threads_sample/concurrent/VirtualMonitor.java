@@ -0,0 +1,99 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Substituto de monitor ({@code synchronized} + {@code wait}/{@code notifyAll}) que não prende a
+ * carrier no JDK 21: usa {@link ReentrantLock} e {@link Condition}, que desmontam a Virtual
+ * Thread enquanto ela espera.
+ * <p>
+ * Mapeamento para código legado: {@code synchronized (obj) { ... }} vira {@link #run} ou
+ * {@link #call}; {@code while (!cond) obj.wait()} vira {@link #awaitUntil}; {@code notifyAll()}
+ * vira {@link #signalAll()}.
+ */
+public final class VirtualMonitor {
+
+    private final ReentrantLock lock;
+    private final Condition changed;
+
+    public VirtualMonitor() {
+        this(false);
+    }
+
+    public VirtualMonitor(boolean fair) {
+        this.lock = new ReentrantLock(fair);
+        this.changed = lock.newCondition();
+    }
+
+    public void run(Runnable action) {
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> T call(Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Espera, sem segurar o lock, até {@code condition} ser verdadeira ou o tempo acabar;
+     * retorna o valor final da condição.
+     */
+    public boolean awaitUntil(BooleanSupplier condition, Duration timeout) throws InterruptedException {
+        long remainingNanos = timeout.toNanos();
+        lock.lock();
+        try {
+            while (!condition.getAsBoolean()) {
+                if (remainingNanos <= 0) {
+                    return false;
+                }
+                remainingNanos = changed.awaitNanos(remainingNanos);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Equivalente a {@code Object.wait(timeout)}: espera um sinal ou o fim do prazo.
+     */
+    public boolean await(Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            return changed.await(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Executa {@code action} sob o lock e acorda todas as threads esperando.
+     */
+    public void signalAll(Runnable action) {
+        lock.lock();
+        try {
+            action.run();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void signalAll() {
+        signalAll(() -> { });
+    }
+}
@@ -0,0 +1,587 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link Scheduler} do Reactor que executa as tarefas em Virtual Threads, com limite de
+ * concorrência, fila de pendentes limitada e métricas no Micrometer.
+ * <p>
+ * Diferente de {@code Schedulers.fromExecutor(Executors.newVirtualThreadPerTaskExecutor())}:
+ * <ul>
+ *     <li>no máximo {@code maxConcurrency} tarefas executam ao mesmo tempo; as demais esperam
+ *     na fila, que aceita até {@code maxPendingTasks} tarefas antes de rejeitar com
+ *     {@link java.util.concurrent.RejectedExecutionException};</li>
+ *     <li>cada {@link Worker} executa suas tarefas em ordem FIFO, uma por vez, como
+ *     {@code publishOn} exige;</li>
+ *     <li>tarefas com atraso ou periódicas são suportadas por Virtual Threads que dormem,
+ *     sem ocupar vagas de execução;</li>
+ *     <li>{@link #dispose()} cancela as pendentes, inclusive as que estão nas filas dos workers,
+ *     e interrompe as tarefas em execução; {@link #disposeGracefully()} espera a fila esvaziar.
+ *     Depois do dispose toda submissão é rejeitada.</li>
+ * </ul>
+ * Uma execução periódica rejeitada (fila cheia) encerra a tarefa periódica e o erro vai para
+ * {@link Operators#onErrorDropped}, que por padrão o registra no log do Reactor.
+ */
+public class VirtualThreadScheduler implements Scheduler {
+
+    private static final int WORKER_BATCH_SIZE = 64;
+
+    private final String name;
+    private final int maxConcurrency;
+    private final int maxPendingTasks;
+    private final ThreadFactory threadFactory;
+    private final ThreadFactory timerThreadFactory;
+
+    private final Queue<ScheduledTask> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final Set<Thread> activeThreads = ConcurrentHashMap.newKeySet();
+    private final Set<Disposable> delayedTasks = ConcurrentHashMap.newKeySet();
+    private final Set<SerialWorker> workers = ConcurrentHashMap.newKeySet();
+    private final CompletableFuture<Void> terminated = new CompletableFuture<>();
+    private volatile boolean shutdown;
+    /** Verdadeiro após {@link #dispose()}: nem a drenagem dos workers é mais aceita. */
+    private volatile boolean cancelled;
+
+    private final Counter submittedCounter;
+    private final Counter completedCounter;
+    private final Counter rejectedCounter;
+    private final Timer queueWaitTimer;
+    private final Timer executionTimer;
+
+    public VirtualThreadScheduler(String name, int maxConcurrency, int maxPendingTasks, MeterRegistry meterRegistry) {
+        if (maxConcurrency < 1 || maxPendingTasks < 1) {
+            throw new IllegalArgumentException("maxConcurrency and maxPendingTasks must be positive");
+        }
+        this.name = name;
+        this.maxConcurrency = maxConcurrency;
+        this.maxPendingTasks = maxPendingTasks;
+        this.threadFactory = Thread.ofVirtual().name(name + "-", 0).factory();
+        this.timerThreadFactory = Thread.ofVirtual().name(name + "-timer-", 0).factory();
+
+        this.submittedCounter = Counter.builder("vt.scheduler.tasks.submitted").tag("scheduler", name).register(meterRegistry);
+        this.completedCounter = Counter.builder("vt.scheduler.tasks.completed").tag("scheduler", name).register(meterRegistry);
+        this.rejectedCounter = Counter.builder("vt.scheduler.tasks.rejected").tag("scheduler", name).register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("vt.scheduler.queue.wait")
+                .description("Tempo entre o agendamento e o início da tarefa")
+                .tag("scheduler", name)
+                .register(meterRegistry);
+        this.executionTimer = Timer.builder("vt.scheduler.execution")
+                .description("Tempo de execução das tarefas")
+                .tag("scheduler", name)
+                .register(meterRegistry);
+        Gauge.builder("vt.scheduler.active", activeCount, AtomicInteger::get).tag("scheduler", name).register(meterRegistry);
+        Gauge.builder("vt.scheduler.pending", pendingCount, AtomicInteger::get).tag("scheduler", name).register(meterRegistry);
+    }
+
+    @Override
+    public Disposable schedule(Runnable task) {
+        reservePendingSlot();
+        ScheduledTask scheduledTask = new ScheduledTask(Schedulers.onSchedule(task), true);
+        enqueue(scheduledTask);
+        return scheduledTask;
+    }
+
+    @Override
+    public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+        return scheduleDelayed(this::schedule, delayedTasks, task, delay, unit);
+    }
+
+    @Override
+    public Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+        return schedulePeriodically(this::schedule, delayedTasks, task, initialDelay, period, unit);
+    }
+
+    @Override
+    public Worker createWorker() {
+        SerialWorker worker = new SerialWorker();
+        workers.add(worker);
+        if (shutdown) {
+            // Corrida com dispose(): o worker nasce descartado e rejeita submissões
+            worker.dispose();
+        }
+        return worker;
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return shutdown;
+    }
+
+    @Override
+    public void dispose() {
+        cancelled = true;
+        shutdown = true;
+        ScheduledTask task;
+        while ((task = pending.poll()) != null) {
+            task.dispose();
+            if (task.counted) {
+                pendingCount.decrementAndGet();
+            }
+        }
+        delayedTasks.forEach(Disposable::dispose);
+        workers.forEach(SerialWorker::dispose);
+        activeThreads.forEach(Thread::interrupt);
+        checkTermination();
+    }
+
+    @Override
+    public Mono<Void> disposeGracefully() {
+        return Mono.defer(() -> {
+            shutdown = true;
+            delayedTasks.forEach(Disposable::dispose);
+            checkTermination();
+            return Mono.fromFuture(terminated, true);
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getMaxPendingTasks() {
+        return maxPendingTasks;
+    }
+
+    public int getActiveCount() {
+        return activeCount.get();
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualThreadScheduler[" + name + ", maxConcurrency=" + maxConcurrency
+                + ", maxPendingTasks=" + maxPendingTasks + "]";
+    }
+
+    private void reservePendingSlot() {
+        if (shutdown) {
+            rejectedCounter.increment();
+            throw Exceptions.failWithRejected("Scheduler " + name + " is disposed");
+        }
+        if (pendingCount.incrementAndGet() > maxPendingTasks) {
+            pendingCount.decrementAndGet();
+            rejectedCounter.increment();
+            throw Exceptions.failWithRejected("Scheduler " + name + " has " + maxPendingTasks + " pending tasks");
+        }
+        submittedCounter.increment();
+    }
+
+    private void enqueue(ScheduledTask task) {
+        // dispose() pode acontecer depois de reservePendingSlot, ou um worker drenando pode
+        // tentar se reagendar; disposeGracefully() só recusa tarefas novas, não a drenagem
+        if (rejectsAfterShutdown(task)) {
+            reject(task);
+        }
+        pending.offer(task);
+        if (rejectsAfterShutdown(task) && pending.remove(task)) {
+            // dispose() esvaziou a fila entre a verificação e o offer
+            reject(task);
+        }
+        tryStartCarrier();
+    }
+
+    private boolean rejectsAfterShutdown(ScheduledTask task) {
+        return cancelled || (shutdown && task.counted);
+    }
+
+    private void reject(ScheduledTask task) {
+        if (task.counted) {
+            pendingCount.decrementAndGet();
+        }
+        task.dispose();
+        rejectedCounter.increment();
+        throw Exceptions.failWithRejected("Scheduler " + name + " is disposed");
+    }
+
+    private void tryStartCarrier() {
+        if (tryAcquireSlot()) {
+            threadFactory.newThread(this::drain).start();
+        }
+    }
+
+    private boolean tryAcquireSlot() {
+        for (;;) {
+            int active = activeCount.get();
+            if (active >= maxConcurrency || pending.isEmpty()) {
+                return false;
+            }
+            if (activeCount.compareAndSet(active, active + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Laço de uma Virtual Thread de execução: consome a fila enquanto houver tarefas,
+     * reaproveitando a mesma thread em vez de criar uma nova por tarefa enfileirada.
+     */
+    private void drain() {
+        Thread current = Thread.currentThread();
+        activeThreads.add(current);
+        try {
+            for (;;) {
+                ScheduledTask task = pending.poll();
+                if (task == null) {
+                    activeCount.decrementAndGet();
+                    // Uma tarefa pode ter entrado na fila entre o poll e o decremento
+                    if (!tryAcquireSlot()) {
+                        return;
+                    }
+                    continue;
+                }
+                if (task.counted) {
+                    pendingCount.decrementAndGet();
+                }
+                runTask(task);
+            }
+        } finally {
+            activeThreads.remove(current);
+            checkTermination();
+        }
+    }
+
+    private void runTask(ScheduledTask task) {
+        long start = System.nanoTime();
+        if (task.counted) {
+            queueWaitTimer.record(start - task.enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+        if (task.run() && task.counted) {
+            executionTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            completedCounter.increment();
+        }
+        // Uma interrupção causada por dispose() de uma tarefa não pode vazar para a próxima
+        Thread.interrupted();
+    }
+
+    private void checkTermination() {
+        if (shutdown && activeCount.get() == 0 && pending.isEmpty()) {
+            terminated.complete(null);
+        }
+    }
+
+    private Disposable scheduleDelayed(TaskSubmitter submitter, Set<Disposable> owner, Runnable task,
+                                       long delay, TimeUnit unit) {
+        if (shutdown) {
+            rejectedCounter.increment();
+            throw Exceptions.failWithRejected("Scheduler " + name + " is disposed");
+        }
+        if (delay <= 0) {
+            return submitter.submit(task);
+        }
+        DelayedTask delayedTask = new DelayedTask(owner);
+        delayedTask.start(() -> {
+            Thread.sleep(unit.toMillis(delay), (int) (unit.toNanos(delay) % 1_000_000));
+            delayedTask.setInner(submitter.submit(task));
+        });
+        return delayedTask;
+    }
+
+    private Disposable schedulePeriodically(TaskSubmitter submitter, Set<Disposable> owner, Runnable task,
+                                            long initialDelay, long period, TimeUnit unit) {
+        if (shutdown) {
+            rejectedCounter.increment();
+            throw Exceptions.failWithRejected("Scheduler " + name + " is disposed");
+        }
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be positive");
+        }
+        DelayedTask periodicTask = new DelayedTask(owner);
+        periodicTask.start(() -> {
+            long periodNanos = unit.toNanos(period);
+            long next = System.nanoTime() + unit.toNanos(initialDelay);
+            while (!periodicTask.isDisposed()) {
+                TimeUnit.NANOSECONDS.sleep(Math.max(0, next - System.nanoTime()));
+                // Uma execução por vez: a próxima só é agendada quando a anterior termina
+                CountDownLatch done = new CountDownLatch(1);
+                periodicTask.setInner(submitter.submit(() -> {
+                    try {
+                        task.run();
+                    } finally {
+                        done.countDown();
+                    }
+                }));
+                done.await();
+                next += periodNanos;
+            }
+        });
+        return periodicTask;
+    }
+
+    @FunctionalInterface
+    private interface TaskSubmitter {
+        Disposable submit(Runnable task);
+    }
+
+    @FunctionalInterface
+    private interface InterruptibleRunnable {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * Tarefa na fila do scheduler. {@code counted} é falso para as tarefas internas de
+     * drenagem dos workers, que não ocupam vaga na fila de pendentes.
+     */
+    private static final class ScheduledTask implements Disposable {
+
+        private static final int PENDING = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+        private static final int CANCELLED = 3;
+
+        private final Runnable task;
+        private final boolean counted;
+        private final long enqueuedAt = System.nanoTime();
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private volatile Thread runner;
+
+        ScheduledTask(Runnable task, boolean counted) {
+            this.task = task;
+            this.counted = counted;
+        }
+
+        /**
+         * @return {@code true} se a tarefa executou, {@code false} se já estava cancelada
+         */
+        boolean run() {
+            if (!state.compareAndSet(PENDING, RUNNING)) {
+                return false;
+            }
+            Thread current = Thread.currentThread();
+            runner = current;
+            try {
+                task.run();
+            } catch (Throwable error) {
+                Exceptions.throwIfJvmFatal(error);
+                current.getUncaughtExceptionHandler().uncaughtException(current, error);
+            } finally {
+                runner = null;
+                state.compareAndSet(RUNNING, DONE);
+            }
+            return true;
+        }
+
+        @Override
+        public void dispose() {
+            for (;;) {
+                int current = state.get();
+                if (current == DONE || current == CANCELLED) {
+                    return;
+                }
+                if (state.compareAndSet(current, CANCELLED)) {
+                    Thread thread = runner;
+                    if (current == RUNNING && thread != null) {
+                        thread.interrupt();
+                    }
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return state.get() >= DONE;
+        }
+    }
+
+    /**
+     * Tarefa com atraso ou periódica: uma Virtual Thread dorme até o momento de agendar a
+     * tarefa real ({@code inner}) no scheduler ou no worker. Enquanto pendente, fica registrada
+     * em {@code owner} para ser cancelada no dispose do scheduler ou do worker.
+     */
+    private final class DelayedTask implements Disposable {
+
+        private final Set<Disposable> owner;
+        private final AtomicBoolean disposed = new AtomicBoolean();
+        private final AtomicReference<Disposable> inner = new AtomicReference<>();
+        private volatile Thread timerThread;
+
+        DelayedTask(Set<Disposable> owner) {
+            this.owner = owner;
+        }
+
+        void start(InterruptibleRunnable body) {
+            owner.add(this);
+            Thread thread = timerThreadFactory.newThread(() -> {
+                try {
+                    body.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (RuntimeException e) {
+                    // Scheduler ou worker descartado durante a espera é o fim esperado; qualquer
+                    // outra rejeição (fila cheia) encerra a tarefa e precisa aparecer
+                    if (!disposed.getAndSet(true) && !shutdown) {
+                        Operators.onErrorDropped(e, Context.empty());
+                    }
+                } finally {
+                    owner.remove(this);
+                }
+            });
+            timerThread = thread;
+            thread.start();
+        }
+
+        void setInner(Disposable task) {
+            inner.set(task);
+            if (disposed.get()) {
+                task.dispose();
+            }
+        }
+
+        @Override
+        public void dispose() {
+            if (disposed.compareAndSet(false, true)) {
+                Thread thread = timerThread;
+                if (thread != null) {
+                    thread.interrupt();
+                }
+                Disposable task = inner.get();
+                if (task != null) {
+                    task.dispose();
+                }
+                owner.remove(this);
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed.get();
+        }
+    }
+
+    /**
+     * Worker que executa suas tarefas uma por vez, na ordem de agendamento. A drenagem roda
+     * como tarefa interna do scheduler e devolve a vaga a cada {@value #WORKER_BATCH_SIZE}
+     * tarefas para não monopolizar uma vaga de concorrência.
+     */
+    private final class SerialWorker implements Worker {
+
+        private final Queue<ScheduledTask> tasks = new ConcurrentLinkedQueue<>();
+        private final Set<Disposable> delayed = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean drainScheduled = new AtomicBoolean();
+        private volatile boolean disposed;
+        private volatile ScheduledTask running;
+
+        @Override
+        public Disposable schedule(Runnable task) {
+            if (disposed) {
+                rejectedCounter.increment();
+                throw Exceptions.failWithRejected("Worker is disposed");
+            }
+            reservePendingSlot();
+            ScheduledTask scheduledTask = new ScheduledTask(Schedulers.onSchedule(task), true);
+            tasks.offer(scheduledTask);
+            if (disposed && tasks.remove(scheduledTask)) {
+                // dispose() esvaziou a fila entre a verificação e o offer
+                pendingCount.decrementAndGet();
+                rejectedCounter.increment();
+                throw Exceptions.failWithRejected("Worker is disposed");
+            }
+            if (drainScheduled.compareAndSet(false, true)) {
+                try {
+                    enqueue(new ScheduledTask(this::drain, false));
+                } catch (RejectedExecutionException e) {
+                    drainScheduled.set(false);
+                    if (tasks.remove(scheduledTask)) {
+                        pendingCount.decrementAndGet();
+                    }
+                    throw e;
+                }
+            }
+            return scheduledTask;
+        }
+
+        @Override
+        public Disposable schedule(Runnable task, long delay, TimeUnit unit) {
+            return scheduleDelayed(this::schedule, delayed, task, delay, unit);
+        }
+
+        @Override
+        public Disposable schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+            return VirtualThreadScheduler.this.schedulePeriodically(this::schedule, delayed, task, initialDelay, period, unit);
+        }
+
+        @Override
+        public void dispose() {
+            disposed = true;
+            workers.remove(this);
+            ScheduledTask task;
+            while ((task = tasks.poll()) != null) {
+                task.dispose();
+                pendingCount.decrementAndGet();
+            }
+            delayed.forEach(Disposable::dispose);
+            ScheduledTask current = running;
+            if (current != null) {
+                // Interrompe a tarefa em execução, como o dispose do scheduler
+                current.dispose();
+            }
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+
+        private void drain() {
+            int processed = 0;
+            for (;;) {
+                ScheduledTask task;
+                while (!disposed && (task = tasks.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    running = task;
+                    if (disposed) {
+                        // dispose() não viu esta tarefa na fila nem em execução
+                        task.dispose();
+                    }
+                    runTask(task);
+                    running = null;
+                    if (++processed >= WORKER_BATCH_SIZE && !tasks.isEmpty()) {
+                        // Mantém drainScheduled=true e cede a vaga para outras tarefas
+                        try {
+                            enqueue(new ScheduledTask(this::drain, false));
+                        } catch (RejectedExecutionException e) {
+                            // Scheduler descartado: o dispose dele já cancelou a fila deste worker
+                            dispose();
+                        }
+                        return;
+                    }
+                }
+                drainScheduled.set(false);
+                if (disposed || tasks.isEmpty() || !drainScheduled.compareAndSet(false, true)) {
+                    return;
+                }
+            }
+        }
+    }
+}
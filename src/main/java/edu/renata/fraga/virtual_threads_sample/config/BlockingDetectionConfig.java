@@ -0,0 +1,30 @@
+package edu.renata.fraga.virtual_threads_sample.config;
+
+import edu.renata.fraga.virtual_threads_sample.diagnostics.BlockingCallDetector;
+import edu.renata.fraga.virtual_threads_sample.diagnostics.EndpointTrackingInterceptor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Modo de diagnóstico: instala o {@link BlockingCallDetector} na inicialização.
+ * Habilitado com {@code diagnostics.blocking-detector.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "diagnostics.blocking-detector", name = "enabled", havingValue = "true")
+public class BlockingDetectionConfig implements WebMvcConfigurer {
+
+    @Bean
+    BlockingCallDetector blockingCallDetector() {
+        BlockingCallDetector detector = BlockingCallDetector.getInstance();
+        detector.install();
+        return detector;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new EndpointTrackingInterceptor());
+    }
+}
@@ -0,0 +1,36 @@
+package edu.renata.fraga.virtual_threads_sample.config;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.PriorityAdmission;
+import edu.renata.fraga.virtual_threads_sample.web.RequestClassInterceptor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Aplica a admissão por prioridade das requisições HTTP ({@code requestAdmission}) com o
+ * {@link RequestClassInterceptor}.
+ */
+@Configuration
+public class PriorityAdmissionConfig implements WebMvcConfigurer {
+
+    private final PriorityAdmission requestAdmission;
+    private final String header;
+    private final Duration maxWait;
+
+    PriorityAdmissionConfig(@Qualifier("requestAdmission") PriorityAdmission requestAdmission,
+                            @Value("${priority.header:" + RequestClassInterceptor.DEFAULT_HEADER + "}") String header,
+                            @Value("${priority.requests.max-wait:10s}") Duration maxWait) {
+        this.requestAdmission = requestAdmission;
+        this.header = header;
+        this.maxWait = maxWait;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestClassInterceptor(requestAdmission, header, maxWait));
+    }
+}
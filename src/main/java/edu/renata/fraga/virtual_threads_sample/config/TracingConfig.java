@@ -0,0 +1,62 @@
+package edu.renata.fraga.virtual_threads_sample.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.virtual_threads_sample.tracing.BatchSpanExporter;
+import edu.renata.fraga.virtual_threads_sample.tracing.InMemoryCollector;
+import edu.renata.fraga.virtual_threads_sample.tracing.OtlpJsonFileSink;
+import edu.renata.fraga.virtual_threads_sample.tracing.Sampler;
+import edu.renata.fraga.virtual_threads_sample.tracing.SpanSink;
+import edu.renata.fraga.virtual_threads_sample.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    InMemoryCollector traceCollector(
+            @Value("${tracing.collector.max-traces:1000}") int maxTraces,
+            @Value("${tracing.collector.max-spans-per-trace:10000}") int maxSpansPerTrace) {
+        return new InMemoryCollector(maxTraces, maxSpansPerTrace);
+    }
+
+    @Bean(destroyMethod = "close")
+    BatchSpanExporter spanExporter(
+            InMemoryCollector traceCollector,
+            ObjectMapper objectMapper,
+            @Value("${spring.application.name}") String serviceName,
+            @Value("${tracing.exporter.file:}") String file,
+            @Value("${tracing.exporter.max-queue-size:65536}") int maxQueueSize,
+            @Value("${tracing.exporter.max-batch-size:2048}") int maxBatchSize) {
+        List<SpanSink> sinks = new ArrayList<>();
+        sinks.add(traceCollector);
+        if (!file.isBlank()) {
+            try {
+                sinks.add(new OtlpJsonFileSink(objectMapper, serviceName, Path.of(file)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not open trace file " + file, e);
+            }
+        }
+        return new BatchSpanExporter(sinks, maxQueueSize, maxBatchSize);
+    }
+
+    @Bean
+    Tracer tracer(
+            BatchSpanExporter spanExporter,
+            @Value("${tracing.sampling.head-ratio:1.0}") double headRatio,
+            @Value("${tracing.sampling.tail.enabled:false}") boolean tailEnabled,
+            @Value("${tracing.sampling.tail.latency-threshold:0ms}") Duration tailLatencyThreshold,
+            @Value("${tracing.sampling.tail.keep-errors:true}") boolean tailKeepErrors,
+            @Value("${tracing.sampling.tail.max-spans-per-trace:10000}") int tailMaxSpansPerTrace) {
+        return new Tracer(new Sampler(headRatio, tailEnabled, tailLatencyThreshold, tailKeepErrors, tailMaxSpansPerTrace),
+                spanExporter);
+    }
+}
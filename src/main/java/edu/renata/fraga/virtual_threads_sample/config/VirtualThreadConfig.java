@@ -1,11 +1,19 @@
 package edu.renata.fraga.virtual_threads_sample.config;
 
+import edu.renata.fraga.virtual_threads_sample.concurrent.HybridExecutor;
+import edu.renata.fraga.virtual_threads_sample.concurrent.PriorityAdmission;
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import edu.renata.fraga.virtual_threads_sample.concurrent.VirtualThreadScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import reactor.core.scheduler.Scheduler;
-import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 
@@ -13,13 +21,63 @@ import java.util.concurrent.Executors;
 @EnableAsync
 public class VirtualThreadConfig {
 
-    @Bean
-    Scheduler virtualThreadScheduler() {
-        return Schedulers.fromExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    @Bean(destroyMethod = "dispose")
+    Scheduler virtualThreadScheduler(
+            MeterRegistry meterRegistry,
+            @Value("${virtual-threads.scheduler.max-concurrency:10000}") int maxConcurrency,
+            @Value("${virtual-threads.scheduler.max-pending-tasks:100000}") int maxPendingTasks) {
+        return new VirtualThreadScheduler("vt-scheduler", maxConcurrency, maxPendingTasks, meterRegistry);
     }
 
     @Bean
     Executor virtualThreadExecutor() {
         return Executors.newVirtualThreadPerTaskExecutor();
     }
+
+    @Bean
+    HybridExecutor hybridExecutor(MeterRegistry meterRegistry) {
+        return new HybridExecutor(meterRegistry);
+    }
+
+    /**
+     * Admissão das requisições HTTP, aplicada pelo {@code RequestClassInterceptor}. Parte das
+     * vagas fica reservada às requisições interativas.
+     */
+    @Bean(destroyMethod = "close")
+    PriorityAdmission requestAdmission(
+            MeterRegistry meterRegistry,
+            @Value("${priority.requests.max-concurrency:1000}") int maxConcurrency,
+            @Value("${priority.requests.interactive-reserve:100}") int interactiveReserve,
+            @Value("${priority.weights.interactive:16}") int interactiveWeight,
+            @Value("${priority.weights.batch:4}") int batchWeight,
+            @Value("${priority.weights.benchmark:1}") int benchmarkWeight,
+            @Value("${priority.starvation-threshold:2s}") Duration starvationThreshold) {
+        return new PriorityAdmission("requests", maxConcurrency, interactiveReserve,
+                weights(interactiveWeight, batchWeight, benchmarkWeight), starvationThreshold, meterRegistry);
+    }
+
+    /**
+     * Admissão das subtarefas que os endpoints espalham em Virtual Threads. Separada da admissão
+     * das requisições para que uma requisição admitida nunca espere por uma vaga ocupada pelas
+     * próprias subtarefas.
+     */
+    @Bean(destroyMethod = "close")
+    PriorityAdmission taskAdmission(
+            MeterRegistry meterRegistry,
+            @Value("${priority.tasks.max-concurrency:10000}") int maxConcurrency,
+            @Value("${priority.weights.interactive:16}") int interactiveWeight,
+            @Value("${priority.weights.batch:4}") int batchWeight,
+            @Value("${priority.weights.benchmark:1}") int benchmarkWeight,
+            @Value("${priority.starvation-threshold:2s}") Duration starvationThreshold) {
+        return new PriorityAdmission("tasks", maxConcurrency,
+                weights(interactiveWeight, batchWeight, benchmarkWeight), starvationThreshold, meterRegistry);
+    }
+
+    private static Map<RequestClass, Integer> weights(int interactive, int batch, int benchmark) {
+        Map<RequestClass, Integer> weights = new EnumMap<>(RequestClass.class);
+        weights.put(RequestClass.INTERACTIVE, interactive);
+        weights.put(RequestClass.BATCH, batch);
+        weights.put(RequestClass.BENCHMARK, benchmark);
+        return weights;
+    }
 }
@@ -0,0 +1,93 @@
+package edu.renata.fraga.virtual_threads_sample.config;
+
+import edu.renata.fraga.virtual_threads_sample.websocket.FanoutModel;
+import edu.renata.fraga.virtual_threads_sample.websocket.ProgressFeed;
+import edu.renata.fraga.virtual_threads_sample.websocket.ReactiveFanoutHandler;
+import edu.renata.fraga.virtual_threads_sample.websocket.VirtualThreadFanoutEndpoint;
+import jakarta.servlet.ServletContext;
+import jakarta.websocket.DeploymentException;
+import jakarta.websocket.server.ServerContainer;
+import jakarta.websocket.server.ServerEndpointConfig;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ServletHttpHandlerAdapter;
+import org.springframework.web.context.ServletContextAware;
+import org.springframework.web.reactive.socket.server.support.HandshakeWebSocketService;
+import org.springframework.web.reactive.socket.server.upgrade.TomcatRequestUpgradeStrategy;
+import org.springframework.web.server.adapter.WebHttpHandlerBuilder;
+
+/**
+ * Registra os dois endpoints WebSocket de {@link FanoutModel} no Tomcat da aplicação.
+ * <p>
+ * O endpoint de Virtual Threads é um {@code Endpoint} JSR-356 adicionado ao {@link ServerContainer}
+ * do Tomcat. O reativo é um {@code WebSocketHandler} do WebFlux servido por um
+ * {@link ServletHttpHandlerAdapter} próprio, já que a aplicação roda na pilha Servlet: o upgrade é
+ * feito pelo {@link TomcatRequestUpgradeStrategy}, na mesma porta.
+ */
+@Configuration
+public class WebSocketConfig {
+
+    @Bean
+    ServletRegistrationBean<ServletHttpHandlerAdapter> reactiveFanoutServlet(ReactiveFanoutHandler handler) {
+        HandshakeWebSocketService webSocketService = new HandshakeWebSocketService(new TomcatRequestUpgradeStrategy());
+        HttpHandler httpHandler = WebHttpHandlerBuilder
+                .webHandler(exchange -> webSocketService.handleRequest(exchange, handler))
+                .build();
+
+        ServletRegistrationBean<ServletHttpHandlerAdapter> registration = new ServletRegistrationBean<>(
+                new ServletHttpHandlerAdapter(httpHandler), FanoutModel.REACTIVE_SHARED_PUBLISHER.path() + "/*");
+        registration.setName("reactiveWebSocketFanout");
+        registration.setAsyncSupported(true);
+        return registration;
+    }
+
+    @Bean
+    VirtualThreadFanoutEndpointRegistrar virtualThreadFanoutEndpointRegistrar(ProgressFeed progressFeed) {
+        return new VirtualThreadFanoutEndpointRegistrar(progressFeed);
+    }
+
+    /**
+     * O {@link ServerContainer} só existe depois que o Tomcat inicia o contexto; o registro é feito
+     * quando todos os beans já foram criados, como no {@code ServerEndpointExporter} do Spring.
+     * Sem container (testes com MockMvc), nada é registrado.
+     */
+    static class VirtualThreadFanoutEndpointRegistrar implements ServletContextAware, SmartInitializingSingleton {
+
+        private final ProgressFeed progressFeed;
+        private ServletContext servletContext;
+
+        VirtualThreadFanoutEndpointRegistrar(ProgressFeed progressFeed) {
+            this.progressFeed = progressFeed;
+        }
+
+        @Override
+        public void setServletContext(ServletContext servletContext) {
+            this.servletContext = servletContext;
+        }
+
+        @Override
+        public void afterSingletonsInstantiated() {
+            if (servletContext == null
+                    || !(servletContext.getAttribute(ServerContainer.class.getName()) instanceof ServerContainer container)) {
+                return;
+            }
+            ServerEndpointConfig config = ServerEndpointConfig.Builder
+                    .create(VirtualThreadFanoutEndpoint.class, FanoutModel.VIRTUAL_THREAD_PER_CONNECTION.path())
+                    .configurator(new ServerEndpointConfig.Configurator() {
+                        @Override
+                        public <T> T getEndpointInstance(Class<T> endpointClass) {
+                            return endpointClass.cast(new VirtualThreadFanoutEndpoint(progressFeed));
+                        }
+                    })
+                    .build();
+            try {
+                container.addEndpoint(config);
+            } catch (DeploymentException e) {
+                throw new IllegalStateException("Could not register " + config.getPath(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.PriorityAdmission;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admission")
+@Tag(name = "Admission API", description = "Admissão por classe de requisição (interactive, batch, benchmark) com filas justas ponderadas")
+public class AdmissionController {
+
+    @Autowired
+    private PriorityAdmission requestAdmission;
+
+    @Autowired
+    private PriorityAdmission taskAdmission;
+
+    @Operation(
+            summary = "Estado da admissão",
+            description = "Vagas em uso, fila, admissões, promoções por envelhecimento e percentis da espera na fila "
+                    + "por classe, para as requisições e para as subtarefas"
+    )
+    @ApiResponse(responseCode = "200", description = "Estado retornado")
+    @GetMapping
+    public Map<String, Object> stats() {
+        return Map.of(
+                "requests", requestAdmission.stats(),
+                "tasks", taskAdmission.stats()
+        );
+    }
+
+    @Operation(summary = "Zerar estatísticas", description = "Zera contadores e histogramas de espera das duas admissões")
+    @ApiResponse(responseCode = "200", description = "Estatísticas zeradas")
+    @DeleteMapping
+    public Map<String, Object> reset() {
+        requestAdmission.resetStats();
+        taskAdmission.resetStats();
+        return stats();
+    }
+}
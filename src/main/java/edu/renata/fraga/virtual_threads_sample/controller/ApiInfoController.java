@@ -1,26 +1,80 @@
 package edu.renata.fraga.virtual_threads_sample.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.virtual_threads_sample.metrics.JvmTelemetrySampler;
+import edu.renata.fraga.virtual_threads_sample.web.CachedJsonResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.Duration;
 import java.util.Map;
 
+/**
+ * As respostas são serializadas uma vez e servidas como bytes com ETag forte; clientes que
+ * enviam {@code If-None-Match} recebem 304. As estatísticas de memória são reamostradas a cada
+ * {@code api.system-info.sampling-interval}, não a cada requisição.
+ * <p>
+ * Para acompanhamento contínuo, {@code /api/system-info/stream} envia por SSE os frames do
+ * {@link JvmTelemetrySampler}, calculados uma vez por intervalo para todos os inscritos.
+ */
 @RestController
 @RequestMapping("/api")
 @Tag(name = "API Info", description = "Informações sobre a API e links úteis")
 public class ApiInfoController {
 
+    private final CachedJsonResponse apiInfo;
+    private final CachedJsonResponse systemInfo;
+    private final JvmTelemetrySampler telemetrySampler;
+
+    public ApiInfoController(ObjectMapper objectMapper,
+                             @Value("${api.system-info.sampling-interval:1s}") Duration samplingInterval,
+                             JvmTelemetrySampler telemetrySampler) {
+        this.telemetrySampler = telemetrySampler;
+        this.apiInfo = CachedJsonResponse.of(objectMapper, buildApiInfo());
+        this.systemInfo = CachedJsonResponse.sampled(objectMapper, ApiInfoController::buildSystemInfo, samplingInterval);
+    }
+
     @Operation(
             summary = "Informações da API",
             description = "Retorna informações básicas sobre a API e links para documentação"
     )
     @ApiResponse(responseCode = "200", description = "Informações da API retornadas com sucesso")
+    @ApiResponse(responseCode = "304", description = "Conteúdo não mudou desde o ETag enviado em If-None-Match")
     @GetMapping("/info")
-    public Map<String, Object> getApiInfo() {
+    public ResponseEntity<byte[]> getApiInfo() {
+        return apiInfo.toResponseEntity();
+    }
+
+    @Operation(
+            summary = "Informações do Sistema",
+            description = "Retorna informações sobre o ambiente de execução atual; a memória é amostrada periodicamente"
+    )
+    @ApiResponse(responseCode = "200", description = "Informações do sistema retornadas com sucesso")
+    @ApiResponse(responseCode = "304", description = "Conteúdo não mudou desde o ETag enviado em If-None-Match")
+    @GetMapping("/system-info")
+    public ResponseEntity<byte[]> getSystemInfo() {
+        return systemInfo.toResponseEntity();
+    }
+
+    @Operation(
+            summary = "Stream de telemetria da JVM",
+            description = "Envia por SSE, em intervalo fixo, heap, pausas de GC, carriers, Virtual Threads, CPU e taxa de alocação"
+    )
+    @ApiResponse(responseCode = "200", description = "Stream de eventos 'telemetry' iniciado")
+    @GetMapping(value = "/system-info/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamSystemInfo() {
+        return telemetrySampler.subscribe();
+    }
+
+    private static Map<String, Object> buildApiInfo() {
         return Map.of(
                 "name", "Virtual Threads Sample API",
                 "version", "1.0.0",
@@ -40,15 +94,10 @@ public class ApiInfoController {
         );
     }
 
-    @Operation(
-            summary = "Informações do Sistema",
-            description = "Retorna informações sobre o ambiente de execução atual"
-    )
-    @ApiResponse(responseCode = "200", description = "Informações do sistema retornadas com sucesso")
-    @GetMapping("/system-info")
-    public Map<String, Object> getSystemInfo() {
+    private static Map<String, Object> buildSystemInfo() {
         Runtime runtime = Runtime.getRuntime();
-        
+
+        // A thread da requisição não entra aqui: a resposta é compartilhada (veja /api/virtual-threads/thread-info)
         return Map.of(
                 "jvm", Map.of(
                         "version", System.getProperty("java.version"),
@@ -61,14 +110,7 @@ public class ApiInfoController {
                         "max", runtime.maxMemory(),
                         "used", runtime.totalMemory() - runtime.freeMemory()
                 ),
-                "processors", runtime.availableProcessors(),
-                "currentThread", Map.of(
-                        "name", Thread.currentThread().getName(),
-                        "threadId", Thread.currentThread().threadId(),
-                        "virtual", Thread.currentThread().isVirtual(),
-                        "daemon", Thread.currentThread().isDaemon(),
-                        "priority", Thread.currentThread().getPriority()
-                )
+                "processors", runtime.availableProcessors()
         );
     }
 }
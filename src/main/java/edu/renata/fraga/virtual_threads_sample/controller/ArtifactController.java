@@ -0,0 +1,168 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.service.ArtifactService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Download de artefatos grandes sem copiar o arquivo para o heap.
+ * <p>
+ * Com o Tomcat, o arquivo é entregue via sendfile: o conector chama {@code FileChannel.transferTo}
+ * direto para o socket. Sem suporte a sendfile (ex.: MockMvc), o corpo é escrito com
+ * {@code FileChannel.transferTo} para o canal da resposta, em blocos.
+ */
+@RestController
+@RequestMapping("/api/artifacts")
+@Tag(name = "Artifacts API", description = "Geração e download zero-copy de artefatos grandes (dumps de threads, datasets)")
+public class ArtifactController {
+
+    static final String TRANSFER_MODE_HEADER = "X-Transfer-Mode";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final int MAX_DATASET_MB = 8192;
+
+    @Autowired
+    private ArtifactService artifactService;
+
+    @Operation(summary = "Listar artefatos", description = "Lista os artefatos disponíveis para download")
+    @ApiResponse(responseCode = "200", description = "Lista retornada com sucesso")
+    @GetMapping
+    public List<Map<String, Object>> list() {
+        return artifactService.list();
+    }
+
+    @Operation(
+            summary = "Gerar dump de threads",
+            description = "Grava um dump de todas as threads da JVM, incluindo Virtual Threads, em JSON"
+    )
+    @ApiResponse(responseCode = "200", description = "Dump gerado com sucesso")
+    @PostMapping("/thread-dump")
+    public Map<String, Object> createThreadDump() {
+        return artifactService.createThreadDump();
+    }
+
+    @Operation(summary = "Gerar dataset", description = "Gera (ou reaproveita) um dataset binário do tamanho informado")
+    @ApiResponse(responseCode = "200", description = "Dataset gerado com sucesso")
+    @PostMapping("/dataset")
+    public Map<String, Object> createDataset(
+            @Parameter(description = "Tamanho do dataset em MB (1 a 8192)", example = "512")
+            @RequestParam(defaultValue = "512") int sizeMb) {
+        if (sizeMb < 1 || sizeMb > MAX_DATASET_MB) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "sizeMb must be between 1 and " + MAX_DATASET_MB);
+        }
+        return artifactService.createDataset(sizeMb);
+    }
+
+    @Operation(summary = "Apagar artefato", description = "Remove um artefato do disco antes da retenção automática")
+    @ApiResponse(responseCode = "200", description = "Artefato apagado")
+    @ApiResponse(responseCode = "404", description = "Artefato não encontrado")
+    @DeleteMapping("/{name}")
+    public Map<String, Object> delete(@PathVariable String name) {
+        return artifactService.delete(name)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Artifact not found: " + name));
+    }
+
+    @Operation(
+            summary = "Baixar artefato",
+            description = "Entrega o arquivo sem passar pelo heap (sendfile/transferTo). Aceita um intervalo via cabeçalho Range"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Arquivo completo"),
+            @ApiResponse(responseCode = "206", description = "Intervalo solicitado no cabeçalho Range"),
+            @ApiResponse(responseCode = "404", description = "Artefato não encontrado"),
+            @ApiResponse(responseCode = "416", description = "Intervalo fora do tamanho do arquivo")
+    })
+    @GetMapping("/{name}")
+    public void download(@PathVariable String name, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Path file = artifactService.find(name)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Artifact not found: " + name));
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename(name).build().toString());
+
+            long start = 0;
+            long end = size - 1;
+            List<HttpRange> ranges = parseRanges(request.getHeader(HttpHeaders.RANGE));
+            // Apenas um intervalo é atendido; múltiplos intervalos recebem o arquivo completo
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(size);
+                end = ranges.get(0).getRangeEnd(size);
+                if (start >= size || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                    return;
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+            long length = end - start + 1;
+            response.setContentLengthLong(length);
+
+            if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+                response.setHeader(TRANSFER_MODE_HEADER, "sendfile");
+                request.setAttribute(SENDFILE_FILENAME, file.toString());
+                request.setAttribute(SENDFILE_START, start);
+                request.setAttribute(SENDFILE_END, end + 1);
+                return;
+            }
+
+            response.setHeader(TRANSFER_MODE_HEADER, "transferTo");
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+            response.flushBuffer();
+        }
+    }
+
+    private List<HttpRange> parseRanges(String rangeHeader) {
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            // Range malformado é ignorado, como permite a RFC 9110
+            return List.of();
+        }
+    }
+}
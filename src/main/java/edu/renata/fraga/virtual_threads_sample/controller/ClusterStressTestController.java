@@ -0,0 +1,79 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import edu.renata.fraga.virtual_threads_sample.service.DistributedStressTestService;
+import edu.renata.fraga.virtual_threads_sample.service.StressSliceRequest;
+import edu.renata.fraga.virtual_threads_sample.service.StressSliceResult;
+import edu.renata.fraga.virtual_threads_sample.service.WorkloadLimits;
+import edu.renata.fraga.virtual_threads_sample.web.RequestPriority;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cluster/stress-test")
+@Tag(name = "Cluster Stress Test API", description = "Stress test distribuído entre várias instâncias, com histogramas de latência combinados")
+@RequestPriority(RequestClass.BENCHMARK)
+public class ClusterStressTestController {
+
+    private static final long MAX_SLICE_START_DELAY_MS = 60_000;
+
+    @Autowired
+    private DistributedStressTestService distributedStressTestService;
+
+    @Operation(
+            summary = "Coordenar stress test distribuído",
+            description = "Divide as tarefas entre este nó e os peers de cluster.peers, inicia as fatias no mesmo instante "
+                    + "e reporta throughput e percentis do cluster"
+    )
+    @ApiResponse(responseCode = "200", description = "Stress test executado")
+    @GetMapping
+    public Map<String, Object> coordinate(
+            @Parameter(description = "Total de tarefas no cluster", example = "10000")
+            @RequestParam(defaultValue = "10000") int tasks,
+            @Parameter(description = "Duração do I/O simulado por tarefa em ms (0 a 60000)", example = "100")
+            @RequestParam(defaultValue = "100") long taskDurationMs,
+            @Parameter(description = "Se este nó também executa uma fatia", example = "true")
+            @RequestParam(defaultValue = "true") boolean includeSelf) {
+        validate(tasks, taskDurationMs);
+        try {
+            return distributedStressTestService.coordinate(tasks, taskDurationMs, includeSelf);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Operation(
+            summary = "Executar fatia",
+            description = "Chamado pelo coordenador: espera o instante combinado e executa a fatia neste nó"
+    )
+    @ApiResponse(responseCode = "200", description = "Fatia executada")
+    @PostMapping("/slice")
+    public StressSliceResult runSlice(@RequestBody StressSliceRequest slice) {
+        validate(slice.tasks(), slice.taskDurationMs());
+        if (slice.startAtEpochMillis() - System.currentTimeMillis() > MAX_SLICE_START_DELAY_MS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "startAtEpochMillis is too far in the future");
+        }
+        return distributedStressTestService.runSlice(slice);
+    }
+
+    private void validate(int tasks, long taskDurationMs) {
+        try {
+            WorkloadLimits.validateClusterStressTest(tasks, taskDurationMs);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
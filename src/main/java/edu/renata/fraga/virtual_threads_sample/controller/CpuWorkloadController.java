@@ -0,0 +1,77 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import edu.renata.fraga.virtual_threads_sample.service.CpuWorkload;
+import edu.renata.fraga.virtual_threads_sample.service.CpuWorkloadService;
+import edu.renata.fraga.virtual_threads_sample.service.ExecutionModel;
+import edu.renata.fraga.virtual_threads_sample.service.WorkloadLimits;
+import edu.renata.fraga.virtual_threads_sample.web.RequestPriority;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cpu-workloads")
+@Tag(name = "CPU Workloads API", description = "Cargas limitadas por CPU e mistas para comparar Virtual Threads, Platform Threads, ForkJoin e Reactor")
+@RequestPriority(RequestClass.BENCHMARK)
+public class CpuWorkloadController {
+
+    @Autowired
+    private CpuWorkloadService cpuWorkloadService;
+
+    @Operation(
+            summary = "Executar carga de CPU",
+            description = "Executa uma carga (HASHING, JSON, COMPRESSION, SORTING ou MIXED) no modelo de execução escolhido e reporta throughput e utilização de CPU"
+    )
+    @ApiResponse(responseCode = "200", description = "Carga executada com sucesso")
+    @ApiResponse(responseCode = "400", description = "Parâmetros fora dos limites")
+    @GetMapping("/run")
+    public Map<String, Object> run(
+            @Parameter(description = "Tipo de carga", example = "HASHING")
+            @RequestParam(defaultValue = "HASHING") CpuWorkload workload,
+            @Parameter(description = "Modelo de execução", example = "VIRTUAL_THREADS")
+            @RequestParam(defaultValue = "VIRTUAL_THREADS") ExecutionModel model,
+            @Parameter(description = "Número de tarefas (1 a 10000)", example = "100")
+            @RequestParam(defaultValue = "100") int tasks,
+            @Parameter(description = "Intensidade do trabalho por tarefa (1 a 100)", example = "10")
+            @RequestParam(defaultValue = "10") int intensity) {
+        validate(tasks, intensity);
+        return cpuWorkloadService.run(workload, model, tasks, intensity);
+    }
+
+    @Operation(
+            summary = "Comparar modelos de execução",
+            description = "Executa a mesma carga em todos os modelos de execução, em sequência"
+    )
+    @ApiResponse(responseCode = "200", description = "Comparação realizada com sucesso")
+    @ApiResponse(responseCode = "400", description = "Parâmetros fora dos limites")
+    @GetMapping("/compare")
+    public Map<String, Object> compare(
+            @Parameter(description = "Tipo de carga", example = "MIXED")
+            @RequestParam(defaultValue = "MIXED") CpuWorkload workload,
+            @Parameter(description = "Número de tarefas (1 a 10000)", example = "100")
+            @RequestParam(defaultValue = "100") int tasks,
+            @Parameter(description = "Intensidade do trabalho por tarefa (1 a 100)", example = "10")
+            @RequestParam(defaultValue = "10") int intensity) {
+        validate(tasks, intensity);
+        return cpuWorkloadService.compareExecutionModels(workload, tasks, intensity);
+    }
+
+    private void validate(int tasks, int intensity) {
+        try {
+            WorkloadLimits.validateCpuWorkload(tasks, intensity);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
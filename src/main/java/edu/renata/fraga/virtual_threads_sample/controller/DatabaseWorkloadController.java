@@ -0,0 +1,94 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import edu.renata.fraga.virtual_threads_sample.service.DatabaseWorkloadService;
+import edu.renata.fraga.virtual_threads_sample.service.WorkloadLimits;
+import edu.renata.fraga.virtual_threads_sample.web.RequestPriority;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/database-workloads")
+@Tag(name = "Database Workloads API", description = "JDBC bloqueante em Virtual Threads versus R2DBC em um H2 embarcado")
+@RequestPriority(RequestClass.BENCHMARK)
+public class DatabaseWorkloadController {
+
+    @Autowired
+    private DatabaseWorkloadService databaseWorkloadService;
+
+    @Operation(
+            summary = "JDBC em Virtual Threads",
+            description = "Executa consultas JDBC com pool HikariCP, uma Virtual Thread por consulta, e reporta espera por conexão, pinning e throughput"
+    )
+    @ApiResponse(responseCode = "200", description = "Consultas executadas com sucesso")
+    @GetMapping("/jdbc")
+    public Map<String, Object> jdbc(
+            @Parameter(description = "Número de consultas (1 a 100000)", example = "1000")
+            @RequestParam(defaultValue = "1000") int queries,
+            @Parameter(description = "Tamanho do pool de conexões (1 a 500)", example = "10")
+            @RequestParam(defaultValue = "10") int poolSize,
+            @Parameter(description = "Latência simulada de cada consulta em ms (0 a 1000)", example = "20")
+            @RequestParam(defaultValue = "20") int queryLatencyMs,
+            @Parameter(description = "Linhas lidas por consulta (1 a 10000)", example = "100")
+            @RequestParam(defaultValue = "100") int rows) {
+        validate(queries, poolSize, queryLatencyMs, rows);
+        return databaseWorkloadService.runJdbcOnVirtualThreads(queries, poolSize, queryLatencyMs, rows);
+    }
+
+    @Operation(
+            summary = "R2DBC reativo",
+            description = "Executa as mesmas consultas via R2DBC com r2dbc-pool e reporta espera por conexão e throughput"
+    )
+    @ApiResponse(responseCode = "200", description = "Consultas executadas com sucesso")
+    @GetMapping("/r2dbc")
+    public Map<String, Object> r2dbc(
+            @Parameter(description = "Número de consultas (1 a 100000)", example = "1000")
+            @RequestParam(defaultValue = "1000") int queries,
+            @Parameter(description = "Tamanho do pool de conexões (1 a 500)", example = "10")
+            @RequestParam(defaultValue = "10") int poolSize,
+            @Parameter(description = "Latência simulada de cada consulta em ms (0 a 1000)", example = "20")
+            @RequestParam(defaultValue = "20") int queryLatencyMs,
+            @Parameter(description = "Linhas lidas por consulta (1 a 10000)", example = "100")
+            @RequestParam(defaultValue = "100") int rows) {
+        validate(queries, poolSize, queryLatencyMs, rows);
+        return databaseWorkloadService.runR2dbc(queries, poolSize, queryLatencyMs, rows);
+    }
+
+    @Operation(
+            summary = "Comparar JDBC e R2DBC",
+            description = "Executa a mesma carga com JDBC em Virtual Threads e com R2DBC, em sequência"
+    )
+    @ApiResponse(responseCode = "200", description = "Comparação realizada com sucesso")
+    @GetMapping("/compare")
+    public Map<String, Object> compare(
+            @Parameter(description = "Número de consultas (1 a 100000)", example = "1000")
+            @RequestParam(defaultValue = "1000") int queries,
+            @Parameter(description = "Tamanho do pool de conexões (1 a 500)", example = "10")
+            @RequestParam(defaultValue = "10") int poolSize,
+            @Parameter(description = "Latência simulada de cada consulta em ms (0 a 1000)", example = "20")
+            @RequestParam(defaultValue = "20") int queryLatencyMs,
+            @Parameter(description = "Linhas lidas por consulta (1 a 10000)", example = "100")
+            @RequestParam(defaultValue = "100") int rows) {
+        validate(queries, poolSize, queryLatencyMs, rows);
+        return databaseWorkloadService.compare(queries, poolSize, queryLatencyMs, rows);
+    }
+
+    private void validate(int queries, int poolSize, int queryLatencyMs, int rows) {
+        try {
+            WorkloadLimits.validateDatabaseWorkload(queries, poolSize, queryLatencyMs, rows);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import edu.renata.fraga.virtual_threads_sample.dataset.ColumnarDataset;
+import edu.renata.fraga.virtual_threads_sample.dataset.DatasetQuery;
+import edu.renata.fraga.virtual_threads_sample.service.DatasetExecutionModel;
+import edu.renata.fraga.virtual_threads_sample.service.DatasetQueryService;
+import edu.renata.fraga.virtual_threads_sample.web.RequestPriority;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dataset")
+@Tag(name = "Dataset Query API", description = "Consultas de filtro e agregação sobre um dataset colunar particionado em memória, em Virtual Threads, parallelStream ou uma thread só")
+@RequestPriority(RequestClass.BENCHMARK)
+public class DatasetQueryController {
+
+    private static final long MAX_RECORDS = 20_000_000;
+    private static final long MAX_SWEEP_RECORDS = 5_000_000;
+    private static final int MAX_PARTITIONS = 4_096;
+    private static final int MAX_SWEEP_STEPS = 12;
+    private static final int MAX_ITERATIONS = 1_000;
+    private static final int MAX_WARMUP_ROUNDS = 20;
+
+    @Autowired
+    private DatasetQueryService datasetQueryService;
+
+    @Operation(
+            summary = "Gerar dataset",
+            description = "Substitui o dataset em memória por records vendas em colunas primitivas, divididas em partitions partições"
+    )
+    @ApiResponse(responseCode = "200", description = "Dataset gerado")
+    @ApiResponse(responseCode = "400", description = "Parâmetros inválidos")
+    @PostMapping
+    public Map<String, Object> generate(
+            @Parameter(description = "Número de vendas", example = "2000000")
+            @RequestParam(defaultValue = "2000000") long records,
+            @Parameter(description = "Número de partições", example = "16")
+            @RequestParam(defaultValue = "16") int partitions,
+            @Parameter(description = "Semente da geração", example = "42")
+            @RequestParam(defaultValue = "42") long seed) {
+        validateDataset(records, partitions, MAX_RECORDS);
+        return datasetQueryService.generate(records, partitions, seed);
+    }
+
+    @Operation(
+            summary = "Descrever dataset",
+            description = "Vendas, partições e bytes das colunas do dataset atual (gerado com os valores padrão se ainda não existir)"
+    )
+    @ApiResponse(responseCode = "200", description = "Descrição do dataset")
+    @GetMapping
+    public Map<String, Object> describe() {
+        return datasetQueryService.describe();
+    }
+
+    @Operation(
+            summary = "Consultar dataset",
+            description = "Filtra e agrega cada partição no modelo de execução escolhido e combina os agregados parciais, "
+                    + "reportando o resultado, a latência por consulta e por partição, o uso de CPU e os bytes alocados"
+    )
+    @ApiResponse(responseCode = "200", description = "Consulta executada com sucesso")
+    @ApiResponse(responseCode = "400", description = "Parâmetros inválidos")
+    @GetMapping("/query")
+    public Map<String, Object> query(
+            @Parameter(description = "Modelo de execução", example = "VIRTUAL_THREADS")
+            @RequestParam(defaultValue = "VIRTUAL_THREADS") DatasetExecutionModel model,
+            @Parameter(description = "Região (0 a 15), ou -1 para todas", example = "-1")
+            @RequestParam(defaultValue = "-1") int region,
+            @Parameter(description = "Menor categoria aceita", example = "0")
+            @RequestParam(defaultValue = "0") int minCategory,
+            @Parameter(description = "Maior categoria aceita", example = "999")
+            @RequestParam(defaultValue = "999") int maxCategory,
+            @Parameter(description = "Menor preço unitário aceito, em centavos", example = "0")
+            @RequestParam(defaultValue = "0") long minPriceCents,
+            @Parameter(description = "Primeiro dia do ano aceito", example = "0")
+            @RequestParam(defaultValue = "0") int fromDay,
+            @Parameter(description = "Último dia do ano aceito", example = "364")
+            @RequestParam(defaultValue = "364") int toDay,
+            @Parameter(description = "Medida agregada", example = "REVENUE_CENTS")
+            @RequestParam(defaultValue = "REVENUE_CENTS") DatasetQuery.Measure measure,
+            @Parameter(description = "Agrupamento", example = "NONE")
+            @RequestParam(defaultValue = "NONE") DatasetQuery.GroupBy groupBy,
+            @Parameter(description = "Repetições da consulta", example = "10")
+            @RequestParam(defaultValue = "10") int iterations) {
+        validateIterations(iterations);
+        DatasetQuery query = query(region, minCategory, maxCategory, minPriceCents, fromDay, toDay, measure, groupBy);
+        return datasetQueryService.query(query, model, iterations);
+    }
+
+    @Operation(
+            summary = "Comparar modelos de execução",
+            description = "Executa a mesma consulta em Virtual Threads, parallelStream e uma thread só, em rodadas intercaladas "
+                    + "em ordem sorteada, depois de rodadas de aquecimento descartadas, com teste t de Welch entre os modelos"
+    )
+    @ApiResponse(responseCode = "200", description = "Comparação realizada com sucesso")
+    @ApiResponse(responseCode = "400", description = "Parâmetros inválidos")
+    @GetMapping("/query/compare")
+    public Map<String, Object> compare(
+            @Parameter(description = "Região (0 a 15), ou -1 para todas", example = "-1")
+            @RequestParam(defaultValue = "-1") int region,
+            @Parameter(description = "Menor categoria aceita", example = "0")
+            @RequestParam(defaultValue = "0") int minCategory,
+            @Parameter(description = "Maior categoria aceita", example = "999")
+            @RequestParam(defaultValue = "999") int maxCategory,
+            @Parameter(description = "Menor preço unitário aceito, em centavos", example = "0")
+            @RequestParam(defaultValue = "0") long minPriceCents,
+            @Parameter(description = "Primeiro dia do ano aceito", example = "0")
+            @RequestParam(defaultValue = "0") int fromDay,
+            @Parameter(description = "Último dia do ano aceito", example = "364")
+            @RequestParam(defaultValue = "364") int toDay,
+            @Parameter(description = "Medida agregada", example = "REVENUE_CENTS")
+            @RequestParam(defaultValue = "REVENUE_CENTS") DatasetQuery.Measure measure,
+            @Parameter(description = "Agrupamento", example = "NONE")
+            @RequestParam(defaultValue = "NONE") DatasetQuery.GroupBy groupBy,
+            @Parameter(description = "Rodadas de aquecimento descartadas", example = "2")
+            @RequestParam(defaultValue = "2") int warmupRounds,
+            @Parameter(description = "Rodadas medidas; em cada uma cada modelo executa a consulta uma vez", example = "10")
+            @RequestParam(defaultValue = "10") int iterations,
+            @Parameter(description = "Semente da ordem das rodadas", example = "42")
+            @RequestParam(defaultValue = "42") long seed) {
+        validateIterations(iterations);
+        validateWarmupRounds(warmupRounds);
+        DatasetQuery query = query(region, minCategory, maxCategory, minPriceCents, fromDay, toDay, measure, groupBy);
+        return datasetQueryService.compareExecutionModels(query, warmupRounds, iterations, seed);
+    }
+
+    @Operation(
+            summary = "Variar o número de partições",
+            description = "Gera os mesmos dados divididos em cada número de partições e compara os modelos de execução em cada divisão, "
+                    + "em rodadas intercaladas depois do aquecimento, sem alterar o dataset atual"
+    )
+    @ApiResponse(responseCode = "200", description = "Varredura realizada com sucesso")
+    @ApiResponse(responseCode = "400", description = "Parâmetros inválidos")
+    @GetMapping("/partition-sweep")
+    public Map<String, Object> partitionSweep(
+            @Parameter(description = "Número de vendas", example = "1000000")
+            @RequestParam(defaultValue = "1000000") long records,
+            @Parameter(description = "Números de partições comparados", example = "1,4,16,64,256")
+            @RequestParam(defaultValue = "1,4,16,64,256") List<Integer> partitionCounts,
+            @Parameter(description = "Semente da geração e da ordem das rodadas", example = "42")
+            @RequestParam(defaultValue = "42") long seed,
+            @Parameter(description = "Medida agregada", example = "REVENUE_CENTS")
+            @RequestParam(defaultValue = "REVENUE_CENTS") DatasetQuery.Measure measure,
+            @Parameter(description = "Agrupamento", example = "REGION")
+            @RequestParam(defaultValue = "REGION") DatasetQuery.GroupBy groupBy,
+            @Parameter(description = "Rodadas de aquecimento descartadas em cada divisão", example = "2")
+            @RequestParam(defaultValue = "2") int warmupRounds,
+            @Parameter(description = "Rodadas medidas em cada divisão", example = "5")
+            @RequestParam(defaultValue = "5") int iterations) {
+        if (partitionCounts.isEmpty() || partitionCounts.size() > MAX_SWEEP_STEPS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "partitionCounts must have between 1 and " + MAX_SWEEP_STEPS + " values");
+        }
+        partitionCounts.forEach(partitions -> validateDataset(records, partitions, MAX_SWEEP_RECORDS));
+        validateIterations(iterations);
+        validateWarmupRounds(warmupRounds);
+        DatasetQuery query = new DatasetQuery(DatasetQuery.ANY_REGION, 0, ColumnarDataset.CATEGORIES - 1, 0,
+                0, ColumnarDataset.DAYS - 1, measure, groupBy);
+        return datasetQueryService.partitionSweep(records, partitionCounts, seed, query, warmupRounds, iterations);
+    }
+
+    private DatasetQuery query(int region, int minCategory, int maxCategory, long minPriceCents, int fromDay, int toDay,
+                               DatasetQuery.Measure measure, DatasetQuery.GroupBy groupBy) {
+        try {
+            return new DatasetQuery(region, minCategory, maxCategory, minPriceCents, fromDay, toDay, measure, groupBy);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    private void validateDataset(long records, int partitions, long maxRecords) {
+        if (records < 1 || records > maxRecords || partitions < 1 || partitions > MAX_PARTITIONS || partitions > records) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "records must be between 1 and " + maxRecords + " and partitions between 1 and "
+                            + MAX_PARTITIONS + " (and at most records)");
+        }
+    }
+
+    private void validateIterations(int iterations) {
+        if (iterations < 1 || iterations > MAX_ITERATIONS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "iterations must be between 1 and " + MAX_ITERATIONS);
+        }
+    }
+
+    private void validateWarmupRounds(int warmupRounds) {
+        if (warmupRounds < 0 || warmupRounds > MAX_WARMUP_ROUNDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "warmupRounds must be between 0 and " + MAX_WARMUP_ROUNDS);
+        }
+    }
+}
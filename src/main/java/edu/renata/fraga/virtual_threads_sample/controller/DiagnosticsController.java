@@ -0,0 +1,43 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.diagnostics.BlockingCallDetector;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/diagnostics")
+@Tag(name = "Diagnostics API", description = "Diagnóstico de chamadas bloqueantes em threads não bloqueantes")
+public class DiagnosticsController {
+
+    private final BlockingCallDetector blockingCallDetector = BlockingCallDetector.getInstance();
+
+    @Operation(
+            summary = "Chamadas bloqueantes detectadas",
+            description = "Retorna as chamadas bloqueantes detectadas em event loops e schedulers não bloqueantes, agrupadas por endpoint"
+    )
+    @ApiResponse(responseCode = "200", description = "Relatório retornado com sucesso")
+    @GetMapping("/blocking-calls")
+    public Map<String, Object> blockingCalls() {
+        return Map.of(
+                "enabled", blockingCallDetector.isInstalled(),
+                "totalViolations", blockingCallDetector.totalViolations(),
+                "countsByEndpoint", blockingCallDetector.countsByEndpoint(),
+                "recentViolations", blockingCallDetector.recentViolations()
+        );
+    }
+
+    @Operation(summary = "Limpar relatório", description = "Zera os contadores e as violações registradas")
+    @ApiResponse(responseCode = "200", description = "Relatório zerado")
+    @DeleteMapping("/blocking-calls")
+    public Map<String, Object> resetBlockingCalls() {
+        blockingCallDetector.reset();
+        return Map.of("enabled", blockingCallDetector.isInstalled(), "totalViolations", 0L);
+    }
+}
@@ -0,0 +1,125 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.jobs.Job;
+import edu.renata.fraga.virtual_threads_sample.jobs.JobService;
+import edu.renata.fraga.virtual_threads_sample.jobs.JobStatus;
+import edu.renata.fraga.virtual_threads_sample.jobs.JobType;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+@RestController
+@RequestMapping("/api/jobs")
+@Tag(name = "Jobs API", description = "Execuções longas como jobs assíncronos: iniciar, acompanhar, buscar resultado e cancelar")
+public class JobController {
+
+    @Autowired
+    private JobService jobService;
+
+    @Operation(
+            summary = "Iniciar job",
+            description = "Enfileira uma execução longa e retorna o ID do job; os demais parâmetros da query são repassados "
+                    + "ao job com os mesmos nomes do endpoint síncrono"
+    )
+    @ApiResponse(responseCode = "202", description = "Job aceito; Location aponta para o status")
+    @ApiResponse(responseCode = "400", description = "Parâmetro do job inválido")
+    @ApiResponse(responseCode = "429", description = "Faixa de jobs cheia (jobs.max-concurrent + jobs.max-queued)")
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> submit(
+            @Parameter(description = "Tipo de job", example = "VIRTUAL_THREADS_COMPARE")
+            @RequestParam JobType type,
+            @Parameter(hidden = true)
+            @RequestParam Map<String, String> parameters) {
+        Map<String, String> jobParameters = new HashMap<>(parameters);
+        jobParameters.remove("type");
+        try {
+            Job job = jobService.submit(type, jobParameters);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/jobs/" + job.getId()))
+                    .body(job.toSummary());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Job lane is full, try again later");
+        }
+    }
+
+    @Operation(summary = "Listar jobs", description = "Jobs em andamento e os últimos jobs concluídos, com a ocupação da faixa de jobs")
+    @ApiResponse(responseCode = "200", description = "Jobs listados")
+    @GetMapping
+    public Map<String, Object> list() {
+        List<Map<String, Object>> jobs = jobService.list().stream().map(Job::toSummary).toList();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("lane", jobService.laneStats());
+        response.put("jobs", jobs);
+        return response;
+    }
+
+    @Operation(summary = "Status do job", description = "Status, progresso e fase atual do job")
+    @ApiResponse(responseCode = "200", description = "Status retornado")
+    @ApiResponse(responseCode = "404", description = "Job não encontrado")
+    @GetMapping("/{jobId}")
+    public Map<String, Object> status(@PathVariable String jobId) {
+        return findJob(jobId).toSummary();
+    }
+
+    @Operation(summary = "Resultado do job", description = "Resultado do job concluído com sucesso")
+    @ApiResponse(responseCode = "200", description = "Resultado retornado")
+    @ApiResponse(responseCode = "404", description = "Job não encontrado")
+    @ApiResponse(responseCode = "409", description = "Job ainda em andamento, cancelado ou com falha")
+    @GetMapping("/{jobId}/result")
+    public Object result(@PathVariable String jobId) {
+        Job job = findJob(jobId);
+        if (job.getStatus() != JobStatus.SUCCEEDED) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job " + jobId + " is " + job.getStatus());
+        }
+        return job.getResult();
+    }
+
+    @Operation(summary = "Stream de progresso", description = "Envia por SSE um evento 'progress' a cada mudança do job até o status final")
+    @ApiResponse(responseCode = "200", description = "Stream iniciado")
+    @ApiResponse(responseCode = "404", description = "Job não encontrado")
+    @GetMapping(value = "/{jobId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable String jobId) {
+        return jobService.stream(findJob(jobId));
+    }
+
+    @Operation(summary = "Cancelar job", description = "Cancela um job na fila ou interrompe um job em execução")
+    @ApiResponse(responseCode = "200", description = "Job cancelado")
+    @ApiResponse(responseCode = "404", description = "Job não encontrado")
+    @ApiResponse(responseCode = "409", description = "Job já tinha terminado")
+    @DeleteMapping("/{jobId}")
+    public Map<String, Object> cancel(@PathVariable String jobId) {
+        Job job = findJob(jobId);
+        if (!jobService.cancel(jobId)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Job " + jobId + " is already " + job.getStatus());
+        }
+        return job.toSummary();
+    }
+
+    private Job findJob(String jobId) {
+        return jobService.find(jobId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job not found: " + jobId));
+    }
+}
@@ -0,0 +1,94 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.simulation.LatencySimulator;
+import edu.renata.fraga.virtual_threads_sample.simulation.LatencyTrace;
+import edu.renata.fraga.virtual_threads_sample.simulation.ReplayMode;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@RestController
+@RequestMapping("/api/latency-traces")
+@Tag(name = "Latency Traces API", description = "Traces de latência capturados que substituem os sleeps fixos das cargas simuladas")
+public class LatencyTraceController {
+
+    @Autowired
+    private LatencySimulator latencySimulator;
+
+    @Operation(
+            summary = "Carregar trace CSV",
+            description = "Uma linha por chamada com latencyMs e, opcionalmente, arrivalMs e error (true/false, 1/0 ou status HTTP). "
+                    + "A partir daí os endpoints de demonstração sorteiam ou reproduzem essas latências e erros"
+    )
+    @ApiResponse(responseCode = "200", description = "Trace carregado")
+    @ApiResponse(responseCode = "400", description = "CSV inválido ou modo incompatível com o trace")
+    @PostMapping(value = "/csv", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public Map<String, Object> loadCsv(
+            @RequestBody String csv,
+            @Parameter(description = "SAMPLE sorteia as linhas; REPLAY usa as linhas na ordem", example = "SAMPLE")
+            @RequestParam(defaultValue = "SAMPLE") ReplayMode mode,
+            @Parameter(description = "Submete as tarefas nos instantes de arrivalMs", example = "false")
+            @RequestParam(defaultValue = "false") boolean replayArrivals,
+            @Parameter(description = "Semente do sorteio", example = "42")
+            @RequestParam(defaultValue = "42") long seed) {
+        return load(() -> LatencyTrace.fromCsv(csv), mode, replayArrivals, seed);
+    }
+
+    @Operation(
+            summary = "Carregar log de HdrHistogram",
+            description = "Log do HistogramLogWriter (jHiccup, wrk2, ...); os intervalos são somados e as latências sorteadas por percentil"
+    )
+    @ApiResponse(responseCode = "200", description = "Trace carregado")
+    @ApiResponse(responseCode = "400", description = "Log inválido")
+    @PostMapping(value = "/hdr-log", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public Map<String, Object> loadHistogramLog(
+            @RequestBody String log,
+            @Parameter(description = "Unidade dos valores do log", example = "NANOSECONDS")
+            @RequestParam(defaultValue = "NANOSECONDS") TimeUnit unit,
+            @Parameter(description = "Fração das chamadas que falham", example = "0.01")
+            @RequestParam(defaultValue = "0") double errorRate,
+            @Parameter(description = "Semente do sorteio", example = "42")
+            @RequestParam(defaultValue = "42") long seed) {
+        return load(() -> LatencyTrace.fromHistogramLog(log, unit, errorRate), ReplayMode.SAMPLE, false, seed);
+    }
+
+    @Operation(summary = "Trace ativo", description = "Modo, semente, chamadas simuladas e percentis do trace carregado")
+    @ApiResponse(responseCode = "200", description = "Estado retornado")
+    @GetMapping
+    public Map<String, Object> current() {
+        return latencySimulator.describe().orElse(Map.of("mode", "FIXED"));
+    }
+
+    @Operation(summary = "Remover trace", description = "Volta para as latências fixas de cada endpoint")
+    @ApiResponse(responseCode = "200", description = "Trace removido")
+    @DeleteMapping
+    public Map<String, Object> clear() {
+        latencySimulator.clear();
+        return Map.of("mode", "FIXED");
+    }
+
+    private Map<String, Object> load(Supplier<LatencyTrace> parser, ReplayMode mode, boolean replayArrivals, long seed) {
+        try {
+            latencySimulator.load(parser.get(), mode, replayArrivals, seed);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return current();
+    }
+}
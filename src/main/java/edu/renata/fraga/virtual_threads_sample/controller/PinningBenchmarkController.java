@@ -0,0 +1,105 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import edu.renata.fraga.virtual_threads_sample.service.PinningBenchmarkService;
+import edu.renata.fraga.virtual_threads_sample.service.PinningScenario;
+import edu.renata.fraga.virtual_threads_sample.web.RequestPriority;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/pinning-benchmarks")
+@Tag(name = "Pinning Benchmarks API", description = "Cenários que prendem a carrier no JDK 21 comparados com equivalentes sem pinning")
+@RequestPriority(RequestClass.BENCHMARK)
+public class PinningBenchmarkController {
+
+    private static final int MAX_CONCURRENCY = 10_000;
+    private static final long MAX_TOTAL_OPERATIONS = 100_000;
+    private static final long MAX_BLOCK_MS = 1_000;
+    // Teto do tempo em que os cenários com pinning deixam a JVM inteira sem carrier livre
+    private static final long MAX_PINNED_MS = 10_000;
+    private static final long MAX_SWEEP_PINNED_MS = 30_000;
+
+    @Autowired
+    private PinningBenchmarkService pinningBenchmarkService;
+
+    @Operation(
+            summary = "Executar cenário de pinning",
+            description = "Executa um cenário com a concorrência escolhida e reporta vazão, eficiência em relação ao ideal, "
+                    + "eventos de pinning e crescimento das carriers. Nos cenários com pinning as carriers ficam ocupadas "
+                    + "para a aplicação inteira; o tempo estimado (concorrência / carriers × operações × blockMs) é limitado a "
+                    + MAX_PINNED_MS + " ms"
+    )
+    @ApiResponse(responseCode = "200", description = "Cenário executado")
+    @GetMapping("/run")
+    public Map<String, Object> run(
+            @Parameter(description = "Cenário", example = "SYNCHRONIZED_BLOCKING")
+            @RequestParam(defaultValue = "SYNCHRONIZED_BLOCKING") PinningScenario scenario,
+            @Parameter(description = "Virtual Threads simultâneas", example = "64")
+            @RequestParam(defaultValue = "64") int concurrency,
+            @Parameter(description = "Operações bloqueantes por thread", example = "5")
+            @RequestParam(defaultValue = "5") int operations,
+            @Parameter(description = "Duração de cada bloqueio em ms", example = "20")
+            @RequestParam(defaultValue = "20") long blockMs) {
+        validate(List.of(concurrency), operations, blockMs);
+        if (scenario.pins()) {
+            validatePinnedTime(PinningBenchmarkService.pinnedCarrierMillis(concurrency, operations, blockMs), MAX_PINNED_MS);
+        }
+        return pinningBenchmarkService.run(scenario, concurrency, operations, blockMs);
+    }
+
+    @Operation(
+            summary = "Varredura de concorrência",
+            description = "Executa cada cenário com pinning ao lado dos seus equivalentes (ReentrantLock, StampedLock, Condition, "
+                    + "AsyncLazy) em cada nível de concorrência. A soma do tempo estimado com as carriers presas, em todos os "
+                    + "níveis e cenários com pinning, é limitada a " + MAX_SWEEP_PINNED_MS + " ms"
+    )
+    @ApiResponse(responseCode = "200", description = "Varredura executada")
+    @GetMapping("/sweep")
+    public Map<String, Object> sweep(
+            @Parameter(description = "Níveis de concorrência", example = "8,64,256")
+            @RequestParam(defaultValue = "8,64,256") List<Integer> concurrency,
+            @Parameter(description = "Operações bloqueantes por thread", example = "3")
+            @RequestParam(defaultValue = "3") int operations,
+            @Parameter(description = "Duração de cada bloqueio em ms", example = "20")
+            @RequestParam(defaultValue = "20") long blockMs) {
+        validate(concurrency, operations, blockMs);
+        long pinningScenarios = Arrays.stream(PinningScenario.values()).filter(PinningScenario::pins).count();
+        long pinnedMillis = concurrency.stream()
+                .mapToLong(level -> PinningBenchmarkService.pinnedCarrierMillis(level, operations, blockMs))
+                .sum() * pinningScenarios;
+        validatePinnedTime(pinnedMillis, MAX_SWEEP_PINNED_MS);
+        return pinningBenchmarkService.sweep(concurrency, operations, blockMs);
+    }
+
+    private void validate(List<Integer> concurrencyLevels, int operations, long blockMs) {
+        boolean invalidConcurrency = concurrencyLevels.isEmpty() || concurrencyLevels.stream()
+                .anyMatch(level -> level < 1 || level > MAX_CONCURRENCY || (long) level * operations > MAX_TOTAL_OPERATIONS);
+        if (invalidConcurrency || operations < 1 || blockMs < 1 || blockMs > MAX_BLOCK_MS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "concurrency must be between 1 and " + MAX_CONCURRENCY + ", concurrency * operations at most "
+                            + MAX_TOTAL_OPERATIONS + " and blockMs between 1 and " + MAX_BLOCK_MS);
+        }
+    }
+
+    private void validatePinnedTime(long pinnedMillis, long maxPinnedMillis) {
+        if (pinnedMillis > maxPinnedMillis) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Pinning scenarios would hold every carrier for about " + pinnedMillis + " ms (limit "
+                            + maxPinnedMillis + " ms); reduce concurrency, operations or blockMs");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import edu.renata.fraga.virtual_threads_sample.service.HandoffMode;
+import edu.renata.fraga.virtual_threads_sample.service.PipelineBenchmarkService;
+import edu.renata.fraga.virtual_threads_sample.web.RequestPriority;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/pipeline-benchmarks")
+@Tag(name = "Pipeline Benchmarks API", description = "Entrega de mensagens pequenas por ring buffer, fila bloqueante ou CompletableFuture por tarefa")
+@RequestPriority(RequestClass.BENCHMARK)
+public class PipelineBenchmarkController {
+
+    private static final int MAX_MESSAGES = 10_000_000;
+    private static final int MAX_THREADS = 64;
+    private static final int MIN_BUFFER_SIZE = 16;
+    private static final int MAX_BUFFER_SIZE = 1 << 20;
+
+    @Autowired
+    private PipelineBenchmarkService pipelineBenchmarkService;
+
+    @Operation(
+            summary = "Executar modo de entrega",
+            description = "Publica as mensagens com o modo escolhido e reporta vazão, coletas de GC e, no ring buffer, o tamanho dos lotes"
+    )
+    @ApiResponse(responseCode = "200", description = "Benchmark executado")
+    @GetMapping("/run")
+    public Map<String, Object> run(
+            @Parameter(description = "Modo de entrega", example = "RING_BUFFER")
+            @RequestParam(defaultValue = "RING_BUFFER") HandoffMode mode,
+            @Parameter(description = "Número de mensagens", example = "1000000")
+            @RequestParam(defaultValue = "1000000") int messages,
+            @Parameter(description = "Virtual Threads produtoras", example = "4")
+            @RequestParam(defaultValue = "4") int producers,
+            @Parameter(description = "Trabalhadoras do estágio de transformação (ou consumidoras da fila)", example = "4")
+            @RequestParam(defaultValue = "4") int workers,
+            @Parameter(description = "Trabalhadoras em Virtual Threads (false para threads de plataforma)", example = "true")
+            @RequestParam(defaultValue = "true") boolean virtualWorkers,
+            @Parameter(description = "Capacidade do ring buffer e da fila (potência de dois)", example = "8192")
+            @RequestParam(defaultValue = "8192") int bufferSize) {
+        validate(messages, producers, workers, bufferSize);
+        return pipelineBenchmarkService.run(mode, messages, producers, workers, virtualWorkers, bufferSize);
+    }
+
+    @Operation(
+            summary = "Comparar modos de entrega",
+            description = "Executa todos os modos com os mesmos parâmetros, após um aquecimento, e reporta o ganho do ring buffer"
+    )
+    @ApiResponse(responseCode = "200", description = "Comparação executada")
+    @GetMapping("/compare")
+    public Map<String, Object> compare(
+            @Parameter(description = "Número de mensagens", example = "1000000")
+            @RequestParam(defaultValue = "1000000") int messages,
+            @Parameter(description = "Virtual Threads produtoras", example = "4")
+            @RequestParam(defaultValue = "4") int producers,
+            @Parameter(description = "Trabalhadoras do estágio de transformação (ou consumidoras da fila)", example = "4")
+            @RequestParam(defaultValue = "4") int workers,
+            @Parameter(description = "Trabalhadoras em Virtual Threads (false para threads de plataforma)", example = "true")
+            @RequestParam(defaultValue = "true") boolean virtualWorkers,
+            @Parameter(description = "Capacidade do ring buffer e da fila (potência de dois)", example = "8192")
+            @RequestParam(defaultValue = "8192") int bufferSize) {
+        validate(messages, producers, workers, bufferSize);
+        return pipelineBenchmarkService.compare(messages, producers, workers, virtualWorkers, bufferSize);
+    }
+
+    private void validate(int messages, int producers, int workers, int bufferSize) {
+        if (messages < 1 || messages > MAX_MESSAGES
+                || producers < 1 || producers > MAX_THREADS
+                || workers < 1 || workers > MAX_THREADS
+                || bufferSize < MIN_BUFFER_SIZE || bufferSize > MAX_BUFFER_SIZE || Integer.bitCount(bufferSize) != 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "messages must be between 1 and " + MAX_MESSAGES + ", producers and workers between 1 and " + MAX_THREADS
+                            + " and bufferSize a power of two between " + MIN_BUFFER_SIZE + " and " + MAX_BUFFER_SIZE);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import edu.renata.fraga.virtual_threads_sample.service.TracingOverheadService;
+import edu.renata.fraga.virtual_threads_sample.tracing.BatchSpanExporter;
+import edu.renata.fraga.virtual_threads_sample.tracing.InMemoryCollector;
+import edu.renata.fraga.virtual_threads_sample.tracing.Sampler;
+import edu.renata.fraga.virtual_threads_sample.tracing.SpanData;
+import edu.renata.fraga.virtual_threads_sample.tracing.Tracer;
+import edu.renata.fraga.virtual_threads_sample.web.RequestPriority;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/tracing")
+@Tag(name = "Tracing API", description = "Spans das subtarefas em Virtual Threads e cadeias do Reactor, amostragem e custo do tracing")
+public class TracingController {
+
+    private static final int MAX_TASKS = 10_000_000;
+    private static final int MAX_ROUNDS = 21;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Autowired
+    private BatchSpanExporter spanExporter;
+
+    @Autowired
+    private InMemoryCollector traceCollector;
+
+    @Autowired
+    private TracingOverheadService tracingOverheadService;
+
+    @Operation(summary = "Estado do tracing", description = "Amostragem, spans iniciados e exportados, fila do exportador e collector")
+    @ApiResponse(responseCode = "200", description = "Estado retornado")
+    @GetMapping
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>(tracer.stats());
+        result.put("exporter", spanExporter.stats());
+        result.put("collector", traceCollector.stats());
+        return result;
+    }
+
+    @Operation(
+            summary = "Quebra de um span entre seus filhos",
+            description = "Para os spans com o nome informado, quanto do tempo foi gasto em cada filho direto, "
+                    + "ex.: sequential-calls mostra qual dos serviços A, B e C domina"
+    )
+    @ApiResponse(responseCode = "200", description = "Quebra calculada")
+    @GetMapping("/breakdown")
+    public Map<String, Object> breakdown(
+            @Parameter(description = "Nome do span pai", example = "sequential-calls")
+            @RequestParam(defaultValue = "sequential-calls") String span) {
+        flush();
+        return traceCollector.breakdown(span);
+    }
+
+    @Operation(summary = "Duração por nome de span", description = "Percentis da duração de cada nome de span recebido pelo collector")
+    @ApiResponse(responseCode = "200", description = "Durações retornadas")
+    @GetMapping("/durations")
+    public Map<String, Object> durations() {
+        flush();
+        return traceCollector.durationsByName();
+    }
+
+    @Operation(summary = "Spans de um trace", description = "Spans guardados do trace, em ordem de início")
+    @ApiResponse(responseCode = "200", description = "Trace retornado")
+    @ApiResponse(responseCode = "404", description = "Trace não recebido ou fora da janela do collector")
+    @GetMapping("/traces/{traceId}")
+    public List<Map<String, Object>> trace(@PathVariable String traceId) {
+        flush();
+        List<SpanData> spans = traceCollector.trace(traceId);
+        if (spans.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Trace not found: " + traceId);
+        }
+        return spans.stream().map(SpanData::toMap).toList();
+    }
+
+    @Operation(
+            summary = "Alterar amostragem",
+            description = "Fração dos traces amostrados na cabeça e, com a cauda ligada, latência a partir da qual "
+                    + "um trace é mantido mesmo fora da fração; vale para os traces iniciados a partir de agora"
+    )
+    @ApiResponse(responseCode = "200", description = "Amostragem alterada")
+    @ApiResponse(responseCode = "400", description = "Parâmetros inválidos")
+    @PutMapping("/sampling")
+    public Map<String, Object> updateSampling(
+            @Parameter(description = "Fração dos traces amostrados na cabeça (0 a 1)", example = "0.1")
+            @RequestParam(defaultValue = "1.0") double headRatio,
+            @Parameter(description = "Liga a amostragem na cauda", example = "true")
+            @RequestParam(defaultValue = "false") boolean tailEnabled,
+            @Parameter(description = "Mantém traces cuja raiz durou ao menos este tempo (0 desliga)", example = "500")
+            @RequestParam(defaultValue = "0") long tailLatencyMs,
+            @Parameter(description = "Mantém traces com erro", example = "true")
+            @RequestParam(defaultValue = "true") boolean tailKeepErrors,
+            @Parameter(description = "Spans guardados por trace até a decisão", example = "10000")
+            @RequestParam(defaultValue = "10000") int tailMaxSpansPerTrace) {
+        try {
+            tracer.setSampler(new Sampler(headRatio, tailEnabled, Duration.ofMillis(tailLatencyMs), tailKeepErrors,
+                    tailMaxSpansPerTrace));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return stats();
+    }
+
+    @Operation(summary = "Limpar collector", description = "Descarta os traces guardados e as durações agregadas")
+    @ApiResponse(responseCode = "200", description = "Collector limpo")
+    @DeleteMapping
+    public Map<String, Object> clear() {
+        flush();
+        traceCollector.clear();
+        return stats();
+    }
+
+    @Operation(
+            summary = "Medir custo do tracing",
+            description = "Executa tarefas curtas em Virtual Threads sem e com um span por tarefa, em rodadas alternadas, "
+                    + "e compara as medianas com a meta de 100 mil tarefas/s e o orçamento de custo"
+    )
+    @ApiResponse(responseCode = "200", description = "Medição executada")
+    @RequestPriority(RequestClass.BENCHMARK)
+    @GetMapping("/overhead")
+    public Map<String, Object> overhead(
+            @Parameter(description = "Tarefas por rodada", example = "100000")
+            @RequestParam(defaultValue = "100000") int tasks,
+            @Parameter(description = "Rodadas de cada lado", example = "5")
+            @RequestParam(defaultValue = "5") int rounds) {
+        if (tasks < 1 || tasks > MAX_TASKS || rounds < 1 || rounds > MAX_ROUNDS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "tasks must be between 1 and " + MAX_TASKS + " and rounds between 1 and " + MAX_ROUNDS);
+        }
+        return tracingOverheadService.measure(tasks, rounds);
+    }
+
+    private void flush() {
+        // As consultas mostram também os spans que ainda estão na fila do exportador
+        spanExporter.flush(Duration.ofSeconds(1));
+    }
+}
@@ -1,6 +1,18 @@
 package edu.renata.fraga.virtual_threads_sample.controller;
 
+import edu.renata.fraga.virtual_threads_sample.concurrent.PriorityAdmission;
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import edu.renata.fraga.virtual_threads_sample.concurrent.SubmissionWindow;
+import edu.renata.fraga.virtual_threads_sample.metrics.CarrierThreadMonitor;
+import edu.renata.fraga.virtual_threads_sample.service.FileIoWorkloadService;
+import edu.renata.fraga.virtual_threads_sample.service.FileReadMode;
+import edu.renata.fraga.virtual_threads_sample.service.KeyedOrderingMode;
 import edu.renata.fraga.virtual_threads_sample.service.VirtualThreadService;
+import edu.renata.fraga.virtual_threads_sample.service.WorkloadLimits;
+import edu.renata.fraga.virtual_threads_sample.simulation.LatencySimulator;
+import edu.renata.fraga.virtual_threads_sample.web.RequestClassContext;
+import edu.renata.fraga.virtual_threads_sample.web.RequestPriority;
+import edu.renata.fraga.virtual_threads_sample.websocket.ProgressFeed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,11 +21,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -22,35 +38,85 @@ import java.util.concurrent.CompletableFuture;
 @Tag(name = "Virtual Threads API", description = "APIs demonstrando o uso de Virtual Threads tradicionais (Spring MVC)")
 public class VirtualThreadController {
 
+    private static final int MAX_POOLED_OPERATIONS = 1_000_000;
+    private static final int MAX_KEYED_OPERATIONS = 1_000_000;
+    private static final int MAX_KEYS = 100_000;
+    private static final long MAX_KEYED_HOLD_MS = 1_000;
+    // Teto do tempo serializado estimado (operações × latência / operações em paralelo); no modo
+    // SYNCHRONIZED_STRIPES as Virtual Threads seguram e esperam os monitores presas às carriers
+    private static final long MAX_KEYED_SERIAL_MS = 10_000;
+    private static final long MAX_KEYED_COMPARE_SERIAL_MS = 30_000;
+
     @Autowired
     private VirtualThreadService virtualThreadService;
 
+    @Autowired
+    private FileIoWorkloadService fileIoWorkloadService;
+
+    @Autowired
+    private ProgressFeed progressFeed;
+
+    @Autowired
+    private PriorityAdmission taskAdmission;
+
+    @Autowired
+    private LatencySimulator latencySimulator;
+
+    // Mesmo limite de tarefas em andamento das comparações do VirtualThreadService
+    @Value("${virtual-threads.submission-window:10000}")
+    private int submissionWindow;
+
     @Operation(
             summary = "Comparar Virtual Threads vs Platform Threads",
-            description = "Executa tarefas concorrentes comparando performance entre Virtual Threads e Platform Threads tradicionais"
+            description = "Executa tarefas concorrentes comparando performance entre Virtual Threads e Platform Threads tradicionais, "
+                    + "com rodadas de aquecimento descartadas e rodadas medidas intercaladas em ordem sorteada; "
+                    + "reporta média, intervalo de confiança de 95%, teste t de Welch e GC/safepoints por repetição"
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Comparação realizada com sucesso",
                     content = @Content(examples = @ExampleObject(value = """
                             {
-                                "virtualThreads": "Processed 100 tasks in 1.2s using Virtual Threads",
-                                "platformThreads": "Processed 100 tasks in 2.1s using Platform Threads",
+                                "tasks": 100,
+                                "warmupRounds": 2,
+                                "rounds": 5,
+                                "seed": 42,
+                                "virtualThreads": {"n": 5, "meanMs": 104.2, "stdDevMs": 1.1, "ci95LowMs": 102.8, "ci95HighMs": 105.6, "gcTimeMs": 0, "safepoints": 3},
+                                "platformThreads": {"n": 5, "meanMs": 105.0, "stdDevMs": 1.9, "ci95LowMs": 102.6, "ci95HighMs": 107.4, "gcTimeMs": 4, "safepoints": 5},
+                                "comparison": {"differenceMs": -0.8, "ci95LowMs": -3.2, "ci95HighMs": 1.6, "significant": false,
+                                    "verdict": "No significant difference at 95% confidence (difference -0.8 ms, CI -3.2..1.6 ms); run more trials"},
+                                "schedulingDelay": {
+                                    "virtualThreads": {"count": 500, "p50Ms": 0.1, "p99Ms": 1.2},
+                                    "platformThreads": {"count": 500, "p50Ms": 0.2, "p99Ms": 1.5}
+                                },
+                                "serviceTime": {
+                                    "virtualThreads": {"count": 500, "p50Ms": 100.1, "p99Ms": 101.0},
+                                    "platformThreads": {"count": 500, "p50Ms": 100.1, "p99Ms": 101.2}
+                                },
+                                "trials": [{"round": 0, "position": 0, "strategy": "platformThreads", "durationMs": 106.3, "gcCollections": 1, "gcTimeMs": 4, "safepoints": 2, "timeToSafepointMs": 0.1}],
                                 "currentThread": "Thread[#123,pool-1-thread-1,5,main] - Virtual: false"
                             }
-                            """)))
+                            """))),
+            @ApiResponse(responseCode = "400", description = "Parâmetros inválidos")
     })
+    @RequestPriority(RequestClass.BENCHMARK)
     @GetMapping("/compare")
-    public Map<String, String> compareThreads(
+    public Map<String, Object> compareThreads(
             @Parameter(description = "Número de tarefas a serem executadas", example = "100")
-            @RequestParam(defaultValue = "100") int tasks) {
-        String virtualResult = virtualThreadService.processWithVirtualThreads(tasks);
-        String platformResult = virtualThreadService.processWithPlatformThreads(tasks);
-        
-        return Map.of(
-            "virtualThreads", virtualResult,
-            "platformThreads", platformResult,
-            "currentThread", getCurrentThreadInfo()
-        );
+            @RequestParam(defaultValue = "100") int tasks,
+            @Parameter(description = "Rodadas de aquecimento, descartadas", example = "2")
+            @RequestParam(defaultValue = "2") int warmupRounds,
+            @Parameter(description = "Rodadas medidas; cada uma roda as duas estratégias em ordem sorteada", example = "5")
+            @RequestParam(defaultValue = "5") int rounds,
+            @Parameter(description = "Semente do sorteio da ordem", example = "42")
+            @RequestParam(defaultValue = "42") long seed) {
+        try {
+            WorkloadLimits.validateThreadComparison(tasks, warmupRounds, rounds);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        Map<String, Object> result = new LinkedHashMap<>(virtualThreadService.compareThreads(tasks, warmupRounds, rounds, seed));
+        result.put("currentThread", getCurrentThreadInfo());
+        return result;
     }
 
     @Operation(
@@ -68,6 +134,7 @@ public class VirtualThreadController {
             description = "Executa múltiplas operações bloqueantes concorrentemente usando Virtual Threads"
     )
     @ApiResponse(responseCode = "200", description = "Operações bloqueantes executadas com sucesso")
+    @RequestPriority(RequestClass.BATCH)
     @GetMapping("/multiple-blocking")
     public String multipleBlockingOperations(
             @Parameter(description = "Número de operações bloqueantes a executar", example = "10")
@@ -75,6 +142,123 @@ public class VirtualThreadController {
         return virtualThreadService.processMultipleBlockingOperations(operations);
     }
 
+    @Operation(
+            summary = "Operações bloqueantes com recurso escasso",
+            description = "Executa as operações concorrentemente disputando um pool de poolSize recursos (fila FIFO sem pinning) "
+                    + "e reporta tempo de espera, utilização, pico de espera e esperas esgotadas"
+    )
+    @ApiResponse(responseCode = "200", description = "Operações executadas com sucesso")
+    @RequestPriority(RequestClass.BATCH)
+    @GetMapping("/pooled-blocking")
+    public Map<String, Object> pooledBlockingOperations(
+            @Parameter(description = "Número de operações bloqueantes", example = "10000")
+            @RequestParam(defaultValue = "10000") int operations,
+            @Parameter(description = "Recursos no pool", example = "10")
+            @RequestParam(defaultValue = "10") int poolSize,
+            @Parameter(description = "Tempo de uso de cada recurso em ms", example = "5")
+            @RequestParam(defaultValue = "5") long holdMs,
+            @Parameter(description = "Espera máxima por um recurso em ms", example = "30000")
+            @RequestParam(defaultValue = "30000") long timeoutMs) {
+        if (operations < 1 || operations > MAX_POOLED_OPERATIONS || poolSize < 1 || holdMs < 0 || timeoutMs < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "operations must be between 1 and " + MAX_POOLED_OPERATIONS + ", poolSize positive and times non-negative");
+        }
+        return virtualThreadService.processWithScarceResource(operations, poolSize, holdMs, timeoutMs);
+    }
+
+    @Operation(
+            summary = "Operações com ordem por chave",
+            description = "Operações distribuídas entre chaves (contas, sessões) que precisam rodar em ordem dentro da chave: "
+                    + "caixa de mensagens por chave (KeyedSerialExecutor), synchronized em faixas de lock ou sem coordenação. "
+                    + "Reporta vazão, violações de ordem e de exclusão e pinning. O tempo serializado estimado "
+                    + "(operações × holdMs, ou a maior latência do trace carregado, / operações em paralelo no modo) "
+                    + "é limitado a " + MAX_KEYED_SERIAL_MS + " ms"
+    )
+    @ApiResponse(responseCode = "200", description = "Operações executadas com sucesso")
+    @RequestPriority(RequestClass.BATCH)
+    @GetMapping("/keyed")
+    public Map<String, Object> keyedOperations(
+            @Parameter(description = "Modo de ordenação", example = "KEYED_SERIAL_EXECUTOR")
+            @RequestParam(defaultValue = "KEYED_SERIAL_EXECUTOR") KeyedOrderingMode mode,
+            @Parameter(description = "Número de operações", example = "10000")
+            @RequestParam(defaultValue = "10000") int operations,
+            @Parameter(description = "Número de chaves distintas", example = "100")
+            @RequestParam(defaultValue = "100") int keys,
+            @Parameter(description = "Faixas de lock do modo SYNCHRONIZED_STRIPES", example = "16")
+            @RequestParam(defaultValue = "16") int stripes,
+            @Parameter(description = "Tempo de cada operação em ms", example = "5")
+            @RequestParam(defaultValue = "5") long holdMs,
+            @Parameter(description = "Tarefas pendentes por chave no KeyedSerialExecutor", example = "1000")
+            @RequestParam(defaultValue = "1000") int maxMailboxSize) {
+        validateKeyedOperations(operations, keys, stripes, holdMs, maxMailboxSize);
+        validateKeyedSerialTime(keyedSerialMillis(mode, operations, keys, stripes, keyedHoldMillis(holdMs)),
+                MAX_KEYED_SERIAL_MS);
+        return virtualThreadService.processKeyedOperations(mode, operations, keys, stripes, holdMs, maxMailboxSize);
+    }
+
+    @Operation(
+            summary = "Comparar modos de ordem por chave",
+            description = "Executa as mesmas operações em todos os modos de ordenação, em sequência. A soma do tempo "
+                    + "serializado estimado nos modos é limitada a " + MAX_KEYED_COMPARE_SERIAL_MS + " ms"
+    )
+    @ApiResponse(responseCode = "200", description = "Comparação realizada com sucesso")
+    @RequestPriority(RequestClass.BENCHMARK)
+    @GetMapping("/keyed/compare")
+    public Map<String, Object> compareKeyedOperations(
+            @Parameter(description = "Número de operações", example = "10000")
+            @RequestParam(defaultValue = "10000") int operations,
+            @Parameter(description = "Número de chaves distintas", example = "100")
+            @RequestParam(defaultValue = "100") int keys,
+            @Parameter(description = "Faixas de lock do modo SYNCHRONIZED_STRIPES", example = "16")
+            @RequestParam(defaultValue = "16") int stripes,
+            @Parameter(description = "Tempo de cada operação em ms", example = "5")
+            @RequestParam(defaultValue = "5") long holdMs,
+            @Parameter(description = "Tarefas pendentes por chave no KeyedSerialExecutor", example = "1000")
+            @RequestParam(defaultValue = "1000") int maxMailboxSize) {
+        validateKeyedOperations(operations, keys, stripes, holdMs, maxMailboxSize);
+        long operationMillis = keyedHoldMillis(holdMs);
+        long serialMillis = 0;
+        for (KeyedOrderingMode mode : KeyedOrderingMode.values()) {
+            serialMillis += keyedSerialMillis(mode, operations, keys, stripes, operationMillis);
+        }
+        validateKeyedSerialTime(serialMillis, MAX_KEYED_COMPARE_SERIAL_MS);
+        return virtualThreadService.compareKeyedOrdering(operations, keys, stripes, holdMs, maxMailboxSize);
+    }
+
+    @Operation(
+            summary = "Leitura de arquivos",
+            description = "Lê um dataset local gerado com Files.readAllBytes em Virtual Threads, AsynchronousFileChannel no Reactor ou MappedByteBuffer, reportando throughput e crescimento de carrier threads"
+    )
+    @ApiResponse(responseCode = "200", description = "Leitura executada com sucesso")
+    @RequestPriority(RequestClass.BATCH)
+    @GetMapping("/file-io")
+    public Map<String, Object> fileIo(
+            @Parameter(description = "Modo de leitura", example = "BLOCKING_VIRTUAL_THREADS")
+            @RequestParam(defaultValue = "BLOCKING_VIRTUAL_THREADS") FileReadMode mode,
+            @Parameter(description = "Número de arquivos lidos concorrentemente", example = "100")
+            @RequestParam(defaultValue = "100") int files,
+            @Parameter(description = "Tamanho de cada arquivo em KB", example = "256")
+            @RequestParam(defaultValue = "256") int fileSizeKb) {
+        validateFileIoDataset(files, fileSizeKb);
+        return fileIoWorkloadService.run(mode, files, fileSizeKb);
+    }
+
+    @Operation(
+            summary = "Comparar modos de leitura de arquivos",
+            description = "Lê o mesmo dataset em todos os modos de leitura, em sequência"
+    )
+    @ApiResponse(responseCode = "200", description = "Comparação realizada com sucesso")
+    @RequestPriority(RequestClass.BENCHMARK)
+    @GetMapping("/file-io/compare")
+    public Map<String, Object> compareFileIo(
+            @Parameter(description = "Número de arquivos lidos concorrentemente", example = "100")
+            @RequestParam(defaultValue = "100") int files,
+            @Parameter(description = "Tamanho de cada arquivo em KB", example = "256")
+            @RequestParam(defaultValue = "256") int fileSizeKb) {
+        validateFileIoDataset(files, fileSizeKb);
+        return fileIoWorkloadService.compareModes(files, fileSizeKb);
+    }
+
     @Operation(
             summary = "Criação Manual de Virtual Thread",
             description = "Demonstra como criar Virtual Threads manualmente"
@@ -117,39 +301,95 @@ public class VirtualThreadController {
     public Map<String, Object> getThreadInfo() {
         Thread currentThread = Thread.currentThread();
         
+        // Virtual Threads ignoram setPriority: quem ordena o trabalho é a classe da requisição
         return Map.of(
             "threadName", currentThread.getName(),
             "threadId", currentThread.threadId(),
             "isVirtual", currentThread.isVirtual(),
             "isDaemon", currentThread.isDaemon(),
             "state", currentThread.getState().toString(),
-            "priority", currentThread.getPriority()
+            "priority", currentThread.getPriority(),
+            "priorityEffective", !currentThread.isVirtual(),
+            "requestClass", RequestClassContext.current().tag()
         );
     }
 
+    @RequestPriority(RequestClass.BENCHMARK)
     @GetMapping("/stress-test")
     public String stressTest(@RequestParam(defaultValue = "1000") int numberOfTasks) {
-        long startTime = System.currentTimeMillis();
-        
-        // Executa muitas operações concorrentes para demonstrar a eficiência das Virtual Threads
-        var futures = java.util.stream.IntStream.range(0, numberOfTasks)
-                .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
-                    try {
-                        Thread.sleep(100); // Simula I/O
-                        return "Task " + i + " completed";
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException(e);
-                    }
-                }))
-                .toList();
-
-        futures.forEach(CompletableFuture::join);
-        
-        long duration = System.currentTimeMillis() - startTime;
-        
-        return String.format("Stress test completed: %d tasks in %d ms using Virtual Threads", 
-                numberOfTasks, duration);
+        // Executa muitas operações concorrentes para demonstrar a eficiência das Virtual Threads;
+        // a janela limita as tarefas em andamento, então milhões de tarefas não enchem o heap.
+        // As tarefas passam pela admissão na classe da requisição, cedendo vagas às classes
+        // mais prioritárias. O progresso sai nos WebSockets de /ws/progress
+        SubmissionWindow window = new SubmissionWindow(taskAdmission.forClass(RequestClassContext.current()),
+                submissionWindow);
+        SubmissionWindow.Report report;
+        try (ProgressFeed.Tracker progress = progressFeed.track("stress-test", numberOfTasks)) {
+            report = window.run(numberOfTasks, i -> () -> {
+                try {
+                    Thread.sleep(100); // Simula I/O
+                    progress.increment();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+
+        return String.format("Stress test completed: %d tasks in %d ms using Virtual Threads (max %d in flight, %d failed)",
+                numberOfTasks, report.durationMillis(), report.maxInFlight(), report.failed());
+    }
+
+    private void validateKeyedOperations(int operations, int keys, int stripes, long holdMs, int maxMailboxSize) {
+        if (operations < 1 || operations > MAX_KEYED_OPERATIONS || keys < 1 || keys > MAX_KEYS || stripes < 1
+                || holdMs < 0 || holdMs > MAX_KEYED_HOLD_MS || maxMailboxSize < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "operations must be between 1 and " + MAX_KEYED_OPERATIONS + ", keys between 1 and " + MAX_KEYS
+                            + ", holdMs between 0 and " + MAX_KEYED_HOLD_MS + ", stripes and maxMailboxSize positive");
+        }
+    }
+
+    /**
+     * Tempo mínimo da execução quando as operações se enfileiram nas chaves ou nas faixas de lock.
+     * No modo {@code SYNCHRONIZED_STRIPES} cada operação segura a carrier enquanto bloqueia, então
+     * no máximo {@code min(keys, stripes, carriers)} operações avançam ao mesmo tempo, como em
+     * {@link edu.renata.fraga.virtual_threads_sample.service.PinningBenchmarkService#pinnedCarrierMillis}.
+     */
+    private static long keyedSerialMillis(KeyedOrderingMode mode, int operations, int keys, int stripes,
+                                          long operationMillis) {
+        long lanes = switch (mode) {
+            case KEYED_SERIAL_EXECUTOR -> keys;
+            case SYNCHRONIZED_STRIPES -> Math.min(Math.min(keys, stripes), CarrierThreadMonitor.carrierParallelism());
+            case UNORDERED -> operations;
+        };
+        return (operations * operationMillis + lanes - 1) / lanes;
+    }
+
+    /**
+     * Latência de cada operação: com um trace carregado, {@code simulate} ignora {@code holdMs}
+     * e pode esperar até a maior latência do trace.
+     */
+    private long keyedHoldMillis(long holdMs) {
+        return latencySimulator.maxLatency()
+                .map(max -> (max.toNanos() + 999_999) / 1_000_000)
+                .orElse(holdMs);
+    }
+
+    private void validateKeyedSerialTime(long serialMillis, long maxSerialMillis) {
+        if (serialMillis > maxSerialMillis) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "estimated serialized time of " + serialMillis + " ms (operations * holdMs, or the loaded trace's "
+                            + "max latency, over the operations that can run in parallel) is above the limit of "
+                            + maxSerialMillis + " ms");
+        }
+    }
+
+    private void validateFileIoDataset(int files, int fileSizeKb) {
+        try {
+            WorkloadLimits.validateFileIoDataset(files, fileSizeKb);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
     private String getCurrentThreadInfo() {
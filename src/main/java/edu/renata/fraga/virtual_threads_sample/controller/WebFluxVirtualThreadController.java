@@ -1,5 +1,14 @@
 package edu.renata.fraga.virtual_threads_sample.controller;
 
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import edu.renata.fraga.virtual_threads_sample.metrics.TaskTimer;
+import edu.renata.fraga.virtual_threads_sample.simulation.LatencySimulator;
+import edu.renata.fraga.virtual_threads_sample.simulation.SimulatedFailureException;
+import edu.renata.fraga.virtual_threads_sample.tracing.Span;
+import edu.renata.fraga.virtual_threads_sample.tracing.Tracer;
+import edu.renata.fraga.virtual_threads_sample.web.RequestClassContext;
+import edu.renata.fraga.virtual_threads_sample.web.RequestPriority;
+import edu.renata.fraga.virtual_threads_sample.websocket.ProgressFeed;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -8,17 +17,23 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
 @RequestMapping("/api/webflux-virtual-threads")
@@ -33,6 +48,16 @@ public class WebFluxVirtualThreadController {
     @Qualifier("virtualThreadExecutor")
     private Executor virtualThreadExecutor;
 
+    @Autowired
+    private LatencySimulator latencySimulator;
+
+    @Autowired
+    private ProgressFeed progressFeed;
+
+    // Cada chamada bloqueante vira um span; o pai chega pelo Context do Reactor depois do subscribeOn
+    @Autowired
+    private Tracer tracer;
+
     @Operation(
             summary = "Mono com Operação Bloqueante",
             description = "Demonstra como executar operações bloqueantes em Virtual Threads dentro de um Mono"
@@ -43,91 +68,93 @@ public class WebFluxVirtualThreadController {
                     """)))
     @GetMapping("/mono-blocking")
     public Mono<String> monoWithBlockingOperation() {
-        return Mono.fromCallable(() -> {
+        return tracer.fromCallable("mono-blocking", () -> {
             // Simula operação bloqueante executada em Virtual Thread
-            try {
-                Thread.sleep(1000);
-                return String.format("Blocking operation completed on Virtual Thread: %s (Virtual: %s)",
-                        Thread.currentThread().getName(),
-                        Thread.currentThread().isVirtual());
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException(e);
-            }
+            latencySimulator.simulate(Duration.ofSeconds(1));
+            return String.format("Blocking operation completed on Virtual Thread: %s (Virtual: %s)",
+                    Thread.currentThread().getName(),
+                    Thread.currentThread().isVirtual());
         }).subscribeOn(virtualThreadScheduler);
     }
 
+    @RequestPriority(RequestClass.BATCH)
     @GetMapping("/flux-parallel")
     public Flux<String> fluxWithParallelOperations(@RequestParam(defaultValue = "10") int count) {
-        return Flux.range(0, count)
-                .flatMap(i -> Mono.fromCallable(() -> {
-                    try {
-                        Thread.sleep(500); // Simula I/O bloqueante
-                        return String.format("Task %d completed on Virtual Thread: %s (Virtual: %s)",
-                                i,
-                                Thread.currentThread().getName(),
-                                Thread.currentThread().isVirtual());
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException(e);
-                    }
+        return tracer.traceFlux("flux-parallel", Flux.range(0, count)
+                .flatMap(i -> tracer.fromCallable("flux-parallel.task", () -> {
+                    latencySimulator.simulate(Duration.ofMillis(500)); // Simula I/O bloqueante
+                    return String.format("Task %d completed on Virtual Thread: %s (Virtual: %s)",
+                            i,
+                            Thread.currentThread().getName(),
+                            Thread.currentThread().isVirtual());
                 }).subscribeOn(virtualThreadScheduler))
-                .doOnNext(result -> System.out.println("Processed: " + result));
+                .doOnNext(result -> System.out.println("Processed: " + result)));
     }
 
+    @RequestPriority(RequestClass.BENCHMARK)
     @GetMapping("/compare-schedulers")
     public Mono<Map<String, Object>> compareSchedulers(@RequestParam(defaultValue = "5") int tasks) {
-        long startTime = System.currentTimeMillis();
+        return tracer.traceMono("compare-schedulers", Mono.defer(() -> {
+            long startTime = System.currentTimeMillis();
+            // Falhas simuladas não interrompem a comparação, mas são contadas por scheduler
+            AtomicLong virtualThreadFailures = new AtomicLong();
+            AtomicLong boundedElasticFailures = new AtomicLong();
 
-        // Testa com Virtual Thread Scheduler
-        Mono<String> virtualThreadResult = Flux.range(0, tasks)
-                .flatMap(i -> Mono.fromCallable(() -> {
-                    try {
-                        Thread.sleep(200);
+            // Testa com Virtual Thread Scheduler
+            Mono<String> virtualThreadResult = Flux.range(0, tasks)
+                    .flatMap(i -> tracer.fromCallable("compare-schedulers.virtual-thread-task", () -> {
+                        latencySimulator.simulate(Duration.ofMillis(200));
                         return String.format("VT-Task-%d: %s (Virtual: %s)",
                                 i,
                                 Thread.currentThread().getName(),
                                 Thread.currentThread().isVirtual());
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException(e);
-                    }
-                }).subscribeOn(virtualThreadScheduler))
-                .collectList()
-                .map(results -> String.format("Virtual Threads completed %d tasks", results.size()));
-
-        // Testa com Scheduler padrão
-        Mono<String> defaultSchedulerResult = Flux.range(0, tasks)
-                .flatMap(i -> Mono.fromCallable(() -> {
-                    try {
-                        Thread.sleep(200);
+                    }).subscribeOn(virtualThreadScheduler)
+                            .onErrorResume(SimulatedFailureException.class, e -> {
+                                virtualThreadFailures.incrementAndGet();
+                                return Mono.empty();
+                            }))
+                    .collectList()
+                    .map(results -> String.format("Virtual Threads completed %d tasks, %d failed",
+                            results.size(), virtualThreadFailures.get()));
+
+            // Testa com o Scheduler padrão do Reactor para código bloqueante (boundedElastic).
+            // Sem subscribeOn o sleep bloquearia a thread que fez a inscrição, que pode ser um event loop.
+            Mono<String> defaultSchedulerResult = Flux.range(0, tasks)
+                    .flatMap(i -> tracer.fromCallable("compare-schedulers.bounded-elastic-task", () -> {
+                        latencySimulator.simulate(Duration.ofMillis(200));
                         return String.format("Default-Task-%d: %s (Virtual: %s)",
                                 i,
                                 Thread.currentThread().getName(),
                                 Thread.currentThread().isVirtual());
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException(e);
-                    }
-                }))
-                .collectList()
-                .map(results -> String.format("Default Scheduler completed %d tasks", results.size()));
-
-        return Mono.zip(virtualThreadResult, defaultSchedulerResult)
-                .map(tuple -> {
-                    long duration = System.currentTimeMillis() - startTime;
-                    return Map.of(
-                            "virtualThreadResult", tuple.getT1(),
-                            "defaultSchedulerResult", tuple.getT2(),
-                            "totalDurationMs", duration,
-                            "currentThread", getCurrentThreadInfo()
-                    );
-                });
+                    }).subscribeOn(Schedulers.boundedElastic())
+                            .onErrorResume(SimulatedFailureException.class, e -> {
+                                boundedElasticFailures.incrementAndGet();
+                                return Mono.empty();
+                            }))
+                    .collectList()
+                    .map(results -> String.format("Default Scheduler (boundedElastic) completed %d tasks, %d failed",
+                            results.size(), boundedElasticFailures.get()));
+
+            return Mono.zip(virtualThreadResult, defaultSchedulerResult)
+                    .map(tuple -> {
+                        long duration = System.currentTimeMillis() - startTime;
+                        return Map.<String, Object>of(
+                                "virtualThreadResult", tuple.getT1(),
+                                "defaultSchedulerResult", tuple.getT2(),
+                                "failedTasks", Map.of(
+                                        "virtualThreadScheduler", virtualThreadFailures.get(),
+                                        "boundedElastic", boundedElasticFailures.get()),
+                                "totalDurationMs", duration,
+                                "currentThread", getCurrentThreadInfo()
+                        );
+                    });
+        }));
     }
 
     @GetMapping("/sequential-calls")
     public Mono<String> sequentialCalls() {
-        return Mono.fromCallable(() -> {
+        // Cada serviço é um span filho de sequential-calls: GET /api/tracing/breakdown?span=sequential-calls
+        return tracer.fromCallable("sequential-calls", () -> {
             // Demonstra como Virtual Threads facilitam código sequencial
             String result1 = callExternalService("Service A", 300);
             String result2 = callExternalService("Service B", 400);
@@ -140,7 +167,7 @@ public class WebFluxVirtualThreadController {
 
     @GetMapping("/error-handling")
     public Mono<String> errorHandling() {
-        return Mono.fromCallable(() -> {
+        return tracer.fromCallable("error-handling", () -> {
             if (Math.random() > 0.5) {
                 throw new RuntimeException("Simulated error in Virtual Thread");
             }
@@ -151,37 +178,98 @@ public class WebFluxVirtualThreadController {
         .doOnError(error -> System.err.println("Error caught: " + error.getMessage()));
     }
 
+    @RequestPriority(RequestClass.BENCHMARK)
     @GetMapping("/stress-test-reactive")
     public Mono<Map<String, Object>> stressTestReactive(@RequestParam(defaultValue = "1000") int numberOfTasks) {
-        long startTime = System.currentTimeMillis();
-        
-        return Flux.range(0, numberOfTasks)
-                .flatMap(i -> Mono.fromCallable(() -> {
-                    try {
-                        Thread.sleep(10); // Pequeno delay para simular I/O
-                        return Thread.currentThread().isVirtual();
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException(e);
-                    }
-                }).subscribeOn(virtualThreadScheduler))
-                .collectList()
-                .map(results -> {
-                    long duration = System.currentTimeMillis() - startTime;
-                    long virtualThreadCount = results.stream().filter(isVirtual -> isVirtual).count();
-                    
-                    return Map.of(
-                            "totalTasks", numberOfTasks,
-                            "virtualThreadsUsed", virtualThreadCount,
-                            "durationMs", duration,
-                            "tasksPerSecond", numberOfTasks * 1000.0 / duration
-                    );
-                });
+        // O tracker é aberto na inscrição e fechado no término ou no cancelamento: um Mono montado e
+        // nunca inscrito não deixa tracker aberto no ProgressFeed
+        return tracer.traceMono("stress-test-reactive", Mono.using(
+                () -> progressFeed.track("stress-test-reactive", numberOfTasks),
+                progress -> {
+                    long startTime = System.currentTimeMillis();
+                    TaskTimer timer = new TaskTimer();
+                    AtomicLong failedTasks = new AtomicLong();
+
+                    // O instante de submissão é marcado quando o flatMap recebe a tarefa, antes do salto para o
+                    // scheduler: a espera na fila dele aparece como atraso de escalonamento
+                    return Flux.range(0, numberOfTasks)
+                            .flatMap(i -> {
+                                long submitted = System.nanoTime();
+                                return tracer.fromCallable("stress-test-reactive.task", timer.time(() -> {
+                                            latencySimulator.simulate(Duration.ofMillis(10)); // Pequeno delay para simular I/O
+                                            return Thread.currentThread().isVirtual();
+                                        }, submitted)::get)
+                                        .subscribeOn(virtualThreadScheduler)
+                                        .doOnTerminate(progress::increment)
+                                        .onErrorResume(SimulatedFailureException.class, e -> {
+                                            failedTasks.incrementAndGet();
+                                            return Mono.empty();
+                                        });
+                            })
+                            .collectList()
+                            .map(results -> {
+                                long duration = System.currentTimeMillis() - startTime;
+                                long virtualThreadCount = results.stream().filter(isVirtual -> isVirtual).count();
+
+                                return Map.<String, Object>of(
+                                        "totalTasks", numberOfTasks,
+                                        "virtualThreadsUsed", virtualThreadCount,
+                                        "durationMs", duration,
+                                        "tasksPerSecond", numberOfTasks * 1000.0 / duration,
+                                        "failedTasks", failedTasks.get(),
+                                        "schedulingDelay", timer.schedulingDelay(),
+                                        "serviceTime", timer.serviceTime()
+                                );
+                            });
+                },
+                ProgressFeed.Tracker::close));
+    }
+
+    @Operation(
+            summary = "Benchmark de Schedulers",
+            description = "Executa a carga do flux-parallel (500 ms por tarefa) ou do stress-test-reactive (10 ms por tarefa) "
+                    + "no virtualThreadScheduler e no boundedElastic, em sequência"
+    )
+    @ApiResponse(responseCode = "200", description = "Benchmark executado com sucesso")
+    @RequestPriority(RequestClass.BENCHMARK)
+    @GetMapping("/scheduler-benchmark")
+    public Mono<Map<String, Object>> schedulerBenchmark(
+            @Parameter(description = "Carga a executar: flux-parallel ou stress-test-reactive", example = "stress-test-reactive")
+            @RequestParam(defaultValue = "stress-test-reactive") String workload,
+            @Parameter(description = "Número de tarefas", example = "1000")
+            @RequestParam(defaultValue = "1000") int tasks,
+            @Parameter(description = "Tarefas em voo ao mesmo tempo; padrão: todas as tarefas", example = "1000")
+            @RequestParam(required = false) Integer concurrency) {
+        long delayMs = switch (workload) {
+            case "flux-parallel" -> 500;
+            case "stress-test-reactive" -> 10;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown workload: " + workload);
+        };
+        if (tasks < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "tasks must be at least 1");
+        }
+        // Sem o argumento, o flatMap limitaria a 256 tarefas em voo e o scheduler nunca veria a carga pedida
+        int inFlight = concurrency == null ? tasks : concurrency;
+        if (inFlight < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "concurrency must be at least 1");
+        }
+
+        return runSchedulerBenchmark(virtualThreadScheduler, tasks, inFlight, delayMs)
+                .flatMap(virtualResult -> runSchedulerBenchmark(Schedulers.boundedElastic(), tasks, inFlight, delayMs)
+                        .map(boundedElasticResult -> Map.of(
+                                "workload", workload,
+                                "totalTasks", tasks,
+                                "concurrency", inFlight,
+                                "virtualThreadScheduler", virtualResult,
+                                "boundedElastic", boundedElasticResult
+                        )));
     }
 
     @GetMapping("/thread-info")
     public Mono<Map<String, Object>> getThreadInfo() {
-        return Mono.fromCallable(() -> {
+        // Capturada na thread da requisição: o Callable roda no scheduler, fora do contexto dela
+        RequestClass requestClass = RequestClassContext.current();
+        return tracer.fromCallable("thread-info", () -> {
             Thread currentThread = Thread.currentThread();
             Map<String, Object> info = new HashMap<>();
             info.put("threadName", currentThread.getName());
@@ -190,18 +278,75 @@ public class WebFluxVirtualThreadController {
             info.put("isDaemon", currentThread.isDaemon());
             info.put("state", currentThread.getState().toString());
             info.put("priority", currentThread.getPriority());
+            info.put("priorityEffective", !currentThread.isVirtual());
+            info.put("requestClass", requestClass.tag());
             info.put("scheduler", "Virtual Thread Scheduler");
             return info;
         }).subscribeOn(virtualThreadScheduler);
     }
 
+    private Mono<Map<String, Object>> runSchedulerBenchmark(Scheduler scheduler, int numberOfTasks, int concurrency,
+                                                            long delayMs) {
+        return Mono.defer(() -> {
+            long startTime = System.nanoTime();
+            AtomicLong rejectedTasks = new AtomicLong();
+            AtomicLong failedTasks = new AtomicLong();
+            TaskTimer timer = new TaskTimer();
+
+            // Com um trace carregado, as tarefas chegam nos instantes do trace e esperam as latências dele
+            return Flux.range(0, numberOfTasks)
+                    .flatMap(i -> delayUntilArrival(i)
+                            // O defer roda antes do salto para o scheduler, então a submissão é
+                            // marcada antes da espera na fila dele
+                            .then(Mono.defer(() -> {
+                                Duration arrival = latencySimulator.arrivalOffset(i);
+                                long submitted = arrival.isZero() ? System.nanoTime() : startTime + arrival.toNanos();
+                                return Mono.fromSupplier(timer.time(() -> {
+                                    latencySimulator.simulate(Duration.ofMillis(delayMs));
+                                    return Thread.currentThread().isVirtual();
+                                }, submitted)).subscribeOn(scheduler);
+                            }))
+                            .onErrorResume(RejectedExecutionException.class, e -> {
+                                rejectedTasks.incrementAndGet();
+                                return Mono.empty();
+                            })
+                            .onErrorResume(SimulatedFailureException.class, e -> {
+                                failedTasks.incrementAndGet();
+                                return Mono.empty();
+                            }), concurrency)
+                    .collectList()
+                    .map(results -> {
+                        long durationMs = Math.max(1, (System.nanoTime() - startTime) / 1_000_000);
+                        return Map.of(
+                                "scheduler", scheduler.toString(),
+                                "completedTasks", results.size(),
+                                "rejectedTasks", rejectedTasks.get(),
+                                "virtualThreadsUsed", results.stream().filter(isVirtual -> isVirtual).count(),
+                                "failedTasks", failedTasks.get(),
+                                "durationMs", durationMs,
+                                "tasksPerSecond", results.size() * 1000.0 / durationMs,
+                                "schedulingDelay", timer.schedulingDelay(),
+                                "serviceTime", timer.serviceTime()
+                        );
+                    });
+        });
+    }
+
+    private Mono<Void> delayUntilArrival(long taskIndex) {
+        Duration arrival = latencySimulator.arrivalOffset(taskIndex);
+        return arrival.isZero() ? Mono.empty() : Mono.delay(arrival).then();
+    }
+
     private String callExternalService(String serviceName, int delayMs) {
+        Span span = tracer.startSpan("call " + serviceName).setAttribute("peer.service", serviceName);
         try {
-            Thread.sleep(delayMs);
-            return String.format("%s(%dms)", serviceName, delayMs);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException(e);
+            long latencyMs = latencySimulator.simulate(Duration.ofMillis(delayMs));
+            return String.format("%s(%dms)", serviceName, latencyMs);
+        } catch (RuntimeException e) {
+            span.recordError(e);
+            throw e;
+        } finally {
+            span.end();
         }
     }
 
@@ -0,0 +1,95 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import edu.renata.fraga.virtual_threads_sample.web.RequestPriority;
+import edu.renata.fraga.virtual_threads_sample.websocket.FanoutModel;
+import edu.renata.fraga.virtual_threads_sample.websocket.ProgressFeed;
+import edu.renata.fraga.virtual_threads_sample.websocket.WebSocketLoadHarness;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/websocket-fanout")
+@Tag(name = "WebSocket Fan-out API", description = "Difusão do progresso das cargas por WebSocket: Virtual Thread por conexão vs publicador reativo compartilhado")
+@RequestPriority(RequestClass.BENCHMARK)
+public class WebSocketFanoutController {
+
+    private static final int MAX_CONNECTIONS = 100_000;
+    private static final long MAX_MEASUREMENT_MS = 60_000;
+
+    @Autowired
+    private ProgressFeed progressFeed;
+
+    @Autowired
+    private WebSocketLoadHarness webSocketLoadHarness;
+
+    @Operation(
+            summary = "Estado da difusão",
+            description = "Caminhos dos endpoints WebSocket, inscritos por modelo e frames publicados"
+    )
+    @ApiResponse(responseCode = "200", description = "Estado retornado")
+    @GetMapping
+    public Map<String, Object> stats() {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (FanoutModel model : FanoutModel.values()) {
+            endpoints.put(model.name(), model.path());
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("endpoints", endpoints);
+        result.putAll(progressFeed.stats());
+        return result;
+    }
+
+    @Operation(
+            summary = "Executar cliente de carga",
+            description = "Abre as conexões contra o modelo escolhido, mede latência de difusão, memória por conexão e CPU "
+                    + "durante measureMs e fecha as conexões"
+    )
+    @ApiResponse(responseCode = "200", description = "Carga executada")
+    @GetMapping("/harness")
+    public Map<String, Object> harness(
+            @Parameter(description = "Modelo de difusão", example = "VIRTUAL_THREAD_PER_CONNECTION")
+            @RequestParam(defaultValue = "VIRTUAL_THREAD_PER_CONNECTION") FanoutModel model,
+            @Parameter(description = "Conexões WebSocket abertas", example = "10000")
+            @RequestParam(defaultValue = "10000") int connections,
+            @Parameter(description = "Duração da medição em ms", example = "5000")
+            @RequestParam(defaultValue = "5000") long measureMs) {
+        validate(connections, measureMs);
+        return webSocketLoadHarness.run(model, connections, Duration.ofMillis(measureMs));
+    }
+
+    @Operation(
+            summary = "Comparar modelos de difusão",
+            description = "Executa o cliente de carga contra os dois modelos, em sequência"
+    )
+    @ApiResponse(responseCode = "200", description = "Comparação executada")
+    @GetMapping("/harness/compare")
+    public Map<String, Object> compare(
+            @Parameter(description = "Conexões WebSocket abertas", example = "10000")
+            @RequestParam(defaultValue = "10000") int connections,
+            @Parameter(description = "Duração da medição em ms", example = "5000")
+            @RequestParam(defaultValue = "5000") long measureMs) {
+        validate(connections, measureMs);
+        return webSocketLoadHarness.compare(connections, Duration.ofMillis(measureMs));
+    }
+
+    private void validate(int connections, long measureMs) {
+        if (connections < 1 || connections > MAX_CONNECTIONS || measureMs < 1 || measureMs > MAX_MEASUREMENT_MS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "connections must be between 1 and " + MAX_CONNECTIONS + " and measureMs between 1 and " + MAX_MEASUREMENT_MS);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package edu.renata.fraga.virtual_threads_sample.dataset;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * Dataset de vendas gerado em memória, em colunas primitivas divididas em partições, para cargas
+ * de scatter-gather: cada partição é filtrada e agregada de forma independente
+ * ({@link Partition#scan}) e os agregados parciais são combinados no fim ({@link PartialAggregate#merge}).
+ * <p>
+ * Cada venda é derivada só da semente e da sua posição no dataset, então a mesma semente gera os
+ * mesmos dados com qualquer número de partições e as consultas devolvem o mesmo resultado: só a
+ * divisão do trabalho muda. As categorias são enviesadas (as menores concentram as vendas), como
+ * o catálogo de uma loja.
+ */
+public final class ColumnarDataset {
+
+    public static final int REGIONS = 16;
+    public static final int CATEGORIES = 1_000;
+    public static final int DAYS = 365;
+
+    private static final int MAX_QUANTITY = 100;
+    private static final long MIN_PRICE_CENTS = 100;
+    private static final long MAX_PRICE_CENTS = 100_000;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final List<Partition> partitions;
+    private final long records;
+    private final long seed;
+
+    private ColumnarDataset(List<Partition> partitions, long records, long seed) {
+        this.partitions = partitions;
+        this.records = records;
+        this.seed = seed;
+    }
+
+    /**
+     * Gera {@code records} vendas em {@code partitions} partições de tamanhos iguais (as primeiras
+     * recebem uma venda a mais quando a divisão não é exata). As partições são geradas em paralelo.
+     */
+    public static ColumnarDataset generate(long records, int partitions, long seed) {
+        if (records < 1 || partitions < 1 || partitions > records) {
+            throw new IllegalArgumentException("records must be positive and partitions between 1 and records");
+        }
+        long baseSize = records / partitions;
+        long remainder = records % partitions;
+        if (baseSize + 1 > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Partitions must hold less than " + (Integer.MAX_VALUE - 8) + " records");
+        }
+        List<Partition> generated = IntStream.range(0, partitions)
+                .parallel()
+                .mapToObj(index -> {
+                    long first = index * baseSize + Math.min(index, remainder);
+                    int size = (int) (baseSize + (index < remainder ? 1 : 0));
+                    return generatePartition(index, first, size, seed);
+                })
+                .toList();
+        return new ColumnarDataset(generated, records, seed);
+    }
+
+    private static Partition generatePartition(int index, long firstRecord, int size, long seed) {
+        byte[] region = new byte[size];
+        short[] category = new short[size];
+        short[] day = new short[size];
+        int[] quantity = new int[size];
+        long[] priceCents = new long[size];
+        for (int i = 0; i < size; i++) {
+            long bits = mix(seed + (firstRecord + i) * GOLDEN_GAMMA);
+            long moreBits = mix(bits);
+            region[i] = (byte) ((bits & 0xFFFF) % REGIONS);
+            double uniform = ((bits >>> 16) & 0xFFFFFF) / (double) (1 << 24);
+            category[i] = (short) (uniform * uniform * CATEGORIES);
+            day[i] = (short) ((bits >>> 40) % DAYS);
+            quantity[i] = 1 + (int) ((moreBits & 0xFFFF) % MAX_QUANTITY);
+            priceCents[i] = MIN_PRICE_CENTS + (moreBits >>> 16) % (MAX_PRICE_CENTS - MIN_PRICE_CENTS);
+        }
+        return new Partition(index, firstRecord, region, category, day, quantity, priceCents);
+    }
+
+    /**
+     * Finalizador do SplitMix64: espalha os bits de uma posição em 64 bits pseudoaleatórios.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Bytes de um array primitivo no heap: cabeçalho mais elementos, alinhado a 8 bytes.
+     */
+    static long arrayBytes(long length, int elementBytes) {
+        return (ARRAY_HEADER_BYTES + length * elementBytes + 7) & ~7L;
+    }
+
+    public List<Partition> partitions() {
+        return partitions;
+    }
+
+    public long records() {
+        return records;
+    }
+
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Bytes das colunas de todas as partições.
+     */
+    public long footprintBytes() {
+        return partitions.stream().mapToLong(Partition::footprintBytes).sum();
+    }
+
+    public Map<String, Object> describe() {
+        long footprint = footprintBytes();
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("records", records);
+        description.put("partitions", partitions.size());
+        description.put("recordsPerPartition", records / partitions.size());
+        description.put("seed", seed);
+        description.put("footprintBytes", footprint);
+        description.put("footprintMb", footprint / (1024.0 * 1024.0));
+        description.put("bytesPerRecord", (double) footprint / records);
+        description.put("columns", Map.of(
+                "region", "byte", "category", "short", "day", "short", "quantity", "int", "priceCents", "long"));
+        return description;
+    }
+}
@@ -0,0 +1,65 @@
+package edu.renata.fraga.virtual_threads_sample.dataset;
+
+/**
+ * Consulta de filtro e agregação sobre o {@link ColumnarDataset}: seleciona as vendas que passam
+ * em todos os filtros e agrega a medida escolhida (contagem, soma, média, mínimo e máximo), no
+ * total ou por grupo.
+ *
+ * @param region        região exigida, ou -1 para qualquer uma
+ * @param minCategory   menor categoria aceita, inclusive
+ * @param maxCategory   maior categoria aceita, inclusive
+ * @param minPriceCents menor preço unitário aceito, em centavos
+ * @param fromDay       primeiro dia do ano aceito (0 a 364), inclusive
+ * @param toDay         último dia do ano aceito, inclusive
+ */
+public record DatasetQuery(int region, int minCategory, int maxCategory, long minPriceCents,
+                           int fromDay, int toDay, Measure measure, GroupBy groupBy) {
+
+    public static final int ANY_REGION = -1;
+
+    public DatasetQuery {
+        if (region < ANY_REGION || region >= ColumnarDataset.REGIONS) {
+            throw new IllegalArgumentException("region must be -1 (any) or between 0 and " + (ColumnarDataset.REGIONS - 1));
+        }
+        if (minCategory < 0 || maxCategory >= ColumnarDataset.CATEGORIES || minCategory > maxCategory) {
+            throw new IllegalArgumentException("categories must satisfy 0 <= minCategory <= maxCategory < " + ColumnarDataset.CATEGORIES);
+        }
+        if (fromDay < 0 || toDay >= ColumnarDataset.DAYS || fromDay > toDay) {
+            throw new IllegalArgumentException("days must satisfy 0 <= fromDay <= toDay < " + ColumnarDataset.DAYS);
+        }
+        if (minPriceCents < 0 || measure == null || groupBy == null) {
+            throw new IllegalArgumentException("minPriceCents must be non-negative and measure and groupBy are required");
+        }
+    }
+
+    /**
+     * Todas as vendas, agregando a receita no total.
+     */
+    public static DatasetQuery all() {
+        return new DatasetQuery(ANY_REGION, 0, ColumnarDataset.CATEGORIES - 1, 0,
+                0, ColumnarDataset.DAYS - 1, Measure.REVENUE_CENTS, GroupBy.NONE);
+    }
+
+    public enum Measure {
+        QUANTITY,
+        PRICE_CENTS,
+        /** Preço unitário vezes quantidade. */
+        REVENUE_CENTS
+    }
+
+    public enum GroupBy {
+        NONE(1),
+        REGION(ColumnarDataset.REGIONS),
+        CATEGORY(ColumnarDataset.CATEGORIES);
+
+        private final int groups;
+
+        GroupBy(int groups) {
+            this.groups = groups;
+        }
+
+        public int groups() {
+            return groups;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package edu.renata.fraga.virtual_threads_sample.dataset;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agregado de uma consulta sobre uma ou mais partições: contagem, soma, mínimo e máximo por
+ * grupo, em arrays primitivos indexados pelo grupo. Agregados de partições diferentes se combinam
+ * com {@link #merge}, em qualquer ordem.
+ */
+public final class PartialAggregate {
+
+    private final DatasetQuery.GroupBy groupBy;
+    private final long[] count;
+    private final long[] sum;
+    private final long[] min;
+    private final long[] max;
+    private long scannedRecords;
+
+    PartialAggregate(DatasetQuery.GroupBy groupBy) {
+        this.groupBy = groupBy;
+        this.count = new long[groupBy.groups()];
+        this.sum = new long[groupBy.groups()];
+        this.min = new long[groupBy.groups()];
+        this.max = new long[groupBy.groups()];
+        Arrays.fill(min, Long.MAX_VALUE);
+        Arrays.fill(max, Long.MIN_VALUE);
+    }
+
+    /**
+     * Agregado neutro, ponto de partida das reduções.
+     */
+    public static PartialAggregate empty(DatasetQuery.GroupBy groupBy) {
+        return new PartialAggregate(groupBy);
+    }
+
+    void add(int group, long value) {
+        count[group]++;
+        sum[group] += value;
+        if (value < min[group]) {
+            min[group] = value;
+        }
+        if (value > max[group]) {
+            max[group] = value;
+        }
+    }
+
+    void scanned(long records) {
+        scannedRecords += records;
+    }
+
+    /**
+     * Novo agregado com os valores deste e de {@code other}; nenhum dos dois é alterado.
+     */
+    public PartialAggregate merge(PartialAggregate other) {
+        if (other.groupBy != groupBy) {
+            throw new IllegalArgumentException("Cannot merge aggregates grouped by " + groupBy + " and " + other.groupBy);
+        }
+        PartialAggregate merged = new PartialAggregate(groupBy);
+        for (int group = 0; group < count.length; group++) {
+            merged.count[group] = count[group] + other.count[group];
+            merged.sum[group] = sum[group] + other.sum[group];
+            merged.min[group] = Math.min(min[group], other.min[group]);
+            merged.max[group] = Math.max(max[group], other.max[group]);
+        }
+        merged.scannedRecords = scannedRecords + other.scannedRecords;
+        return merged;
+    }
+
+    public long scannedRecords() {
+        return scannedRecords;
+    }
+
+    public long matchedRecords() {
+        return Arrays.stream(count).sum();
+    }
+
+    public long sum() {
+        return Arrays.stream(sum).sum();
+    }
+
+    /**
+     * Bytes dos arrays do agregado, o que cada partição aloca por consulta.
+     */
+    public long footprintBytes() {
+        return 4 * ColumnarDataset.arrayBytes(count.length, Long.BYTES);
+    }
+
+    /**
+     * Resultado para a API: o total e, quando agrupado, os grupos com ao menos uma venda.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("groupBy", groupBy.name());
+        result.put("scannedRecords", scannedRecords);
+        result.put("matchedRecords", matchedRecords());
+        result.put("sum", sum());
+        if (groupBy != DatasetQuery.GroupBy.NONE) {
+            List<Map<String, Object>> groups = new ArrayList<>();
+            for (int group = 0; group < count.length; group++) {
+                if (count[group] > 0) {
+                    Map<String, Object> row = groupToMap(group);
+                    row.put("key", group);
+                    groups.add(row);
+                }
+            }
+            result.put("groups", groups);
+        } else if (count[0] > 0) {
+            result.putAll(groupToMap(0));
+        }
+        return result;
+    }
+
+    private Map<String, Object> groupToMap(int group) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("count", count[group]);
+        row.put("sum", sum[group]);
+        row.put("avg", (double) sum[group] / count[group]);
+        row.put("min", min[group]);
+        row.put("max", max[group]);
+        return row;
+    }
+}
@@ -0,0 +1,98 @@
+package edu.renata.fraga.virtual_threads_sample.dataset;
+
+/**
+ * Fatia do {@link ColumnarDataset}: uma coluna por campo, em arrays primitivos ({@code byte} e
+ * {@code short} para as dimensões, {@code int} e {@code long} para as medidas), sem um objeto por
+ * venda. A varredura percorre as colunas em sequência, o que o prefetcher da CPU acompanha, e o
+ * coletor de lixo não precisa visitar o conteúdo de arrays primitivos.
+ */
+public final class Partition {
+
+    private final int index;
+    private final long firstRecord;
+    private final byte[] region;
+    private final short[] category;
+    private final short[] day;
+    private final int[] quantity;
+    private final long[] priceCents;
+
+    Partition(int index, long firstRecord, byte[] region, short[] category, short[] day, int[] quantity, long[] priceCents) {
+        this.index = index;
+        this.firstRecord = firstRecord;
+        this.region = region;
+        this.category = category;
+        this.day = day;
+        this.quantity = quantity;
+        this.priceCents = priceCents;
+    }
+
+    public int index() {
+        return index;
+    }
+
+    /**
+     * Posição da primeira venda desta partição no dataset.
+     */
+    public long firstRecord() {
+        return firstRecord;
+    }
+
+    public int size() {
+        return region.length;
+    }
+
+    /**
+     * Filtra e agrega as vendas desta partição.
+     */
+    public PartialAggregate scan(DatasetQuery query) {
+        PartialAggregate aggregate = new PartialAggregate(query.groupBy());
+        int wantedRegion = query.region();
+        int minCategory = query.minCategory();
+        int maxCategory = query.maxCategory();
+        long minPriceCents = query.minPriceCents();
+        int fromDay = query.fromDay();
+        int toDay = query.toDay();
+        DatasetQuery.Measure measure = query.measure();
+        DatasetQuery.GroupBy groupBy = query.groupBy();
+
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            int recordRegion = region[i];
+            if (wantedRegion != DatasetQuery.ANY_REGION && recordRegion != wantedRegion) {
+                continue;
+            }
+            int recordCategory = category[i];
+            if (recordCategory < minCategory || recordCategory > maxCategory) {
+                continue;
+            }
+            int recordDay = day[i];
+            if (recordDay < fromDay || recordDay > toDay || priceCents[i] < minPriceCents) {
+                continue;
+            }
+            long value = switch (measure) {
+                case QUANTITY -> quantity[i];
+                case PRICE_CENTS -> priceCents[i];
+                case REVENUE_CENTS -> priceCents[i] * quantity[i];
+            };
+            int group = switch (groupBy) {
+                case NONE -> 0;
+                case REGION -> recordRegion;
+                case CATEGORY -> recordCategory;
+            };
+            aggregate.add(group, value);
+        }
+        aggregate.scanned(size);
+        return aggregate;
+    }
+
+    /**
+     * Bytes das colunas desta partição no heap, com os cabeçalhos dos arrays.
+     */
+    public long footprintBytes() {
+        int size = size();
+        return ColumnarDataset.arrayBytes(size, Byte.BYTES)
+                + 2 * ColumnarDataset.arrayBytes(size, Short.BYTES)
+                + ColumnarDataset.arrayBytes(size, Integer.BYTES)
+                + ColumnarDataset.arrayBytes(size, Long.BYTES);
+    }
+}
@@ -0,0 +1,122 @@
+package edu.renata.fraga.virtual_threads_sample.diagnostics;
+
+import reactor.blockhound.BlockHound;
+import reactor.core.scheduler.NonBlocking;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Detector de chamadas bloqueantes em threads não bloqueantes (schedulers {@code parallel}/{@code single}
+ * do Reactor e event loops do Netty), baseado no BlockHound.
+ * <p>
+ * Ao contrário do comportamento padrão do BlockHound, as violações não lançam exceção: são
+ * contadas por endpoint e as mais recentes ficam guardadas com stack trace. A instrumentação
+ * do BlockHound é global e não pode ser desfeita, por isso existe uma única instância.
+ * <p>
+ * No JDK 21 a JVM precisa das flags {@code -XX:+AllowRedefinitionToAddDeleteMethods} e
+ * {@code -XX:+EnableDynamicAgentLoading}.
+ */
+public final class BlockingCallDetector {
+
+    private static final BlockingCallDetector INSTANCE = new BlockingCallDetector();
+    private static final int MAX_RECENT_VIOLATIONS = 100;
+    private static final int MAX_STACK_FRAMES = 40;
+    private static final String SCHEDULE_HOOK_KEY = "blocking-call-detector";
+
+    private final AtomicBoolean installed = new AtomicBoolean();
+    private final Map<String, LongAdder> countsByEndpoint = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedDeque<BlockingCallViolation> recentViolations = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger recentCount = new AtomicInteger();
+    private final LongAdder totalViolations = new LongAdder();
+
+    private BlockingCallDetector() {
+    }
+
+    public static BlockingCallDetector getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Instala o BlockHound. Chamadas repetidas não têm efeito.
+     */
+    public void install() {
+        if (!installed.compareAndSet(false, true)) {
+            return;
+        }
+        Schedulers.onScheduleHook(SCHEDULE_HOOK_KEY, EndpointContext::propagate);
+        BlockHound.builder()
+                .nonBlockingThreadPredicate(current -> current
+                        .or(NonBlocking.class::isInstance)
+                        .or(BlockingCallDetector::isNettyEventLoop))
+                // Workers ociosos dos schedulers do Reactor esperam na fila de tarefas
+                .allowBlockingCallsInside("java.util.concurrent.ScheduledThreadPoolExecutor$DelayedWorkQueue", "take")
+                .allowBlockingCallsInside("java.util.concurrent.ScheduledThreadPoolExecutor$DelayedWorkQueue", "poll")
+                .allowBlockingCallsInside("java.util.concurrent.ScheduledThreadPoolExecutor$DelayedWorkQueue", "offer")
+                .blockingMethodCallback(method -> record(method.toString()))
+                .install();
+    }
+
+    public boolean isInstalled() {
+        return installed.get();
+    }
+
+    public long totalViolations() {
+        return totalViolations.sum();
+    }
+
+    public long violationsFor(String endpoint) {
+        LongAdder count = countsByEndpoint.get(endpoint);
+        return count == null ? 0 : count.sum();
+    }
+
+    public Map<String, Long> countsByEndpoint() {
+        Map<String, Long> counts = new TreeMap<>();
+        countsByEndpoint.forEach((endpoint, count) -> counts.put(endpoint, count.sum()));
+        return counts;
+    }
+
+    public List<BlockingCallViolation> recentViolations() {
+        return List.copyOf(recentViolations);
+    }
+
+    public void reset() {
+        countsByEndpoint.clear();
+        recentViolations.clear();
+        recentCount.set(0);
+        totalViolations.reset();
+    }
+
+    /**
+     * Executado dentro do método bloqueante instrumentado: não pode bloquear (nada de logging).
+     */
+    private void record(String blockingMethod) {
+        String endpoint = EndpointContext.current();
+        totalViolations.increment();
+        countsByEndpoint.computeIfAbsent(endpoint, key -> new LongAdder()).increment();
+
+        StackTraceElement[] frames = new Throwable().getStackTrace();
+        List<String> stackTrace = Arrays.stream(frames)
+                .limit(MAX_STACK_FRAMES)
+                .map(StackTraceElement::toString)
+                .toList();
+        recentViolations.addFirst(new BlockingCallViolation(
+                endpoint, blockingMethod, Thread.currentThread().getName(), Instant.now(), stackTrace));
+        if (recentCount.incrementAndGet() > MAX_RECENT_VIOLATIONS && recentViolations.pollLast() != null) {
+            recentCount.decrementAndGet();
+        }
+    }
+
+    private static boolean isNettyEventLoop(Thread thread) {
+        return thread.getName().startsWith("reactor-http-");
+    }
+}
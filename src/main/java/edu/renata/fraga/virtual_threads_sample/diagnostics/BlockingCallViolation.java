@@ -0,0 +1,15 @@
+package edu.renata.fraga.virtual_threads_sample.diagnostics;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Chamada bloqueante detectada em uma thread que não deveria bloquear.
+ */
+public record BlockingCallViolation(
+        String endpoint,
+        String blockingMethod,
+        String threadName,
+        Instant detectedAt,
+        List<String> stackTrace) {
+}
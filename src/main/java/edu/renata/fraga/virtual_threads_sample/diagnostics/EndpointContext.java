@@ -0,0 +1,53 @@
+package edu.renata.fraga.virtual_threads_sample.diagnostics;
+
+/**
+ * Guarda o endpoint HTTP que originou o trabalho executado na thread atual.
+ * <p>
+ * O valor é definido na thread da requisição e propagado para as threads dos schedulers
+ * do Reactor via {@link #propagate(Runnable)}, registrado como schedule hook.
+ */
+public final class EndpointContext {
+
+    public static final String UNKNOWN_ENDPOINT = "unknown";
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private EndpointContext() {
+    }
+
+    public static String current() {
+        String endpoint = CURRENT.get();
+        return endpoint == null ? UNKNOWN_ENDPOINT : endpoint;
+    }
+
+    public static void set(String endpoint) {
+        CURRENT.set(endpoint);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Envolve a tarefa para que ela execute com o endpoint capturado no momento do agendamento.
+     */
+    public static Runnable propagate(Runnable task) {
+        String endpoint = CURRENT.get();
+        if (endpoint == null) {
+            return task;
+        }
+        return () -> {
+            String previous = CURRENT.get();
+            CURRENT.set(endpoint);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+}
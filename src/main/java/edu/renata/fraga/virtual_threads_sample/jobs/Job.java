@@ -0,0 +1,167 @@
+package edu.renata.fraga.virtual_threads_sample.jobs;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Estado de um job. As transições são feitas pelo {@link JobService}; os ouvintes recebem um
+ * resumo a cada mudança de progresso ou de status.
+ */
+public final class Job {
+
+    private final String id;
+    private final JobType type;
+    private final Map<String, String> parameters;
+    private final Instant submittedAt = Instant.now();
+    private final List<Consumer<Job>> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicReference<JobStatus> status = new AtomicReference<>(JobStatus.QUEUED);
+    private volatile double progress;
+    private volatile String phase = "queued";
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile Object result;
+    private volatile String error;
+    private volatile Future<?> future;
+
+    Job(String id, JobType type, Map<String, String> parameters) {
+        this.id = id;
+        this.type = type;
+        this.parameters = Map.copyOf(parameters);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public JobType getType() {
+        return type;
+    }
+
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public JobStatus getStatus() {
+        return status.get();
+    }
+
+    public Object getResult() {
+        return result;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    /**
+     * Atualiza o progresso (0 a 1) e a fase atual; chamado pelo job entre as etapas.
+     */
+    public void progress(double fraction, String currentPhase) {
+        if (Thread.currentThread().isInterrupted() || status.get() == JobStatus.CANCELLED) {
+            throw new JobCancelledException(id);
+        }
+        this.progress = Math.min(1, Math.max(0, fraction));
+        this.phase = currentPhase;
+        notifyListeners();
+    }
+
+    public Map<String, Object> toSummary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("jobId", id);
+        summary.put("type", type.name());
+        summary.put("parameters", parameters);
+        summary.put("status", status.get().name());
+        summary.put("progress", progress);
+        summary.put("phase", phase);
+        summary.put("submittedAt", submittedAt.toString());
+        summary.put("startedAt", startedAt == null ? null : startedAt.toString());
+        summary.put("finishedAt", finishedAt == null ? null : finishedAt.toString());
+        summary.put("error", error);
+        return summary;
+    }
+
+    void addListener(Consumer<Job> listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(Consumer<Job> listener) {
+        listeners.remove(listener);
+    }
+
+    void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    Future<?> getFuture() {
+        return future;
+    }
+
+    boolean markRunning() {
+        if (!status.compareAndSet(JobStatus.QUEUED, JobStatus.RUNNING)) {
+            return false;
+        }
+        startedAt = Instant.now();
+        phase = "running";
+        notifyListeners();
+        return true;
+    }
+
+    void markSucceeded(Object jobResult) {
+        // O resultado é publicado antes do status, para quem vê SUCCEEDED sempre ver o resultado
+        result = jobResult;
+        if (finish(JobStatus.SUCCEEDED)) {
+            progress = 1;
+            phase = "done";
+            publishFinalState();
+        }
+    }
+
+    void markFailed(Throwable failure) {
+        error = failure.getClass().getSimpleName() + ": " + failure.getMessage();
+        if (finish(JobStatus.FAILED)) {
+            phase = "failed";
+            publishFinalState();
+        }
+    }
+
+    boolean markCancelled() {
+        if (finish(JobStatus.CANCELLED)) {
+            phase = "cancelled";
+            publishFinalState();
+            return true;
+        }
+        return false;
+    }
+
+    private boolean finish(JobStatus finalStatus) {
+        JobStatus current;
+        do {
+            current = status.get();
+            if (current.isFinished()) {
+                return false;
+            }
+        } while (!status.compareAndSet(current, finalStatus));
+        finishedAt = Instant.now();
+        return true;
+    }
+
+    private void publishFinalState() {
+        notifyListeners();
+        listeners.clear();
+    }
+
+    private void notifyListeners() {
+        listeners.forEach(listener -> listener.accept(this));
+    }
+}
@@ -0,0 +1,11 @@
+package edu.renata.fraga.virtual_threads_sample.jobs;
+
+/**
+ * Lançada por {@link Job#progress} quando o job foi cancelado, interrompendo as próximas etapas.
+ */
+public class JobCancelledException extends RuntimeException {
+
+    public JobCancelledException(String jobId) {
+        super("Job " + jobId + " was cancelled");
+    }
+}
@@ -0,0 +1,324 @@
+package edu.renata.fraga.virtual_threads_sample.jobs;
+
+import edu.renata.fraga.virtual_threads_sample.service.CpuWorkload;
+import edu.renata.fraga.virtual_threads_sample.service.CpuWorkloadService;
+import edu.renata.fraga.virtual_threads_sample.service.DatabaseWorkloadService;
+import edu.renata.fraga.virtual_threads_sample.service.DistributedStressTestService;
+import edu.renata.fraga.virtual_threads_sample.service.ExecutionModel;
+import edu.renata.fraga.virtual_threads_sample.service.FileIoWorkloadService;
+import edu.renata.fraga.virtual_threads_sample.service.FileReadMode;
+import edu.renata.fraga.virtual_threads_sample.service.VirtualThreadService;
+import edu.renata.fraga.virtual_threads_sample.service.WorkloadLimits;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Executa as cargas longas como jobs assíncronos, em uma faixa de execução própria e limitada:
+ * no máximo {@code jobs.max-concurrent} jobs rodando e {@code jobs.max-queued} esperando. O
+ * excedente é rejeitado, para que benchmarks não disputem recursos com o tráfego normal.
+ * <p>
+ * Os jobs terminados ficam disponíveis até o limite de {@code jobs.retained}; os mais antigos
+ * são descartados primeiro.
+ */
+@Service
+public class JobService {
+
+    private final VirtualThreadService virtualThreadService;
+    private final CpuWorkloadService cpuWorkloadService;
+    private final DatabaseWorkloadService databaseWorkloadService;
+    private final FileIoWorkloadService fileIoWorkloadService;
+    private final DistributedStressTestService distributedStressTestService;
+    private final ThreadPoolExecutor lane;
+    private final int retainedJobs;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public JobService(VirtualThreadService virtualThreadService,
+                      CpuWorkloadService cpuWorkloadService,
+                      DatabaseWorkloadService databaseWorkloadService,
+                      FileIoWorkloadService fileIoWorkloadService,
+                      DistributedStressTestService distributedStressTestService,
+                      @Value("${jobs.max-concurrent:2}") int maxConcurrent,
+                      @Value("${jobs.max-queued:10}") int maxQueued,
+                      @Value("${jobs.retained:100}") int retainedJobs) {
+        this.virtualThreadService = virtualThreadService;
+        this.cpuWorkloadService = cpuWorkloadService;
+        this.databaseWorkloadService = databaseWorkloadService;
+        this.fileIoWorkloadService = fileIoWorkloadService;
+        this.distributedStressTestService = distributedStressTestService;
+        this.retainedJobs = retainedJobs;
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.lane = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxQueued)),
+                runnable -> Thread.ofPlatform()
+                        .name("job-lane-" + threadCounter.incrementAndGet())
+                        .daemon()
+                        .unstarted(runnable),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Enfileira um job; lança {@link IllegalArgumentException} se um parâmetro for inválido e
+     * {@link RejectedExecutionException} se a faixa de jobs estiver cheia.
+     */
+    public Job submit(JobType type, Map<String, String> parameters) {
+        Function<Job, Object> work = prepare(type, parameters);
+        Job job = new Job(UUID.randomUUID().toString(), type, parameters);
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(lane.submit(() -> execute(job, work)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw e;
+        }
+        evictFinishedJobs();
+        return job;
+    }
+
+    public Optional<Job> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    public List<Job> list() {
+        List<Job> all = new ArrayList<>(jobs.values());
+        all.sort(Comparator.comparing(Job::getSubmittedAt));
+        return all;
+    }
+
+    /**
+     * Cancela um job na fila ou em execução; retorna {@code false} se ele já tinha terminado. Um job
+     * ainda na fila sai dela na hora e libera o lugar para outra submissão.
+     */
+    public boolean cancel(String jobId) {
+        Job job = jobs.get(jobId);
+        if (job == null || !job.markCancelled()) {
+            return false;
+        }
+        Future<?> future = job.getFuture();
+        if (future != null) {
+            future.cancel(true);
+            // A tarefa cancelada continuaria ocupando a fila limitada até chegar a vez dela
+            if (future instanceof Runnable queued) {
+                lane.remove(queued);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Abre um stream SSE com um evento {@code progress} a cada mudança do job; o stream é
+     * concluído depois do evento com o status final.
+     */
+    public SseEmitter stream(Job job) {
+        SseEmitter emitter = new SseEmitter(0L);
+        Consumer<Job> listener = new Consumer<>() {
+            @Override
+            public void accept(Job updated) {
+                try {
+                    emitter.send(SseEmitter.event().name("progress").data(updated.toSummary(), MediaType.APPLICATION_JSON));
+                    if (updated.getStatus().isFinished()) {
+                        emitter.complete();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // Cliente desconectado: o job segue, só o ouvinte sai
+                    job.removeListener(this);
+                }
+            }
+        };
+        emitter.onCompletion(() -> job.removeListener(listener));
+        emitter.onTimeout(() -> job.removeListener(listener));
+        emitter.onError(error -> job.removeListener(listener));
+
+        job.addListener(listener);
+        // Estado atual imediatamente; se o job já terminou, este é também o evento final
+        listener.accept(job);
+        return emitter;
+    }
+
+    public Map<String, Object> laneStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxConcurrent", lane.getMaximumPoolSize());
+        stats.put("running", lane.getActiveCount());
+        stats.put("queued", lane.getQueue().size());
+        stats.put("queueCapacity", lane.getQueue().size() + lane.getQueue().remainingCapacity());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(job -> cancel(job.getId()));
+        lane.shutdownNow();
+    }
+
+    private void execute(Job job, Function<Job, Object> work) {
+        if (!job.markRunning()) {
+            return;
+        }
+        try {
+            job.markSucceeded(work.apply(job));
+        } catch (JobCancelledException e) {
+            job.markCancelled();
+        } catch (RuntimeException e) {
+            if (Thread.currentThread().isInterrupted()) {
+                job.markCancelled();
+            } else {
+                job.markFailed(e);
+            }
+        }
+    }
+
+    /**
+     * Lê e valida os parâmetros do tipo de job e devolve a execução já com os valores convertidos,
+     * para que um parâmetro inválido seja recusado na submissão e não depois, na faixa de jobs.
+     */
+    private Function<Job, Object> prepare(JobType type, Map<String, String> parameters) {
+        return switch (type) {
+            case VIRTUAL_THREADS_COMPARE -> {
+                int tasks = intParameter(parameters, "tasks", 100);
+                int warmupRounds = intParameter(parameters, "warmupRounds", 2);
+                int rounds = intParameter(parameters, "rounds", 5);
+                long seed = longParameter(parameters, "seed", 42L);
+                WorkloadLimits.validateThreadComparison(tasks, warmupRounds, rounds);
+                yield job -> {
+                    // As rodadas intercalam as duas estratégias, então não há fases separadas
+                    job.progress(0, "interleavedRounds");
+                    return virtualThreadService.compareThreads(tasks, warmupRounds, rounds, seed);
+                };
+            }
+            case CPU_WORKLOADS_COMPARE -> {
+                CpuWorkload workload = enumParameter(parameters, "workload", CpuWorkload.MIXED);
+                int tasks = intParameter(parameters, "tasks", 100);
+                int intensity = intParameter(parameters, "intensity", 10);
+                WorkloadLimits.validateCpuWorkload(tasks, intensity);
+                yield job -> {
+                    ExecutionModel[] models = ExecutionModel.values();
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    for (int i = 0; i < models.length; i++) {
+                        job.progress((double) i / models.length, models[i].name());
+                        result.put(models[i].name(), cpuWorkloadService.run(workload, models[i], tasks, intensity));
+                    }
+                    return result;
+                };
+            }
+            case DATABASE_WORKLOADS_COMPARE -> {
+                int queries = intParameter(parameters, "queries", 1000);
+                int poolSize = intParameter(parameters, "poolSize", 10);
+                int queryLatencyMs = intParameter(parameters, "queryLatencyMs", 20);
+                int rows = intParameter(parameters, "rows", 100);
+                WorkloadLimits.validateDatabaseWorkload(queries, poolSize, queryLatencyMs, rows);
+                yield job -> {
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    job.progress(0, "jdbcVirtualThreads");
+                    result.put("jdbcVirtualThreads",
+                            databaseWorkloadService.runJdbcOnVirtualThreads(queries, poolSize, queryLatencyMs, rows));
+                    job.progress(0.5, "r2dbc");
+                    result.put("r2dbc", databaseWorkloadService.runR2dbc(queries, poolSize, queryLatencyMs, rows));
+                    return result;
+                };
+            }
+            case FILE_IO_COMPARE -> {
+                int files = intParameter(parameters, "files", 100);
+                int fileSizeKb = intParameter(parameters, "fileSizeKb", 256);
+                WorkloadLimits.validateFileIoDataset(files, fileSizeKb);
+                yield job -> {
+                    FileReadMode[] modes = FileReadMode.values();
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    for (int i = 0; i < modes.length; i++) {
+                        job.progress((double) i / modes.length, modes[i].name());
+                        result.put(modes[i].name(), fileIoWorkloadService.run(modes[i], files, fileSizeKb));
+                    }
+                    return result;
+                };
+            }
+            case CLUSTER_STRESS_TEST -> {
+                int tasks = intParameter(parameters, "tasks", 10_000);
+                int taskDurationMs = intParameter(parameters, "taskDurationMs", 100);
+                boolean includeSelf = booleanParameter(parameters, "includeSelf", true);
+                WorkloadLimits.validateClusterStressTest(tasks, taskDurationMs);
+                yield job -> {
+                    job.progress(0, "stressTest");
+                    return distributedStressTestService.coordinate(tasks, taskDurationMs, includeSelf);
+                };
+            }
+        };
+    }
+
+    private void evictFinishedJobs() {
+        List<Job> finished = jobs.values().stream()
+                .filter(job -> job.getStatus().isFinished())
+                .sorted(Comparator.comparing(Job::getFinishedAt))
+                .toList();
+        for (int i = 0; i < finished.size() - retainedJobs; i++) {
+            jobs.remove(finished.get(i).getId());
+        }
+    }
+
+    private static int intParameter(Map<String, String> parameters, String name, int defaultValue) {
+        String value = parameters.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be an integer: " + value);
+        }
+    }
+
+    private static long longParameter(Map<String, String> parameters, String name, long defaultValue) {
+        String value = parameters.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be an integer: " + value);
+        }
+    }
+
+    private static boolean booleanParameter(Map<String, String> parameters, String name, boolean defaultValue) {
+        String value = parameters.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("Parameter " + name + " must be true or false: " + value);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    private static <E extends Enum<E>> E enumParameter(Map<String, String> parameters, String name, E defaultValue) {
+        String value = parameters.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(defaultValue.getDeclaringClass(), value);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be one of "
+                    + Arrays.toString(defaultValue.getDeclaringClass().getEnumConstants()) + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package edu.renata.fraga.virtual_threads_sample.jobs;
+
+/**
+ * Execuções longas que podem rodar como job assíncrono. Os parâmetros de cada tipo são os mesmos
+ * do endpoint síncrono equivalente.
+ */
+public enum JobType {
+    /** {@code /api/virtual-threads/compare}: {@code tasks}, {@code warmupRounds}, {@code rounds}, {@code seed}. */
+    VIRTUAL_THREADS_COMPARE,
+    /** {@code /api/cpu-workloads/compare}: {@code workload}, {@code tasks}, {@code intensity}. */
+    CPU_WORKLOADS_COMPARE,
+    /** {@code /api/database-workloads/compare}: {@code queries}, {@code poolSize}, {@code queryLatencyMs}, {@code rows}. */
+    DATABASE_WORKLOADS_COMPARE,
+    /** {@code /api/virtual-threads/file-io/compare}: {@code files}, {@code fileSizeKb}. */
+    FILE_IO_COMPARE,
+    /** {@code /api/cluster/stress-test}: {@code tasks}, {@code taskDurationMs}, {@code includeSelf}. */
+    CLUSTER_STRESS_TEST
+}
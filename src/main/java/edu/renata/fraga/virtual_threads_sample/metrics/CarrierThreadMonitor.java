@@ -0,0 +1,115 @@
+package edu.renata.fraga.virtual_threads_sample.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Acompanha quantas carrier threads do scheduler de Virtual Threads existem durante um trecho de
+ * código. Operações que bloqueiam a carrier sem desmontar (I/O de arquivo, por exemplo) fazem o
+ * JDK compensar criando carriers extras, acima do paralelismo padrão.
+ * <p>
+ * Uma thread de plataforma amostra a contagem em intervalos fixos; o pico é aproximado.
+ */
+public final class CarrierThreadMonitor {
+
+    private static final String CARRIER_THREAD_CLASS = "jdk.internal.misc.CarrierThread";
+    private static final long SAMPLE_INTERVAL_MILLIS = 5;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final int carriersBefore;
+    private final AtomicInteger carriersPeak;
+    private final Thread sampler;
+    private volatile boolean running = true;
+
+    private CarrierThreadMonitor() {
+        this.carriersBefore = countCarrierThreads();
+        this.carriersPeak = new AtomicInteger(carriersBefore);
+        threadMXBean.resetPeakThreadCount();
+        this.sampler = Thread.ofPlatform()
+                .name("carrier-thread-monitor")
+                .daemon()
+                .start(this::sample);
+    }
+
+    public static CarrierThreadMonitor start() {
+        return new CarrierThreadMonitor();
+    }
+
+    /**
+     * Número de carrier threads vivas no momento.
+     */
+    public static int countCarrierThreads() {
+        return carrierThreads().size();
+    }
+
+    /**
+     * Carriers em execução, ou seja, com uma Virtual Thread montada; carriers ociosas ficam em WAITING.
+     */
+    public static int countMountedCarriers() {
+        return (int) carrierThreads().stream()
+                .filter(thread -> thread.getState() == Thread.State.RUNNABLE)
+                .count();
+    }
+
+    /**
+     * Paralelismo do scheduler padrão de Virtual Threads.
+     */
+    public static int carrierParallelism() {
+        String parallelism = System.getProperty("jdk.virtualThreadScheduler.parallelism");
+        return parallelism != null ? Integer.parseInt(parallelism) : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static List<Thread> carrierThreads() {
+        // Enumerar o grupo raiz não captura stack traces, ao contrário de Thread.getAllStackTraces()
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        Thread[] threads = new Thread[root.activeCount() + 16];
+        int count = root.enumerate(threads, true);
+        return Arrays.stream(threads, 0, count)
+                .filter(thread -> thread.getClass().getName().equals(CARRIER_THREAD_CLASS))
+                .toList();
+    }
+
+    public CarrierThreadReport stop() {
+        running = false;
+        sampler.interrupt();
+        try {
+            sampler.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        int after = countCarrierThreads();
+        int peak = Math.max(carriersPeak.get(), after);
+        return new CarrierThreadReport(carriersBefore, peak, after, threadMXBean.getPeakThreadCount());
+    }
+
+    private void sample() {
+        while (running) {
+            carriersPeak.accumulateAndGet(countCarrierThreads(), Math::max);
+            try {
+                Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param before        carriers antes do trecho medido
+     * @param peak          maior número de carriers observado
+     * @param after         carriers ao final (carriers extras ficam vivas por um tempo antes de expirar)
+     * @param jvmPeakThreads pico de threads de plataforma da JVM durante a medição
+     */
+    public record CarrierThreadReport(int before, int peak, int after, int jvmPeakThreads) {
+
+        public int growth() {
+            return peak - before;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package edu.renata.fraga.virtual_threads_sample.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+
+/**
+ * Mede o uso de CPU do processo entre {@link #start()} e {@link #stop()}.
+ * A utilização é relativa a todos os núcleos disponíveis (100% = todos os núcleos ocupados).
+ */
+public final class CpuUsageMeter {
+
+    private static final OperatingSystemMXBean OS_BEAN = ManagementFactory.getOperatingSystemMXBean();
+
+    private final long startWallNanos;
+    private final long startCpuNanos;
+
+    private CpuUsageMeter() {
+        this.startWallNanos = System.nanoTime();
+        this.startCpuNanos = processCpuTimeNanos();
+    }
+
+    public static CpuUsageMeter start() {
+        return new CpuUsageMeter();
+    }
+
+    public CpuUsage stop() {
+        long wallNanos = Math.max(1, System.nanoTime() - startWallNanos);
+        long cpuNanos = Math.max(0, processCpuTimeNanos() - startCpuNanos);
+        int processors = Runtime.getRuntime().availableProcessors();
+        double utilization = cpuNanos * 100.0 / ((double) wallNanos * processors);
+        return new CpuUsage(wallNanos, cpuNanos, Math.min(100.0, utilization), processors);
+    }
+
+    /**
+     * Tempo de CPU acumulado pelo processo, ou -1 quando a JVM não expõe essa métrica.
+     */
+    public static long processCpuTimeNanos() {
+        if (OS_BEAN instanceof com.sun.management.OperatingSystemMXBean sunBean) {
+            return sunBean.getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    public record CpuUsage(long wallTimeNanos, long processCpuTimeNanos, double utilizationPercent, int processors) {
+
+        public long wallTimeMillis() {
+            return wallTimeNanos / 1_000_000;
+        }
+
+        public long processCpuTimeMillis() {
+            return processCpuTimeNanos / 1_000_000;
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package edu.renata.fraga.virtual_threads_sample.metrics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compara estratégias repetindo cada uma várias vezes em rodadas intercaladas.
+ * <p>
+ * Rodar uma estratégia inteira e depois a outra, uma vez cada, mede a primeira com JIT e carga de
+ * classes pendentes e a segunda no estado de GC deixado pela primeira. Aqui as rodadas de
+ * aquecimento rodam todas as estratégias e são descartadas; em cada rodada medida as estratégias
+ * rodam uma vez cada, em ordem sorteada (reprodutível pela semente), então deriva de JIT, GC e
+ * ruído da máquina se espalha por todas elas. Cada repetição registra as coletas de GC e os
+ * safepoints (JFR) que aconteceram durante ela.
+ */
+public final class InterleavedTrials {
+
+    private InterleavedTrials() {
+    }
+
+    /**
+     * Uma repetição de uma estratégia; {@code warmup} indica que o resultado será descartado.
+     */
+    @FunctionalInterface
+    public interface Trial {
+
+        void run(boolean warmup);
+    }
+
+    /**
+     * Roda {@code warmupRounds} rodadas de aquecimento e {@code rounds} rodadas medidas.
+     *
+     * @param strategies estratégias por nome, na ordem em que aparecem no relatório
+     */
+    public static Report run(Map<String, Trial> strategies, int warmupRounds, int rounds, long seed) {
+        if (strategies.isEmpty()) {
+            throw new IllegalArgumentException("At least one strategy is required");
+        }
+        if (warmupRounds < 0 || rounds < 1) {
+            throw new IllegalArgumentException("warmupRounds must be >= 0 and rounds >= 1");
+        }
+        Random random = new Random(seed);
+        List<String> order = new ArrayList<>(strategies.keySet());
+
+        for (int round = 0; round < warmupRounds; round++) {
+            Collections.shuffle(order, random);
+            for (String strategy : order) {
+                strategies.get(strategy).run(true);
+            }
+        }
+
+        List<TrialWindow> windows = new ArrayList<>();
+        SafepointMonitor.SafepointLog safepointLog;
+        try (SafepointMonitor safepointMonitor = SafepointMonitor.start()) {
+            for (int round = 0; round < rounds; round++) {
+                Collections.shuffle(order, random);
+                for (int position = 0; position < order.size(); position++) {
+                    String strategy = order.get(position);
+                    long gcCollections = gcCollections();
+                    long gcTime = gcTimeMillis();
+                    Instant startInstant = Instant.now();
+                    long start = System.nanoTime();
+
+                    strategies.get(strategy).run(false);
+
+                    long durationNanos = System.nanoTime() - start;
+                    windows.add(new TrialWindow(round, position, strategy, durationNanos,
+                            gcCollections() - gcCollections, gcTimeMillis() - gcTime,
+                            startInstant, Instant.now()));
+                }
+            }
+            safepointLog = safepointMonitor.stop();
+        }
+
+        List<TrialResult> trials = new ArrayList<>(windows.size());
+        for (TrialWindow window : windows) {
+            trials.add(new TrialResult(window.round(), window.position(), window.strategy(), window.durationNanos(),
+                    window.gcCollections(), window.gcTimeMillis(),
+                    safepointLog.count(window.start(), window.end()),
+                    safepointLog.syncNanos(window.start(), window.end())));
+        }
+        return new Report(List.copyOf(strategies.keySet()), warmupRounds, rounds, seed, trials);
+    }
+
+    private static long gcCollections() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .filter(count -> count > 0)
+                .sum();
+    }
+
+    private static long gcTimeMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .filter(time -> time > 0)
+                .sum();
+    }
+
+    private record TrialWindow(int round, int position, String strategy, long durationNanos,
+                               long gcCollections, long gcTimeMillis, Instant start, Instant end) {
+    }
+
+    /**
+     * @param round          rodada medida, a partir de 0
+     * @param position       posição sorteada da estratégia na rodada
+     * @param safepoints     safepoints iniciados durante a repetição, ou -1 sem JFR
+     * @param safepointNanos soma do tempo até o safepoint, ou -1 sem JFR
+     */
+    public record TrialResult(int round, int position, String strategy, long durationNanos,
+                              long gcCollections, long gcTimeMillis, long safepoints, long safepointNanos) {
+
+        public double durationMillis() {
+            return durationNanos / 1_000_000.0;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> trial = new LinkedHashMap<>();
+            trial.put("round", round);
+            trial.put("position", position);
+            trial.put("strategy", strategy);
+            trial.put("durationMs", durationMillis());
+            trial.put("gcCollections", gcCollections);
+            trial.put("gcTimeMs", gcTimeMillis);
+            trial.put("safepoints", safepoints);
+            trial.put("timeToSafepointMs", safepointNanos < 0 ? -1.0 : safepointNanos / 1_000_000.0);
+            return trial;
+        }
+    }
+
+    public record Report(List<String> strategies, int warmupRounds, int rounds, long seed, List<TrialResult> trials) {
+
+        /**
+         * Durações em ms das repetições medidas da estratégia, na ordem das rodadas.
+         */
+        public double[] durationsMillis(String strategy) {
+            return trials.stream()
+                    .filter(trial -> trial.strategy().equals(strategy))
+                    .mapToDouble(TrialResult::durationMillis)
+                    .toArray();
+        }
+
+        /**
+         * Estatísticas da estratégia e o GC e os safepoints somados das suas repetições.
+         */
+        public Map<String, Object> statistics(String strategy) {
+            Map<String, Object> statistics = TrialStatistics.summarize(durationsMillis(strategy));
+            List<TrialResult> ofStrategy = trials.stream().filter(trial -> trial.strategy().equals(strategy)).toList();
+            statistics.put("gcCollections", ofStrategy.stream().mapToLong(TrialResult::gcCollections).sum());
+            statistics.put("gcTimeMs", ofStrategy.stream().mapToLong(TrialResult::gcTimeMillis).sum());
+            statistics.put("trialsWithGc", ofStrategy.stream().filter(trial -> trial.gcCollections() > 0).count());
+            boolean safepointsRecorded = ofStrategy.stream().allMatch(trial -> trial.safepoints() >= 0);
+            statistics.put("safepoints", safepointsRecorded ? ofStrategy.stream().mapToLong(TrialResult::safepoints).sum() : -1L);
+            statistics.put("timeToSafepointMs", safepointsRecorded
+                    ? ofStrategy.stream().mapToLong(TrialResult::safepointNanos).sum() / 1_000_000.0
+                    : -1.0);
+            return statistics;
+        }
+
+        /**
+         * Teste t de Welch entre as médias de {@code candidate} e {@code baseline}.
+         */
+        public Map<String, Object> compare(String candidate, String baseline) {
+            return TrialStatistics.compare(candidate, durationsMillis(candidate), baseline, durationsMillis(baseline));
+        }
+
+        public List<Map<String, Object>> trialsToMaps() {
+            return trials.stream().map(TrialResult::toMap).toList();
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package edu.renata.fraga.virtual_threads_sample.metrics;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Telemetria da JVM para o stream SSE de {@code /api/system-info/stream}.
+ * <p>
+ * Uma única thread amostra heap, pausas de GC, carriers, Virtual Threads, CPU e taxa de alocação
+ * em intervalo fixo, serializa o frame uma vez e o coloca na fila de cada inscrito. Cada inscrito
+ * tem uma fila limitada ({@code api.system-info.stream-buffer}) esvaziada por uma Virtual Thread
+ * própria, então um cliente lento não atrasa a amostragem nem os outros inscritos: com a fila
+ * cheia, o frame mais antigo é descartado. A amostragem só roda enquanto houver inscritos.
+ * <p>
+ * Contar as Virtual Threads criadas e encerradas exige os eventos JFR {@code jdk.VirtualThreadStart}
+ * e {@code jdk.VirtualThreadEnd}, emitidos a cada Virtual Thread; por isso a contagem é opcional
+ * ({@code api.system-info.count-virtual-threads}) e, desligada, os contadores ficam em -1.
+ */
+@Component
+public class JvmTelemetrySampler {
+
+    private static final String VIRTUAL_THREAD_START = "jdk.VirtualThreadStart";
+    private static final String VIRTUAL_THREAD_END = "jdk.VirtualThreadEnd";
+
+    private final ObjectMapper objectMapper;
+    private final Duration interval;
+    private final int bufferSize;
+    private final boolean countVirtualThreads;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable ->
+            Thread.ofPlatform().name("jvm-telemetry-sampler").daemon().unstarted(runnable));
+
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+    private final List<GarbageCollectorMXBean> garbageCollectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final com.sun.management.OperatingSystemMXBean operatingSystem =
+            (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final AtomicLong virtualThreadsStarted = new AtomicLong();
+    private final AtomicLong virtualThreadsEnded = new AtomicLong();
+    private final LongAdder droppedFrames = new LongAdder();
+
+    // ReentrantLock em vez de synchronized: subscribe() roda em Virtual Threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private ScheduledFuture<?> task;
+    private RecordingStream virtualThreadEvents;
+    private long lastSampleNanos;
+    private long lastGcCount;
+    private long lastGcTimeMillis;
+    private long lastAllocatedBytes;
+    private volatile String lastFrame;
+
+    public JvmTelemetrySampler(ObjectMapper objectMapper,
+                               @Value("${api.system-info.stream-interval:1s}") Duration interval,
+                               @Value("${api.system-info.stream-buffer:8}") int bufferSize,
+                               @Value("${api.system-info.count-virtual-threads:false}") boolean countVirtualThreads) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("bufferSize must be positive");
+        }
+        this.objectMapper = objectMapper;
+        this.interval = interval;
+        this.bufferSize = bufferSize;
+        this.countVirtualThreads = countVirtualThreads;
+        resetBaseline();
+    }
+
+    /**
+     * Registra um inscrito; ele recebe o último frame já calculado e, depois, um frame por intervalo.
+     */
+    public SseEmitter subscribe() {
+        return subscribe(new SseEmitter(0L));
+    }
+
+    SseEmitter subscribe(SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        subscribers.add(subscriber);
+        subscriber.start();
+        startIfNeeded();
+
+        String frame = lastFrame;
+        if (frame != null) {
+            subscriber.offer(frame);
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Frames descartados porque a fila de algum inscrito estava cheia.
+     */
+    public long getDroppedFrames() {
+        return droppedFrames.sum();
+    }
+
+    public boolean isSampling() {
+        lock.lock();
+        try {
+            return task != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Coleta um frame agora, sem enviá-lo aos inscritos.
+     */
+    Map<String, Object> sampleNow() {
+        lock.lock();
+        try {
+            return collect();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(Subscriber::close);
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        stopIfIdle();
+        sampler.shutdownNow();
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.close();
+        stopIfIdle();
+    }
+
+    private void startIfNeeded() {
+        lock.lock();
+        try {
+            if (task != null) {
+                return;
+            }
+            virtualThreadEvents = countVirtualThreads ? startVirtualThreadEvents() : null;
+            resetBaseline();
+            task = sampler.scheduleAtFixedRate(this::publish, interval.toNanos(), interval.toNanos(), TimeUnit.NANOSECONDS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void stopIfIdle() {
+        lock.lock();
+        try {
+            if (!subscribers.isEmpty() || task == null) {
+                return;
+            }
+            task.cancel(false);
+            task = null;
+            if (virtualThreadEvents != null) {
+                virtualThreadEvents.close();
+                virtualThreadEvents = null;
+            }
+            lastFrame = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void publish() {
+        String frame;
+        lock.lock();
+        try {
+            frame = objectMapper.writeValueAsString(collect());
+            lastFrame = frame;
+        } catch (JsonProcessingException e) {
+            return;
+        } finally {
+            lock.unlock();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(frame);
+        }
+    }
+
+    private RecordingStream startVirtualThreadEvents() {
+        virtualThreadsStarted.set(0);
+        virtualThreadsEnded.set(0);
+        try {
+            RecordingStream stream = new RecordingStream();
+            stream.enable(VIRTUAL_THREAD_START);
+            stream.enable(VIRTUAL_THREAD_END);
+            stream.onEvent(VIRTUAL_THREAD_START, event -> virtualThreadsStarted.incrementAndGet());
+            stream.onEvent(VIRTUAL_THREAD_END, event -> virtualThreadsEnded.incrementAndGet());
+            stream.startAsync();
+            return stream;
+        } catch (RuntimeException e) {
+            // JFR indisponível: os contadores de Virtual Threads ficam em -1 como com a contagem desligada
+            return null;
+        }
+    }
+
+    private void resetBaseline() {
+        lastSampleNanos = System.nanoTime();
+        lastGcCount = totalGcCount();
+        lastGcTimeMillis = totalGcTimeMillis();
+        lastAllocatedBytes = threadMXBean.getTotalThreadAllocatedBytes();
+    }
+
+    private Map<String, Object> collect() {
+        long now = System.nanoTime();
+        double elapsedSeconds = Math.max(1, now - lastSampleNanos) / 1_000_000_000.0;
+        long gcCount = totalGcCount();
+        long gcTimeMillis = totalGcTimeMillis();
+        long allocatedBytes = threadMXBean.getTotalThreadAllocatedBytes();
+
+        MemoryUsage heap = memoryMXBean.getHeapMemoryUsage();
+        Map<String, Object> heapFrame = new LinkedHashMap<>();
+        heapFrame.put("used", heap.getUsed());
+        heapFrame.put("committed", heap.getCommitted());
+        heapFrame.put("max", heap.getMax());
+
+        Map<String, Object> gcFrame = new LinkedHashMap<>();
+        gcFrame.put("collections", gcCount - lastGcCount);
+        gcFrame.put("pauseTimeMs", gcTimeMillis - lastGcTimeMillis);
+        gcFrame.put("totalCollections", gcCount);
+        gcFrame.put("totalPauseTimeMs", gcTimeMillis);
+
+        int mountedCarriers = CarrierThreadMonitor.countMountedCarriers();
+        Map<String, Object> carriersFrame = new LinkedHashMap<>();
+        carriersFrame.put("parallelism", CarrierThreadMonitor.carrierParallelism());
+        carriersFrame.put("poolSize", CarrierThreadMonitor.countCarrierThreads());
+        carriersFrame.put("active", mountedCarriers);
+
+        Map<String, Object> virtualThreadsFrame = new LinkedHashMap<>();
+        boolean counting = virtualThreadEvents != null;
+        long started = virtualThreadsStarted.get();
+        long ended = virtualThreadsEnded.get();
+        virtualThreadsFrame.put("mounted", mountedCarriers);
+        virtualThreadsFrame.put("startedSinceStreamStart", counting ? started : -1);
+        virtualThreadsFrame.put("endedSinceStreamStart", counting ? ended : -1);
+        // Só enxerga Virtual Threads criadas depois do início do stream
+        virtualThreadsFrame.put("live", counting ? Math.max(0, started - ended) : -1);
+
+        Map<String, Object> cpuFrame = new LinkedHashMap<>();
+        cpuFrame.put("processLoad", operatingSystem.getProcessCpuLoad());
+        cpuFrame.put("systemLoad", operatingSystem.getCpuLoad());
+
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("timestamp", Instant.now().toString());
+        frame.put("heap", heapFrame);
+        frame.put("gc", gcFrame);
+        frame.put("carrierThreads", carriersFrame);
+        frame.put("virtualThreads", virtualThreadsFrame);
+        frame.put("platformThreads", threadMXBean.getThreadCount());
+        frame.put("cpu", cpuFrame);
+        frame.put("allocationRateMbPerSecond", (allocatedBytes - lastAllocatedBytes) / (1024.0 * 1024.0) / elapsedSeconds);
+
+        lastSampleNanos = now;
+        lastGcCount = gcCount;
+        lastGcTimeMillis = gcTimeMillis;
+        lastAllocatedBytes = allocatedBytes;
+        return frame;
+    }
+
+    /**
+     * Inscrito do stream: a fila de frames e a Virtual Thread que os envia ao cliente.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final ArrayBlockingQueue<String> frames;
+        private volatile Thread sender;
+
+        Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.frames = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void start() {
+            sender = Thread.ofVirtual().name("jvm-telemetry-sender").start(this::drain);
+        }
+
+        /**
+         * Enfileira o frame sem bloquear; com a fila cheia, descarta o mais antigo.
+         */
+        void offer(String frame) {
+            while (!frames.offer(frame)) {
+                if (frames.poll() != null) {
+                    droppedFrames.increment();
+                }
+            }
+        }
+
+        void close() {
+            Thread thread = sender;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    String frame = frames.take();
+                    emitter.send(SseEmitter.event().name("telemetry").data(frame, MediaType.APPLICATION_JSON));
+                }
+            } catch (InterruptedException e) {
+                // Inscrito removido
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado: o callback de erro/conclusão também tenta remover o inscrito
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                stopIfIdle();
+            }
+        }
+    }
+
+    private long totalGcCount() {
+        return garbageCollectors.stream().mapToLong(gc -> Math.max(0, gc.getCollectionCount())).sum();
+    }
+
+    private long totalGcTimeMillis() {
+        return garbageCollectors.stream().mapToLong(gc -> Math.max(0, gc.getCollectionTime())).sum();
+    }
+}
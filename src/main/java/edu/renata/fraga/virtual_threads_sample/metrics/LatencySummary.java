@@ -0,0 +1,49 @@
+package edu.renata.fraga.virtual_threads_sample.metrics;
+
+import org.HdrHistogram.AbstractHistogram;
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Histogramas de latência em nanossegundos e seu resumo em milissegundos para as respostas da API.
+ */
+public final class LatencySummary {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private LatencySummary() {
+    }
+
+    /**
+     * Histograma seguro para gravação concorrente, com faixa de 1 ns a 1 h.
+     */
+    public static ConcurrentHistogram newHistogram() {
+        return new ConcurrentHistogram(1, HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    }
+
+    /**
+     * Grava um valor limitando-o à faixa do histograma.
+     */
+    public static void record(AbstractHistogram histogram, long nanos) {
+        histogram.recordValue(Math.min(Math.max(nanos, 1), HIGHEST_TRACKABLE_NANOS));
+    }
+
+    public static Map<String, Object> toMillis(AbstractHistogram histogram) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getTotalCount());
+        if (histogram.getTotalCount() == 0) {
+            return summary;
+        }
+        summary.put("meanMs", histogram.getMean() / 1_000_000.0);
+        summary.put("p50Ms", histogram.getValueAtPercentile(50) / 1_000_000.0);
+        summary.put("p90Ms", histogram.getValueAtPercentile(90) / 1_000_000.0);
+        summary.put("p99Ms", histogram.getValueAtPercentile(99) / 1_000_000.0);
+        summary.put("p999Ms", histogram.getValueAtPercentile(99.9) / 1_000_000.0);
+        summary.put("maxMs", histogram.getMaxValue() / 1_000_000.0);
+        return summary;
+    }
+}
@@ -0,0 +1,96 @@
+package edu.renata.fraga.virtual_threads_sample.metrics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Conta os eventos JFR {@code jdk.VirtualThreadPinned} (Virtual Thread bloqueada sem poder
+ * desmontar da carrier, por exemplo dentro de {@code synchronized}) durante um trecho de código.
+ * <p>
+ * O JFR é global à JVM: execuções simultâneas contam os pinnings umas das outras.
+ */
+public final class PinningMonitor implements AutoCloseable {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int TOP_FRAMES = 5;
+
+    private final RecordingStream stream;
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final Map<String, LongAdder> framesCount = new ConcurrentHashMap<>();
+
+    private PinningMonitor(Duration threshold) {
+        RecordingStream recordingStream;
+        try {
+            recordingStream = new RecordingStream();
+            recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+            recordingStream.startAsync();
+        } catch (RuntimeException e) {
+            // JFR indisponível (ex.: desabilitado na JVM): o relatório indica -1
+            recordingStream = null;
+        }
+        this.stream = recordingStream;
+    }
+
+    /**
+     * Começa a contar pinnings com duração igual ou superior a {@code threshold}.
+     */
+    public static PinningMonitor start(Duration threshold) {
+        return new PinningMonitor(threshold);
+    }
+
+    /**
+     * Para a gravação, esperando o processamento dos eventos pendentes, e devolve o relatório.
+     */
+    public PinningReport stop() {
+        if (stream == null) {
+            return new PinningReport(-1, 0, Map.of());
+        }
+        stream.stop();
+        stream.close();
+
+        Map<String, Long> topFrames = new LinkedHashMap<>();
+        framesCount.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed())
+                .limit(TOP_FRAMES)
+                .forEach(entry -> topFrames.put(entry.getKey(), entry.getValue().sum()));
+        return new PinningReport(pinnedEvents.sum(), pinnedNanos.sum() / 1_000_000, topFrames);
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedEvents.increment();
+        pinnedNanos.add(event.getDuration().toNanos());
+        if (event.getStackTrace() != null) {
+            event.getStackTrace().getFrames().stream()
+                    .filter(RecordedFrame::isJavaFrame)
+                    .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+                    .filter(frame -> !frame.startsWith("java.") && !frame.startsWith("jdk.") && !frame.startsWith("sun."))
+                    .findFirst()
+                    .ifPresent(frame -> framesCount.computeIfAbsent(frame, key -> new LongAdder()).increment());
+        }
+    }
+
+    /**
+     * @param pinnedEvents      número de eventos de pinning, ou -1 se o JFR não estava disponível
+     * @param totalPinnedMillis soma da duração dos pinnings
+     * @param topFrames         primeiros frames fora do JDK nos pinnings mais frequentes
+     */
+    public record PinningReport(long pinnedEvents, long totalPinnedMillis, Map<String, Long> topFrames) {
+    }
+}
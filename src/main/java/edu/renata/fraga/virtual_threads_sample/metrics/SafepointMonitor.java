@@ -0,0 +1,107 @@
+package edu.renata.fraga.virtual_threads_sample.metrics;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Grava os eventos JFR {@code jdk.SafepointBegin} (tempo até todas as threads pararem no
+ * safepoint) durante um trecho de código, para atribuí-los depois às janelas de tempo de cada
+ * repetição de um benchmark.
+ * <p>
+ * Como no {@link PinningMonitor}, o JFR é global à JVM: execuções simultâneas veem os safepoints
+ * umas das outras.
+ */
+public final class SafepointMonitor implements AutoCloseable {
+
+    private static final String SAFEPOINT_EVENT = "jdk.SafepointBegin";
+
+    private final RecordingStream stream;
+    private final Queue<Safepoint> safepoints = new ConcurrentLinkedQueue<>();
+
+    private SafepointMonitor() {
+        RecordingStream recordingStream;
+        try {
+            recordingStream = new RecordingStream();
+            recordingStream.enable(SAFEPOINT_EVENT);
+            recordingStream.onEvent(SAFEPOINT_EVENT, this::onSafepoint);
+            recordingStream.startAsync();
+        } catch (RuntimeException e) {
+            // JFR indisponível: o relatório indica -1
+            recordingStream = null;
+        }
+        this.stream = recordingStream;
+    }
+
+    public static SafepointMonitor start() {
+        return new SafepointMonitor();
+    }
+
+    /**
+     * Para a gravação, esperando o processamento dos eventos pendentes, e devolve os safepoints
+     * gravados.
+     */
+    public SafepointLog stop() {
+        if (stream == null) {
+            return new SafepointLog(null);
+        }
+        stream.stop();
+        stream.close();
+        return new SafepointLog(List.copyOf(safepoints));
+    }
+
+    @Override
+    public void close() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onSafepoint(RecordedEvent event) {
+        safepoints.add(new Safepoint(event.getStartTime(), event.getDuration().toNanos()));
+    }
+
+    /**
+     * @param start     início do safepoint
+     * @param syncNanos tempo até todas as threads pararem
+     */
+    public record Safepoint(Instant start, long syncNanos) {
+    }
+
+    /**
+     * Safepoints gravados; {@code null} quando o JFR não estava disponível.
+     */
+    public record SafepointLog(List<Safepoint> safepoints) {
+
+        /**
+         * Safepoints iniciados no intervalo {@code [from, to)}, ou -1 sem JFR.
+         */
+        public long count(Instant from, Instant to) {
+            if (safepoints == null) {
+                return -1;
+            }
+            return safepoints.stream().filter(safepoint -> within(safepoint, from, to)).count();
+        }
+
+        /**
+         * Soma do tempo até o safepoint dos safepoints iniciados em {@code [from, to)}, ou -1 sem JFR.
+         */
+        public long syncNanos(Instant from, Instant to) {
+            if (safepoints == null) {
+                return -1;
+            }
+            return safepoints.stream()
+                    .filter(safepoint -> within(safepoint, from, to))
+                    .mapToLong(Safepoint::syncNanos)
+                    .sum();
+        }
+
+        private static boolean within(Safepoint safepoint, Instant from, Instant to) {
+            return !safepoint.start().isBefore(from) && safepoint.start().isBefore(to);
+        }
+    }
+}
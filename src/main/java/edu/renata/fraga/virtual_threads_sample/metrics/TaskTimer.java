@@ -0,0 +1,73 @@
+package edu.renata.fraga.virtual_threads_sample.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Separa o tempo de cada tarefa em atraso de escalonamento (da submissão ao início) e tempo de
+ * serviço (do início ao fim), gravados com {@code System.nanoTime} em histogramas sem lock.
+ * <p>
+ * O instante de submissão é o momento em que a tarefa é embrulhada, então o embrulho deve
+ * acontecer logo antes de entregá-la ao executor ou scheduler.
+ */
+public final class TaskTimer {
+
+    private final ConcurrentHistogram schedulingDelay = LatencySummary.newHistogram();
+    private final ConcurrentHistogram serviceTime = LatencySummary.newHistogram();
+
+    public <T> Supplier<T> time(Supplier<T> task) {
+        return time(task, System.nanoTime());
+    }
+
+    /**
+     * Como {@link #time(Supplier)}, com o instante de submissão informado (ex.: a chegada prevista
+     * em um trace reproduzido).
+     */
+    public <T> Supplier<T> time(Supplier<T> task, long submitted) {
+        return () -> {
+            long started = start(submitted);
+            try {
+                return task.get();
+            } finally {
+                LatencySummary.record(serviceTime, System.nanoTime() - started);
+            }
+        };
+    }
+
+    public Map<String, Object> schedulingDelay() {
+        return LatencySummary.toMillis(schedulingDelay);
+    }
+
+    public Map<String, Object> serviceTime() {
+        return LatencySummary.toMillis(serviceTime);
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> timings = new LinkedHashMap<>();
+        timings.put("schedulingDelay", schedulingDelay());
+        timings.put("serviceTime", serviceTime());
+        return timings;
+    }
+
+    /**
+     * Percentil em ms do atraso de escalonamento e do tempo de serviço, para mensagens de texto.
+     */
+    public String describe(double percentile) {
+        return String.format("scheduling delay p%s %.1f ms, service time p%s %.1f ms",
+                formatPercentile(percentile), schedulingDelay.getValueAtPercentile(percentile) / 1_000_000.0,
+                formatPercentile(percentile), serviceTime.getValueAtPercentile(percentile) / 1_000_000.0);
+    }
+
+    private long start(long submitted) {
+        long started = System.nanoTime();
+        LatencySummary.record(schedulingDelay, started - submitted);
+        return started;
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,132 @@
+package edu.renata.fraga.virtual_threads_sample.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estatísticas das repetições de um benchmark: média com intervalo de confiança de 95% (t de
+ * Student) e teste t de Welch para a diferença entre duas estratégias, que não supõe variâncias
+ * iguais.
+ */
+public final class TrialStatistics {
+
+    /**
+     * Quantil 0,975 da distribuição t para 1 a 30 graus de liberdade.
+     */
+    private static final double[] T_975 = {
+            12.706, 4.303, 3.182, 2.776, 2.571, 2.447, 2.365, 2.306, 2.262, 2.228,
+            2.201, 2.179, 2.160, 2.145, 2.131, 2.120, 2.110, 2.101, 2.093, 2.086,
+            2.080, 2.074, 2.069, 2.064, 2.060, 2.056, 2.052, 2.048, 2.045, 2.042
+    };
+    private static final double Z_975 = 1.959964;
+
+    private TrialStatistics() {
+    }
+
+    /**
+     * Média, desvio padrão, intervalo de confiança de 95% da média, mínimo, máximo e coeficiente de
+     * variação das amostras em ms.
+     */
+    public static Map<String, Object> summarize(double[] samplesMs) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        int n = samplesMs.length;
+        summary.put("n", n);
+        if (n == 0) {
+            return summary;
+        }
+        double mean = mean(samplesMs);
+        double stdDev = Math.sqrt(variance(samplesMs, mean));
+        double margin = n > 1 ? tCritical(n - 1) * stdDev / Math.sqrt(n) : Double.NaN;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (double sample : samplesMs) {
+            min = Math.min(min, sample);
+            max = Math.max(max, sample);
+        }
+        summary.put("meanMs", mean);
+        summary.put("stdDevMs", stdDev);
+        summary.put("ci95LowMs", mean - margin);
+        summary.put("ci95HighMs", mean + margin);
+        summary.put("minMs", min);
+        summary.put("maxMs", max);
+        summary.put("cvPercent", mean > 0 ? stdDev * 100.0 / mean : 0.0);
+        return summary;
+    }
+
+    /**
+     * Teste t de Welch (bicaudal, 95%) para a diferença das médias {@code candidate - baseline}.
+     * A diferença é significativa quando o intervalo de confiança dela não contém zero.
+     */
+    public static Map<String, Object> compare(String candidate, double[] candidateMs, String baseline, double[] baselineMs) {
+        if (candidateMs.length < 2 || baselineMs.length < 2) {
+            throw new IllegalArgumentException("At least two trials per strategy are required");
+        }
+        double candidateMean = mean(candidateMs);
+        double baselineMean = mean(baselineMs);
+        double candidateTerm = variance(candidateMs, candidateMean) / candidateMs.length;
+        double baselineTerm = variance(baselineMs, baselineMean) / baselineMs.length;
+        double standardError = Math.sqrt(candidateTerm + baselineTerm);
+        double difference = candidateMean - baselineMean;
+
+        // Welch-Satterthwaite; sem variância nenhuma (ex.: amostras idênticas) vale o caso agrupado
+        double degreesOfFreedom = standardError > 0
+                ? Math.pow(candidateTerm + baselineTerm, 2)
+                / (candidateTerm * candidateTerm / (candidateMs.length - 1) + baselineTerm * baselineTerm / (baselineMs.length - 1))
+                : candidateMs.length + baselineMs.length - 2;
+        double margin = tCritical(degreesOfFreedom) * standardError;
+        boolean significant = standardError > 0 ? Math.abs(difference) > margin : difference != 0;
+
+        Map<String, Object> comparison = new LinkedHashMap<>();
+        comparison.put("candidate", candidate);
+        comparison.put("baseline", baseline);
+        comparison.put("differenceMs", difference);
+        comparison.put("ci95LowMs", difference - margin);
+        comparison.put("ci95HighMs", difference + margin);
+        comparison.put("tStatistic", standardError > 0 ? difference / standardError : 0.0);
+        comparison.put("degreesOfFreedom", degreesOfFreedom);
+        comparison.put("speedup", candidateMean > 0 ? baselineMean / candidateMean : 0.0);
+        comparison.put("significant", significant);
+        String faster = difference < 0 ? candidate : baseline;
+        comparison.put("faster", significant ? faster : null);
+        comparison.put("verdict", significant
+                ? String.format("%s is faster by %.1f ms (%.1f%%), significant at 95%% confidence",
+                faster, Math.abs(difference), Math.abs(difference) * 100.0 / Math.max(candidateMean, baselineMean))
+                : String.format("No significant difference at 95%% confidence (difference %.1f ms, CI %.1f..%.1f ms); run more trials",
+                difference, difference - margin, difference + margin));
+        return comparison;
+    }
+
+    /**
+     * Quantil 0,975 da distribuição t. Graus de liberdade fracionários (Welch) são arredondados
+     * para baixo, o que só alarga o intervalo; acima de 30 usa a expansão de Cornish-Fisher.
+     */
+    static double tCritical(double degreesOfFreedom) {
+        int df = (int) Math.max(1, Math.floor(degreesOfFreedom));
+        if (df <= T_975.length) {
+            return T_975[df - 1];
+        }
+        double z = Z_975;
+        double z3 = z * z * z;
+        double z5 = z3 * z * z;
+        return z + (z3 + z) / (4.0 * df) + (5 * z5 + 16 * z3 + 3 * z) / (96.0 * df * df);
+    }
+
+    private static double mean(double[] samples) {
+        double sum = 0;
+        for (double sample : samples) {
+            sum += sample;
+        }
+        return sum / samples.length;
+    }
+
+    private static double variance(double[] samples, double mean) {
+        if (samples.length < 2) {
+            return 0;
+        }
+        double sumOfSquares = 0;
+        for (double sample : samples) {
+            sumOfSquares += (sample - mean) * (sample - mean);
+        }
+        return sumOfSquares / (samples.length - 1);
+    }
+}
@@ -0,0 +1,236 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Artefatos grandes (dumps de threads e datasets) gravados em disco para download.
+ * <p>
+ * Os artefatos são gerados direto em arquivo, sem passar pelo heap como {@code String} ou
+ * {@code byte[]} do tamanho do arquivo, para não interferir nas medições feitas no mesmo nó.
+ * <p>
+ * O diretório guarda no máximo {@code artifacts.max-total-size-mb}: ao gerar um artefato, os
+ * mais antigos são apagados até o total caber no limite. Arquivos {@code .partial} (em geração)
+ * não são listados nem entregues.
+ */
+@Service
+public class ArtifactService {
+
+    private static final Pattern ARTIFACT_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+    private static final int WRITE_CHUNK_SIZE = 1024 * 1024;
+    private static final String PARTIAL_SUFFIX = ".partial";
+
+    private final Path directory;
+    private final long maxTotalBytes;
+    private final ReentrantLock retentionLock = new ReentrantLock();
+
+    public ArtifactService(@Value("${artifacts.directory}") Path directory,
+                           @Value("${artifacts.max-total-size-mb:16384}") long maxTotalSizeMb) {
+        if (maxTotalSizeMb < 1) {
+            throw new IllegalArgumentException("artifacts.max-total-size-mb must be at least 1");
+        }
+        this.directory = directory.toAbsolutePath().normalize();
+        this.maxTotalBytes = maxTotalSizeMb * WRITE_CHUNK_SIZE;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public List<Map<String, Object>> list() {
+        return artifacts().stream()
+                .sorted()
+                .map(this::describe)
+                .toList();
+    }
+
+    /**
+     * Localiza um artefato pelo nome; nomes com separadores de caminho ou fora do diretório são ignorados.
+     */
+    public Optional<Path> find(String name) {
+        if (!isArtifactName(name)) {
+            return Optional.empty();
+        }
+        Path file = directory.resolve(name).normalize();
+        if (!file.startsWith(directory) || !Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+
+    /**
+     * Apaga um artefato; download em andamento continua lendo o arquivo já aberto.
+     *
+     * @return a descrição do artefato apagado, ou vazio se ele não existe
+     */
+    public Optional<Map<String, Object>> delete(String name) {
+        return find(name).map(file -> {
+            Map<String, Object> artifact = describe(file);
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return artifact;
+        });
+    }
+
+    /**
+     * Gera um dump de todas as threads, incluindo as Virtual Threads, em JSON.
+     */
+    public Map<String, Object> createThreadDump() {
+        Path file = directory.resolve("thread-dump-" + Instant.now().toEpochMilli() + ".json");
+        try {
+            Files.createDirectories(directory);
+            ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class)
+                    .dumpThreads(file.toString(), HotSpotDiagnosticMXBean.ThreadDumpFormat.JSON);
+            enforceRetention(file);
+            return describe(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gera (ou reaproveita) um dataset binário de {@code sizeMb} MB, escrito em blocos de 1 MB.
+     */
+    public Map<String, Object> createDataset(int sizeMb) {
+        Path file = directory.resolve("dataset-" + sizeMb + "mb.bin");
+        try {
+            Files.createDirectories(directory);
+            long expectedSize = (long) sizeMb * WRITE_CHUNK_SIZE;
+            if (Files.isRegularFile(file) && Files.size(file) == expectedSize) {
+                return describe(file);
+            }
+            // Arquivo temporário único: requisições simultâneas do mesmo tamanho não escrevem no
+            // mesmo .partial; a última a terminar substitui o arquivo, com o mesmo conteúdo
+            Path partial = Files.createTempFile(directory, file.getFileName() + ".", PARTIAL_SUFFIX);
+            ByteBuffer chunk = ByteBuffer.allocateDirect(WRITE_CHUNK_SIZE);
+            byte[] seed = new byte[4096];
+            new Random(sizeMb).nextBytes(seed);
+            while (chunk.hasRemaining()) {
+                chunk.put(seed, 0, Math.min(seed.length, chunk.remaining()));
+            }
+            try {
+                try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                    for (int i = 0; i < sizeMb; i++) {
+                        chunk.rewind();
+                        while (chunk.hasRemaining()) {
+                            channel.write(chunk);
+                        }
+                    }
+                }
+                Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(partial);
+            }
+            enforceRetention(file);
+            return describe(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Apaga os artefatos mais antigos (exceto {@code keep}, recém-gerado) até o total caber em
+     * {@code artifacts.max-total-size-mb}.
+     */
+    private void enforceRetention(Path keep) {
+        retentionLock.lock();
+        try {
+            List<Path> oldestFirst = new ArrayList<>();
+            long totalBytes = 0;
+            for (Path file : artifacts()) {
+                try {
+                    totalBytes += Files.size(file);
+                    oldestFirst.add(file);
+                } catch (NoSuchFileException e) {
+                    // Apagado por outra requisição durante a listagem
+                }
+            }
+            oldestFirst.sort(Comparator.comparing(ArtifactService::lastModified));
+            for (Path file : oldestFirst) {
+                if (totalBytes <= maxTotalBytes) {
+                    return;
+                }
+                if (!file.equals(keep)) {
+                    try {
+                        long size = Files.size(file);
+                        Files.deleteIfExists(file);
+                        totalBytes -= size;
+                    } catch (NoSuchFileException e) {
+                        // Apagado por outra requisição
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            retentionLock.unlock();
+        }
+    }
+
+    private List<Path> artifacts() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> isArtifactName(file.getFileName().toString()))
+                    .filter(Files::isRegularFile)
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean isArtifactName(String name) {
+        return ARTIFACT_NAME.matcher(name).matches() && !name.endsWith(PARTIAL_SUFFIX);
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            // Apagado durante a ordenação: tratado como o mais antigo
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private Map<String, Object> describe(Path file) {
+        try {
+            Map<String, Object> artifact = new LinkedHashMap<>();
+            artifact.put("name", file.getFileName().toString());
+            artifact.put("sizeBytes", Files.size(file));
+            artifact.put("lastModified", Files.getLastModifiedTime(file).toInstant().toString());
+            artifact.put("downloadUrl", "/api/artifacts/" + file.getFileName());
+            return artifact;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
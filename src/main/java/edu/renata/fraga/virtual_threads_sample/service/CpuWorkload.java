@@ -0,0 +1,126 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.zip.Deflater;
+
+/**
+ * Cargas de trabalho limitadas por CPU (sem sleep), usadas para mostrar o cenário
+ * em que Virtual Threads não trazem ganho. O parâmetro {@code intensity} escala o
+ * trabalho de forma linear; cada execução devolve um checksum para evitar que o JIT
+ * elimine o cálculo.
+ */
+public enum CpuWorkload {
+
+    HASHING {
+        @Override
+        long execute(int taskId, int intensity) {
+            MessageDigest digest = sha256();
+            byte[] buffer = randomBytes(taskId, 1024);
+            for (int i = 0; i < intensity * 100; i++) {
+                buffer = digest.digest(buffer);
+            }
+            return buffer[0];
+        }
+    },
+
+    JSON {
+        @Override
+        long execute(int taskId, int intensity) {
+            long checksum = 0;
+            try {
+                for (int i = 0; i < intensity * 10; i++) {
+                    Map<String, Object> document = new LinkedHashMap<>();
+                    document.put("taskId", taskId);
+                    document.put("iteration", i);
+                    document.put("thread", Thread.currentThread().getName());
+                    document.put("values", List.of(i, i * 2L, i * 3.5, "value-" + i));
+                    String json = OBJECT_MAPPER.writeValueAsString(document);
+                    Map<String, Object> parsed = OBJECT_MAPPER.readValue(json, MAP_TYPE);
+                    checksum += json.length() + parsed.size();
+                }
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException(e);
+            }
+            return checksum;
+        }
+    },
+
+    COMPRESSION {
+        @Override
+        long execute(int taskId, int intensity) {
+            byte[] input = ("Task " + taskId + " compressible payload ").repeat(256).getBytes(StandardCharsets.UTF_8);
+            byte[] output = new byte[input.length];
+            long checksum = 0;
+            for (int i = 0; i < intensity * 5; i++) {
+                Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+                try {
+                    deflater.setInput(input);
+                    deflater.finish();
+                    checksum += deflater.deflate(output);
+                } finally {
+                    deflater.end();
+                }
+            }
+            return checksum;
+        }
+    },
+
+    SORTING {
+        @Override
+        long execute(int taskId, int intensity) {
+            SplittableRandom random = new SplittableRandom(taskId);
+            int[] values = random.ints(intensity * 5_000L).toArray();
+            Arrays.sort(values);
+            return values.length == 0 ? 0 : values[values.length / 2];
+        }
+    },
+
+    /**
+     * Metade CPU, metade I/O simulado: representa um handler típico que parseia
+     * o payload e depois chama um serviço externo.
+     */
+    MIXED {
+        @Override
+        long execute(int taskId, int intensity) {
+            long checksum = JSON.execute(taskId, Math.max(1, intensity / 2));
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            return checksum + HASHING.execute(taskId, Math.max(1, intensity / 2));
+        }
+    };
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    abstract long execute(int taskId, int intensity);
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] randomBytes(long seed, int size) {
+        byte[] bytes = new byte[size];
+        new SplittableRandom(seed).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,90 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.HybridExecutor;
+import edu.renata.fraga.virtual_threads_sample.metrics.CpuUsageMeter;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+@Service
+public class CpuWorkloadService {
+
+    private final ExecutorService virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService platformThreadExecutor = Executors.newFixedThreadPool(200);
+    private final HybridExecutor hybridExecutor;
+
+    public CpuWorkloadService(HybridExecutor hybridExecutor) {
+        this.hybridExecutor = hybridExecutor;
+    }
+
+    public Map<String, Object> run(CpuWorkload workload, ExecutionModel model, int numberOfTasks, int intensity) {
+        CpuUsageMeter meter = CpuUsageMeter.start();
+
+        long checksum = switch (model) {
+            case VIRTUAL_THREADS -> runOnExecutor(workload, numberOfTasks, intensity, virtualThreadExecutor);
+            case PLATFORM_THREADS -> runOnExecutor(workload, numberOfTasks, intensity, platformThreadExecutor);
+            case PARALLEL_STREAM -> IntStream.range(0, numberOfTasks)
+                    .parallel()
+                    .mapToLong(i -> workload.execute(i, intensity))
+                    .sum();
+            case REACTOR_PARALLEL -> Flux.range(0, numberOfTasks)
+                    .parallel()
+                    .runOn(Schedulers.parallel())
+                    .map(i -> workload.execute(i, intensity))
+                    .sequential()
+                    .reduce(0L, Long::sum)
+                    .blockOptional()
+                    .orElse(0L);
+            case HYBRID -> IntStream.range(0, numberOfTasks)
+                    .mapToObj(i -> hybridExecutor.submit(workload.name(), () -> workload.execute(i, intensity)))
+                    .toList()
+                    .stream()
+                    .mapToLong(CompletableFuture::join)
+                    .sum();
+        };
+
+        CpuUsageMeter.CpuUsage usage = meter.stop();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("workload", workload.name());
+        result.put("executionModel", model.name());
+        result.put("totalTasks", numberOfTasks);
+        result.put("intensity", intensity);
+        result.put("durationMs", usage.wallTimeMillis());
+        result.put("tasksPerSecond", numberOfTasks * 1_000_000_000.0 / usage.wallTimeNanos());
+        result.put("processCpuTimeMs", usage.processCpuTimeMillis());
+        result.put("cpuUtilizationPercent", usage.utilizationPercent());
+        result.put("processors", usage.processors());
+        result.put("checksum", checksum);
+        if (model == ExecutionModel.HYBRID) {
+            result.put("hybridClassification", String.valueOf(hybridExecutor.classificationOf(workload.name())));
+            result.put("measuredCpuRatio", hybridExecutor.cpuRatioOf(workload.name()));
+        }
+        return result;
+    }
+
+    public Map<String, Object> compareExecutionModels(CpuWorkload workload, int numberOfTasks, int intensity) {
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (ExecutionModel model : ExecutionModel.values()) {
+            results.put(model.name(), run(workload, model, numberOfTasks, intensity));
+        }
+        return results;
+    }
+
+    private long runOnExecutor(CpuWorkload workload, int numberOfTasks, int intensity, ExecutorService executor) {
+        var futures = IntStream.range(0, numberOfTasks)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> workload.execute(i, intensity), executor))
+                .toList();
+
+        return futures.stream()
+                .mapToLong(CompletableFuture::join)
+                .sum();
+    }
+}
@@ -0,0 +1,268 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import edu.renata.fraga.virtual_threads_sample.metrics.LatencySummary;
+import edu.renata.fraga.virtual_threads_sample.metrics.PinningMonitor;
+import io.r2dbc.h2.H2ConnectionConfiguration;
+import io.r2dbc.h2.H2ConnectionFactory;
+import io.r2dbc.h2.H2ConnectionOption;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.Connection;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Carga de banco de dados em um H2 embarcado em memória, comparando JDBC bloqueante com pool
+ * HikariCP em Virtual Threads contra R2DBC com r2dbc-pool.
+ * <p>
+ * Cada consulta segura a conexão durante a latência simulada ({@code CALL SLEEP_MS(?)}, executada
+ * dentro do H2) e depois lê {@code rows} linhas. Com Virtual Threads o pool vira o gargalo, e o
+ * H2 embarcado executa as consultas dentro de {@code synchronized}, o que causa pinning das
+ * carriers; os dois efeitos aparecem no resultado.
+ * <p>
+ * O r2dbc-h2 usa o motor do H2 na thread que faz a inscrição, por isso as consultas R2DBC são
+ * inscritas em um {@code boundedElastic} dedicado com uma thread por conexão do pool, e no máximo
+ * {@code poolSize} consultas ficam inscritas ao mesmo tempo. Tarefas recusadas pelo scheduler
+ * aparecem em {@code rejected}, separadas das falhas de consulta.
+ */
+@Service
+public class DatabaseWorkloadService {
+
+    static final String DATABASE_NAME = "vt_benchmark";
+    private static final String JDBC_URL = "jdbc:h2:mem:" + DATABASE_NAME + ";DB_CLOSE_DELAY=-1";
+    private static final Duration PINNING_THRESHOLD = Duration.ofMillis(1);
+
+    private final ExecutorService virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicInteger seededRows = new AtomicInteger();
+
+    /**
+     * Função chamada pelo H2 via {@code SLEEP_MS}: simula o tempo de execução da consulta no servidor.
+     */
+    public static int sleepMillis(int millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+        return millis;
+    }
+
+    public Map<String, Object> runJdbcOnVirtualThreads(int numberOfQueries, int poolSize, int queryLatencyMs, int rows) {
+        ensureSchema(rows);
+        ConcurrentHistogram waitHistogram = LatencySummary.newHistogram();
+        ConcurrentHistogram queryHistogram = LatencySummary.newHistogram();
+        LongAdder rowsRead = new LongAdder();
+        LongAdder failures = new LongAdder();
+
+        try (HikariDataSource dataSource = newDataSource(poolSize)) {
+            PinningMonitor pinningMonitor = PinningMonitor.start(PINNING_THRESHOLD);
+            long start = System.nanoTime();
+
+            var futures = IntStream.range(0, numberOfQueries)
+                    .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                        long requested = System.nanoTime();
+                        try (var connection = dataSource.getConnection()) {
+                            long acquired = System.nanoTime();
+                            LatencySummary.record(waitHistogram, acquired - requested);
+                            rowsRead.add(executeJdbcQuery(connection, queryLatencyMs, rows));
+                            LatencySummary.record(queryHistogram, System.nanoTime() - acquired);
+                        } catch (SQLException e) {
+                            failures.increment();
+                        }
+                    }, virtualThreadExecutor))
+                    .toList();
+
+            futures.forEach(CompletableFuture::join);
+            long durationNanos = System.nanoTime() - start;
+            PinningMonitor.PinningReport pinning = pinningMonitor.stop();
+
+            Map<String, Object> result = buildResult("JDBC + HikariCP on Virtual Threads", numberOfQueries,
+                    poolSize, queryLatencyMs, rows, durationNanos, rowsRead.sum(), failures.sum(),
+                    waitHistogram, queryHistogram);
+            result.put("pinnedEvents", pinning.pinnedEvents());
+            result.put("pinnedTotalMs", pinning.totalPinnedMillis());
+            result.put("pinnedTopFrames", pinning.topFrames());
+            return result;
+        }
+    }
+
+    public Map<String, Object> runR2dbc(int numberOfQueries, int poolSize, int queryLatencyMs, int rows) {
+        ensureSchema(rows);
+        ConcurrentHistogram waitHistogram = LatencySummary.newHistogram();
+        ConcurrentHistogram queryHistogram = LatencySummary.newHistogram();
+        LongAdder rowsRead = new LongAdder();
+        LongAdder failures = new LongAdder();
+        LongAdder rejected = new LongAdder();
+
+        ConnectionPool pool = newConnectionPool(poolSize);
+        // Uma thread por conexão: as chamadas ao H2 bloqueiam a thread inscrita, e o boundedElastic
+        // compartilhado (10 × núcleos) limitaria o pool antes do poolSize
+        Scheduler scheduler = Schedulers.newBoundedElastic(poolSize, Math.max(1, numberOfQueries),
+                "r2dbc-benchmark-" + poolSize, 60, true);
+        try {
+            long start = System.nanoTime();
+
+            // O flatMap inscreve no máximo poolSize consultas por vez; a espera por conexão conta a
+            // partir da inscrição de cada consulta, como no JDBC, e não inclui a fila do flatMap
+            Flux.range(0, numberOfQueries)
+                    .flatMap(i -> Mono.defer(() -> {
+                                long requested = System.nanoTime();
+                                return Mono.usingWhen(
+                                        pool.create(),
+                                        connection -> {
+                                            long acquired = System.nanoTime();
+                                            LatencySummary.record(waitHistogram, acquired - requested);
+                                            return executeR2dbcQuery(connection, queryLatencyMs, rows)
+                                                    .doOnNext(count -> {
+                                                        rowsRead.add(count);
+                                                        LatencySummary.record(queryHistogram, System.nanoTime() - acquired);
+                                                    });
+                                        },
+                                        Connection::close);
+                            })
+                            .subscribeOn(scheduler)
+                            .onErrorResume(error -> {
+                                if (error instanceof RejectedExecutionException) {
+                                    rejected.increment();
+                                } else {
+                                    failures.increment();
+                                }
+                                return Mono.empty();
+                            }), poolSize)
+                    .then()
+                    .block();
+
+            long durationNanos = System.nanoTime() - start;
+            Map<String, Object> result = buildResult("R2DBC + r2dbc-pool", numberOfQueries, poolSize, queryLatencyMs,
+                    rows, durationNanos, rowsRead.sum(), failures.sum(), waitHistogram, queryHistogram);
+            result.put("rejected", rejected.sum());
+            return result;
+        } finally {
+            scheduler.dispose();
+            pool.disposeLater().block();
+        }
+    }
+
+    public Map<String, Object> compare(int numberOfQueries, int poolSize, int queryLatencyMs, int rows) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("jdbcVirtualThreads", runJdbcOnVirtualThreads(numberOfQueries, poolSize, queryLatencyMs, rows));
+        result.put("r2dbc", runR2dbc(numberOfQueries, poolSize, queryLatencyMs, rows));
+        return result;
+    }
+
+    private int executeJdbcQuery(java.sql.Connection connection, int queryLatencyMs, int rows) throws SQLException {
+        try (PreparedStatement sleep = connection.prepareStatement("CALL SLEEP_MS(?)")) {
+            sleep.setInt(1, queryLatencyMs);
+            sleep.execute();
+        }
+        try (PreparedStatement select = connection.prepareStatement(
+                "SELECT id, name, amount FROM benchmark_item WHERE id <= ? ORDER BY id")) {
+            select.setInt(1, rows);
+            int count = 0;
+            try (ResultSet resultSet = select.executeQuery()) {
+                while (resultSet.next()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private Mono<Integer> executeR2dbcQuery(Connection connection, int queryLatencyMs, int rows) {
+        return Flux.from(connection.createStatement("CALL SLEEP_MS($1)").bind("$1", queryLatencyMs).execute())
+                .flatMap(result -> result.map((row, metadata) -> 1))
+                .then(Flux.from(connection.createStatement(
+                                "SELECT id, name, amount FROM benchmark_item WHERE id <= $1 ORDER BY id")
+                                .bind("$1", rows)
+                                .execute())
+                        .flatMap(result -> result.map((row, metadata) -> 1))
+                        .count()
+                        .map(Long::intValue));
+    }
+
+    private Map<String, Object> buildResult(String strategy, int numberOfQueries, int poolSize, int queryLatencyMs,
+                                            int rows, long durationNanos, long rowsRead, long failures,
+                                            ConcurrentHistogram waitHistogram, ConcurrentHistogram queryHistogram) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("strategy", strategy);
+        result.put("queries", numberOfQueries);
+        result.put("poolSize", poolSize);
+        result.put("queryLatencyMs", queryLatencyMs);
+        result.put("rowsPerQuery", rows);
+        result.put("durationMs", durationNanos / 1_000_000);
+        result.put("queriesPerSecond", numberOfQueries * 1_000_000_000.0 / Math.max(1, durationNanos));
+        result.put("rowsRead", rowsRead);
+        result.put("failures", failures);
+        result.put("connectionWait", LatencySummary.toMillis(waitHistogram));
+        result.put("queryTime", LatencySummary.toMillis(queryHistogram));
+        return result;
+    }
+
+    private HikariDataSource newDataSource(int poolSize) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(JDBC_URL);
+        config.setUsername("sa");
+        config.setPassword("");
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+        config.setConnectionTimeout(Duration.ofMinutes(2).toMillis());
+        config.setPoolName("jdbc-vt-benchmark-" + poolSize);
+        return new HikariDataSource(config);
+    }
+
+    private ConnectionPool newConnectionPool(int poolSize) {
+        H2ConnectionFactory connectionFactory = new H2ConnectionFactory(H2ConnectionConfiguration.builder()
+                .inMemory(DATABASE_NAME)
+                .property(H2ConnectionOption.DB_CLOSE_DELAY, "-1")
+                .username("sa")
+                .build());
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .initialSize(poolSize)
+                .maxSize(poolSize)
+                .maxAcquireTime(Duration.ofMinutes(2))
+                .name("r2dbc-benchmark-" + poolSize)
+                .build());
+    }
+
+    /**
+     * Cria a tabela, a função {@code SLEEP_MS} e garante ao menos {@code rows} linhas.
+     */
+    private void ensureSchema(int rows) {
+        if (seededRows.get() >= rows) {
+            return;
+        }
+        try (var connection = java.sql.DriverManager.getConnection(JDBC_URL, "sa", "");
+             var statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS benchmark_item ("
+                    + "id INT PRIMARY KEY, name VARCHAR(64) NOT NULL, amount DECIMAL(12, 2) NOT NULL)");
+            statement.execute("CREATE ALIAS IF NOT EXISTS SLEEP_MS FOR '"
+                    + DatabaseWorkloadService.class.getName() + ".sleepMillis'");
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "MERGE INTO benchmark_item KEY (id) SELECT X, 'item-' || X, X * 1.5 FROM SYSTEM_RANGE(1, ?)")) {
+                insert.setInt(1, rows);
+                insert.execute();
+            }
+            seededRows.accumulateAndGet(rows, Math::max);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not prepare benchmark schema", e);
+        }
+    }
+}
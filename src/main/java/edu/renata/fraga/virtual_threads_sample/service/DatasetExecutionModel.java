@@ -0,0 +1,14 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+/**
+ * Formas de espalhar uma consulta pelas partições do dataset em memória, comparadas no
+ * {@link DatasetQueryService}.
+ */
+public enum DatasetExecutionModel {
+    /** Uma Virtual Thread por partição; as carriers limitam o paralelismo ao número de núcleos. */
+    VIRTUAL_THREADS,
+    /** {@code parallelStream()} sobre as partições, no ForkJoinPool comum. */
+    PARALLEL_STREAM,
+    /** As partições em sequência, na thread da requisição. */
+    SINGLE_THREADED
+}
@@ -0,0 +1,298 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import edu.renata.fraga.virtual_threads_sample.dataset.ColumnarDataset;
+import edu.renata.fraga.virtual_threads_sample.dataset.DatasetQuery;
+import edu.renata.fraga.virtual_threads_sample.dataset.PartialAggregate;
+import edu.renata.fraga.virtual_threads_sample.dataset.Partition;
+import edu.renata.fraga.virtual_threads_sample.metrics.CpuUsageMeter;
+import edu.renata.fraga.virtual_threads_sample.metrics.InterleavedTrials;
+import edu.renata.fraga.virtual_threads_sample.metrics.LatencySummary;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Carga de scatter-gather sobre um {@link ColumnarDataset} em memória: cada consulta é filtrada e
+ * agregada por partição em Virtual Threads, no {@code parallelStream} ou em uma thread só, e os
+ * agregados parciais são combinados no fim.
+ * <p>
+ * A varredura é limitada por CPU e por banda de memória, não bloqueia: com Virtual Threads o
+ * paralelismo fica limitado pelas carriers (núcleos), como no ForkJoin, e o que muda entre os
+ * modelos é o custo de espalhar e juntar o trabalho. Poucas partições deixam núcleos ociosos; muitas
+ * partições pequenas fazem o custo por partição aparecer.
+ * <p>
+ * O dataset é gerado na primeira consulta com {@code dataset.records} vendas em
+ * {@code dataset.partitions} partições, ou quando {@link #generate} é chamado.
+ */
+@Service
+public class DatasetQueryService {
+
+    private final Executor virtualThreadExecutor;
+    private final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+    // ReentrantLock em vez de synchronized: gerar milhões de vendas demora e não deve prender a carrier
+    private final ReentrantLock datasetLock = new ReentrantLock();
+    private final long defaultRecords;
+    private final int defaultPartitions;
+    private final long defaultSeed;
+    private volatile ColumnarDataset dataset;
+
+    public DatasetQueryService(@Qualifier("virtualThreadExecutor") Executor virtualThreadExecutor,
+                               @Value("${dataset.records:2000000}") long defaultRecords,
+                               @Value("${dataset.partitions:16}") int defaultPartitions,
+                               @Value("${dataset.seed:42}") long defaultSeed) {
+        this.virtualThreadExecutor = virtualThreadExecutor;
+        this.defaultRecords = defaultRecords;
+        this.defaultPartitions = defaultPartitions;
+        this.defaultSeed = defaultSeed;
+    }
+
+    /**
+     * Substitui o dataset atual por um novo, gerado com a semente informada.
+     */
+    public Map<String, Object> generate(long records, int partitions, long seed) {
+        datasetLock.lock();
+        try {
+            // Solta o dataset anterior antes de gerar o novo, para não ter os dois no heap
+            dataset = null;
+            long start = System.nanoTime();
+            ColumnarDataset generated = ColumnarDataset.generate(records, partitions, seed);
+            long durationNanos = System.nanoTime() - start;
+            dataset = generated;
+
+            Map<String, Object> result = describe(generated);
+            result.put("generationMs", durationNanos / 1_000_000);
+            return result;
+        } finally {
+            datasetLock.unlock();
+        }
+    }
+
+    public Map<String, Object> describe() {
+        return describe(currentDataset());
+    }
+
+    /**
+     * Roda a consulta {@code iterations} vezes no modelo escolhido e reporta o resultado, a
+     * latência por consulta e por partição, o uso de CPU e os bytes alocados.
+     */
+    public Map<String, Object> query(DatasetQuery query, DatasetExecutionModel model, int iterations) {
+        ColumnarDataset current = currentDataset();
+        ModelRun run = new ModelRun(model);
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            run.measure(current, query);
+        }
+        return run.report(current);
+    }
+
+    /**
+     * Roda a mesma consulta em todos os modelos de execução, em rodadas intercaladas
+     * ({@link InterleavedTrials}): as rodadas de aquecimento são descartadas e em cada rodada
+     * medida cada modelo executa a consulta uma vez, em ordem sorteada pela semente.
+     */
+    public Map<String, Object> compareExecutionModels(DatasetQuery query, int warmupRounds, int iterations, long seed) {
+        ColumnarDataset current = currentDataset();
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("dataset", describe(current));
+        results.put("warmupRounds", warmupRounds);
+        results.put("rounds", iterations);
+        results.put("seed", seed);
+
+        Map<DatasetExecutionModel, ModelRun> runs = new EnumMap<>(DatasetExecutionModel.class);
+        InterleavedTrials.Report trials = interleave(current, query, warmupRounds, iterations, seed, runs);
+        for (ModelRun run : runs.values()) {
+            Map<String, Object> report = run.report(current);
+            report.put("statistics", trials.statistics(run.model.name()));
+            results.put(run.model.name(), report);
+        }
+        results.put("comparison", comparisons(trials, iterations));
+        results.put("trials", trials.trialsToMaps());
+        return results;
+    }
+
+    /**
+     * Gera datasets temporários com os mesmos dados divididos em cada número de partições e compara
+     * os modelos de execução em cada um, em rodadas intercaladas como em
+     * {@link #compareExecutionModels}. O dataset atual não é alterado.
+     */
+    public Map<String, Object> partitionSweep(long records, List<Integer> partitionCounts, long seed,
+                                              DatasetQuery query, int warmupRounds, int iterations) {
+        Map<String, Object> sweep = new LinkedHashMap<>();
+        sweep.put("records", records);
+        sweep.put("processors", Runtime.getRuntime().availableProcessors());
+        sweep.put("warmupRounds", warmupRounds);
+        sweep.put("rounds", iterations);
+        for (int partitions : partitionCounts) {
+            ColumnarDataset sweepDataset = ColumnarDataset.generate(records, partitions, seed);
+            Map<DatasetExecutionModel, ModelRun> runs = new EnumMap<>(DatasetExecutionModel.class);
+            InterleavedTrials.Report trials = interleave(sweepDataset, query, warmupRounds, iterations, seed, runs);
+            Map<String, Object> models = new LinkedHashMap<>();
+            for (ModelRun run : runs.values()) {
+                Map<String, Object> result = run.report(sweepDataset);
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("latency", result.get("latency"));
+                row.put("meanMs", trials.statistics(run.model.name()).get("meanMs"));
+                row.put("recordsPerSecond", result.get("recordsPerSecond"));
+                row.put("cpuUtilizationPercent", result.get("cpuUtilizationPercent"));
+                row.put("processAllocatedBytesPerQuery", result.get("processAllocatedBytesPerQuery"));
+                models.put(run.model.name(), row);
+            }
+            sweep.put(String.valueOf(partitions), models);
+        }
+        return sweep;
+    }
+
+    private InterleavedTrials.Report interleave(ColumnarDataset target, DatasetQuery query, int warmupRounds, int rounds,
+                                                long seed, Map<DatasetExecutionModel, ModelRun> runs) {
+        Map<String, InterleavedTrials.Trial> strategies = new LinkedHashMap<>();
+        for (DatasetExecutionModel model : DatasetExecutionModel.values()) {
+            ModelRun run = new ModelRun(model);
+            runs.put(model, run);
+            strategies.put(model.name(), warmup -> {
+                if (warmup) {
+                    execute(target.partitions(), query, model, LatencySummary.newHistogram());
+                } else {
+                    run.measure(target, query);
+                }
+            });
+        }
+        return InterleavedTrials.run(strategies, warmupRounds, rounds, seed);
+    }
+
+    private static Map<String, Object> comparisons(InterleavedTrials.Report trials, int rounds) {
+        if (rounds < 2) {
+            return Map.of("verdict", "At least two rounds are required for a significance test");
+        }
+        Map<String, Object> comparisons = new LinkedHashMap<>();
+        String virtualThreads = DatasetExecutionModel.VIRTUAL_THREADS.name();
+        for (DatasetExecutionModel model : DatasetExecutionModel.values()) {
+            if (model != DatasetExecutionModel.VIRTUAL_THREADS) {
+                comparisons.put(virtualThreads + " vs " + model.name(), trials.compare(virtualThreads, model.name()));
+            }
+        }
+        return comparisons;
+    }
+
+    private ColumnarDataset currentDataset() {
+        ColumnarDataset current = dataset;
+        if (current != null) {
+            return current;
+        }
+        datasetLock.lock();
+        try {
+            if (dataset == null) {
+                dataset = ColumnarDataset.generate(defaultRecords, defaultPartitions, defaultSeed);
+            }
+            return dataset;
+        } finally {
+            datasetLock.unlock();
+        }
+    }
+
+    private PartialAggregate execute(List<Partition> partitions, DatasetQuery query, DatasetExecutionModel model,
+                                     ConcurrentHistogram partitionLatency) {
+        PartialAggregate empty = PartialAggregate.empty(query.groupBy());
+        return switch (model) {
+            case VIRTUAL_THREADS -> partitions.stream()
+                    .map(partition -> CompletableFuture.supplyAsync(
+                            () -> timedScan(partition, query, partitionLatency), virtualThreadExecutor))
+                    .toList()
+                    .stream()
+                    .map(CompletableFuture::join)
+                    .reduce(empty, PartialAggregate::merge);
+            case PARALLEL_STREAM -> partitions.parallelStream()
+                    .map(partition -> timedScan(partition, query, partitionLatency))
+                    .reduce(empty, PartialAggregate::merge);
+            case SINGLE_THREADED -> {
+                PartialAggregate merged = empty;
+                for (Partition partition : partitions) {
+                    merged = merged.merge(timedScan(partition, query, partitionLatency));
+                }
+                yield merged;
+            }
+        };
+    }
+
+    private static PartialAggregate timedScan(Partition partition, DatasetQuery query, ConcurrentHistogram partitionLatency) {
+        long start = System.nanoTime();
+        PartialAggregate aggregate = partition.scan(query);
+        LatencySummary.record(partitionLatency, System.nanoTime() - start);
+        return aggregate;
+    }
+
+    private Map<String, Object> describe(ColumnarDataset target) {
+        Map<String, Object> description = target.describe();
+        description.put("heapUsedBytes", memoryMXBean.getHeapMemoryUsage().getUsed());
+        return description;
+    }
+
+    /**
+     * Medições acumuladas de um modelo de execução ao longo das consultas medidas.
+     * <p>
+     * Os bytes alocados vêm do contador da JVM inteira ({@code getTotalThreadAllocatedBytes}), então
+     * incluem o que outras threads alocaram durante a consulta. O contador por thread não serve
+     * aqui: no JDK 21 ele devolve -1 em Virtual Threads.
+     */
+    private final class ModelRun {
+        private final DatasetExecutionModel model;
+        private final ConcurrentHistogram queryLatency = LatencySummary.newHistogram();
+        private final ConcurrentHistogram partitionLatency = LatencySummary.newHistogram();
+        private PartialAggregate result;
+        private int iterations;
+        private long wallNanos;
+        private long cpuNanos;
+        private long allocatedBytes;
+
+        ModelRun(DatasetExecutionModel model) {
+            this.model = model;
+        }
+
+        void measure(ColumnarDataset target, DatasetQuery query) {
+            CpuUsageMeter meter = CpuUsageMeter.start();
+            long allocatedBefore = threadMXBean.getTotalThreadAllocatedBytes();
+            long start = System.nanoTime();
+            result = execute(target.partitions(), query, model, partitionLatency);
+            LatencySummary.record(queryLatency, System.nanoTime() - start);
+            allocatedBytes += threadMXBean.getTotalThreadAllocatedBytes() - allocatedBefore;
+            CpuUsageMeter.CpuUsage usage = meter.stop();
+            wallNanos += usage.wallTimeNanos();
+            cpuNanos += usage.processCpuTimeNanos();
+            iterations++;
+        }
+
+        Map<String, Object> report(ColumnarDataset target) {
+            int processors = Runtime.getRuntime().availableProcessors();
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("executionModel", model.name());
+            report.put("partitions", target.partitions().size());
+            report.put("iterations", iterations);
+            report.put("result", result.toMap());
+            report.put("latency", LatencySummary.toMillis(queryLatency));
+            report.put("partitionScan", LatencySummary.toMillis(partitionLatency));
+            report.put("recordsPerSecond", target.records() * (double) iterations * 1_000_000_000.0 / Math.max(1, wallNanos));
+            report.put("processCpuTimeMs", cpuNanos / 1_000_000);
+            report.put("cpuUtilizationPercent", Math.min(100.0, cpuNanos * 100.0 / ((double) Math.max(1, wallNanos) * processors)));
+            report.put("processors", processors);
+            report.put("forkJoinParallelism", ForkJoinPool.getCommonPoolParallelism());
+            report.put("virtualThreadParallelism", Integer.getInteger("jdk.virtualThreadScheduler.parallelism", processors));
+            report.put("datasetFootprintBytes", target.footprintBytes());
+            report.put("processAllocatedBytesPerQuery", allocatedBytes / Math.max(1, iterations));
+            report.put("allocationScope", "process");
+            report.put("heapUsedBytes", memoryMXBean.getHeapMemoryUsage().getUsed());
+            return report;
+        }
+    }
+}
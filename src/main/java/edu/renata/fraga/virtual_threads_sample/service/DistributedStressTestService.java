@@ -0,0 +1,237 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.SubmissionWindow;
+import edu.renata.fraga.virtual_threads_sample.metrics.LatencySummary;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.DataFormatException;
+
+/**
+ * Stress test distribuído: o nó coordenador divide as tarefas entre ele mesmo e os peers de
+ * {@code cluster.peers}, combina um instante de início comum, executa as fatias em paralelo e
+ * junta os HdrHistograms de latência de todos os nós.
+ * <p>
+ * O início combinado usa o relógio de parede de cada nó; em máquinas diferentes, os relógios
+ * precisam estar sincronizados (NTP) para as fatias começarem juntas.
+ * <p>
+ * Cada envio tem tempo limite de conexão ({@code cluster.stress-test.connect-timeout}) e de
+ * leitura, este calculado pela fatia: a espera até o início combinado, a duração de uma tarefa,
+ * uma folga por tarefa e {@code cluster.stress-test.read-timeout-margin}. Um peer que aceita a
+ * conexão e não responde entra em {@code failedNodes} em vez de segurar o coordenador.
+ * <p>
+ * Cada nó executa a sua fatia com no máximo {@code virtual-threads.submission-window} tarefas em
+ * andamento, como o stress test local; o tempo de leitura supõe a mesma janela em todos os nós.
+ * Com menos tarefas que nós, só os primeiros nós (este nó primeiro) recebem uma fatia.
+ */
+@Service
+public class DistributedStressTestService {
+
+    static final String SLICE_PATH = "/api/cluster/stress-test/slice";
+    // Folga por tarefa no tempo de leitura: criar e juntar a Virtual Thread de cada tarefa no peer
+    private static final long SLICE_OVERHEAD_NANOS_PER_TASK = 10_000;
+
+    private final ExecutorService virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final RestClient.Builder restClientBuilder;
+    private final HttpClient httpClient;
+    private final List<String> peers;
+    private final String nodeName;
+    private final Duration startDelay;
+    private final Duration readTimeoutMargin;
+    private final SubmissionWindow sliceWindow;
+
+    public DistributedStressTestService(RestClient.Builder restClientBuilder,
+                                        @Value("${cluster.peers:}") List<String> peers,
+                                        @Value("${cluster.node-name:${spring.application.name}:${server.port:8080}}") String nodeName,
+                                        @Value("${cluster.stress-test.start-delay:500ms}") Duration startDelay,
+                                        @Value("${cluster.stress-test.connect-timeout:2s}") Duration connectTimeout,
+                                        @Value("${cluster.stress-test.read-timeout-margin:10s}") Duration readTimeoutMargin,
+                                        @Value("${virtual-threads.submission-window:10000}") int submissionWindow) {
+        this.restClientBuilder = restClientBuilder;
+        this.httpClient = HttpClient.newBuilder().connectTimeout(connectTimeout).build();
+        this.peers = peers.stream().map(String::trim).filter(peer -> !peer.isEmpty()).toList();
+        this.nodeName = nodeName;
+        this.startDelay = startDelay;
+        this.readTimeoutMargin = readTimeoutMargin;
+        this.sliceWindow = new SubmissionWindow(virtualThreadExecutor, submissionWindow);
+    }
+
+    public List<String> getPeers() {
+        return peers;
+    }
+
+    /**
+     * Divide {@code totalTasks} entre este nó (se {@code includeSelf}) e os peers e agrega os resultados.
+     */
+    public Map<String, Object> coordinate(int totalTasks, long taskDurationMs, boolean includeSelf) {
+        List<String> nodes = new ArrayList<>();
+        if (includeSelf) {
+            nodes.add(null);
+        }
+        nodes.addAll(peers);
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("No nodes to run the stress test: configure cluster.peers or include this node");
+        }
+        // Uma fatia vazia seria recusada pelo peer (tasks >= 1): nós além do total ficam de fora
+        int idleNodes = Math.max(0, nodes.size() - totalTasks);
+        if (idleNodes > 0) {
+            nodes = new ArrayList<>(nodes.subList(0, totalTasks));
+        }
+
+        long startAt = System.currentTimeMillis() + startDelay.toMillis();
+        // A primeira fatia é a maior: o tempo de leitura dela vale para todos os peers
+        int largestSlice = totalTasks / nodes.size() + (totalTasks % nodes.size() == 0 ? 0 : 1);
+        RestClient restClient = restClient(readTimeout(new StressSliceRequest(largestSlice, taskDurationMs, startAt)));
+        List<CompletableFuture<StressSliceResult>> futures = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            int sliceTasks = totalTasks / nodes.size() + (i < totalTasks % nodes.size() ? 1 : 0);
+            StressSliceRequest slice = new StressSliceRequest(sliceTasks, taskDurationMs, startAt);
+            String peer = nodes.get(i);
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> peer == null ? runSlice(slice) : sendSlice(restClient, peer, slice), virtualThreadExecutor));
+        }
+
+        Histogram merged = new Histogram(LatencySummary.newHistogram());
+        List<Map<String, Object>> perNode = new ArrayList<>();
+        Map<String, String> failedNodes = new LinkedHashMap<>();
+        long firstStart = Long.MAX_VALUE;
+        long lastFinish = Long.MIN_VALUE;
+        int completedTasks = 0;
+
+        for (int i = 0; i < futures.size(); i++) {
+            String node = nodes.get(i) == null ? nodeName : nodes.get(i);
+            StressSliceResult result;
+            try {
+                result = futures.get(i).join();
+            } catch (CompletionException e) {
+                failedNodes.put(node, String.valueOf(e.getCause().getMessage()));
+                continue;
+            }
+            Histogram histogram = decode(result.histogram());
+            merged.add(histogram);
+            completedTasks += result.tasks();
+            firstStart = Math.min(firstStart, result.startedAtEpochMillis());
+            lastFinish = Math.max(lastFinish, result.finishedAtEpochMillis());
+            perNode.add(describeSlice(result, histogram, startAt));
+        }
+
+        long clusterDurationMs = completedTasks == 0 ? 0 : Math.max(1, lastFinish - firstStart);
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("coordinator", nodeName);
+        response.put("nodes", nodes.size());
+        response.put("idleNodes", idleNodes);
+        response.put("totalTasks", totalTasks);
+        response.put("completedTasks", completedTasks);
+        response.put("taskDurationMs", taskDurationMs);
+        response.put("clusterDurationMs", clusterDurationMs);
+        response.put("clusterTasksPerSecond", clusterDurationMs == 0 ? 0.0 : completedTasks * 1000.0 / clusterDurationMs);
+        response.put("latency", LatencySummary.toMillis(merged));
+        response.put("perNode", perNode);
+        response.put("failedNodes", failedNodes);
+        return response;
+    }
+
+    /**
+     * Executa uma fatia neste nó: espera o instante combinado e roda uma Virtual Thread por tarefa,
+     * com no máximo {@code virtual-threads.submission-window} em andamento.
+     */
+    public StressSliceResult runSlice(StressSliceRequest slice) {
+        long waitMillis = slice.startAtEpochMillis() - System.currentTimeMillis();
+        if (waitMillis > 0) {
+            sleep(waitMillis);
+        }
+
+        ConcurrentHistogram histogram = LatencySummary.newHistogram();
+        long startedAt = System.currentTimeMillis();
+        SubmissionWindow.Report report = sliceWindow.run(slice.tasks(), i -> {
+            // Marcado na submissão ao executor: a espera pela janela não entra na latência
+            long submitted = System.nanoTime();
+            return () -> {
+                sleep(slice.taskDurationMs()); // Simula I/O
+                LatencySummary.record(histogram, System.nanoTime() - submitted);
+            };
+        });
+        long finishedAt = System.currentTimeMillis();
+
+        return new StressSliceResult(nodeName, (int) report.completed(), startedAt, finishedAt, encode(histogram));
+    }
+
+    /**
+     * Tempo máximo de espera pela resposta de uma fatia: até o início combinado, mais a duração
+     * de uma tarefa por leva da janela (cada leva roda em paralelo), a folga por tarefa e a
+     * margem configurada.
+     */
+    Duration readTimeout(StressSliceRequest slice) {
+        long untilStart = Math.max(0, slice.startAtEpochMillis() - System.currentTimeMillis());
+        long waves = (slice.tasks() + sliceWindow.getMaxInFlight() - 1L) / sliceWindow.getMaxInFlight();
+        return Duration.ofMillis(untilStart + waves * slice.taskDurationMs())
+                .plusNanos(slice.tasks() * SLICE_OVERHEAD_NANOS_PER_TASK)
+                .plus(readTimeoutMargin);
+    }
+
+    private RestClient restClient(Duration readTimeout) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(readTimeout);
+        return restClientBuilder.clone().requestFactory(requestFactory).build();
+    }
+
+    private StressSliceResult sendSlice(RestClient restClient, String peer, StressSliceRequest slice) {
+        return restClient.post()
+                .uri(peer + SLICE_PATH)
+                .body(slice)
+                .retrieve()
+                .body(StressSliceResult.class);
+    }
+
+    private Map<String, Object> describeSlice(StressSliceResult result, Histogram histogram, long startAt) {
+        long durationMs = Math.max(1, result.finishedAtEpochMillis() - result.startedAtEpochMillis());
+        Map<String, Object> node = new LinkedHashMap<>();
+        node.put("node", result.node());
+        node.put("tasks", result.tasks());
+        node.put("startSkewMs", result.startedAtEpochMillis() - startAt);
+        node.put("durationMs", durationMs);
+        node.put("tasksPerSecond", result.tasks() * 1000.0 / durationMs);
+        node.put("latency", LatencySummary.toMillis(histogram));
+        return node;
+    }
+
+    static String encode(Histogram histogram) {
+        ByteBuffer buffer = ByteBuffer.allocate(histogram.getNeededByteBufferCapacity());
+        int length = histogram.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+
+    static Histogram decode(String encoded) {
+        try {
+            return Histogram.decodeFromCompressedByteBuffer(ByteBuffer.wrap(Base64.getDecoder().decode(encoded)), 0);
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Invalid histogram encoding", e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
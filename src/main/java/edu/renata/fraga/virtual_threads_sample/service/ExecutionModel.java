@@ -0,0 +1,13 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+/**
+ * Modelos de execução comparados nos benchmarks de carga.
+ */
+public enum ExecutionModel {
+    VIRTUAL_THREADS,
+    PLATFORM_THREADS,
+    PARALLEL_STREAM,
+    REACTOR_PARALLEL,
+    /** Roteamento automático entre Virtual Threads e ForkJoinPool pelo {@code HybridExecutor}. */
+    HYBRID
+}
@@ -0,0 +1,300 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import edu.renata.fraga.virtual_threads_sample.metrics.CarrierThreadMonitor;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Carga de leitura de arquivos sobre um dataset local gerado, comparando leitura bloqueante em
+ * Virtual Threads, {@code AsynchronousFileChannel} adaptado para o Reactor e varredura de
+ * {@code MappedByteBuffer}.
+ * <p>
+ * Diferente de sockets e {@code Thread.sleep}, a leitura de arquivo bloqueia a carrier: o JDK
+ * compensa criando carriers extras, e o relatório mostra esse crescimento. Na varredura mapeada
+ * os page faults também bloqueiam a carrier, mas sem compensação.
+ * <p>
+ * Só um dataset fica em disco: pedir outra combinação de arquivos e tamanho apaga o anterior
+ * (e sobras de execuções passadas) antes de gerar o novo, e o diretório é apagado no
+ * encerramento. As leituras seguram o read lock, então o dataset não é trocado no meio delas.
+ */
+@Service
+public class FileIoWorkloadService {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final String COMPLETE_MARKER = ".complete";
+
+    private final ExecutorService virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    // ReentrantReadWriteLock em vez de synchronized: as leituras rodam em Virtual Threads
+    private final ReentrantReadWriteLock datasetLock = new ReentrantReadWriteLock();
+    private final Path baseDirectory;
+
+    public FileIoWorkloadService() {
+        this(Path.of(System.getProperty("java.io.tmpdir"), "virtual-threads-sample-file-io"));
+    }
+
+    FileIoWorkloadService(Path baseDirectory) {
+        this.baseDirectory = baseDirectory;
+    }
+
+    public Map<String, Object> run(FileReadMode mode, int numberOfFiles, int fileSizeKb) {
+        List<Path> files = acquireDataset(numberOfFiles, fileSizeKb);
+        long durationNanos;
+        FileReadResult total;
+        CarrierThreadMonitor.CarrierThreadReport carriers;
+        try {
+            CarrierThreadMonitor carrierMonitor = CarrierThreadMonitor.start();
+            long start = System.nanoTime();
+            total = switch (mode) {
+                case BLOCKING_VIRTUAL_THREADS -> readOnVirtualThreads(files, this::readBlocking);
+                case ASYNC_CHANNEL_REACTOR -> Flux.fromIterable(files)
+                        .flatMap(this::readAsync, Math.max(1, files.size()))
+                        .reduce(FileReadResult.EMPTY, FileReadResult::plus)
+                        .block();
+                case MEMORY_MAPPED -> readOnVirtualThreads(files, this::readMapped);
+            };
+            durationNanos = System.nanoTime() - start;
+            carriers = carrierMonitor.stop();
+        } finally {
+            datasetLock.readLock().unlock();
+        }
+
+        double seconds = Math.max(1, durationNanos) / 1_000_000_000.0;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", mode.name());
+        result.put("files", numberOfFiles);
+        result.put("fileSizeKb", fileSizeKb);
+        result.put("totalBytes", total.bytes());
+        result.put("durationMs", durationNanos / 1_000_000);
+        result.put("filesPerSecond", numberOfFiles / seconds);
+        result.put("throughputMbPerSecond", total.bytes() / (1024.0 * 1024.0) / seconds);
+        result.put("carrierThreadsBefore", carriers.before());
+        result.put("carrierThreadsPeak", carriers.peak());
+        result.put("carrierThreadGrowth", carriers.growth());
+        result.put("jvmPeakThreads", carriers.jvmPeakThreads());
+        result.put("checksum", total.checksum());
+        return result;
+    }
+
+    public Map<String, Object> compareModes(int numberOfFiles, int fileSizeKb) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (FileReadMode mode : FileReadMode.values()) {
+            result.put(mode.name(), run(mode, numberOfFiles, fileSizeKb));
+        }
+        return result;
+    }
+
+    private FileReadResult readOnVirtualThreads(List<Path> files, FileReader reader) {
+        var futures = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> reader.read(file), virtualThreadExecutor))
+                .toList();
+
+        return futures.stream()
+                .map(CompletableFuture::join)
+                .reduce(FileReadResult.EMPTY, FileReadResult::plus);
+    }
+
+    private FileReadResult readBlocking(Path file) {
+        try {
+            byte[] content = Files.readAllBytes(file);
+            return new FileReadResult(content.length, checksum(ByteBuffer.wrap(content)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private FileReadResult readMapped(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new FileReadResult(channel.size(), checksum(buffer));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Mono<FileReadResult> readAsync(Path file) {
+        return Mono.create(sink -> {
+            AsynchronousFileChannel channel;
+            try {
+                channel = AsynchronousFileChannel.open(file, StandardOpenOption.READ);
+            } catch (IOException e) {
+                sink.error(e);
+                return;
+            }
+            sink.onDispose(() -> closeQuietly(channel));
+
+            ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+            channel.read(buffer, 0, null, new CompletionHandler<Integer, Void>() {
+                private long position;
+                private long checksum;
+
+                @Override
+                public void completed(Integer read, Void attachment) {
+                    if (read < 0) {
+                        sink.success(new FileReadResult(position, checksum));
+                        return;
+                    }
+                    buffer.flip();
+                    checksum += checksum(buffer);
+                    buffer.clear();
+                    position += read;
+                    channel.read(buffer, position, null, this);
+                }
+
+                @Override
+                public void failed(Throwable error, Void attachment) {
+                    sink.error(error);
+                }
+            });
+        });
+    }
+
+    /**
+     * Garante o dataset e devolve os arquivos com o read lock adquirido; quem chama o libera.
+     */
+    private List<Path> acquireDataset(int numberOfFiles, int fileSizeKb) {
+        Path directory = datasetDirectory(numberOfFiles, fileSizeKb);
+        datasetLock.readLock().lock();
+        if (Files.exists(directory.resolve(COMPLETE_MARKER))) {
+            return datasetFiles(directory, numberOfFiles);
+        }
+        datasetLock.readLock().unlock();
+
+        datasetLock.writeLock().lock();
+        try {
+            List<Path> files = prepareDataset(numberOfFiles, fileSizeKb);
+            // Rebaixa para o read lock antes de soltar o write lock: ninguém troca o dataset no intervalo
+            datasetLock.readLock().lock();
+            return files;
+        } finally {
+            datasetLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Gera (uma única vez por combinação de parâmetros) os arquivos do dataset, apagando os
+     * datasets de outras combinações.
+     */
+    List<Path> prepareDataset(int numberOfFiles, int fileSizeKb) {
+        Path directory = datasetDirectory(numberOfFiles, fileSizeKb);
+        List<Path> files = datasetFiles(directory, numberOfFiles);
+
+        datasetLock.writeLock().lock();
+        try {
+            if (Files.exists(directory.resolve(COMPLETE_MARKER))) {
+                return files;
+            }
+            deleteDatasetsExcept(directory);
+            Files.createDirectories(directory);
+            byte[] content = new byte[fileSizeKb * 1024];
+            for (int i = 0; i < numberOfFiles; i++) {
+                new Random(i).nextBytes(content);
+                Files.write(files.get(i), content);
+            }
+            Files.createFile(directory.resolve(COMPLETE_MARKER));
+            return files;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            datasetLock.writeLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        virtualThreadExecutor.shutdownNow();
+        datasetLock.writeLock().lock();
+        try {
+            deleteDatasetsExcept(null);
+            Files.deleteIfExists(baseDirectory);
+        } catch (IOException | UncheckedIOException e) {
+            // Diretório temporário: o que sobrar é apagado na próxima troca de dataset
+        } finally {
+            datasetLock.writeLock().unlock();
+        }
+    }
+
+    private Path datasetDirectory(int numberOfFiles, int fileSizeKb) {
+        return baseDirectory.resolve(numberOfFiles + "x" + fileSizeKb + "kb");
+    }
+
+    private static List<Path> datasetFiles(Path directory, int numberOfFiles) {
+        return IntStream.range(0, numberOfFiles)
+                .mapToObj(i -> directory.resolve("file-" + i + ".bin"))
+                .toList();
+    }
+
+    /**
+     * Apaga os diretórios de dataset sob {@code baseDirectory}, exceto {@code keep}. Chamado com o
+     * write lock adquirido.
+     */
+    private void deleteDatasetsExcept(Path keep) throws IOException {
+        if (!Files.isDirectory(baseDirectory)) {
+            return;
+        }
+        List<Path> stale;
+        try (Stream<Path> children = Files.list(baseDirectory)) {
+            stale = children.filter(child -> !child.equals(keep)).toList();
+        }
+        for (Path dataset : stale) {
+            try (Stream<Path> tree = Files.walk(dataset)) {
+                for (Path path : tree.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    private static long checksum(ByteBuffer buffer) {
+        long sum = 0;
+        while (buffer.hasRemaining()) {
+            sum += buffer.get() & 0xFF;
+        }
+        return sum;
+    }
+
+    private static void closeQuietly(AsynchronousFileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // O canal já foi usado; falha ao fechar não altera o resultado
+        }
+    }
+
+    @FunctionalInterface
+    private interface FileReader {
+        FileReadResult read(Path file);
+    }
+
+    private record FileReadResult(long bytes, long checksum) {
+
+        static final FileReadResult EMPTY = new FileReadResult(0, 0);
+
+        FileReadResult plus(FileReadResult other) {
+            return new FileReadResult(bytes + other.bytes, checksum + other.checksum);
+        }
+    }
+}
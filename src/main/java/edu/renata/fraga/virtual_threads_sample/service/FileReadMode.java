@@ -0,0 +1,13 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+/**
+ * Formas de ler os arquivos do dataset na carga de I/O de arquivo.
+ */
+public enum FileReadMode {
+    /** {@code Files.readAllBytes} em uma Virtual Thread por arquivo. */
+    BLOCKING_VIRTUAL_THREADS,
+    /** {@code AsynchronousFileChannel} com {@code CompletionHandler} adaptado para {@code Mono}. */
+    ASYNC_CHANNEL_REACTOR,
+    /** Varredura de um {@code MappedByteBuffer} em uma Virtual Thread por arquivo. */
+    MEMORY_MAPPED
+}
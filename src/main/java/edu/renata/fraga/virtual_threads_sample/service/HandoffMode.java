@@ -0,0 +1,14 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+/**
+ * Formas de entregar mensagens pequenas dos produtores aos trabalhadores, comparadas no
+ * {@link PipelineBenchmarkService}.
+ */
+public enum HandoffMode {
+    /** Um {@code CompletableFuture} em uma Virtual Thread nova por mensagem, como no {@code flux-parallel} e no {@code stress-test}. */
+    COMPLETABLE_FUTURE_PER_TASK,
+    /** Trabalhadoras de vida longa consumindo uma {@code LinkedBlockingQueue} limitada, uma mensagem por {@code take()}. */
+    BLOCKING_QUEUE,
+    /** {@code RingBuffer} pré-alocado com um estágio de transformação e um de agregação, consumidos em lote. */
+    RING_BUFFER
+}
@@ -0,0 +1,14 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+/**
+ * Formas de processar operações que precisam de ordem por chave (conta, sessão), comparadas em
+ * {@link VirtualThreadService#processKeyedOperations}.
+ */
+public enum KeyedOrderingMode {
+    /** Uma caixa de mensagens por chave no {@code KeyedSerialExecutor}: ordem por chave, chaves diferentes em paralelo. */
+    KEYED_SERIAL_EXECUTOR,
+    /** Uma Virtual Thread por operação dentro de {@code synchronized} em uma de N faixas de lock: prende a carrier e serializa chaves da mesma faixa. */
+    SYNCHRONIZED_STRIPES,
+    /** Uma Virtual Thread por operação sem coordenação: referência de vazão, sem garantia de ordem. */
+    UNORDERED
+}
@@ -0,0 +1,302 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.AsyncLazy;
+import edu.renata.fraga.virtual_threads_sample.concurrent.StripedCounter;
+import edu.renata.fraga.virtual_threads_sample.concurrent.VirtualMonitor;
+import edu.renata.fraga.virtual_threads_sample.metrics.CarrierThreadMonitor;
+import edu.renata.fraga.virtual_threads_sample.metrics.PinningMonitor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmark dos cenários de pinning do JDK 21, executado no {@code virtualThreadExecutor} da
+ * {@code VirtualThreadConfig}.
+ * <p>
+ * {@code concurrency} Virtual Threads começam juntas e cada uma faz {@code operations} operações
+ * que bloqueiam por {@code blockMs}, cada thread com seu próprio lock: não há disputa, então sem
+ * pinning a vazão ideal é {@code concurrency / blockMs}. Com pinning, só as carriers (uma por
+ * núcleo) trabalham e a eficiência cai conforme a concorrência passa do número de carriers.
+ * <p>
+ * As carriers são compartilhadas com a aplicação inteira: durante os cenários com pinning, o
+ * restante das Virtual Threads da JVM (todas as requisições, não só as do benchmark) fica sem
+ * carrier livre por até {@link #pinnedCarrierMillis} e também fica mais lento. O JDK 21 não permite
+ * dar a um grupo de Virtual Threads um scheduler próprio, então o controller limita esse tempo.
+ */
+@Service
+public class PinningBenchmarkService {
+
+    private static final Duration PINNING_THRESHOLD = Duration.ofMillis(1);
+    private static final ThreadLocal<Long> CLASS_INIT_BLOCK_MS = ThreadLocal.withInitial(() -> 0L);
+
+    private final Executor virtualThreadExecutor;
+    private final AsyncLazy<byte[]> blockingInitializerBytes = new AsyncLazy<>(PinningBenchmarkService::readBlockingInitializer);
+
+    public PinningBenchmarkService(@Qualifier("virtualThreadExecutor") Executor virtualThreadExecutor) {
+        this.virtualThreadExecutor = virtualThreadExecutor;
+    }
+
+    /**
+     * Chamado pelo inicializador estático de {@link BlockingInitializer}, em cada cópia carregada.
+     */
+    public static void blockDuringClassInit() {
+        sleep(CLASS_INIT_BLOCK_MS.get());
+    }
+
+    /**
+     * Tempo estimado em que um cenário com pinning ocupa todas as carriers: as threads presas
+     * andam em levas de uma por carrier, cada leva bloqueando {@code operations * blockMs}.
+     */
+    public static long pinnedCarrierMillis(int concurrency, int operations, long blockMs) {
+        int carriers = CarrierThreadMonitor.carrierParallelism();
+        return (concurrency + carriers - 1L) / carriers * operations * blockMs;
+    }
+
+    public Map<String, Object> run(PinningScenario scenario, int concurrency, int operations, long blockMs) {
+        StripedCounter completedOperations = new StripedCounter();
+        CountDownLatch startGate = new CountDownLatch(1);
+
+        PinningMonitor pinningMonitor = PinningMonitor.start(PINNING_THRESHOLD);
+        CarrierThreadMonitor carrierMonitor = CarrierThreadMonitor.start();
+
+        var futures = IntStream.range(0, concurrency)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> {
+                    Runnable operation = newOperation(scenario, blockMs);
+                    awaitStart(startGate);
+                    for (int op = 0; op < operations; op++) {
+                        operation.run();
+                        completedOperations.increment();
+                    }
+                }, virtualThreadExecutor))
+                .toList();
+
+        long start = System.nanoTime();
+        startGate.countDown();
+        futures.forEach(CompletableFuture::join);
+        long durationNanos = System.nanoTime() - start;
+
+        CarrierThreadMonitor.CarrierThreadReport carriers = carrierMonitor.stop();
+        PinningMonitor.PinningReport pinning = pinningMonitor.stop();
+
+        double seconds = Math.max(1, durationNanos) / 1_000_000_000.0;
+        double opsPerSecond = completedOperations.sum() / seconds;
+        double idealOpsPerSecond = concurrency * 1000.0 / Math.max(1, blockMs);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("scenario", scenario.name());
+        result.put("pins", scenario.pins());
+        result.put("concurrency", concurrency);
+        result.put("operations", completedOperations.sum());
+        result.put("blockMs", blockMs);
+        result.put("estimatedPinnedCarrierMs", scenario.pins() ? pinnedCarrierMillis(concurrency, operations, blockMs) : 0L);
+        result.put("durationMs", durationNanos / 1_000_000);
+        result.put("opsPerSecond", opsPerSecond);
+        result.put("idealOpsPerSecond", idealOpsPerSecond);
+        result.put("efficiency", Math.min(1.0, opsPerSecond / idealOpsPerSecond));
+        result.put("carrierParallelism", CarrierThreadMonitor.carrierParallelism());
+        result.put("carrierThreadsPeak", carriers.peak());
+        result.put("carrierThreadGrowth", carriers.growth());
+        result.put("pinnedEvents", pinning.pinnedEvents());
+        result.put("pinnedTotalMs", pinning.totalPinnedMillis());
+        result.put("pinnedTopFrames", pinning.topFrames());
+        return result;
+    }
+
+    /**
+     * Executa cada cenário com pinning ao lado dos seus equivalentes em cada nível de
+     * concorrência, mostrando a queda de vazão conforme a concorrência sobe.
+     */
+    public Map<String, Object> sweep(List<Integer> concurrencyLevels, int operations, long blockMs) {
+        List<Map<String, Object>> levels = new ArrayList<>();
+        for (int concurrency : concurrencyLevels) {
+            Map<String, Object> scenarios = new LinkedHashMap<>();
+            Map<String, Object> speedups = new LinkedHashMap<>();
+            for (PinningScenario pinning : PinningScenario.values()) {
+                if (!pinning.pins()) {
+                    continue;
+                }
+                Map<String, Object> pinned = run(pinning, concurrency, operations, blockMs);
+                scenarios.put(pinning.name(), pinned);
+                for (PinningScenario alternative : pinning.alternatives()) {
+                    Map<String, Object> result = run(alternative, concurrency, operations, blockMs);
+                    scenarios.put(alternative.name(), result);
+                    speedups.put(alternative.name() + "_vs_" + pinning.name(),
+                            (Double) result.get("opsPerSecond") / Math.max(1e-9, (Double) pinned.get("opsPerSecond")));
+                }
+            }
+            Map<String, Object> level = new LinkedHashMap<>();
+            level.put("concurrency", concurrency);
+            level.put("speedupOverPinning", speedups);
+            level.put("scenarios", scenarios);
+            levels.add(level);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("carrierParallelism", CarrierThreadMonitor.carrierParallelism());
+        result.put("operationsPerThread", operations);
+        result.put("blockMs", blockMs);
+        result.put("levels", levels);
+        return result;
+    }
+
+    private Runnable newOperation(PinningScenario scenario, long blockMs) {
+        return switch (scenario) {
+            case SYNCHRONIZED_BLOCKING -> {
+                Object monitor = new Object();
+                yield () -> {
+                    synchronized (monitor) {
+                        sleep(blockMs);
+                    }
+                };
+            }
+            case REENTRANT_LOCK_BLOCKING -> {
+                ReentrantLock lock = new ReentrantLock();
+                yield () -> {
+                    lock.lock();
+                    try {
+                        sleep(blockMs);
+                    } finally {
+                        lock.unlock();
+                    }
+                };
+            }
+            case STAMPED_LOCK_BLOCKING -> {
+                StampedLock lock = new StampedLock();
+                yield () -> {
+                    long stamp = lock.writeLock();
+                    try {
+                        sleep(blockMs);
+                    } finally {
+                        lock.unlockWrite(stamp);
+                    }
+                };
+            }
+            case OBJECT_WAIT -> {
+                Object monitor = new Object();
+                yield () -> {
+                    synchronized (monitor) {
+                        try {
+                            monitor.wait(blockMs);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new RuntimeException(e);
+                        }
+                    }
+                };
+            }
+            case CONDITION_AWAIT -> {
+                VirtualMonitor monitor = new VirtualMonitor();
+                yield () -> {
+                    try {
+                        monitor.await(Duration.ofMillis(blockMs));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RuntimeException(e);
+                    }
+                };
+            }
+            case CLASS_INIT_BLOCKING -> () -> initializeFreshCopy(blockMs);
+            case ASYNC_LAZY_INIT -> () -> new AsyncLazy<>(() -> {
+                sleep(blockMs);
+                return Boolean.TRUE;
+            }).get();
+        };
+    }
+
+    /**
+     * Carrega uma nova cópia de {@link BlockingInitializer} em um class loader próprio e a
+     * inicializa; o inicializador estático roda dentro de um frame nativo da JVM e prende a carrier.
+     */
+    private void initializeFreshCopy(long blockMs) {
+        CLASS_INIT_BLOCK_MS.set(blockMs);
+        try {
+            Class.forName(BlockingInitializer.class.getName(), true,
+                    new IsolatedClassLoader(getClass().getClassLoader(), blockingInitializerBytes.get()));
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            CLASS_INIT_BLOCK_MS.remove();
+        }
+    }
+
+    private static byte[] readBlockingInitializer() {
+        String resource = BlockingInitializer.class.getName().replace('.', '/') + ".class";
+        try (InputStream input = PinningBenchmarkService.class.getClassLoader().getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new IllegalStateException("Class file not found: " + resource);
+            }
+            return input.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void awaitStart(CountDownLatch startGate) {
+        try {
+            startGate.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Classe cujo inicializador estático bloqueia; é recarregada a cada operação pelo
+     * {@link IsolatedClassLoader}, então cada operação executa o inicializador de novo.
+     */
+    public static final class BlockingInitializer {
+        static {
+            PinningBenchmarkService.blockDuringClassInit();
+        }
+
+        private BlockingInitializer() {
+        }
+    }
+
+    private static final class IsolatedClassLoader extends ClassLoader {
+
+        private final byte[] blockingInitializer;
+
+        IsolatedClassLoader(ClassLoader parent, byte[] blockingInitializer) {
+            super(parent);
+            this.blockingInitializer = blockingInitializer;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!BlockingInitializer.class.getName().equals(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded == null) {
+                    loaded = defineClass(name, blockingInitializer, 0, blockingInitializer.length);
+                }
+                return loaded;
+            }
+        }
+    }
+}
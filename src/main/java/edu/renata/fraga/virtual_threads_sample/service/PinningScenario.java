@@ -0,0 +1,40 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import java.util.List;
+
+/**
+ * Cenários do benchmark de pinning. Cada operação bloqueia por {@code blockMs}; os cenários que
+ * prendem a carrier no JDK 21 têm ao lado equivalentes que não prendem.
+ */
+public enum PinningScenario {
+    /** {@code Thread.sleep} dentro de {@code synchronized}. */
+    SYNCHRONIZED_BLOCKING,
+    /** {@code Thread.sleep} segurando um {@code ReentrantLock}. */
+    REENTRANT_LOCK_BLOCKING,
+    /** {@code Thread.sleep} segurando o write lock de um {@code StampedLock}. */
+    STAMPED_LOCK_BLOCKING,
+    /** {@code Object.wait(blockMs)}; no JDK 21 a JVM compensa com carriers extras, até 256. */
+    OBJECT_WAIT,
+    /** {@code Condition.await(blockMs)} pelo {@code VirtualMonitor}. */
+    CONDITION_AWAIT,
+    /** Bloqueio dentro do inicializador estático de uma classe carregada a cada operação. */
+    CLASS_INIT_BLOCKING,
+    /** O mesmo bloqueio dentro do inicializador de um {@code AsyncLazy}. */
+    ASYNC_LAZY_INIT;
+
+    public boolean pins() {
+        return this == SYNCHRONIZED_BLOCKING || this == OBJECT_WAIT || this == CLASS_INIT_BLOCKING;
+    }
+
+    /**
+     * Equivalentes sem pinning de um cenário que prende a carrier; vazio para os demais.
+     */
+    public List<PinningScenario> alternatives() {
+        return switch (this) {
+            case SYNCHRONIZED_BLOCKING -> List.of(REENTRANT_LOCK_BLOCKING, STAMPED_LOCK_BLOCKING);
+            case OBJECT_WAIT -> List.of(CONDITION_AWAIT);
+            case CLASS_INIT_BLOCKING -> List.of(ASYNC_LAZY_INIT);
+            default -> List.of();
+        };
+    }
+}
@@ -0,0 +1,251 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.RingBuffer;
+import edu.renata.fraga.virtual_threads_sample.concurrent.RingBufferPipeline;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Benchmark de entrega de mensagens pequenas em alta taxa: {@code producers} Virtual Threads
+ * publicam {@code messages} números, cada um é transformado (uma mistura de bits de poucos
+ * nanossegundos) e somado num checksum, igual em todos os modos.
+ * <p>
+ * Com trabalho tão pequeno, o custo dominante é a entrega: criar uma thread e um future por
+ * mensagem ({@link HandoffMode#COMPLETABLE_FUTURE_PER_TASK}), o lock e o nó alocado por mensagem
+ * da {@code LinkedBlockingQueue} ({@link HandoffMode#BLOCKING_QUEUE}) ou só um CAS e slots
+ * reaproveitados do {@link RingBuffer} ({@link HandoffMode#RING_BUFFER}), cujo estágio de
+ * agregação publica a soma uma vez por lote.
+ */
+@Service
+public class PipelineBenchmarkService {
+
+    private static final long POISON_PILL = -1L;
+    private static final int WARMUP_MESSAGES = 10_000;
+
+    private final Executor virtualThreadExecutor;
+
+    public PipelineBenchmarkService(@Qualifier("virtualThreadExecutor") Executor virtualThreadExecutor) {
+        this.virtualThreadExecutor = virtualThreadExecutor;
+    }
+
+    public Map<String, Object> run(HandoffMode mode, int messages, int producers, int workers,
+                                   boolean virtualWorkers, int bufferSize) {
+        ThreadFactory workerFactory = virtualWorkers
+                ? Thread.ofVirtual().name("pipeline-worker-", 0).factory()
+                : Thread.ofPlatform().daemon().name("pipeline-worker-", 0).factory();
+        long gcCollectionsBefore = gcCollections();
+        long gcTimeBefore = gcTimeMillis();
+        LongAdder checksum = new LongAdder();
+        Map<String, Object> batching = null;
+
+        long start = System.nanoTime();
+        switch (mode) {
+            case COMPLETABLE_FUTURE_PER_TASK -> runProducers(messages, producers, (from, to) -> {
+                List<CompletableFuture<Void>> futures = new ArrayList<>((int) (to - from));
+                for (long i = from; i < to; i++) {
+                    long value = i;
+                    futures.add(CompletableFuture.runAsync(() -> checksum.add(transform(value)), virtualThreadExecutor));
+                }
+                CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+            });
+            case BLOCKING_QUEUE -> runWithBlockingQueue(messages, producers, workers, workerFactory, bufferSize, checksum);
+            case RING_BUFFER -> batching = runWithRingBuffer(messages, producers, workers, workerFactory, bufferSize, checksum)
+                    .toMap();
+        }
+        long durationNanos = System.nanoTime() - start;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("mode", mode.name());
+        result.put("messages", messages);
+        result.put("producers", producers);
+        if (mode != HandoffMode.COMPLETABLE_FUTURE_PER_TASK) {
+            result.put("workers", workers);
+            result.put("workerThreads", virtualWorkers ? "virtual" : "platform");
+            result.put("bufferSize", bufferSize);
+        }
+        result.put("durationMs", durationNanos / 1_000_000);
+        result.put("messagesPerSecond", messages * 1_000_000_000.0 / Math.max(1, durationNanos));
+        result.put("gcCollections", gcCollections() - gcCollectionsBefore);
+        result.put("gcTimeMs", gcTimeMillis() - gcTimeBefore);
+        result.put("checksum", checksum.sum());
+        if (batching != null) {
+            result.put("batching", batching);
+        }
+        return result;
+    }
+
+    /**
+     * Executa todos os modos com os mesmos parâmetros, depois de uma rodada curta de aquecimento
+     * de cada um, e reporta quantas vezes o ring buffer é mais rápido que os demais.
+     */
+    public Map<String, Object> compare(int messages, int producers, int workers, boolean virtualWorkers, int bufferSize) {
+        for (HandoffMode mode : HandoffMode.values()) {
+            run(mode, Math.min(messages, WARMUP_MESSAGES), producers, workers, virtualWorkers, bufferSize);
+        }
+
+        Map<String, Object> modes = new LinkedHashMap<>();
+        for (HandoffMode mode : HandoffMode.values()) {
+            modes.put(mode.name(), run(mode, messages, producers, workers, virtualWorkers, bufferSize));
+        }
+
+        double ringBufferRate = messagesPerSecond(modes, HandoffMode.RING_BUFFER);
+        Map<String, Object> speedups = new LinkedHashMap<>();
+        for (HandoffMode mode : HandoffMode.values()) {
+            if (mode != HandoffMode.RING_BUFFER) {
+                speedups.put("RING_BUFFER_vs_" + mode.name(), ringBufferRate / Math.max(1e-9, messagesPerSecond(modes, mode)));
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("speedups", speedups);
+        result.put("modes", modes);
+        return result;
+    }
+
+    static long transform(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private void runWithBlockingQueue(int messages, int producers, int workers, ThreadFactory workerFactory,
+                                      int bufferSize, LongAdder checksum) {
+        BlockingQueue<Long> queue = new LinkedBlockingQueue<>(bufferSize);
+        List<Thread> workerThreads = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            Thread worker = workerFactory.newThread(() -> {
+                long sum = 0;
+                try {
+                    for (long value = queue.take(); value != POISON_PILL; value = queue.take()) {
+                        sum += transform(value);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                checksum.add(sum);
+            });
+            workerThreads.add(worker);
+            worker.start();
+        }
+
+        try {
+            runProducers(messages, producers, (from, to) -> {
+                for (long i = from; i < to; i++) {
+                    putUninterruptibly(queue, i);
+                }
+            });
+            for (int w = 0; w < workers; w++) {
+                queue.put(POISON_PILL);
+            }
+            for (Thread worker : workerThreads) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private RingBufferPipeline.Stats runWithRingBuffer(int messages, int producers, int workers, ThreadFactory workerFactory,
+                                                       int bufferSize, LongAdder checksum) {
+        RingBuffer<Message> ringBuffer = new RingBuffer<>(bufferSize, Message::new);
+        List<RingBufferPipeline.Stage<Message>> stages = List.of(
+                new RingBufferPipeline.Stage<>("transform", workers,
+                        worker -> (message, sequence, endOfBatch) -> message.result = transform(message.value)),
+                new RingBufferPipeline.Stage<>("aggregate", 1, worker -> {
+                    long[] pending = new long[1];
+                    return (message, sequence, endOfBatch) -> {
+                        pending[0] += message.result;
+                        if (endOfBatch) {
+                            checksum.add(pending[0]);
+                            pending[0] = 0;
+                        }
+                    };
+                }));
+
+        try (RingBufferPipeline<Message> pipeline = new RingBufferPipeline<>(ringBuffer, workerFactory, stages)) {
+            runProducers(messages, producers, (from, to) -> {
+                for (long i = from; i < to; i++) {
+                    long sequence = ringBuffer.next();
+                    ringBuffer.get(sequence).value = i;
+                    ringBuffer.publish(sequence);
+                }
+            });
+            pipeline.drain();
+            return pipeline.stats();
+        }
+    }
+
+    /**
+     * Divide {@code [0, messages)} entre {@code producers} Virtual Threads e espera todas terminarem.
+     */
+    private static void runProducers(int messages, int producers, ProducerRange body) {
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long from = (long) messages * p / producers;
+            long to = (long) messages * (p + 1) / producers;
+            threads.add(Thread.ofVirtual().name("pipeline-producer-" + p).start(() -> body.produce(from, to)));
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void putUninterruptibly(BlockingQueue<Long> queue, long value) {
+        try {
+            queue.put(value);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static double messagesPerSecond(Map<String, Object> modes, HandoffMode mode) {
+        return (Double) ((Map<?, ?>) modes.get(mode.name())).get("messagesPerSecond");
+    }
+
+    private static long gcCollections() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .filter(count -> count > 0)
+                .sum();
+    }
+
+    private static long gcTimeMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .filter(time -> time > 0)
+                .sum();
+    }
+
+    @FunctionalInterface
+    private interface ProducerRange {
+
+        void produce(long from, long to);
+    }
+
+    private static final class Message {
+
+        private long value;
+        private long result;
+    }
+}
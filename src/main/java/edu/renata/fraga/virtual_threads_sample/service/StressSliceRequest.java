@@ -0,0 +1,11 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+/**
+ * Fatia de um stress test distribuído enviada pelo coordenador a cada nó.
+ *
+ * @param tasks              número de tarefas executadas pelo nó
+ * @param taskDurationMs     duração do I/O simulado de cada tarefa
+ * @param startAtEpochMillis instante combinado para todos os nós começarem
+ */
+public record StressSliceRequest(int tasks, long taskDurationMs, long startAtEpochMillis) {
+}
@@ -0,0 +1,14 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+/**
+ * Resultado de uma fatia do stress test distribuído.
+ *
+ * @param node                  identificação do nó que executou a fatia
+ * @param tasks                 tarefas executadas
+ * @param startedAtEpochMillis  início efetivo da fatia
+ * @param finishedAtEpochMillis fim da última tarefa
+ * @param histogram             HdrHistogram das latências (ns), comprimido e em Base64
+ */
+public record StressSliceResult(String node, int tasks, long startedAtEpochMillis, long finishedAtEpochMillis,
+                                String histogram) {
+}
@@ -0,0 +1,139 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.SubmissionWindow;
+import edu.renata.fraga.virtual_threads_sample.tracing.BatchSpanExporter;
+import edu.renata.fraga.virtual_threads_sample.tracing.InMemoryCollector;
+import edu.renata.fraga.virtual_threads_sample.tracing.Span;
+import edu.renata.fraga.virtual_threads_sample.tracing.Tracer;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Custo do tracing por tarefa: as mesmas {@code tasks} tarefas curtas em Virtual Threads, sem
+ * tracing e com um span por tarefa (filho do span da rodada, criado depois do salto de thread),
+ * com a amostragem atual do {@link Tracer} da aplicação.
+ * <p>
+ * O tracer da medição tem exportador e collector próprios, então não mistura spans com os da
+ * aplicação. As rodadas se alternam (ABAB, BABA...) para que aquecimento e ruído afetem os dois
+ * lados igualmente, e a comparação usa a mediana. Depois de cada rodada com tracing o exportador é
+ * esvaziado fora da medição: sem isso a exportação dos spans de uma rodada continua em segundo
+ * plano durante a rodada seguinte, que pode ser a sem tracing. O tempo desse esvaziamento é
+ * reportado à parte.
+ */
+@Service
+public class TracingOverheadService {
+
+    static final double TARGET_TASKS_PER_SECOND = 100_000;
+    static final double OVERHEAD_BUDGET_PERCENT = 3.0;
+    private static final int WORK_ITERATIONS = 200;
+    private static final int WARMUP_TASKS = 20_000;
+    private static final int MAX_IN_FLIGHT = 10_000;
+    private static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Tracer tracer;
+
+    public TracingOverheadService(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    public Map<String, Object> measure(int tasks, int rounds) {
+        InMemoryCollector collector = new InMemoryCollector(1, 1);
+        try (BatchSpanExporter exporter = new BatchSpanExporter(List.of(collector), 65_536, 2_048);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Tracer benchmarkTracer = new Tracer(tracer.getSampler(), exporter);
+            SubmissionWindow window = new SubmissionWindow(executor, MAX_IN_FLIGHT);
+
+            runRound(window, null, WARMUP_TASKS);
+            runRound(window, benchmarkTracer, WARMUP_TASKS);
+            exporter.flush(FLUSH_TIMEOUT);
+
+            long[] untracedNanos = new long[rounds];
+            long[] tracedNanos = new long[rounds];
+            long[] flushNanos = new long[rounds];
+            LongAdder flushTimeouts = new LongAdder();
+            for (int round = 0; round < rounds; round++) {
+                boolean tracedFirst = round % 2 != 0;
+                if (tracedFirst) {
+                    tracedNanos[round] = runRound(window, benchmarkTracer, tasks);
+                    flushNanos[round] = timedFlush(exporter, flushTimeouts);
+                }
+                untracedNanos[round] = runRound(window, null, tasks);
+                if (!tracedFirst) {
+                    tracedNanos[round] = runRound(window, benchmarkTracer, tasks);
+                    flushNanos[round] = timedFlush(exporter, flushTimeouts);
+                }
+            }
+
+            long untraced = median(untracedNanos);
+            long traced = median(tracedNanos);
+            double untracedRate = tasks * 1_000_000_000.0 / Math.max(1, untraced);
+            double overheadPercent = (traced - untraced) * 100.0 / Math.max(1, untraced);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("tasks", tasks);
+            result.put("rounds", rounds);
+            result.put("sampling", benchmarkTracer.stats().get("sampling"));
+            result.put("untracedMedianMs", untraced / 1_000_000.0);
+            result.put("tracedMedianMs", traced / 1_000_000.0);
+            result.put("untracedTasksPerSecond", untracedRate);
+            result.put("tracedTasksPerSecond", tasks * 1_000_000_000.0 / Math.max(1, traced));
+            result.put("overheadPercent", overheadPercent);
+            result.put("overheadNanosPerTask", (double) (traced - untraced) / tasks);
+            result.put("exportFlushMedianMs", median(flushNanos) / 1_000_000.0);
+            result.put("exportFlushTimeouts", flushTimeouts.sum());
+            result.put("targetTasksPerSecond", TARGET_TASKS_PER_SECOND);
+            result.put("reachedTargetRate", untracedRate >= TARGET_TASKS_PER_SECOND);
+            result.put("overheadBudgetPercent", OVERHEAD_BUDGET_PERCENT);
+            result.put("withinBudget", overheadPercent <= OVERHEAD_BUDGET_PERCENT);
+            result.put("exporter", exporter.stats());
+            return result;
+        }
+    }
+
+    private static long runRound(SubmissionWindow window, Tracer tracer, int tasks) {
+        LongAdder checksum = new LongAdder();
+        long start = System.nanoTime();
+        if (tracer == null) {
+            window.run(tasks, i -> () -> checksum.add(work(i)));
+        } else {
+            try (Span span = tracer.startSpan("overhead.round")) {
+                window.run(tasks, i -> tracer.wrap("overhead.task", () -> checksum.add(work(i))));
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Espera o exportador entregar os spans já finalizados e devolve quanto isso levou; conta em
+     * {@code timeouts} quando o prazo acaba antes.
+     */
+    private static long timedFlush(BatchSpanExporter exporter, LongAdder timeouts) {
+        long start = System.nanoTime();
+        if (!exporter.flush(FLUSH_TIMEOUT)) {
+            timeouts.increment();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long work(long seed) {
+        long value = seed;
+        for (int i = 0; i < WORK_ITERATIONS; i++) {
+            value = PipelineBenchmarkService.transform(value);
+        }
+        return value;
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
@@ -1,70 +1,165 @@
 package edu.renata.fraga.virtual_threads_sample.service;
 
+import edu.renata.fraga.virtual_threads_sample.concurrent.KeyedSerialExecutor;
+import edu.renata.fraga.virtual_threads_sample.concurrent.ResourcePool;
+import edu.renata.fraga.virtual_threads_sample.concurrent.SubmissionWindow;
+import edu.renata.fraga.virtual_threads_sample.metrics.InterleavedTrials;
+import edu.renata.fraga.virtual_threads_sample.metrics.PinningMonitor;
+import edu.renata.fraga.virtual_threads_sample.metrics.TaskTimer;
+import edu.renata.fraga.virtual_threads_sample.simulation.LatencySimulator;
+import edu.renata.fraga.virtual_threads_sample.simulation.SimulatedFailureException;
+import edu.renata.fraga.virtual_threads_sample.tracing.Span;
+import edu.renata.fraga.virtual_threads_sample.tracing.Tracer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.IntStream;
 
+/**
+ * As comparações submetem as tarefas por uma {@link SubmissionWindow} de
+ * {@code virtual-threads.submission-window} tarefas em andamento, então a memória não cresce com
+ * o número de tarefas e execuções com milhões de tarefas cabem no heap padrão.
+ * <p>
+ * As latências simuladas vêm do {@link LatencySimulator}: fixas por padrão ou as de um trace
+ * carregado em {@code /api/latency-traces}.
+ * <p>
+ * Cada execução abre um span e cada subtarefa um span filho, criado na thread que executa a tarefa
+ * com o pai capturado na submissão ({@link Tracer#wrap}).
+ */
 @Service
 public class VirtualThreadService {
 
+    private static final Duration PINNING_THRESHOLD = Duration.ofMillis(1);
+    private static final long MAILBOX_FULL_BACKOFF_NANOS = 100_000;
+    private static final String VIRTUAL_THREADS = "virtualThreads";
+    private static final String PLATFORM_THREADS = "platformThreads";
+
     private final ExecutorService virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
     private final ExecutorService platformThreadExecutor = Executors.newFixedThreadPool(200);
+    private final SubmissionWindow virtualThreadWindow;
+    private final SubmissionWindow platformThreadWindow;
+    private final LatencySimulator latencySimulator;
+    private final Tracer tracer;
+
+    public VirtualThreadService(LatencySimulator latencySimulator, Tracer tracer,
+                                @Value("${virtual-threads.submission-window:10000}") int submissionWindow) {
+        this.latencySimulator = latencySimulator;
+        this.tracer = tracer;
+        this.virtualThreadWindow = new SubmissionWindow(virtualThreadExecutor, submissionWindow);
+        this.platformThreadWindow = new SubmissionWindow(platformThreadExecutor, submissionWindow);
+    }
 
     public String processWithVirtualThreads(int numberOfTasks) {
-        Instant start = Instant.now();
-        
-        var futures = IntStream.range(0, numberOfTasks)
-                .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
-                    return processTask(i);
-                }, virtualThreadExecutor))
-                .toList();
+        return measureWithVirtualThreads(numberOfTasks).get("summary").toString();
+    }
 
-        futures.stream()
-                .map(CompletableFuture::join)
-                .toList();
+    public String processWithPlatformThreads(int numberOfTasks) {
+        return measureWithPlatformThreads(numberOfTasks).get("summary").toString();
+    }
 
-        Duration duration = Duration.between(start, Instant.now());
-        
-        return String.format("Virtual Threads - Processed %d tasks in %d ms. Thread info: %s", 
-                numberOfTasks, duration.toMillis(), getCurrentThreadInfo());
+    /**
+     * Como {@link #processWithVirtualThreads}, separando atraso de escalonamento e tempo de serviço.
+     */
+    public Map<String, Object> measureWithVirtualThreads(int numberOfTasks) {
+        return measure("Virtual Threads", virtualThreadWindow, numberOfTasks);
     }
 
-    public String processWithPlatformThreads(int numberOfTasks) {
-        Instant start = Instant.now();
-        
-        var futures = IntStream.range(0, numberOfTasks)
-                .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
-                    return processTask(i);
-                }, platformThreadExecutor))
-                .toList();
+    /**
+     * Como {@link #processWithPlatformThreads}; com mais tarefas que as 200 threads do pool, o
+     * tempo extra aparece como atraso de escalonamento, não como tempo de serviço.
+     */
+    public Map<String, Object> measureWithPlatformThreads(int numberOfTasks) {
+        return measure("Platform Threads", platformThreadWindow, numberOfTasks);
+    }
 
-        futures.stream()
-                .map(CompletableFuture::join)
-                .toList();
+    /**
+     * Compara Virtual Threads e Platform Threads em rodadas intercaladas ({@link InterleavedTrials}):
+     * {@code warmupRounds} rodadas descartadas e {@code rounds} rodadas medidas, com a ordem das
+     * estratégias sorteada a cada rodada. Os percentis de atraso de escalonamento e tempo de serviço
+     * agregam as tarefas de todas as rodadas medidas. Os chamadores validam {@code rounds} com
+     * {@link WorkloadLimits#validateThreadComparison}, que exige ao menos duas rodadas para o teste
+     * de significância.
+     */
+    public Map<String, Object> compareThreads(int numberOfTasks, int warmupRounds, int rounds, long seed) {
+        TaskTimer virtualTimer = new TaskTimer();
+        TaskTimer platformTimer = new TaskTimer();
+        Map<String, InterleavedTrials.Trial> strategies = new LinkedHashMap<>();
+        strategies.put(VIRTUAL_THREADS, warmup -> measure("Virtual Threads", virtualThreadWindow, numberOfTasks,
+                warmup ? new TaskTimer() : virtualTimer));
+        strategies.put(PLATFORM_THREADS, warmup -> measure("Platform Threads", platformThreadWindow, numberOfTasks,
+                warmup ? new TaskTimer() : platformTimer));
 
-        Duration duration = Duration.between(start, Instant.now());
-        
-        return String.format("Platform Threads - Processed %d tasks in %d ms. Thread info: %s", 
-                numberOfTasks, duration.toMillis(), getCurrentThreadInfo());
+        InterleavedTrials.Report report;
+        try (Span span = tracer.startSpan("virtual-threads.compare-trials")) {
+            span.setAttribute("tasks", numberOfTasks).setAttribute("rounds", rounds);
+            report = InterleavedTrials.run(strategies, warmupRounds, rounds, seed);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("tasks", numberOfTasks);
+        result.put("warmupRounds", warmupRounds);
+        result.put("rounds", rounds);
+        result.put("seed", seed);
+        result.put(VIRTUAL_THREADS, report.statistics(VIRTUAL_THREADS));
+        result.put(PLATFORM_THREADS, report.statistics(PLATFORM_THREADS));
+        result.put("comparison", report.compare(VIRTUAL_THREADS, PLATFORM_THREADS));
+        result.put("schedulingDelay", Map.of(
+                VIRTUAL_THREADS, virtualTimer.schedulingDelay(),
+                PLATFORM_THREADS, platformTimer.schedulingDelay()));
+        result.put("serviceTime", Map.of(
+                VIRTUAL_THREADS, virtualTimer.serviceTime(),
+                PLATFORM_THREADS, platformTimer.serviceTime()));
+        result.put("trials", report.trialsToMaps());
+        result.put("latencySource", latencySimulator.describe().isPresent() ? "trace" : "fixed");
+        return result;
+    }
+
+    private Map<String, Object> measure(String strategy, SubmissionWindow window, int numberOfTasks) {
+        return measure(strategy, window, numberOfTasks, new TaskTimer());
+    }
+
+    private Map<String, Object> measure(String strategy, SubmissionWindow window, int numberOfTasks, TaskTimer timer) {
+        long start = System.nanoTime();
+
+        SubmissionWindow.Report report;
+        try (Span span = tracer.startSpan("virtual-threads.compare")) {
+            span.setAttribute("strategy", strategy).setAttribute("tasks", numberOfTasks);
+            report = window.run(numberOfTasks, i -> tracer.wrap("virtual-threads.task",
+                    timer.time(() -> processTask(i), latencySimulator.awaitArrival(i, start)))::get);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("summary", String.format("%s - Processed %d tasks in %d ms (%s). Thread info: %s",
+                strategy, numberOfTasks, report.durationMillis(), timer.describe(99), getCurrentThreadInfo()));
+        result.put("totalTasks", numberOfTasks);
+        result.put("durationMs", report.durationMillis());
+        result.putAll(timer.toMap());
+        result.put("submission", report.toMap());
+        result.put("latencySource", latencySimulator.describe().isPresent() ? "trace" : "fixed");
+        return result;
     }
 
     public String simulateBlockingOperation() {
         Instant start = Instant.now();
         
-        // Simula operação de I/O bloqueante
-        try {
-            Thread.sleep(1000); // 1 segundo
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException(e);
-        }
-        
+        // Simula operação de I/O bloqueante: 1 segundo, ou a latência do trace carregado
+        latencySimulator.simulate(Duration.ofSeconds(1));
+
         Duration duration = Duration.between(start, Instant.now());
         
         return String.format("Blocking operation completed in %d ms. Thread: %s", 
@@ -74,13 +169,17 @@ public class VirtualThreadService {
     public String processMultipleBlockingOperations(int numberOfOperations) {
         Instant start = Instant.now();
         
-        var futures = IntStream.range(0, numberOfOperations)
-                .mapToObj(i -> CompletableFuture.supplyAsync(this::simulateBlockingOperation, virtualThreadExecutor))
-                .toList();
+        try (Span span = tracer.startSpan("virtual-threads.multiple-blocking")) {
+            span.setAttribute("operations", numberOfOperations);
+            var futures = IntStream.range(0, numberOfOperations)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(
+                            tracer.wrap("blocking-operation", this::simulateBlockingOperation), virtualThreadExecutor))
+                    .toList();
 
-        futures.stream()
-                .map(CompletableFuture::join)
-                .toList();
+            futures.stream()
+                    .map(CompletableFuture::join)
+                    .toList();
+        }
 
         Duration duration = Duration.between(start, Instant.now());
         
@@ -88,15 +187,156 @@ public class VirtualThreadService {
                 numberOfOperations, duration.toMillis());
     }
 
-    private String processTask(int taskId) {
-        try {
-            // Simula processamento com pequeno delay
-            Thread.sleep(100);
-            return String.format("Task %d processed by %s", taskId, getCurrentThreadInfo());
+    /**
+     * Operações bloqueantes que disputam um recurso escasso: cada uma empresta um dos
+     * {@code poolSize} objetos de um {@link ResourcePool}, o segura por {@code holdMs} e o devolve.
+     * Todas as operações são submetidas de uma vez, então até {@code numberOfOperations} Virtual
+     * Threads ficam na fila do pool.
+     */
+    public Map<String, Object> processWithScarceResource(int numberOfOperations, int poolSize, long holdMs, long timeoutMs) {
+        AtomicInteger resourceIds = new AtomicInteger();
+        try (ResourcePool<Integer> pool = new ResourcePool<>("scarce-resource", poolSize, resourceIds::incrementAndGet);
+             Span span = tracer.startSpan("virtual-threads.pooled-blocking")) {
+            span.setAttribute("operations", numberOfOperations).setAttribute("poolSize", poolSize);
+            SubmissionWindow window = new SubmissionWindow(virtualThreadExecutor, Math.max(1, numberOfOperations));
+            SubmissionWindow.Report report = window.run(numberOfOperations, i -> tracer.wrap("pooled-operation", () ->
+                    pool.withResource(Duration.ofMillis(timeoutMs), resource -> latencySimulator.simulate(Duration.ofMillis(holdMs))))::get);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("operations", numberOfOperations);
+            result.put("durationMs", report.durationMillis());
+            result.put("completed", report.completed());
+            result.put("timedOutOrFailed", report.failed());
+            result.put("pool", pool.stats());
+            return result;
+        }
+    }
+
+    /**
+     * Operações que precisam de ordem por chave: a operação {@code i} pertence à chave
+     * {@code i % keys} e é a {@code i / keys}-ésima dessa chave. Cada uma segura a chave por
+     * {@code holdMs} (ou a latência do trace carregado) e então confere se a operação anterior
+     * da mesma chave já tinha terminado (ordem) e se nenhuma outra da mesma chave está rodando
+     * (exclusão).
+     * <p>
+     * Com {@link KeyedOrderingMode#KEYED_SERIAL_EXECUTOR}, caixa cheia é contrapressão: a
+     * submissão espera e tenta de novo, mantendo a ordem.
+     */
+    public Map<String, Object> processKeyedOperations(KeyedOrderingMode mode, int operations, int keys, int stripes,
+                                                      long holdMs, int maxMailboxSize) {
+        AtomicLongArray lastSequence = new AtomicLongArray(keys);
+        AtomicIntegerArray running = new AtomicIntegerArray(keys);
+        for (int key = 0; key < keys; key++) {
+            lastSequence.set(key, -1);
+        }
+        LongAdder orderViolations = new LongAdder();
+        LongAdder overlapViolations = new LongAdder();
+        LongAdder rejectedSubmissions = new LongAdder();
+        LongAdder failedOperations = new LongAdder();
+        CountDownLatch done = new CountDownLatch(operations);
+        Object[] locks = new Object[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new Object();
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        PinningMonitor pinningMonitor = PinningMonitor.start(PINNING_THRESHOLD);
+        long start = System.nanoTime();
+        try (Span span = tracer.startSpan("virtual-threads.keyed");
+             KeyedSerialExecutor<Integer> keyedExecutor = new KeyedSerialExecutor<>(virtualThreadExecutor, maxMailboxSize)) {
+            span.setAttribute("mode", mode.name()).setAttribute("operations", operations).setAttribute("keys", keys);
+            for (int i = 0; i < operations; i++) {
+                int key = i % keys;
+                long sequence = i / keys;
+                Runnable operation = () -> {
+                    if (running.incrementAndGet(key) > 1) {
+                        overlapViolations.increment();
+                    }
+                    try {
+                        // Falhas simuladas do trace não mudam a ordem: a operação conta como processada
+                        latencySimulator.simulate(Duration.ofMillis(holdMs));
+                    } catch (SimulatedFailureException e) {
+                        failedOperations.increment();
+                    } finally {
+                        running.decrementAndGet(key);
+                        if (lastSequence.getAndSet(key, sequence) != sequence - 1) {
+                            orderViolations.increment();
+                        }
+                        done.countDown();
+                    }
+                };
+                switch (mode) {
+                    case KEYED_SERIAL_EXECUTOR -> {
+                        while (true) {
+                            try {
+                                keyedExecutor.execute(key, operation);
+                                break;
+                            } catch (RejectedExecutionException e) {
+                                rejectedSubmissions.increment();
+                                LockSupport.parkNanos(MAILBOX_FULL_BACKOFF_NANOS);
+                            }
+                        }
+                    }
+                    case SYNCHRONIZED_STRIPES -> {
+                        Object lock = locks[Math.floorMod(Integer.hashCode(key), stripes)];
+                        virtualThreadExecutor.execute(() -> {
+                            synchronized (lock) {
+                                operation.run();
+                            }
+                        });
+                    }
+                    case UNORDERED -> virtualThreadExecutor.execute(operation);
+                }
+            }
+            done.await();
+            if (mode == KeyedOrderingMode.KEYED_SERIAL_EXECUTOR) {
+                result.put("mailboxes", keyedExecutor.stats());
+            }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
             throw new RuntimeException(e);
         }
+        long durationNanos = System.nanoTime() - start;
+        PinningMonitor.PinningReport pinning = pinningMonitor.stop();
+
+        double seconds = Math.max(1, durationNanos) / 1_000_000_000.0;
+        // Com ordem por chave, no máximo uma operação por chave roda de cada vez
+        int parallelKeys = mode == KeyedOrderingMode.SYNCHRONIZED_STRIPES ? Math.min(keys, stripes) : keys;
+        result.put("mode", mode.name());
+        result.put("operations", operations);
+        result.put("keys", keys);
+        if (mode == KeyedOrderingMode.SYNCHRONIZED_STRIPES) {
+            result.put("stripes", stripes);
+        }
+        result.put("holdMs", holdMs);
+        result.put("durationMs", durationNanos / 1_000_000);
+        result.put("opsPerSecond", operations / seconds);
+        result.put("idealOpsPerSecond", parallelKeys * 1000.0 / Math.max(1, holdMs));
+        result.put("orderViolations", orderViolations.sum());
+        result.put("overlapViolations", overlapViolations.sum());
+        result.put("rejectedSubmissions", rejectedSubmissions.sum());
+        result.put("failedOperations", failedOperations.sum());
+        result.put("pinnedEvents", pinning.pinnedEvents());
+        result.put("totalPinnedMs", pinning.totalPinnedMillis());
+        result.put("latencySource", latencySimulator.describe().isPresent() ? "trace" : "fixed");
+        return result;
+    }
+
+    /**
+     * Executa {@link #processKeyedOperations} com o mesmo conjunto de operações em cada modo, em sequência.
+     */
+    public Map<String, Object> compareKeyedOrdering(int operations, int keys, int stripes, long holdMs, int maxMailboxSize) {
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (KeyedOrderingMode mode : KeyedOrderingMode.values()) {
+            results.put(mode.name(), processKeyedOperations(mode, operations, keys, stripes, holdMs, maxMailboxSize));
+        }
+        return results;
+    }
+
+    private String processTask(long taskId) {
+        // Simula processamento com pequeno delay (100 ms, ou a latência do trace carregado)
+        latencySimulator.simulate(Duration.ofMillis(100));
+        return String.format("Task %d processed by %s", taskId, getCurrentThreadInfo());
     }
 
     private String getCurrentThreadInfo() {
@@ -0,0 +1,66 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+/**
+ * Limites dos parâmetros das cargas, compartilhados pelos endpoints síncronos e pelos jobs
+ * assíncronos: uma carga submetida como job não pode ser maior que a aceita pelo endpoint.
+ * <p>
+ * Os métodos lançam {@link IllegalArgumentException}; os controllers a convertem em 400 e o
+ * {@code JobService} a deixa sair já na submissão.
+ */
+public final class WorkloadLimits {
+
+    public static final int MAX_COMPARE_TASKS = 100_000;
+    public static final int MAX_WARMUP_ROUNDS = 20;
+    public static final int MAX_COMPARE_ROUNDS = 50;
+    public static final int MAX_CPU_TASKS = 10_000;
+    // SORTING aloca intensity × 5000 ints por tarefa: 100 dá 2 MB
+    public static final int MAX_CPU_INTENSITY = 100;
+    public static final int MAX_DATABASE_QUERIES = 100_000;
+    public static final int MAX_POOL_SIZE = 500;
+    public static final int MAX_QUERY_LATENCY_MS = 1_000;
+    public static final int MAX_ROWS = 10_000;
+    // Também mantém fileSizeKb × 1024 dentro de um int
+    public static final long MAX_FILE_IO_DATASET_KB = 1024 * 1024;
+    public static final int MAX_CLUSTER_TASKS = 1_000_000;
+    public static final long MAX_TASK_DURATION_MS = 60_000;
+
+    private WorkloadLimits() {
+    }
+
+    public static void validateThreadComparison(int tasks, int warmupRounds, int rounds) {
+        if (tasks < 1 || tasks > MAX_COMPARE_TASKS || warmupRounds < 0 || warmupRounds > MAX_WARMUP_ROUNDS
+                || rounds < 2 || rounds > MAX_COMPARE_ROUNDS) {
+            throw new IllegalArgumentException("tasks must be between 1 and " + MAX_COMPARE_TASKS
+                    + ", warmupRounds between 0 and " + MAX_WARMUP_ROUNDS + " and rounds between 2 and " + MAX_COMPARE_ROUNDS);
+        }
+    }
+
+    public static void validateCpuWorkload(int tasks, int intensity) {
+        if (tasks < 1 || tasks > MAX_CPU_TASKS || intensity < 1 || intensity > MAX_CPU_INTENSITY) {
+            throw new IllegalArgumentException("tasks must be between 1 and " + MAX_CPU_TASKS
+                    + " and intensity between 1 and " + MAX_CPU_INTENSITY);
+        }
+    }
+
+    public static void validateDatabaseWorkload(int queries, int poolSize, int queryLatencyMs, int rows) {
+        if (queries < 1 || queries > MAX_DATABASE_QUERIES || poolSize < 1 || poolSize > MAX_POOL_SIZE
+                || queryLatencyMs < 0 || queryLatencyMs > MAX_QUERY_LATENCY_MS || rows < 1 || rows > MAX_ROWS) {
+            throw new IllegalArgumentException("queries must be between 1 and " + MAX_DATABASE_QUERIES
+                    + ", poolSize between 1 and " + MAX_POOL_SIZE + ", queryLatencyMs between 0 and "
+                    + MAX_QUERY_LATENCY_MS + " and rows between 1 and " + MAX_ROWS);
+        }
+    }
+
+    public static void validateFileIoDataset(int files, int fileSizeKb) {
+        if (files < 1 || fileSizeKb < 1 || (long) files * fileSizeKb > MAX_FILE_IO_DATASET_KB) {
+            throw new IllegalArgumentException("files and fileSizeKb must be positive and the dataset at most 1 GB");
+        }
+    }
+
+    public static void validateClusterStressTest(int tasks, long taskDurationMs) {
+        if (tasks < 1 || tasks > MAX_CLUSTER_TASKS || taskDurationMs < 0 || taskDurationMs > MAX_TASK_DURATION_MS) {
+            throw new IllegalArgumentException("tasks must be between 1 and " + MAX_CLUSTER_TASKS
+                    + " and taskDurationMs between 0 and " + MAX_TASK_DURATION_MS);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package edu.renata.fraga.virtual_threads_sample.simulation;
+
+/**
+ * Latência e resultado de uma chamada simulada.
+ */
+public record LatencySample(long latencyNanos, boolean error) {
+
+    public long latencyMillis() {
+        return latencyNanos / 1_000_000;
+    }
+}
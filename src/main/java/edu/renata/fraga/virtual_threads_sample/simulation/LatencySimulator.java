@@ -0,0 +1,155 @@
+package edu.renata.fraga.virtual_threads_sample.simulation;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Latência das chamadas simuladas pelos endpoints de demonstração.
+ * <p>
+ * Sem trace carregado, cada chamada espera a latência fixa do endpoint, como antes. Com um
+ * {@link LatencyTrace} carregado, as chamadas de todos os endpoints passam a esperar as latências
+ * do trace, sorteadas ({@link ReplayMode#SAMPLE}) ou na ordem ({@link ReplayMode#REPLAY}), e
+ * falham com {@link SimulatedFailureException} nas amostras com erro. Se o trace tiver instantes
+ * de chegada e {@code replayArrivals} estiver ligado, as submissões seguem esses instantes.
+ * <p>
+ * O sorteio usa um contador global misturado com a semente, então a mesma semente produz a mesma
+ * sequência de amostras, qualquer que seja a thread que executa cada chamada.
+ */
+@Component
+public class LatencySimulator {
+
+    private final AtomicReference<Playback> playback = new AtomicReference<>();
+
+    public void load(LatencyTrace trace, ReplayMode mode, boolean replayArrivals, long seed) {
+        if (mode == ReplayMode.REPLAY && !trace.hasSamples()) {
+            throw new IllegalArgumentException("REPLAY needs per-call samples (CSV); histogram logs can only be sampled");
+        }
+        if (replayArrivals && !trace.hasArrivals()) {
+            throw new IllegalArgumentException("replayArrivals needs an arrivalMs column in the trace");
+        }
+        playback.set(new Playback(trace, mode, replayArrivals, seed));
+    }
+
+    /**
+     * Volta para as latências fixas de cada endpoint.
+     */
+    public void clear() {
+        playback.set(null);
+    }
+
+    public Optional<Map<String, Object>> describe() {
+        Playback current = playback.get();
+        if (current == null) {
+            return Optional.empty();
+        }
+        Map<String, Object> description = new LinkedHashMap<>();
+        description.put("mode", current.mode().name());
+        description.put("replayArrivals", current.replayArrivals());
+        description.put("seed", current.seed());
+        description.put("callsSimulated", current.calls().get());
+        description.put("trace", current.trace().summary());
+        return Optional.of(description);
+    }
+
+    /**
+     * Maior latência que {@link #simulate} pode esperar com o trace carregado; vazio sem trace,
+     * quando vale a latência fixa de quem chama.
+     */
+    public Optional<Duration> maxLatency() {
+        Playback current = playback.get();
+        return current == null ? Optional.empty() : Optional.of(Duration.ofNanos(current.trace().maxLatencyNanos()));
+    }
+
+    /**
+     * Próxima latência: a fixa, sem trace, ou a próxima amostra do trace.
+     */
+    public LatencySample next(Duration defaultLatency) {
+        Playback current = playback.get();
+        if (current == null) {
+            return new LatencySample(defaultLatency.toNanos(), false);
+        }
+        long call = current.calls().getAndIncrement();
+        return switch (current.mode()) {
+            case REPLAY -> current.trace().replay(call);
+            case SAMPLE -> current.trace().sample(uniform(current.seed(), 2 * call), uniform(current.seed(), 2 * call + 1));
+        };
+    }
+
+    /**
+     * Espera a próxima latência e retorna os milissegundos esperados; lança
+     * {@link SimulatedFailureException}, depois da espera, se a amostra for um erro.
+     */
+    public long simulate(Duration defaultLatency) {
+        LatencySample sample = next(defaultLatency);
+        try {
+            TimeUnit.NANOSECONDS.sleep(sample.latencyNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        if (sample.error()) {
+            throw new SimulatedFailureException(sample.latencyMillis());
+        }
+        return sample.latencyMillis();
+    }
+
+    /**
+     * Instante de submissão da tarefa {@code taskIndex}, relativo ao início da execução; zero
+     * quando as chegadas não estão sendo reproduzidas.
+     */
+    public Duration arrivalOffset(long taskIndex) {
+        Playback current = playback.get();
+        if (current == null || !current.replayArrivals()) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos(current.trace().arrivalOffsetNanos(taskIndex));
+    }
+
+    /**
+     * Bloqueia até o instante de chegada da tarefa {@code taskIndex}, contado a partir de
+     * {@code startNanos} ({@code System.nanoTime()} do início da execução), e retorna o instante
+     * que vale como submissão: o de chegada previsto no trace, para que atrasos do gerador não
+     * sumam da medição, ou o atual quando as chegadas não estão sendo reproduzidas.
+     */
+    public long awaitArrival(long taskIndex, long startNanos) {
+        Playback current = playback.get();
+        if (current == null || !current.replayArrivals()) {
+            return System.nanoTime();
+        }
+        long arrival = startNanos + current.trace().arrivalOffsetNanos(taskIndex);
+        long waitNanos = arrival - System.nanoTime();
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        return arrival;
+    }
+
+    /**
+     * Valor uniforme em [0, 1) derivado de semente e índice (SplitMix64).
+     */
+    private static double uniform(long seed, long index) {
+        long z = seed + (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    private record Playback(LatencyTrace trace, ReplayMode mode, boolean replayArrivals, long seed, AtomicLong calls) {
+        Playback(LatencyTrace trace, ReplayMode mode, boolean replayArrivals, long seed) {
+            this(trace, mode, replayArrivals, seed, new AtomicLong());
+        }
+    }
+}
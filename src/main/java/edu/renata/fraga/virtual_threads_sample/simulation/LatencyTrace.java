@@ -0,0 +1,265 @@
+package edu.renata.fraga.virtual_threads_sample.simulation;
+
+import edu.renata.fraga.virtual_threads_sample.metrics.LatencySummary;
+import org.HdrHistogram.EncodableHistogram;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramIterationValue;
+import org.HdrHistogram.HistogramLogReader;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trace de latências capturado, usado para dar às tarefas simuladas a forma da produção (cauda
+ * longa, distribuições bimodais, taxa de erro) em vez de um {@code sleep} fixo.
+ * <p>
+ * Um CSV traz uma linha por chamada, com latência e, opcionalmente, instante de chegada e erro, e
+ * pode ser sorteado ou reproduzido na ordem. Um log de HdrHistogram traz só a distribuição: ele é
+ * sorteado por percentil e a taxa de erro é informada à parte.
+ */
+public final class LatencyTrace {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    private final String source;
+    private final Histogram distribution;
+    private final long[] latencies;
+    private final boolean[] errors;
+    private final long[] arrivals;
+    private final double errorRate;
+
+    private LatencyTrace(String source, Histogram distribution, long[] latencies, boolean[] errors,
+                         long[] arrivals, double errorRate) {
+        this.source = source;
+        this.distribution = distribution;
+        this.latencies = latencies;
+        this.errors = errors;
+        this.arrivals = arrivals;
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Lê um CSV com as colunas {@code latencyMs} (obrigatória), {@code arrivalMs} e {@code error}.
+     * Com cabeçalho, as colunas são achadas pelo nome; sem cabeçalho, uma coluna é a latência,
+     * duas são chegada e latência e três são chegada, latência e erro. Erro aceita
+     * {@code true}/{@code false}, {@code 1}/{@code 0} ou um status HTTP (erro a partir de 500).
+     */
+    public static LatencyTrace fromCsv(Reader csv) {
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(csv)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    rows.add(line.split(",", -1));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Latency trace is empty");
+        }
+
+        int latencyColumn;
+        int arrivalColumn;
+        int errorColumn;
+        if (!isNumber(rows.get(0)[0])) {
+            List<String> header = Arrays.stream(rows.remove(0)).map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+            latencyColumn = header.indexOf("latencyms");
+            arrivalColumn = header.indexOf("arrivalms");
+            errorColumn = header.indexOf("error");
+            if (latencyColumn < 0) {
+                throw new IllegalArgumentException("CSV header must contain latencyMs");
+            }
+        } else {
+            int columns = rows.get(0).length;
+            latencyColumn = columns == 1 ? 0 : 1;
+            arrivalColumn = columns == 1 ? -1 : 0;
+            errorColumn = columns >= 3 ? 2 : -1;
+        }
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Latency trace is empty");
+        }
+
+        List<TraceRow> parsed = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            String[] row = rows.get(i);
+            try {
+                parsed.add(new TraceRow(
+                        arrivalColumn < 0 ? 0 : millisToNanos(row[arrivalColumn]),
+                        clamp(millisToNanos(row[latencyColumn])),
+                        errorColumn >= 0 && parseError(row[errorColumn])));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid latency trace line " + (i + 1) + ": " + String.join(",", row));
+            }
+        }
+        // Chegadas em ordem e relativas à primeira (aceita epoch ou offsets)
+        parsed.sort(Comparator.comparingLong(TraceRow::arrivalNanos));
+        long firstArrival = parsed.get(0).arrivalNanos();
+
+        Histogram distribution = newHistogram();
+        long[] latencies = new long[parsed.size()];
+        boolean[] errors = new boolean[parsed.size()];
+        long[] arrivals = arrivalColumn < 0 ? null : new long[parsed.size()];
+        long errorCount = 0;
+        for (int i = 0; i < parsed.size(); i++) {
+            TraceRow row = parsed.get(i);
+            latencies[i] = row.latencyNanos();
+            errors[i] = row.error();
+            if (arrivals != null) {
+                arrivals[i] = row.arrivalNanos() - firstArrival;
+            }
+            distribution.recordValue(latencies[i]);
+            errorCount += errors[i] ? 1 : 0;
+        }
+        return new LatencyTrace("csv", distribution, latencies, errors, arrivals, (double) errorCount / parsed.size());
+    }
+
+    /**
+     * Lê um log de HdrHistogram ({@code HistogramLogWriter}, como os do jHiccup ou do wrk2),
+     * somando todos os intervalos. {@code unit} é a unidade dos valores gravados no log.
+     */
+    public static LatencyTrace fromHistogramLog(byte[] log, TimeUnit unit, double errorRate) {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("errorRate must be between 0 and 1");
+        }
+        Histogram distribution = newHistogram();
+        HistogramLogReader reader = new HistogramLogReader(new ByteArrayInputStream(log));
+        EncodableHistogram interval;
+        while ((interval = reader.nextIntervalHistogram()) != null) {
+            if (interval instanceof Histogram histogram) {
+                for (HistogramIterationValue value : histogram.recordedValues()) {
+                    distribution.recordValueWithCount(clamp(unit.toNanos(value.getValueIteratedTo())), value.getCountAtValueIteratedTo());
+                }
+            }
+        }
+        if (distribution.getTotalCount() == 0) {
+            throw new IllegalArgumentException("Histogram log has no integer histograms");
+        }
+        return new LatencyTrace("hdr-log", distribution, null, null, null, errorRate);
+    }
+
+    public static LatencyTrace fromCsv(String csv) {
+        return fromCsv(new StringReader(csv));
+    }
+
+    public static LatencyTrace fromHistogramLog(String log, TimeUnit unit, double errorRate) {
+        return fromHistogramLog(log.getBytes(StandardCharsets.UTF_8), unit, errorRate);
+    }
+
+    public boolean hasSamples() {
+        return latencies != null;
+    }
+
+    public boolean hasArrivals() {
+        return arrivals != null;
+    }
+
+    /**
+     * Amostra aleatória: uma linha do CSV (mantendo latência e erro juntos) ou um percentil da
+     * distribuição, com erro sorteado por {@code errorRandom}. Os dois valores devem ser
+     * uniformes em [0, 1).
+     */
+    public LatencySample sample(double random, double errorRandom) {
+        if (hasSamples()) {
+            return replay((long) (random * latencies.length));
+        }
+        return new LatencySample(distribution.getValueAtPercentile(random * 100), errorRandom < errorRate);
+    }
+
+    /**
+     * A linha {@code index} do CSV, recomeçando do início ao final do trace.
+     */
+    public LatencySample replay(long index) {
+        if (!hasSamples()) {
+            throw new IllegalStateException("Histogram logs cannot be replayed in order");
+        }
+        int row = (int) Math.floorMod(index, (long) latencies.length);
+        return new LatencySample(latencies[row], errors[row]);
+    }
+
+    /**
+     * Instante de chegada da tarefa {@code index} relativo ao início do trace; ao passar do final,
+     * o trace se repete deslocado pela sua duração total.
+     */
+    public long arrivalOffsetNanos(long index) {
+        if (!hasArrivals()) {
+            return 0;
+        }
+        int size = arrivals.length;
+        long span = arrivals[size - 1] + (size > 1 ? arrivals[size - 1] / (size - 1) : 0);
+        return (index / size) * span + arrivals[(int) (index % size)];
+    }
+
+    /**
+     * Maior latência do trace, em nanossegundos.
+     */
+    public long maxLatencyNanos() {
+        return distribution.getMaxValue();
+    }
+
+    public Map<String, Object> summary() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("source", source);
+        summary.put("samples", distribution.getTotalCount());
+        summary.put("errorRate", errorRate);
+        summary.put("hasArrivals", hasArrivals());
+        if (hasArrivals() && arrivals.length > 1) {
+            double seconds = arrivals[arrivals.length - 1] / 1_000_000_000.0;
+            summary.put("durationMs", arrivals[arrivals.length - 1] / 1_000_000);
+            summary.put("arrivalsPerSecond", seconds > 0 ? arrivals.length / seconds : null);
+        }
+        summary.put("latency", LatencySummary.toMillis(distribution));
+        return summary;
+    }
+
+    private static Histogram newHistogram() {
+        return new Histogram(1, HIGHEST_TRACKABLE_NANOS, 3);
+    }
+
+    private static long clamp(long nanos) {
+        return Math.min(Math.max(nanos, 1), HIGHEST_TRACKABLE_NANOS);
+    }
+
+    private static long millisToNanos(String value) {
+        double millis = Double.parseDouble(value.trim());
+        if (millis < 0 || Double.isNaN(millis)) {
+            throw new IllegalArgumentException("negative value");
+        }
+        return Math.round(millis * 1_000_000);
+    }
+
+    private static boolean parseError(String value) {
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        return switch (trimmed) {
+            case "", "false", "0" -> false;
+            case "true", "1" -> true;
+            default -> Integer.parseInt(trimmed) >= 500;
+        };
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            Double.parseDouble(value.trim());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private record TraceRow(long arrivalNanos, long latencyNanos, boolean error) {
+    }
+}
@@ -0,0 +1,11 @@
+package edu.renata.fraga.virtual_threads_sample.simulation;
+
+/**
+ * Como as tarefas simuladas consomem o trace carregado.
+ */
+public enum ReplayMode {
+    /** Cada tarefa sorteia uma amostra do trace (ou da distribuição, para logs de HdrHistogram). */
+    SAMPLE,
+    /** A n-ésima tarefa usa a n-ésima linha do trace, recomeçando do início ao final. */
+    REPLAY
+}
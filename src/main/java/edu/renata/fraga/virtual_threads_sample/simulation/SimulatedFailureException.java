@@ -0,0 +1,16 @@
+package edu.renata.fraga.virtual_threads_sample.simulation;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Falha sorteada do trace de latência: a chamada simulada esperou a latência da amostra e falhou,
+ * como a chamada real registrada no trace.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SimulatedFailureException extends RuntimeException {
+
+    public SimulatedFailureException(long latencyMillis) {
+        super("Simulated failure from latency trace after " + latencyMillis + " ms");
+    }
+}
@@ -0,0 +1,154 @@
+package edu.renata.fraga.virtual_threads_sample.tracing;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Exportador em lote, como o {@code BatchSpanProcessor} do OpenTelemetry: os spans encerrados
+ * entram numa fila limitada sem lock, então quem os encerra nunca bloqueia nem estaciona, mesmo num
+ * event loop (fila cheia descarta e conta), e uma única thread de plataforma os entrega aos
+ * {@link SpanSink}s em lotes de até {@code maxBatchSize}.
+ * Cada lote leva o que acumulou enquanto o anterior era escrito, então os lotes crescem com a carga.
+ */
+public final class BatchSpanExporter implements Consumer<SpanData>, AutoCloseable {
+
+    // Fila vazia: a thread verifica de novo depois desse tempo, para que quem exporta não precise acordá-la
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final Queue<SpanData> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final int maxQueueSize;
+    private final int maxBatchSize;
+    private final List<SpanSink> sinks;
+    private final Thread worker;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private volatile boolean running = true;
+
+    public BatchSpanExporter(List<SpanSink> sinks, int maxQueueSize, int maxBatchSize) {
+        if (maxQueueSize < 1 || maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxQueueSize and maxBatchSize must be positive");
+        }
+        this.maxQueueSize = maxQueueSize;
+        this.maxBatchSize = maxBatchSize;
+        this.sinks = List.copyOf(sinks);
+        this.worker = Thread.ofPlatform().name("span-exporter").daemon().start(this::exportLoop);
+    }
+
+    @Override
+    public void accept(SpanData span) {
+        if (!running) {
+            dropped.increment();
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueueSize) {
+            queued.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        queue.offer(span);
+        accepted.increment();
+    }
+
+    /**
+     * Espera até que os spans aceitos até agora tenham sido entregues, ou o prazo acabar.
+     */
+    public boolean flush(Duration timeout) {
+        long target = accepted.sum();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (processed.get() < target) {
+            if (System.nanoTime() > deadline || !worker.isAlive()) {
+                return false;
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", queued.get());
+        stats.put("accepted", accepted.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("exported", processed.get());
+        stats.put("batches", batches.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("maxBatchSize", maxBatchSize);
+        return stats;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Para de aceitar spans, entrega o que está na fila e fecha os destinos. A thread não é
+     * interrompida: isso fecharia o canal do arquivo no meio de uma escrita.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SpanSink sink : sinks) {
+            try {
+                sink.close();
+            } catch (IOException e) {
+                // Nada a fazer no desligamento
+            }
+        }
+    }
+
+    private void exportLoop() {
+        List<SpanData> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            SpanData span;
+            while (batch.size() < maxBatchSize && (span = queue.poll()) != null) {
+                batch.add(span);
+            }
+            if (batch.isEmpty()) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            queued.addAndGet(-batch.size());
+            exportBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void exportBatch(List<SpanData> batch) {
+        batches.incrementAndGet();
+        for (SpanSink sink : sinks) {
+            try {
+                sink.export(batch);
+            } catch (IOException | RuntimeException e) {
+                failedBatches.incrementAndGet();
+            }
+        }
+        processed.addAndGet(batch.size());
+    }
+}
@@ -0,0 +1,196 @@
+package edu.renata.fraga.virtual_threads_sample.tracing;
+
+import edu.renata.fraga.virtual_threads_sample.metrics.LatencySummary;
+import org.HdrHistogram.ConcurrentHistogram;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collector dentro do processo, no lugar de um OpenTelemetry Collector: agrega a duração por nome
+ * de span e guarda os spans dos últimos {@code maxTraces} traces (até {@code maxSpansPerTrace} por
+ * trace, para que um trace com milhões de tarefas não encha o heap) para consulta e para a
+ * {@link #breakdown quebra} de um span entre seus filhos.
+ */
+public class InMemoryCollector implements SpanSink {
+
+    private final int maxTraces;
+    private final int maxSpansPerTrace;
+    private final Map<String, ConcurrentHistogram> durationsByName = new ConcurrentHashMap<>();
+    private final AtomicLong spansReceived = new AtomicLong();
+    private final AtomicLong spansNotRetained = new AtomicLong();
+    // ReentrantLock em vez de synchronized: as consultas rodam em Virtual Threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, List<SpanData>> traces;
+
+    public InMemoryCollector(int maxTraces, int maxSpansPerTrace) {
+        if (maxTraces < 1 || maxSpansPerTrace < 1) {
+            throw new IllegalArgumentException("maxTraces and maxSpansPerTrace must be positive");
+        }
+        this.maxTraces = maxTraces;
+        this.maxSpansPerTrace = maxSpansPerTrace;
+        this.traces = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<SpanData>> eldest) {
+                return size() > InMemoryCollector.this.maxTraces;
+            }
+        };
+    }
+
+    @Override
+    public void export(List<SpanData> batch) {
+        lock.lock();
+        try {
+            for (SpanData span : batch) {
+                List<SpanData> spans = traces.computeIfAbsent(span.context().traceId(), traceId -> new ArrayList<>());
+                // A raiz termina por último: é guardada mesmo com o trace cheio
+                if (spans.size() < maxSpansPerTrace || span.isRoot()) {
+                    spans.add(span);
+                } else {
+                    spansNotRetained.incrementAndGet();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (SpanData span : batch) {
+            LatencySummary.record(durationsByName.computeIfAbsent(span.name(), name -> LatencySummary.newHistogram()),
+                    span.durationNanos());
+        }
+        spansReceived.addAndGet(batch.size());
+    }
+
+    public long getSpansReceived() {
+        return spansReceived.get();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("spansReceived", spansReceived.get());
+        stats.put("spansNotRetained", spansNotRetained.get());
+        lock.lock();
+        try {
+            stats.put("tracesRetained", traces.size());
+        } finally {
+            lock.unlock();
+        }
+        stats.put("maxTraces", maxTraces);
+        stats.put("maxSpansPerTrace", maxSpansPerTrace);
+        return stats;
+    }
+
+    /**
+     * Spans guardados de um trace, em ordem de início; vazio se o trace não foi recebido ou já saiu
+     * da janela.
+     */
+    public List<SpanData> trace(String traceId) {
+        lock.lock();
+        try {
+            List<SpanData> spans = new ArrayList<>(traces.getOrDefault(traceId, List.of()));
+            spans.sort(Comparator.comparingLong(SpanData::startEpochNanos));
+            return spans;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Duração por nome de span, desde o início ou o último {@link #clear()}.
+     */
+    public Map<String, Object> durationsByName() {
+        Map<String, Object> durations = new TreeMap<>();
+        durationsByName.forEach((name, histogram) -> durations.put(name, LatencySummary.toMillis(histogram)));
+        return durations;
+    }
+
+    /**
+     * Para os spans chamados {@code spanName} nos traces guardados, quanto do tempo deles foi gasto
+     * em cada filho direto (agrupado pelo nome do filho) e quanto ficou fora dos filhos. Os filhos
+     * vêm do que mais pesa para o que menos pesa.
+     */
+    public Map<String, Object> breakdown(String spanName) {
+        long parentCount = 0;
+        long parentNanos = 0;
+        ConcurrentHistogram parentDurations = LatencySummary.newHistogram();
+        Map<String, ChildTotals> children = new LinkedHashMap<>();
+
+        lock.lock();
+        try {
+            for (List<SpanData> spans : traces.values()) {
+                for (SpanData parent : spans) {
+                    if (!parent.name().equals(spanName)) {
+                        continue;
+                    }
+                    parentCount++;
+                    parentNanos += parent.durationNanos();
+                    LatencySummary.record(parentDurations, parent.durationNanos());
+                    for (SpanData child : spans) {
+                        if (child.parentSpanId() == parent.context().spanId()) {
+                            children.computeIfAbsent(child.name(), name -> new ChildTotals()).add(child.durationNanos());
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        long childrenNanos = 0;
+        List<Map<String, Object>> childBreakdown = new ArrayList<>();
+        for (Map.Entry<String, ChildTotals> entry : children.entrySet()) {
+            ChildTotals totals = entry.getValue();
+            childrenNanos += totals.nanos;
+            Map<String, Object> child = new LinkedHashMap<>();
+            child.put("name", entry.getKey());
+            child.put("count", totals.count);
+            child.put("totalMs", totals.nanos / 1_000_000.0);
+            child.put("duration", LatencySummary.toMillis(totals.durations));
+            child.put("shareOfParent", share(totals.nanos, parentNanos));
+            childBreakdown.add(child);
+        }
+        childBreakdown.sort(Comparator.comparingDouble(child -> -(double) child.get("shareOfParent")));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("span", spanName);
+        result.put("spans", parentCount);
+        result.put("duration", LatencySummary.toMillis(parentDurations));
+        result.put("dominantChild", childBreakdown.isEmpty() ? null : childBreakdown.get(0).get("name"));
+        result.put("children", childBreakdown);
+        // Tempo do pai fora dos filhos; negativo quando os filhos rodam em paralelo
+        result.put("selfShare", share(parentNanos - childrenNanos, parentNanos));
+        return result;
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            traces.clear();
+        } finally {
+            lock.unlock();
+        }
+        durationsByName.clear();
+    }
+
+    private static double share(long part, long total) {
+        return total == 0 ? 0.0 : (double) part / total;
+    }
+
+    private static final class ChildTotals {
+        private final ConcurrentHistogram durations = LatencySummary.newHistogram();
+        private long count;
+        private long nanos;
+
+        void add(long durationNanos) {
+            count++;
+            nanos += durationNanos;
+            LatencySummary.record(durations, durationNanos);
+        }
+    }
+}
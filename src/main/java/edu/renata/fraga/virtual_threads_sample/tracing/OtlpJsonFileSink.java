@@ -0,0 +1,107 @@
+package edu.renata.fraga.virtual_threads_sample.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grava cada lote como uma linha de OTLP/JSON ({@code ExportTraceServiceRequest}), o formato lido
+ * pelo receiver {@code otlpjsonfile} do OpenTelemetry Collector, para importar os traces no Jaeger,
+ * Tempo etc. sem um collector rodando durante o teste.
+ */
+public class OtlpJsonFileSink implements SpanSink {
+
+    private static final int SPAN_KIND_INTERNAL = 1;
+    private static final int STATUS_CODE_ERROR = 2;
+    private static final String SCOPE_NAME = "edu.renata.fraga.virtual_threads_sample.tracing";
+
+    private final ObjectMapper objectMapper;
+    private final String serviceName;
+    private final Path file;
+    private final BufferedWriter writer;
+
+    public OtlpJsonFileSink(ObjectMapper objectMapper, String serviceName, Path file) throws IOException {
+        this.objectMapper = objectMapper;
+        this.serviceName = serviceName;
+        this.file = file;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.writer = Files.newBufferedWriter(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void export(List<SpanData> batch) throws IOException {
+        writer.write(objectMapper.writeValueAsString(toRequest(batch)));
+        writer.newLine();
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    Map<String, Object> toRequest(List<SpanData> batch) {
+        List<Map<String, Object>> spans = new ArrayList<>(batch.size());
+        for (SpanData span : batch) {
+            spans.add(toSpan(span));
+        }
+        Map<String, Object> scopeSpans = new LinkedHashMap<>();
+        scopeSpans.put("scope", Map.of("name", SCOPE_NAME));
+        scopeSpans.put("spans", spans);
+
+        Map<String, Object> resourceSpans = new LinkedHashMap<>();
+        resourceSpans.put("resource", Map.of("attributes", List.of(attribute("service.name", serviceName))));
+        resourceSpans.put("scopeSpans", List.of(scopeSpans));
+        return Map.of("resourceSpans", List.of(resourceSpans));
+    }
+
+    private static Map<String, Object> toSpan(SpanData span) {
+        List<Map<String, Object>> attributes = new ArrayList<>(span.attributes().size() + 2);
+        attributes.add(attribute("thread.id", span.threadId()));
+        attributes.add(attribute("thread.virtual", span.virtualThread()));
+        span.attributes().forEach((key, value) -> attributes.add(attribute(key, value)));
+
+        Map<String, Object> otlpSpan = new LinkedHashMap<>();
+        otlpSpan.put("traceId", span.context().traceId());
+        otlpSpan.put("spanId", span.context().spanIdHex());
+        if (!span.isRoot()) {
+            otlpSpan.put("parentSpanId", SpanContext.hex(span.parentSpanId()));
+        }
+        otlpSpan.put("name", span.name());
+        otlpSpan.put("kind", SPAN_KIND_INTERNAL);
+        // int64 do OTLP/JSON vai como string
+        otlpSpan.put("startTimeUnixNano", Long.toString(span.startEpochNanos()));
+        otlpSpan.put("endTimeUnixNano", Long.toString(span.endEpochNanos()));
+        otlpSpan.put("attributes", attributes);
+        if (span.hasError()) {
+            otlpSpan.put("status", Map.of("code", STATUS_CODE_ERROR, "message", span.error()));
+        }
+        return otlpSpan;
+    }
+
+    private static Map<String, Object> attribute(String key, Object value) {
+        Map<String, Object> anyValue = switch (value) {
+            case Boolean bool -> Map.of("boolValue", bool);
+            case Integer number -> Map.of("intValue", Long.toString(number));
+            case Long number -> Map.of("intValue", Long.toString(number));
+            case Double number -> Map.of("doubleValue", number);
+            default -> Map.of("stringValue", String.valueOf(value));
+        };
+        return Map.of("key", key, "value", anyValue);
+    }
+}
@@ -0,0 +1,60 @@
+package edu.renata.fraga.virtual_threads_sample.tracing;
+
+import java.time.Duration;
+
+/**
+ * Amostragem dos traces.
+ * <p>
+ * Na cabeça, a raiz decide pelo trace id (como o {@code TraceIdRatioBased} do OpenTelemetry) e
+ * os filhos herdam a decisão. Com a amostragem na cauda ligada, todos os spans são gravados num
+ * buffer do trace e, quando a raiz termina, o trace é mantido se foi amostrado na cabeça, se teve
+ * erro ({@code tailKeepErrors}) ou se a raiz durou ao menos {@code tailLatencyThreshold}; um trace
+ * guarda no máximo {@code tailMaxSpansPerTrace} spans.
+ */
+public record Sampler(double headRatio, boolean tailEnabled, Duration tailLatencyThreshold,
+                      boolean tailKeepErrors, int tailMaxSpansPerTrace) {
+
+    public Sampler {
+        if (headRatio < 0 || headRatio > 1) {
+            throw new IllegalArgumentException("headRatio must be between 0 and 1");
+        }
+        if (tailLatencyThreshold.isNegative()) {
+            throw new IllegalArgumentException("tailLatencyThreshold must not be negative");
+        }
+        if (tailMaxSpansPerTrace < 1) {
+            throw new IllegalArgumentException("tailMaxSpansPerTrace must be positive");
+        }
+    }
+
+    public static Sampler always() {
+        return headOnly(1.0);
+    }
+
+    public static Sampler never() {
+        return headOnly(0.0);
+    }
+
+    public static Sampler headOnly(double headRatio) {
+        return new Sampler(headRatio, false, Duration.ZERO, false, 1);
+    }
+
+    /**
+     * Se spans fora da amostra da cabeça precisam ser gravados para a decisão na cauda.
+     */
+    public boolean recordsUnsampled() {
+        return tailEnabled;
+    }
+
+    boolean sampleHead(long traceIdLow) {
+        if (headRatio >= 1.0) {
+            return true;
+        }
+        return (traceIdLow >>> 1) < (long) (headRatio * Long.MAX_VALUE);
+    }
+
+    boolean keepTrace(boolean headSampled, boolean error, long rootDurationNanos) {
+        return headSampled
+                || (tailKeepErrors && error)
+                || (!tailLatencyThreshold.isZero() && rootDurationNanos >= tailLatencyThreshold.toNanos());
+    }
+}
@@ -0,0 +1,116 @@
+package edu.renata.fraga.virtual_threads_sample.tracing;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Span criado pelo {@link Tracer}. Spans criados por {@link Tracer#startSpan} viram o span corrente
+ * da thread até o {@link #close()} (use com try-with-resources, na mesma thread); os que envolvem
+ * uma cadeia reativa inteira vão no {@code Context} do Reactor e não mexem no span corrente.
+ * <p>
+ * Spans fora da amostra só carregam o contexto para os filhos: não medem tempo nem são exportados.
+ */
+public final class Span implements AutoCloseable {
+
+    private final Tracer tracer;
+    private final String name;
+    private final SpanContext context;
+    private final long parentSpanId;
+    private final boolean recording;
+    private final TraceBuffer buffer;
+    private final Span previous;
+    private final boolean scoped;
+    private final long startEpochNanos;
+    private final long startNanos;
+    private final long threadId;
+    private final boolean virtualThread;
+    private Map<String, Object> attributes;
+    private volatile String error;
+    private boolean ended;
+
+    Span(Tracer tracer, String name, SpanContext context, long parentSpanId, boolean recording,
+         TraceBuffer buffer, Span previous, boolean scoped, long startNanos, long startEpochNanos) {
+        this.tracer = tracer;
+        this.name = name;
+        this.context = context;
+        this.parentSpanId = parentSpanId;
+        this.recording = recording;
+        this.buffer = buffer;
+        this.previous = previous;
+        this.scoped = scoped;
+        this.startNanos = startNanos;
+        this.startEpochNanos = startEpochNanos;
+        if (recording) {
+            Thread thread = Thread.currentThread();
+            this.threadId = thread.threadId();
+            this.virtualThread = thread.isVirtual();
+        } else {
+            this.threadId = 0;
+            this.virtualThread = false;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public SpanContext context() {
+        return context;
+    }
+
+    public boolean isRecording() {
+        return recording;
+    }
+
+    public boolean isLocalRoot() {
+        return parentSpanId == 0;
+    }
+
+    public Span setAttribute(String key, Object value) {
+        if (recording) {
+            if (attributes == null) {
+                attributes = new LinkedHashMap<>();
+            }
+            attributes.put(key, value);
+        }
+        return this;
+    }
+
+    public void recordError(Throwable throwable) {
+        if (recording) {
+            error = throwable.getClass().getSimpleName() + ": " + throwable.getMessage();
+            if (buffer != null) {
+                buffer.markError();
+            }
+        }
+    }
+
+    /**
+     * Encerra o span; chamadas repetidas são ignoradas.
+     */
+    public void end() {
+        if (ended) {
+            return;
+        }
+        ended = true;
+        if (scoped) {
+            tracer.restore(this, previous);
+        }
+        tracer.finish(this);
+    }
+
+    @Override
+    public void close() {
+        end();
+    }
+
+    TraceBuffer buffer() {
+        return buffer;
+    }
+
+    SpanData toData(long endNanos) {
+        return new SpanData(name, context, parentSpanId, startEpochNanos, endNanos - startNanos, threadId, virtualThread,
+                attributes == null ? Map.of() : Collections.unmodifiableMap(attributes), error);
+    }
+}
@@ -0,0 +1,28 @@
+package edu.renata.fraga.virtual_threads_sample.tracing;
+
+/**
+ * Identificadores de um span no formato do W3C Trace Context (trace de 128 bits, span de 64 bits),
+ * os mesmos do OpenTelemetry. {@code sampled} é a decisão de amostragem na cabeça do trace.
+ */
+public record SpanContext(long traceIdHigh, long traceIdLow, long spanId, boolean sampled) {
+
+    public String traceId() {
+        return hex(traceIdHigh) + hex(traceIdLow);
+    }
+
+    public String spanIdHex() {
+        return hex(spanId);
+    }
+
+    /**
+     * Valor do cabeçalho {@code traceparent} para propagar o contexto a outro processo.
+     */
+    public String traceparent() {
+        return "00-" + traceId() + "-" + spanIdHex() + (sampled ? "-01" : "-00");
+    }
+
+    static String hex(long value) {
+        String digits = Long.toHexString(value);
+        return "0".repeat(16 - digits.length()) + digits;
+    }
+}
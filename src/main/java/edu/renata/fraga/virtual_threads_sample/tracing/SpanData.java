@@ -0,0 +1,40 @@
+package edu.renata.fraga.virtual_threads_sample.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Span encerrado, imutável, como é entregue ao exportador. {@code parentSpanId} é 0 na raiz.
+ */
+public record SpanData(String name, SpanContext context, long parentSpanId, long startEpochNanos,
+                       long durationNanos, long threadId, boolean virtualThread,
+                       Map<String, Object> attributes, String error) {
+
+    public boolean isRoot() {
+        return parentSpanId == 0;
+    }
+
+    public boolean hasError() {
+        return error != null;
+    }
+
+    public long endEpochNanos() {
+        return startEpochNanos + durationNanos;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> span = new LinkedHashMap<>();
+        span.put("name", name);
+        span.put("traceId", context.traceId());
+        span.put("spanId", context.spanIdHex());
+        span.put("parentSpanId", isRoot() ? null : SpanContext.hex(parentSpanId));
+        span.put("sampled", context.sampled());
+        span.put("startEpochNanos", startEpochNanos);
+        span.put("durationMs", durationNanos / 1_000_000.0);
+        span.put("threadId", threadId);
+        span.put("virtualThread", virtualThread);
+        span.put("attributes", attributes);
+        span.put("error", error);
+        return span;
+    }
+}
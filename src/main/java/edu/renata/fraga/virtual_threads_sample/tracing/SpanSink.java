@@ -0,0 +1,16 @@
+package edu.renata.fraga.virtual_threads_sample.tracing;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destino dos lotes do {@link BatchSpanExporter}; é chamado sempre pela mesma thread.
+ */
+public interface SpanSink extends AutoCloseable {
+
+    void export(List<SpanData> batch) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
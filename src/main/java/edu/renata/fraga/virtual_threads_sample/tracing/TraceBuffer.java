@@ -0,0 +1,62 @@
+package edu.renata.fraga.virtual_threads_sample.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Spans de um trace guardados até a raiz terminar, para a amostragem na cauda. Filhos que terminam
+ * depois da raiz, ou além do limite do trace, são recusados.
+ */
+final class TraceBuffer {
+
+    private final Sampler sampler;
+    // ReentrantLock em vez de synchronized: os filhos terminam em Virtual Threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<SpanData> spans = new ArrayList<>();
+    private volatile boolean error;
+    private boolean closed;
+
+    TraceBuffer(Sampler sampler) {
+        this.sampler = sampler;
+    }
+
+    Sampler sampler() {
+        return sampler;
+    }
+
+    void markError() {
+        error = true;
+    }
+
+    boolean hasError() {
+        return error;
+    }
+
+    boolean add(SpanData span) {
+        lock.lock();
+        try {
+            if (closed || spans.size() >= sampler.tailMaxSpansPerTrace()) {
+                return false;
+            }
+            spans.add(span);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Fecha o buffer com a raiz e devolve todos os spans do trace.
+     */
+    List<SpanData> close(SpanData root) {
+        lock.lock();
+        try {
+            closed = true;
+            spans.add(root);
+            return spans;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package edu.renata.fraga.virtual_threads_sample.tracing;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Tracing compatível com o modelo do OpenTelemetry (ids do W3C Trace Context, spans com pai,
+ * atributos e status), sem o SDK.
+ * <p>
+ * O span corrente fica num {@link ThreadLocal}: como cada tarefa roda na sua própria Virtual
+ * Thread, o pai é capturado na thread que submete ({@link #wrap}) e reinstalado na thread que
+ * executa. Nas cadeias reativas o pai viaja no {@code Context} do Reactor ({@link #traceMono},
+ * {@link #fromCallable}), que sobrevive ao {@code subscribeOn}.
+ * <p>
+ * Spans encerrados vão para o {@code exporter} (normalmente o {@link BatchSpanExporter}), que não
+ * bloqueia; quem encerra o span só paga a montagem do {@link SpanData}.
+ */
+public class Tracer {
+
+    private static final Object CONTEXT_KEY = Span.class;
+
+    private final ThreadLocal<Span> current = new ThreadLocal<>();
+    private final Consumer<SpanData> exporter;
+    private final long epochOffsetNanos = System.currentTimeMillis() * 1_000_000 - System.nanoTime();
+    private volatile Sampler sampler;
+
+    private final LongAdder spansStarted = new LongAdder();
+    private final LongAdder spansExported = new LongAdder();
+    private final LongAdder tracesStarted = new LongAdder();
+    private final LongAdder tracesSampledByHead = new LongAdder();
+    private final LongAdder tracesKeptByTail = new LongAdder();
+    private final LongAdder tracesDroppedByTail = new LongAdder();
+    private final LongAdder spansRejectedByTailBuffer = new LongAdder();
+
+    public Tracer(Sampler sampler, Consumer<SpanData> exporter) {
+        this.sampler = Objects.requireNonNull(sampler);
+        this.exporter = Objects.requireNonNull(exporter);
+    }
+
+    /**
+     * Tracer que não amostra nem exporta nada, para quem não precisa de tracing (ex.: testes).
+     */
+    public static Tracer disabled() {
+        return new Tracer(Sampler.never(), span -> {
+        });
+    }
+
+    public Sampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * Troca a amostragem; vale para os traces iniciados a partir de agora.
+     */
+    public void setSampler(Sampler sampler) {
+        this.sampler = Objects.requireNonNull(sampler);
+    }
+
+    /**
+     * Span corrente da thread, ou {@code null}.
+     */
+    public Span currentSpan() {
+        return current.get();
+    }
+
+    /**
+     * Inicia um span filho do span corrente (ou a raiz de um trace novo) e o torna o span corrente
+     * até o {@link Span#close()}.
+     */
+    public Span startSpan(String name) {
+        return start(name, current.get(), true);
+    }
+
+    public Span startSpan(String name, Span parent) {
+        return start(name, parent, true);
+    }
+
+    /**
+     * Embrulha a tarefa num span filho do span corrente da thread que chama este método, mesmo que
+     * a tarefa rode em outra thread.
+     */
+    public <T> Supplier<T> wrap(String name, Supplier<T> task) {
+        Span parent = current.get();
+        return () -> {
+            Span span = start(name, parent, true);
+            try {
+                return task.get();
+            } catch (RuntimeException | Error e) {
+                span.recordError(e);
+                throw e;
+            } finally {
+                span.end();
+            }
+        };
+    }
+
+    public Runnable wrap(String name, Runnable task) {
+        Supplier<Void> wrapped = wrap(name, () -> {
+            task.run();
+            return null;
+        });
+        return wrapped::get;
+    }
+
+    /**
+     * Como {@code Mono.fromCallable}, com a chamada num span cujo pai é o do {@code Context} do
+     * Reactor (ou o span corrente de quem se inscreve). O span é aberto e fechado na thread que
+     * executa a chamada, depois do {@code subscribeOn}.
+     */
+    public <T> Mono<T> fromCallable(String name, Callable<T> callable) {
+        return Mono.deferContextual(context -> {
+            Span parent = parentFrom(context);
+            return Mono.fromCallable(() -> {
+                Span span = start(name, parent, true);
+                try {
+                    return callable.call();
+                } catch (Exception | Error e) {
+                    span.recordError(e);
+                    throw e;
+                } finally {
+                    span.end();
+                }
+            });
+        });
+    }
+
+    /**
+     * Envolve a cadeia reativa inteira num span, da inscrição ao término (ou cancelamento), e o
+     * publica no {@code Context} para os spans de dentro dela. O span é encerrado antes de o sinal
+     * de término seguir adiante, então quem recebe o resultado já o encontra exportado.
+     */
+    public <T> Mono<T> traceMono(String name, Mono<T> source) {
+        return Mono.deferContextual(context -> {
+            Span span = start(name, parentFrom(context), false);
+            return source.doOnError(span::recordError)
+                    .doOnTerminate(span::end)
+                    .doOnCancel(span::end)
+                    .contextWrite(inner -> inner.put(CONTEXT_KEY, span));
+        });
+    }
+
+    public <T> Flux<T> traceFlux(String name, Flux<T> source) {
+        return Flux.deferContextual(context -> {
+            Span span = start(name, parentFrom(context), false);
+            return source.doOnError(span::recordError)
+                    .doOnTerminate(span::end)
+                    .doOnCancel(span::end)
+                    .contextWrite(inner -> inner.put(CONTEXT_KEY, span));
+        });
+    }
+
+    public Map<String, Object> stats() {
+        Sampler sampler = this.sampler;
+        Map<String, Object> sampling = new LinkedHashMap<>();
+        sampling.put("headRatio", sampler.headRatio());
+        sampling.put("tailEnabled", sampler.tailEnabled());
+        sampling.put("tailLatencyThresholdMs", sampler.tailLatencyThreshold().toMillis());
+        sampling.put("tailKeepErrors", sampler.tailKeepErrors());
+        sampling.put("tailMaxSpansPerTrace", sampler.tailMaxSpansPerTrace());
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sampling", sampling);
+        stats.put("spansStarted", spansStarted.sum());
+        stats.put("spansExported", spansExported.sum());
+        stats.put("tracesStarted", tracesStarted.sum());
+        stats.put("tracesSampledByHead", tracesSampledByHead.sum());
+        stats.put("tracesKeptByTail", tracesKeptByTail.sum());
+        stats.put("tracesDroppedByTail", tracesDroppedByTail.sum());
+        stats.put("spansRejectedByTailBuffer", spansRejectedByTailBuffer.sum());
+        return stats;
+    }
+
+    void restore(Span span, Span previous) {
+        if (current.get() == span) {
+            current.set(previous);
+        }
+    }
+
+    void finish(Span span) {
+        if (!span.isRecording()) {
+            return;
+        }
+        SpanData data = span.toData(System.nanoTime());
+        TraceBuffer buffer = span.buffer();
+        if (buffer == null) {
+            export(data);
+        } else if (span.isLocalRoot()) {
+            List<SpanData> spans = buffer.close(data);
+            if (buffer.sampler().keepTrace(data.context().sampled(), buffer.hasError() || data.hasError(), data.durationNanos())) {
+                tracesKeptByTail.increment();
+                spans.forEach(this::export);
+            } else {
+                tracesDroppedByTail.increment();
+            }
+        } else if (!buffer.add(data)) {
+            // Filho depois da raiz ou além do limite do trace: só segue se o trace foi amostrado na cabeça
+            if (data.context().sampled()) {
+                export(data);
+            } else {
+                spansRejectedByTailBuffer.increment();
+            }
+        }
+    }
+
+    private Span start(String name, Span parent, boolean scoped) {
+        spansStarted.increment();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long spanId = nonZero(random.nextLong());
+        Span previous = scoped ? current.get() : null;
+        long startNanos = System.nanoTime();
+
+        Span span;
+        if (parent == null) {
+            Sampler sampler = this.sampler;
+            SpanContext context = new SpanContext(random.nextLong(), nonZero(random.nextLong()), spanId, false);
+            boolean sampled = sampler.sampleHead(context.traceIdLow());
+            if (sampled) {
+                context = new SpanContext(context.traceIdHigh(), context.traceIdLow(), spanId, true);
+                tracesSampledByHead.increment();
+            }
+            tracesStarted.increment();
+            boolean recording = sampled || sampler.recordsUnsampled();
+            TraceBuffer buffer = recording && sampler.tailEnabled() ? new TraceBuffer(sampler) : null;
+            span = new Span(this, name, context, 0, recording, buffer, previous, scoped,
+                    startNanos, epochOffsetNanos + startNanos);
+        } else {
+            SpanContext parentContext = parent.context();
+            SpanContext context = new SpanContext(parentContext.traceIdHigh(), parentContext.traceIdLow(), spanId,
+                    parentContext.sampled());
+            span = new Span(this, name, context, parentContext.spanId(), parent.isRecording(), parent.buffer(), previous,
+                    scoped, startNanos, epochOffsetNanos + startNanos);
+        }
+        if (scoped) {
+            current.set(span);
+        }
+        return span;
+    }
+
+    private Span parentFrom(ContextView context) {
+        return context.<Span>getOrEmpty(CONTEXT_KEY).orElseGet(current::get);
+    }
+
+    private void export(SpanData span) {
+        spansExported.increment();
+        exporter.accept(span);
+    }
+
+    private static long nonZero(long id) {
+        return id == 0 ? 1 : id;
+    }
+}
@@ -0,0 +1,111 @@
+package edu.renata.fraga.virtual_threads_sample.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Resposta JSON serializada uma única vez para bytes, com ETag forte.
+ * <p>
+ * O ETag é o hash do corpo e as chaves dos mapas são ordenadas, então o mesmo conteúdo gera o
+ * mesmo ETag em qualquer nó. Devolvida como {@link ResponseEntity} com ETag, a resposta recebe o
+ * tratamento de {@code If-None-Match}/304 do próprio Spring MVC.
+ * <p>
+ * Respostas amostradas são reserializadas no máximo uma vez por intervalo: a primeira requisição
+ * após o intervalo recalcula, e as concorrentes continuam servindo a versão anterior.
+ */
+public final class CachedJsonResponse {
+
+    private static final int ETAG_BYTES = 16;
+
+    private final ObjectWriter writer;
+    private final Supplier<?> source;
+    private final long intervalNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    private CachedJsonResponse(ObjectMapper objectMapper, Supplier<?> source, Duration interval, LongSupplier nanoTime) {
+        this.writer = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        this.source = source;
+        this.intervalNanos = interval.toNanos();
+        this.nanoTime = nanoTime;
+        this.snapshot = serialize();
+    }
+
+    /**
+     * Conteúdo imutável: serializado na criação e nunca mais.
+     */
+    public static CachedJsonResponse of(ObjectMapper objectMapper, Object body) {
+        return new CachedJsonResponse(objectMapper, () -> body, Duration.ZERO, System::nanoTime);
+    }
+
+    /**
+     * Conteúdo que varia no tempo, reamostrado de {@code source} a cada {@code interval}.
+     */
+    public static CachedJsonResponse sampled(ObjectMapper objectMapper, Supplier<?> source, Duration interval) {
+        return sampled(objectMapper, source, interval, System::nanoTime);
+    }
+
+    static CachedJsonResponse sampled(ObjectMapper objectMapper, Supplier<?> source, Duration interval,
+                                      LongSupplier nanoTime) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        return new CachedJsonResponse(objectMapper, source, interval, nanoTime);
+    }
+
+    public ResponseEntity<byte[]> toResponseEntity() {
+        Snapshot current = current();
+        return ResponseEntity.ok()
+                .eTag(current.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(current.body());
+    }
+
+    public String getETag() {
+        return current().etag();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (intervalNanos > 0 && nanoTime.getAsLong() - current.sampledAt() >= intervalNanos
+                && refreshing.compareAndSet(false, true)) {
+            try {
+                current = serialize();
+                snapshot = current;
+            } finally {
+                refreshing.set(false);
+            }
+        }
+        return current;
+    }
+
+    private Snapshot serialize() {
+        try {
+            byte[] body = writer.writeValueAsBytes(source.get());
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            String etag = "\"" + HexFormat.of().formatHex(Arrays.copyOf(digest, ETAG_BYTES)) + "\"";
+            return new Snapshot(body, etag, nanoTime.getAsLong());
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Could not serialize cached response", e);
+        }
+    }
+
+    private record Snapshot(byte[] body, String etag, long sampledAt) {
+    }
+}
@@ -0,0 +1,28 @@
+package edu.renata.fraga.virtual_threads_sample.web;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+
+/**
+ * Guarda a {@link RequestClass} da requisição atendida na thread atual, definida pelo
+ * {@link RequestClassInterceptor}. Fora de uma requisição a classe é {@link RequestClass#INTERACTIVE}.
+ */
+public final class RequestClassContext {
+
+    private static final ThreadLocal<RequestClass> CURRENT = new ThreadLocal<>();
+
+    private RequestClassContext() {
+    }
+
+    public static RequestClass current() {
+        RequestClass requestClass = CURRENT.get();
+        return requestClass == null ? RequestClass.INTERACTIVE : requestClass;
+    }
+
+    public static void set(RequestClass requestClass) {
+        CURRENT.set(requestClass);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
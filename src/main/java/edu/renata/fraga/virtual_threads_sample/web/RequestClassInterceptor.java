@@ -0,0 +1,121 @@
+package edu.renata.fraga.virtual_threads_sample.web;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.PriorityAdmission;
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Resolve a {@link RequestClass} de cada requisição e só deixa o handler rodar depois da
+ * admissão pela {@link PriorityAdmission}.
+ * <p>
+ * A classe vem de {@link RequestPriority} no método ou no controller; sem a anotação a requisição
+ * é {@link RequestClass#INTERACTIVE}. O header configurado ({@code X-Request-Class} por padrão)
+ * só rebaixa a classe: um cliente pode marcar uma chamada interativa como batch, mas não
+ * promover um benchmark à frente das filas. A vaga fica ocupada durante todo o processamento, inclusive
+ * o assíncrono (Mono, CompletableFuture), e é devolvida em {@code afterCompletion}. Streams SSE
+ * ficam abertos indefinidamente, então devolvem a vaga assim que o stream começa.
+ * <p>
+ * A espera na fila é limitada a {@code maxWait}: depois disso a requisição recebe 503 em vez de
+ * prender a thread do servidor indefinidamente.
+ */
+public class RequestClassInterceptor implements AsyncHandlerInterceptor {
+
+    public static final String DEFAULT_HEADER = "X-Request-Class";
+
+    private static final String PERMIT_ATTRIBUTE = RequestClassInterceptor.class.getName() + ".permit";
+    private static final String CLASS_ATTRIBUTE = RequestClassInterceptor.class.getName() + ".class";
+
+    private final PriorityAdmission admission;
+    private final String headerName;
+    private final Duration maxWait;
+
+    public RequestClassInterceptor(PriorityAdmission admission, String headerName, Duration maxWait) {
+        this.admission = admission;
+        this.headerName = headerName;
+        this.maxWait = maxWait;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod) || request.getDispatcherType() == DispatcherType.ERROR) {
+            return true;
+        }
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // Despacho assíncrono de uma requisição já admitida
+            if (request.getAttribute(CLASS_ATTRIBUTE) instanceof RequestClass requestClass) {
+                RequestClassContext.set(requestClass);
+            }
+            return true;
+        }
+
+        RequestClass requestClass = resolve(request, handlerMethod);
+        PriorityAdmission.Permit permit;
+        try {
+            permit = admission.acquire(requestClass, maxWait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while waiting for admission");
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        request.setAttribute(CLASS_ATTRIBUTE, requestClass);
+        RequestClassContext.set(requestClass);
+        response.setHeader(headerName, requestClass.tag());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RequestClassContext.clear();
+        if (handler instanceof HandlerMethod handlerMethod
+                && ResponseBodyEmitter.class.isAssignableFrom(handlerMethod.getReturnType().getParameterType())) {
+            release(request);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RequestClassContext.clear();
+        release(request);
+    }
+
+    private static void release(HttpServletRequest request) {
+        if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof PriorityAdmission.Permit permit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            permit.close();
+        }
+    }
+
+    private RequestClass resolve(HttpServletRequest request, HandlerMethod handlerMethod) {
+        RequestPriority priority = handlerMethod.getMethodAnnotation(RequestPriority.class);
+        if (priority == null) {
+            priority = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RequestPriority.class);
+        }
+        RequestClass endpointClass = priority == null ? RequestClass.INTERACTIVE : priority.value();
+        String header = request.getHeader(headerName);
+        if (header == null || header.isBlank()) {
+            return endpointClass;
+        }
+        RequestClass requested;
+        try {
+            requested = RequestClass.parse(header);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    headerName + " must be one of interactive, batch or benchmark");
+        }
+        // As constantes vão da maior para a menor prioridade: o header só vale se rebaixar
+        return requested.ordinal() > endpointClass.ordinal() ? requested : endpointClass;
+    }
+}
@@ -0,0 +1,20 @@
+package edu.renata.fraga.virtual_threads_sample.web;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Classe de prioridade de um endpoint (no método) ou de todos os endpoints de um controller
+ * (na classe). O header de classe da requisição, quando presente, tem precedência.
+ */
+@Documented
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequestPriority {
+    RequestClass value();
+}
@@ -0,0 +1,21 @@
+package edu.renata.fraga.virtual_threads_sample.websocket;
+
+/**
+ * Modelos de difusão do {@link ProgressFeed} por WebSocket, cada um em seu caminho.
+ */
+public enum FanoutModel {
+    /** Endpoint JSR-356 do Tomcat com uma Virtual Thread por conexão, que espera o próximo frame e envia bloqueando. */
+    VIRTUAL_THREAD_PER_CONNECTION("/ws/progress/virtual-threads"),
+    /** {@code WebSocketHandler} reativo em que todas as sessões assinam o mesmo publicador. */
+    REACTIVE_SHARED_PUBLISHER("/ws/progress/reactive");
+
+    private final String path;
+
+    FanoutModel(String path) {
+        this.path = path;
+    }
+
+    public String path() {
+        return path;
+    }
+}
@@ -0,0 +1,257 @@
+package edu.renata.fraga.virtual_threads_sample.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.virtual_threads_sample.concurrent.VirtualMonitor;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Progresso das cargas em andamento ({@code stress-test}, {@code stress-test-reactive}),
+ * difundido pelos dois endpoints WebSocket de {@link FanoutModel}.
+ * <p>
+ * As cargas só incrementam contadores ({@link #track}); uma única thread monta o frame em
+ * intervalo fixo, serializa uma vez e o entrega aos dois modelos: as Virtual Threads por conexão
+ * esperam o próximo frame em {@link #awaitFrameAfter} e as sessões reativas assinam o mesmo
+ * {@link #frames()}. Quem estiver atrasado recebe só o frame mais recente. Como no
+ * {@code JvmTelemetrySampler}, a thread só roda enquanto houver inscritos.
+ * <p>
+ * Cada frame traz {@code publishedAtEpochMicros}, usado pelo {@link WebSocketLoadHarness} para
+ * medir a latência da difusão.
+ */
+@Component
+public class ProgressFeed {
+
+    private final ObjectMapper objectMapper;
+    private final Duration interval;
+    private final ConcurrentMap<String, Tracker> workloads = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(runnable ->
+            Thread.ofPlatform().name("progress-feed").daemon().unstarted(runnable));
+
+    private final VirtualMonitor frameMonitor = new VirtualMonitor();
+    private final Sinks.Many<String> reactiveSink = Sinks.many().multicast().directBestEffort();
+    private final Flux<String> reactiveFrames = reactiveSink.asFlux()
+            .doOnSubscribe(subscription -> subscriberOpened(FanoutModel.REACTIVE_SHARED_PUBLISHER))
+            .doFinally(signal -> subscriberClosed(FanoutModel.REACTIVE_SHARED_PUBLISHER));
+
+    private final Map<FanoutModel, AtomicInteger> subscribers = new ConcurrentHashMap<>();
+    private final AtomicLong framesPublished = new AtomicLong();
+    private final AtomicLong trackerIds = new AtomicLong();
+
+    // ReentrantLock em vez de synchronized: inscrições acontecem em Virtual Threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private ScheduledFuture<?> task;
+    private volatile Frame lastFrame = new Frame(0, null);
+
+    public ProgressFeed(ObjectMapper objectMapper,
+                        @Value("${websocket.fanout.interval:100ms}") Duration interval) {
+        this.objectMapper = objectMapper;
+        this.interval = interval;
+        for (FanoutModel model : FanoutModel.values()) {
+            subscribers.put(model, new AtomicInteger());
+        }
+    }
+
+    /**
+     * Começa a acompanhar uma execução de {@code total} tarefas; o progresso sai nos próximos
+     * frames e a execução aparece uma última vez como concluída depois do {@link Tracker#close()}.
+     */
+    public Tracker track(String workload, long total) {
+        Tracker tracker = new Tracker(workload, total);
+        workloads.put(tracker.id, tracker);
+        return tracker;
+    }
+
+    /**
+     * Bloqueia até haver um frame mais novo que {@code sequence} ou o prazo acabar (retorna
+     * {@code null}). A espera desmonta a Virtual Thread.
+     */
+    public Frame awaitFrameAfter(long sequence, Duration timeout) throws InterruptedException {
+        boolean published = frameMonitor.awaitUntil(() -> lastFrame.sequence() > sequence, timeout);
+        return published ? lastFrame : null;
+    }
+
+    /**
+     * Publicador único compartilhado por todas as sessões reativas.
+     */
+    public Flux<String> frames() {
+        return reactiveFrames;
+    }
+
+    public void subscriberOpened(FanoutModel model) {
+        subscribers.get(model).incrementAndGet();
+        startIfNeeded();
+    }
+
+    public void subscriberClosed(FanoutModel model) {
+        subscribers.get(model).decrementAndGet();
+        stopIfIdle();
+    }
+
+    public int getSubscriberCount(FanoutModel model) {
+        return subscribers.get(model).get();
+    }
+
+    public long getFramesPublished() {
+        return framesPublished.get();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> subscriberCounts = new LinkedHashMap<>();
+        for (FanoutModel model : FanoutModel.values()) {
+            subscriberCounts.put(model.name(), getSubscriberCount(model));
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("intervalMs", interval.toMillis());
+        stats.put("publishing", isPublishing());
+        stats.put("framesPublished", framesPublished.get());
+        stats.put("subscribers", subscriberCounts);
+        stats.put("workloadsInProgress", workloads.size());
+        return stats;
+    }
+
+    public boolean isPublishing() {
+        lock.lock();
+        try {
+            return task != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reactiveSink.tryEmitComplete();
+        publisher.shutdownNow();
+    }
+
+    private void startIfNeeded() {
+        lock.lock();
+        try {
+            if (task == null) {
+                task = publisher.scheduleAtFixedRate(this::publish, 0, interval.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void stopIfIdle() {
+        lock.lock();
+        try {
+            boolean idle = subscribers.values().stream().allMatch(count -> count.get() <= 0);
+            if (idle && task != null) {
+                task.cancel(false);
+                task = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void publish() {
+        Map<String, Object> progress = new LinkedHashMap<>();
+        for (Tracker tracker : workloads.values()) {
+            boolean finished = tracker.finished;
+            progress.put(tracker.id, tracker.snapshot(finished));
+            if (finished) {
+                workloads.remove(tracker.id);
+            }
+        }
+
+        Map<String, Object> frame = new LinkedHashMap<>();
+        long sequence = lastFrame.sequence() + 1;
+        frame.put("publishedAtEpochMicros", epochMicros());
+        frame.put("sequence", sequence);
+        frame.put("workloads", progress);
+
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(frame);
+        } catch (JsonProcessingException e) {
+            return;
+        }
+        frameMonitor.signalAll(() -> lastFrame = new Frame(sequence, json));
+        // directBestEffort: sessões sem demanda perdem este frame e recebem o próximo
+        reactiveSink.tryEmitNext(json);
+        framesPublished.incrementAndGet();
+    }
+
+    static long epochMicros() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    }
+
+    public record Frame(long sequence, String json) {
+    }
+
+    /**
+     * Contador de progresso de uma execução; incrementar é só um {@link LongAdder}.
+     */
+    public final class Tracker implements AutoCloseable {
+
+        private final String id;
+        private final String workload;
+        private final long total;
+        private final long startedAtMillis = System.currentTimeMillis();
+        private final LongAdder completed = new LongAdder();
+        private volatile boolean finished;
+
+        private Tracker(String workload, long total) {
+            this.id = workload + "-" + trackerIds.incrementAndGet();
+            this.workload = workload;
+            this.total = total;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void increment() {
+            completed.increment();
+        }
+
+        public long getCompleted() {
+            return completed.sum();
+        }
+
+        @Override
+        public void close() {
+            finished = true;
+            if (!isPublishing()) {
+                // Sem inscritos não há frame final a enviar
+                workloads.remove(id);
+            }
+        }
+
+        private Map<String, Object> snapshot(boolean finished) {
+            long done = completed.sum();
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            snapshot.put("workload", workload);
+            snapshot.put("completed", done);
+            snapshot.put("total", total);
+            snapshot.put("percent", total == 0 ? 100.0 : done * 100.0 / total);
+            snapshot.put("elapsedMs", System.currentTimeMillis() - startedAtMillis);
+            snapshot.put("finished", finished);
+            return snapshot;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package edu.renata.fraga.virtual_threads_sample.websocket;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.socket.WebSocketHandler;
+import org.springframework.web.reactive.socket.WebSocketSession;
+import reactor.core.publisher.Mono;
+
+/**
+ * Modelo {@link FanoutModel#REACTIVE_SHARED_PUBLISHER}: as sessões não têm thread própria, só uma
+ * assinatura do publicador compartilhado do {@link ProgressFeed}; o envio é assíncrono e a
+ * assinatura termina quando o cliente fecha a conexão.
+ */
+@Component
+public class ReactiveFanoutHandler implements WebSocketHandler {
+
+    private final ProgressFeed progressFeed;
+
+    public ReactiveFanoutHandler(ProgressFeed progressFeed) {
+        this.progressFeed = progressFeed;
+    }
+
+    @Override
+    public Mono<Void> handle(WebSocketSession session) {
+        Mono<Void> closed = session.receive().then();
+        return session.send(progressFeed.frames()
+                .map(session::textMessage)
+                .takeUntilOther(closed));
+    }
+}
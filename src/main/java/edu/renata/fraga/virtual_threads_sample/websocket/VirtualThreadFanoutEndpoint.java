@@ -0,0 +1,72 @@
+package edu.renata.fraga.virtual_threads_sample.websocket;
+
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.Session;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Modelo {@link FanoutModel#VIRTUAL_THREAD_PER_CONNECTION}: cada conexão ganha uma Virtual Thread
+ * que espera o próximo frame do {@link ProgressFeed} e o envia com a API bloqueante do Tomcat. O
+ * código é sequencial, como um handler de thread por conexão, e a pilha de cada Virtual Thread é
+ * o custo por conexão deste modelo.
+ */
+public class VirtualThreadFanoutEndpoint extends Endpoint {
+
+    private static final String PUMP_THREAD = "fanout.pumpThread";
+    private static final Duration OPEN_CHECK_INTERVAL = Duration.ofSeconds(1);
+
+    private final ProgressFeed progressFeed;
+
+    public VirtualThreadFanoutEndpoint(ProgressFeed progressFeed) {
+        this.progressFeed = progressFeed;
+    }
+
+    @Override
+    public void onOpen(Session session, EndpointConfig config) {
+        progressFeed.subscriberOpened(FanoutModel.VIRTUAL_THREAD_PER_CONNECTION);
+        Thread pump = Thread.ofVirtual()
+                .name("ws-fanout-" + session.getId())
+                .start(() -> pump(session));
+        session.getUserProperties().put(PUMP_THREAD, pump);
+    }
+
+    @Override
+    public void onClose(Session session, CloseReason closeReason) {
+        stopPump(session);
+    }
+
+    @Override
+    public void onError(Session session, Throwable error) {
+        stopPump(session);
+    }
+
+    private void pump(Session session) {
+        long lastSequence = 0;
+        try {
+            while (session.isOpen()) {
+                // Espera com prazo para notar conexões fechadas mesmo sem frames novos
+                ProgressFeed.Frame frame = progressFeed.awaitFrameAfter(lastSequence, OPEN_CHECK_INTERVAL);
+                if (frame != null) {
+                    session.getBasicRemote().sendText(frame.json());
+                    lastSequence = frame.sequence();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectado: o Tomcat chama onClose/onError
+        } finally {
+            progressFeed.subscriberClosed(FanoutModel.VIRTUAL_THREAD_PER_CONNECTION);
+        }
+    }
+
+    private void stopPump(Session session) {
+        if (session.getUserProperties().get(PUMP_THREAD) instanceof Thread pump) {
+            pump.interrupt();
+        }
+    }
+}
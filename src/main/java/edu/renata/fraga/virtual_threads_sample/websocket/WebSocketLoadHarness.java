@@ -0,0 +1,231 @@
+package edu.renata.fraga.virtual_threads_sample.websocket;
+
+import edu.renata.fraga.virtual_threads_sample.metrics.CpuUsageMeter;
+import edu.renata.fraga.virtual_threads_sample.metrics.LatencySummary;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.netty.http.client.HttpClient;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+
+/**
+ * Cliente de carga local para os endpoints de {@link FanoutModel}: abre {@code connections}
+ * WebSockets contra a própria aplicação com o cliente não bloqueante do Reactor Netty, mede a
+ * latência entre a publicação de cada frame ({@code publishedAtEpochMicros}) e sua chegada, a
+ * memória de heap por conexão e a CPU do processo durante a difusão.
+ * <p>
+ * Cliente e servidor estão na mesma JVM, então memória e CPU incluem os dois lados; o custo do
+ * cliente é o mesmo nos dois modelos, e a diferença entre eles é do servidor. Cada endereço de
+ * origem tem cerca de 28 mil portas efêmeras: acima de {@value #CONNECTIONS_PER_SOURCE_ADDRESS}
+ * conexões o cliente passa a usar 127.0.0.2, 127.0.0.3... (loopback inteiro no Linux). Para 100
+ * mil conexões o limite de descritores do processo precisa ser de ao menos 200 mil
+ * ({@code ulimit -n}).
+ */
+@Service
+public class WebSocketLoadHarness {
+
+    private static final int CONNECTIONS_PER_SOURCE_ADDRESS = 25_000;
+    private static final int MAX_PENDING_HANDSHAKES = 1_000;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofMinutes(2);
+    private static final Duration SUBSCRIBE_TIMEOUT = Duration.ofSeconds(10);
+    private static final Duration DISCONNECT_TIMEOUT = Duration.ofSeconds(30);
+    private static final String PUBLISHED_AT_FIELD = "\"publishedAtEpochMicros\":";
+
+    private final ProgressFeed progressFeed;
+    private final Environment environment;
+
+    public WebSocketLoadHarness(ProgressFeed progressFeed, Environment environment) {
+        this.progressFeed = progressFeed;
+        this.environment = environment;
+    }
+
+    public Map<String, Object> run(FanoutModel model, int connections, Duration measurement) {
+        URI uri = URI.create("ws://127.0.0.1:" + serverPort() + model.path());
+        HttpClient[] clients = clientsFor(connections);
+        int subscribersBefore = progressFeed.getSubscriberCount(model);
+
+        ConcurrentHistogram broadcastLatency = LatencySummary.newHistogram();
+        LongAdder framesReceived = new LongAdder();
+        LongAdder failedConnections = new LongAdder();
+        AtomicBoolean measuring = new AtomicBoolean();
+        Semaphore pendingHandshakes = new Semaphore(MAX_PENDING_HANDSHAKES);
+        CountDownLatch settled = new CountDownLatch(connections);
+        Disposable.Composite openConnections = Disposables.composite();
+
+        long heapBefore = usedHeapAfterGc();
+        long connectStart = System.nanoTime();
+        for (int i = 0; i < connections; i++) {
+            acquire(pendingHandshakes);
+            AtomicBoolean handshakeSettled = new AtomicBoolean();
+            Runnable settle = () -> {
+                if (handshakeSettled.compareAndSet(false, true)) {
+                    pendingHandshakes.release();
+                    settled.countDown();
+                }
+            };
+            openConnections.add(clients[i / CONNECTIONS_PER_SOURCE_ADDRESS]
+                    .websocket()
+                    .uri(uri)
+                    .handle((inbound, outbound) -> {
+                        settle.run();
+                        return inbound.receive().asString().doOnNext(frame -> {
+                            if (measuring.get()) {
+                                framesReceived.increment();
+                                long latencyMicros = ProgressFeed.epochMicros() - publishedAtEpochMicros(frame);
+                                LatencySummary.record(broadcastLatency, TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+                            }
+                        });
+                    })
+                    .subscribe(null, error -> {
+                        if (!handshakeSettled.get()) {
+                            failedConnections.increment();
+                        }
+                        settle.run();
+                    }));
+        }
+        await(settled, CONNECT_TIMEOUT);
+        long connectNanos = System.nanoTime() - connectStart;
+        long connected = connections - failedConnections.sum();
+        // O servidor registra a sessão logo depois do handshake, de forma assíncrona
+        awaitSubscribers(model, count -> count >= subscribersBefore + connected, SUBSCRIBE_TIMEOUT);
+        int serverSubscribers = progressFeed.getSubscriberCount(model) - subscribersBefore;
+        long heapConnected = usedHeapAfterGc();
+
+        long framesBefore = progressFeed.getFramesPublished();
+        CpuUsageMeter meter = CpuUsageMeter.start();
+        measuring.set(true);
+        sleep(measurement);
+        measuring.set(false);
+        CpuUsageMeter.CpuUsage cpu = meter.stop();
+        long framesPublished = progressFeed.getFramesPublished() - framesBefore;
+
+        openConnections.dispose();
+        boolean disconnected = awaitSubscribers(model, count -> count <= subscribersBefore, DISCONNECT_TIMEOUT);
+
+        long expectedFrames = framesPublished * connected;
+        Map<String, Object> cpuUsage = new LinkedHashMap<>();
+        cpuUsage.put("processCpuTimeMs", cpu.processCpuTimeMillis());
+        cpuUsage.put("utilizationPercent", cpu.utilizationPercent());
+        cpuUsage.put("cpuMicrosPerFrameDelivered",
+                framesReceived.sum() == 0 ? 0.0 : cpu.processCpuTimeNanos() / 1_000.0 / framesReceived.sum());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("model", model.name());
+        result.put("path", model.path());
+        result.put("connections", connections);
+        result.put("connected", connected);
+        result.put("failedConnections", failedConnections.sum());
+        result.put("connectMs", connectNanos / 1_000_000);
+        result.put("serverSubscribers", serverSubscribers);
+        result.put("heapPerConnectionBytes", connected == 0 ? 0 : Math.max(0, heapConnected - heapBefore) / connected);
+        result.put("measurementMs", measurement.toMillis());
+        result.put("framesPublished", framesPublished);
+        result.put("framesReceived", framesReceived.sum());
+        result.put("deliveryRatio", expectedFrames == 0 ? 0.0 : (double) framesReceived.sum() / expectedFrames);
+        result.put("broadcastLatency", LatencySummary.toMillis(broadcastLatency));
+        result.put("cpu", cpuUsage);
+        result.put("allDisconnected", disconnected);
+        return result;
+    }
+
+    /**
+     * Executa os dois modelos em sequência com os mesmos parâmetros.
+     */
+    public Map<String, Object> compare(int connections, Duration measurement) {
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (FanoutModel model : FanoutModel.values()) {
+            results.put(model.name(), run(model, connections, measurement));
+        }
+        return results;
+    }
+
+    static long publishedAtEpochMicros(String frame) {
+        int start = frame.indexOf(PUBLISHED_AT_FIELD) + PUBLISHED_AT_FIELD.length();
+        int end = start;
+        while (end < frame.length() && Character.isDigit(frame.charAt(end))) {
+            end++;
+        }
+        return Long.parseLong(frame, start, end, 10);
+    }
+
+    private int serverPort() {
+        Integer port = environment.getProperty("local.server.port", Integer.class);
+        if (port == null) {
+            throw new IllegalStateException("The embedded web server is not running");
+        }
+        return port;
+    }
+
+    private static HttpClient[] clientsFor(int connections) {
+        int sourceAddresses = (connections + CONNECTIONS_PER_SOURCE_ADDRESS - 1) / CONNECTIONS_PER_SOURCE_ADDRESS;
+        HttpClient[] clients = new HttpClient[sourceAddresses];
+        for (int i = 0; i < sourceAddresses; i++) {
+            // Sem pool: cada WebSocket fica com a sua conexão até o fim
+            HttpClient client = HttpClient.newConnection();
+            if (i > 0) {
+                InetSocketAddress source = new InetSocketAddress("127.0.0." + (i + 1), 0);
+                client = client.bindAddress(() -> source);
+            }
+            clients[i] = client;
+        }
+        return clients;
+    }
+
+    private boolean awaitSubscribers(FanoutModel model, IntPredicate condition, Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (!condition.test(progressFeed.getSubscriberCount(model))) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            sleep(Duration.ofMillis(50));
+        }
+        return true;
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void acquire(Semaphore semaphore) {
+        try {
+            semaphore.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch, Duration timeout) {
+        try {
+            latch.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncLazyTest {
+
+    @Test
+    void testInitializerRunsOnceForConcurrentCallers() throws Exception {
+        // Given
+        AtomicInteger initializations = new AtomicInteger();
+        AsyncLazy<String> lazy = new AsyncLazy<>(() -> {
+            initializations.incrementAndGet();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            return "value";
+        });
+
+        // When
+        List<Future<String>> results = new ArrayList<>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 500; i++) {
+                results.add(executor.submit(lazy::get));
+            }
+        }
+
+        // Then
+        for (Future<String> result : results) {
+            assertEquals("value", result.get());
+        }
+        assertEquals(1, initializations.get());
+        assertTrue(lazy.isInitialized());
+    }
+
+    @Test
+    void testFailedInitializationIsRetried() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+        AsyncLazy<Integer> lazy = new AsyncLazy<>(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("first attempt fails");
+            }
+            return 42;
+        });
+
+        // When & Then
+        assertThrows(IllegalStateException.class, lazy::get);
+        assertFalse(lazy.isInitialized());
+        assertEquals(42, lazy.get());
+        assertEquals(42, lazy.get());
+        assertEquals(2, attempts.get());
+    }
+}
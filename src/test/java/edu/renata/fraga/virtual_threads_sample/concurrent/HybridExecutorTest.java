@@ -0,0 +1,107 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HybridExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HybridExecutor hybridExecutor = new HybridExecutor(meterRegistry, 2, 0.5, 2, 1_000);
+
+    @AfterEach
+    void tearDown() {
+        hybridExecutor.close();
+    }
+
+    @Test
+    void testAnnotatedBlockingTaskRunsOnVirtualThread() {
+        Boolean virtual = hybridExecutor.submit(new BlockingTask()).join();
+
+        assertTrue(virtual);
+        assertEquals(1.0, meterRegistry.get("hybrid.executor.tasks")
+                .tag("kind", "blocking").tag("source", "declared").counter().count());
+    }
+
+    @Test
+    void testExplicitCpuBoundTaskRunsOnForkJoinPool() {
+        Boolean virtual = hybridExecutor.submit(TaskKind.CPU_BOUND, () -> Thread.currentThread().isVirtual()).join();
+
+        assertFalse(virtual);
+    }
+
+    @Test
+    void testMeasuredClassification() {
+        runMany("sleeping", () -> {
+            Thread.sleep(20);
+            return Thread.currentThread().isVirtual();
+        });
+        runMany("spinning", () -> {
+            long deadline = System.nanoTime() + 20_000_000;
+            long counter = 0;
+            while (System.nanoTime() < deadline) {
+                counter++;
+            }
+            return counter > 0 && Thread.currentThread().isVirtual();
+        });
+
+        assertEquals(TaskKind.BLOCKING, hybridExecutor.classificationOf("sleeping"));
+        assertEquals(TaskKind.CPU_BOUND, hybridExecutor.classificationOf("spinning"));
+        assertTrue(hybridExecutor.submit("sleeping", () -> Thread.currentThread().isVirtual()).join());
+        assertFalse(hybridExecutor.submit("spinning", () -> Thread.currentThread().isVirtual()).join());
+        assertTrue(meterRegistry.get("hybrid.executor.tasks").tag("source", "measured").counters().size() > 0);
+    }
+
+    @Test
+    void testOnlySamplingRunsUpdateTheRatio() {
+        // Given - limiar zero: toda chave medida vai para o ForkJoinPool, onde o tempo de CPU é mensurável
+        try (HybridExecutor executor = new HybridExecutor(new SimpleMeterRegistry(), 2, 0.0, 2, 1_000)) {
+            IntStream.range(0, 2).forEach(i -> executor.submit("mixed", () -> {
+                Thread.sleep(10);
+                return true;
+            }).join());
+            double sampledRatio = executor.cpuRatioOf("mixed");
+
+            // When - execuções classificadas de natureza diferente
+            IntStream.range(0, 4).forEach(i -> executor.submit("mixed", () -> {
+                long deadline = System.nanoTime() + 10_000_000;
+                while (System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+                return true;
+            }).join());
+
+            // Then
+            assertEquals(sampledRatio, executor.cpuRatioOf("mixed"));
+        }
+    }
+
+    @Test
+    void testUnknownKeyHasNoClassification() {
+        assertNull(hybridExecutor.classificationOf("unknown"));
+        assertTrue(Double.isNaN(hybridExecutor.cpuRatioOf("unknown")));
+    }
+
+    private void runMany(String key, Callable<Boolean> task) {
+        // Aquecimento sequencial para que as amostras sejam registradas antes da classificação
+        IntStream.range(0, 2).forEach(i -> hybridExecutor.submit(key, task).join());
+        IntStream.range(0, 4)
+                .mapToObj(i -> hybridExecutor.submit(key, task))
+                .toList()
+                .forEach(CompletableFuture::join);
+    }
+
+    @TaskProfile(TaskKind.BLOCKING)
+    private static final class BlockingTask implements Callable<Boolean> {
+        @Override
+        public Boolean call() {
+            return Thread.currentThread().isVirtual();
+        }
+    }
+}
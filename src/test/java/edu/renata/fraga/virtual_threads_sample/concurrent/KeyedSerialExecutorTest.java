@@ -0,0 +1,193 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedSerialExecutorTest {
+
+    private final KeyedSerialExecutor<Integer> executor = new KeyedSerialExecutor<>(1_000);
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void testTasksOfTheSameKeyRunInSubmissionOrderAndNeverOverlap() throws Exception {
+        // Given
+        int keys = 50;
+        int tasksPerKey = 200;
+        Map<Integer, List<Integer>> seen = new ConcurrentHashMap<>();
+        Map<Integer, AtomicInteger> running = new ConcurrentHashMap<>();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(keys * tasksPerKey);
+        for (int key = 0; key < keys; key++) {
+            seen.put(key, new ArrayList<>());
+            running.put(key, new AtomicInteger());
+        }
+
+        // When
+        for (int sequence = 0; sequence < tasksPerKey; sequence++) {
+            for (int key = 0; key < keys; key++) {
+                int k = key;
+                int s = sequence;
+                executor.execute(k, () -> {
+                    if (running.get(k).incrementAndGet() > 1) {
+                        overlapped.set(true);
+                    }
+                    if (s % 50 == 0) {
+                        Thread.yield();
+                    }
+                    seen.get(k).add(s);
+                    running.get(k).decrementAndGet();
+                    done.countDown();
+                });
+            }
+        }
+
+        // Then
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertFalse(overlapped.get());
+        for (int key = 0; key < keys; key++) {
+            List<Integer> sequences = seen.get(key);
+            assertEquals(tasksPerKey, sequences.size());
+            for (int i = 0; i < tasksPerKey; i++) {
+                assertEquals(i, sequences.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testDifferentKeysRunInParallel() throws Exception {
+        // Given - cada tarefa só termina quando as 100 chaves estiverem rodando ao mesmo tempo
+        int keys = 100;
+        CountDownLatch allRunning = new CountDownLatch(keys);
+        CountDownLatch done = new CountDownLatch(keys);
+
+        // When
+        for (int key = 0; key < keys; key++) {
+            executor.execute(key, () -> {
+                allRunning.countDown();
+                try {
+                    assertTrue(allRunning.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+
+        // Then
+        assertTrue(done.await(15, TimeUnit.SECONDS));
+        assertEquals(0, allRunning.getCount());
+    }
+
+    @Test
+    void testIdleMailboxesAreReclaimed() throws Exception {
+        // Given
+        CountDownLatch done = new CountDownLatch(10_000);
+
+        // When
+        for (int key = 0; key < 10_000; key++) {
+            executor.execute(key, done::countDown);
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        // Then - a última tarefa de cada caixa conta antes de a caixa ser retirada
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.activeMailboxes() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        Map<String, Object> stats = executor.stats();
+        assertEquals(0, executor.activeMailboxes());
+        assertEquals(10_000L, stats.get("executed"));
+        assertEquals(stats.get("mailboxesCreated"), stats.get("mailboxesReclaimed"));
+    }
+
+    @Test
+    void testFullMailboxRejectsSubmissions() throws Exception {
+        // Given
+        try (KeyedSerialExecutor<String> small = new KeyedSerialExecutor<>(2)) {
+            CountDownLatch release = new CountDownLatch(1);
+            small.execute("account-1", () -> await(release));
+            small.execute("account-1", () -> {
+            });
+
+            // When & Then
+            assertThrows(RejectedExecutionException.class, () -> small.execute("account-1", () -> {
+            }));
+            small.execute("account-2", () -> {
+            });
+            assertEquals(1L, small.stats().get("rejected"));
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testFailedTaskDoesNotStopTheMailbox() throws Exception {
+        // When
+        CompletableFuture<Integer> failing = executor.submit(7, () -> {
+            throw new IllegalStateException("boom");
+        });
+        CompletableFuture<Integer> next = executor.submit(7, () -> 42);
+
+        // Then
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+        assertEquals(42, next.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, executor.stats().get("failed"));
+    }
+
+    @Test
+    void testErrorInTaskDoesNotWedgeTheMailbox() throws Exception {
+        // When
+        CompletableFuture<Integer> failing = executor.submit(7, () -> {
+            throw new AssertionError("boom");
+        });
+        CompletableFuture<Integer> next = executor.submit(7, () -> 42);
+
+        // Then: a drenagem que recebeu o Error libera o lugar e outra assume a tarefa seguinte
+        ExecutionException error = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, error.getCause());
+        assertEquals(42, next.get(5, TimeUnit.SECONDS));
+        assertEquals(1L, executor.stats().get("failed"));
+        assertEquals(42, executor.submit(7, () -> 42).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRunsOnProvidedVirtualThreadExecutor() throws Exception {
+        // Given
+        try (var virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+             KeyedSerialExecutor<String> keyed = new KeyedSerialExecutor<>(virtualThreads, 10)) {
+
+            // When
+            Boolean virtual = keyed.submit("session", () -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertTrue(virtual);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriorityAdmissionTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PriorityAdmission admission;
+
+    @AfterEach
+    void tearDown() {
+        if (admission != null) {
+            admission.close();
+        }
+    }
+
+    @Test
+    void testInteractiveTaskOvertakesBenchmarkBacklog() throws Exception {
+        // Given - a única vaga está ocupada e há uma fila de benchmark esperando
+        admission = new PriorityAdmission("test", 1, Duration.ofMinutes(1), meterRegistry);
+        List<RequestClass> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(51);
+        PriorityAdmission.Permit permit = admission.acquire(RequestClass.BENCHMARK);
+        for (int i = 0; i < 50; i++) {
+            admission.execute(RequestClass.BENCHMARK, recording(order, RequestClass.BENCHMARK, done));
+        }
+
+        // When
+        admission.execute(RequestClass.INTERACTIVE, recording(order, RequestClass.INTERACTIVE, done));
+        permit.close();
+
+        // Then
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(RequestClass.INTERACTIVE, order.get(0));
+        assertEquals(51, order.size());
+    }
+
+    @Test
+    void testBackloggedClassesShareAdmissionsByWeight() throws Exception {
+        // Given
+        Map<RequestClass, Integer> weights = new EnumMap<>(RequestClass.class);
+        weights.put(RequestClass.INTERACTIVE, 3);
+        weights.put(RequestClass.BENCHMARK, 1);
+        admission = new PriorityAdmission("test", 1, weights, Duration.ofMinutes(1), meterRegistry);
+        List<RequestClass> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(80);
+        PriorityAdmission.Permit permit = admission.acquire(RequestClass.BATCH);
+        for (int i = 0; i < 40; i++) {
+            admission.execute(RequestClass.BENCHMARK, recording(order, RequestClass.BENCHMARK, done));
+            admission.execute(RequestClass.INTERACTIVE, recording(order, RequestClass.INTERACTIVE, done));
+        }
+
+        // When
+        permit.close();
+
+        // Then - enquanto as duas filas têm trabalho, 3 de cada 4 admissões são interativas
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        long interactive = order.subList(0, 40).stream().filter(c -> c == RequestClass.INTERACTIVE).count();
+        assertTrue(interactive >= 29 && interactive <= 31, "interactive admissions: " + interactive);
+    }
+
+    @Test
+    void testStarvingClassIsPromotedByAging() throws Exception {
+        // Given - peso 1000:1, sem envelhecimento o benchmark só passaria depois de 1000 interativas
+        Map<RequestClass, Integer> weights = new EnumMap<>(RequestClass.class);
+        weights.put(RequestClass.INTERACTIVE, 1000);
+        weights.put(RequestClass.BENCHMARK, 1);
+        admission = new PriorityAdmission("test", 1, weights, Duration.ofMillis(50), meterRegistry);
+        List<RequestClass> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(201);
+        PriorityAdmission.Permit permit = admission.acquire(RequestClass.BENCHMARK);
+        permit.close();
+        permit = admission.acquire(RequestClass.INTERACTIVE);
+        admission.execute(RequestClass.BENCHMARK, recording(order, RequestClass.BENCHMARK, done));
+        for (int i = 0; i < 200; i++) {
+            admission.execute(RequestClass.INTERACTIVE, () -> {
+                sleep(2);
+                order.add(RequestClass.INTERACTIVE);
+                done.countDown();
+            });
+        }
+
+        // When
+        permit.close();
+
+        // Then
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        int position = order.indexOf(RequestClass.BENCHMARK);
+        assertTrue(position < 100, "benchmark admitted at position " + position);
+        assertEquals(1L, classStats(RequestClass.BENCHMARK).get("promotedByAging"));
+    }
+
+    @Test
+    void testInterruptedWaiterGivesUpItsPlace() throws Exception {
+        // Given
+        admission = new PriorityAdmission("test", 1, Duration.ofMinutes(1), meterRegistry);
+        PriorityAdmission.Permit permit = admission.acquire(RequestClass.INTERACTIVE);
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                admission.acquire(RequestClass.BATCH).close();
+                fail("waiter should have been interrupted");
+            } catch (InterruptedException expected) {
+                // esperado
+            }
+        });
+        while (admission.queued(RequestClass.BATCH) == 0) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        waiter.interrupt();
+        waiter.join(5_000);
+        permit.close();
+
+        // Then - a vaga não ficou presa com a espera cancelada
+        try (PriorityAdmission.Permit next = admission.acquire(RequestClass.BENCHMARK)) {
+            assertEquals(RequestClass.BENCHMARK, next.requestClass());
+            assertEquals(1, admission.running());
+        }
+        assertEquals(0, admission.running());
+        assertEquals(1L, classStats(RequestClass.BATCH).get("cancelled"));
+    }
+
+    @Test
+    void testReservedSlotsAreOnlyGrantedToInteractive() throws Exception {
+        // Given - 3 vagas, 1 reservada: o benchmark ocupa as 2 livres e o próximo espera
+        admission = new PriorityAdmission("test", 3, 1, PriorityAdmission.defaultWeights(), Duration.ofMinutes(1), meterRegistry);
+        PriorityAdmission.Permit first = admission.acquire(RequestClass.BENCHMARK);
+        PriorityAdmission.Permit second = admission.acquire(RequestClass.BENCHMARK);
+        CountDownLatch benchmarkAdmitted = new CountDownLatch(1);
+        admission.execute(RequestClass.BENCHMARK, benchmarkAdmitted::countDown);
+
+        // When
+        PriorityAdmission.Permit interactive = admission.acquire(RequestClass.INTERACTIVE, Duration.ofSeconds(1));
+
+        // Then - a interativa passou pela vaga reservada e o benchmark continua na fila
+        assertEquals(3, admission.running());
+        assertFalse(benchmarkAdmitted.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, admission.queued(RequestClass.BENCHMARK));
+
+        interactive.close();
+        assertFalse(benchmarkAdmitted.await(100, TimeUnit.MILLISECONDS));
+        first.close();
+        assertTrue(benchmarkAdmitted.await(5, TimeUnit.SECONDS));
+        second.close();
+    }
+
+    @Test
+    void testTimedAcquireGivesUpAndLeavesTheQueue() throws Exception {
+        // Given
+        admission = new PriorityAdmission("test", 1, Duration.ofMinutes(1), meterRegistry);
+        PriorityAdmission.Permit permit = admission.acquire(RequestClass.INTERACTIVE);
+
+        // When
+        assertThrows(RejectedExecutionException.class,
+                () -> admission.acquire(RequestClass.BENCHMARK, Duration.ofMillis(50)));
+        permit.close();
+
+        // Then - a espera vencida saiu da fila e não ficou com a vaga
+        assertEquals(0, admission.queued(RequestClass.BENCHMARK));
+        assertEquals(0, admission.running());
+        assertEquals(1L, classStats(RequestClass.BENCHMARK).get("timedOut"));
+        try (PriorityAdmission.Permit next = admission.acquire(RequestClass.BATCH, Duration.ofSeconds(1))) {
+            assertEquals(1, admission.running());
+        }
+    }
+
+    @Test
+    void testQueueLatencyIsRecordedPerClass() throws Exception {
+        // Given
+        admission = new PriorityAdmission("test", 1, Duration.ofMinutes(1), meterRegistry);
+        PriorityAdmission.Permit permit = admission.acquire(RequestClass.INTERACTIVE);
+        CountDownLatch done = new CountDownLatch(1);
+        admission.execute(RequestClass.BATCH, done::countDown);
+
+        // When
+        Thread.sleep(20);
+        permit.close();
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> latency = (Map<String, Object>) classStats(RequestClass.BATCH).get("queueLatency");
+        assertEquals(1L, latency.get("count"));
+        assertTrue((Double) latency.get("maxMs") >= 15.0);
+        assertEquals(1L, meterRegistry.get("priority.admission.queue")
+                .tag("admission", "test").tag("class", "batch").timer().count());
+    }
+
+    @Test
+    void testClosedAdmissionRejectsWork() {
+        // Given
+        admission = new PriorityAdmission("test", 1, Duration.ofMinutes(1), meterRegistry);
+
+        // When
+        admission.close();
+
+        // Then
+        assertThrows(RejectedExecutionException.class, () -> admission.execute(RequestClass.BATCH, () -> {
+        }));
+        assertThrows(RejectedExecutionException.class, () -> admission.acquire(RequestClass.INTERACTIVE));
+    }
+
+    @Test
+    void testInvalidConfigurationIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PriorityAdmission("test", 0, Duration.ofSeconds(1), meterRegistry));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PriorityAdmission("test", 1, Map.of(RequestClass.BATCH, 0), Duration.ofSeconds(1), meterRegistry));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PriorityAdmission("test", 1, Duration.ZERO, meterRegistry));
+        assertThrows(IllegalArgumentException.class,
+                () -> new PriorityAdmission("test", 2, 2, PriorityAdmission.defaultWeights(), Duration.ofSeconds(1), meterRegistry));
+    }
+
+    private static Runnable recording(List<RequestClass> order, RequestClass requestClass, CountDownLatch done) {
+        return () -> {
+            order.add(requestClass);
+            done.countDown();
+        };
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> classStats(RequestClass requestClass) {
+        Map<String, Object> classes = (Map<String, Object>) admission.stats().get("classes");
+        return (Map<String, Object>) classes.get(requestClass.tag());
+    }
+}
@@ -0,0 +1,195 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourcePoolTest {
+
+    @Test
+    void testHundredThousandWaitingVirtualThreadsAllGetServed() {
+        // Given
+        AtomicInteger ids = new AtomicInteger();
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicBoolean overCommitted = new AtomicBoolean();
+        LongAdder served = new LongAdder();
+        ResourcePool<Integer> pool = new ResourcePool<>("test", 8, ids::incrementAndGet);
+
+        // When
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 100_000; i++) {
+                executor.submit(() -> pool.withResource(Duration.ofMinutes(1), resource -> {
+                    if (inUse.incrementAndGet() > 8) {
+                        overCommitted.set(true);
+                    }
+                    Thread.yield();
+                    inUse.decrementAndGet();
+                    served.increment();
+                    return resource;
+                }));
+            }
+        }
+
+        // Then
+        Map<String, Object> stats = pool.stats();
+        assertEquals(100_000, served.sum());
+        assertFalse(overCommitted.get());
+        assertEquals(8L, stats.get("created"));
+        assertEquals(0, stats.get("borrowed"));
+        assertEquals(0L, stats.get("timeouts"));
+        assertTrue((Integer) stats.get("peakWaiting") > 1_000, "peakWaiting " + stats.get("peakWaiting"));
+    }
+
+    @Test
+    void testWaitersAreServedInArrivalOrder() throws Exception {
+        // Given
+        ResourcePool<String> pool = new ResourcePool<>("fifo", 1, () -> "only");
+        ResourcePool<String>.Lease holder = pool.acquire(Duration.ofSeconds(1));
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(20);
+
+        // When: cada waiter só é criado depois que o anterior está na fila
+        for (int i = 0; i < 20; i++) {
+            int waiter = i;
+            Thread.ofVirtual().start(() -> {
+                pool.withResource(Duration.ofSeconds(10), resource -> order.add(waiter));
+                done.countDown();
+            });
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while ((Integer) pool.stats().get("waiting") < i + 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+        }
+        holder.close();
+
+        // Then
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(java.util.stream.IntStream.range(0, 20).boxed().toList(), order);
+    }
+
+    @Test
+    void testAcquireTimesOut() {
+        // Given
+        ResourcePool<String> pool = new ResourcePool<>("timeout", 1, () -> "only");
+        pool.acquire(Duration.ofSeconds(1));
+
+        // When & Then
+        assertThrows(ResourcePoolTimeoutException.class, () -> pool.acquire(Duration.ofMillis(30)));
+        assertEquals(1L, pool.stats().get("timeouts"));
+    }
+
+    @Test
+    void testUnhealthyResourcesAreReplacedOnBorrow() {
+        // Given
+        AtomicInteger ids = new AtomicInteger();
+        List<Integer> destroyed = new CopyOnWriteArrayList<>();
+        AtomicBoolean healthy = new AtomicBoolean(true);
+        ResourcePool<Integer> pool = new ResourcePool<>("health", 1, ids::incrementAndGet,
+                resource -> healthy.get(), destroyed::add);
+        int first = pool.withResource(Duration.ofSeconds(1), resource -> resource);
+        assertEquals(1, first);
+
+        // When
+        healthy.set(false);
+        int replacement = pool.withResource(Duration.ofSeconds(1), resource -> resource);
+
+        // Then
+        assertEquals(2, replacement);
+        assertEquals(List.of(1), destroyed);
+        assertEquals(1L, pool.stats().get("invalidated"));
+    }
+
+    @Test
+    void testInvalidatedLeaseIsDestroyedAndPermitReturned() {
+        // Given
+        AtomicInteger ids = new AtomicInteger();
+        List<Integer> destroyed = new CopyOnWriteArrayList<>();
+        ResourcePool<Integer> pool = new ResourcePool<>("invalidate", 1, ids::incrementAndGet, resource -> true, destroyed::add);
+
+        // When
+        pool.acquire(Duration.ofSeconds(1)).invalidate();
+        int next = pool.withResource(Duration.ofMillis(100), resource -> resource);
+
+        // Then
+        assertEquals(2, next);
+        assertEquals(List.of(1), destroyed);
+    }
+
+    @Test
+    void testFactoryFailureReleasesPermit() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+        ResourcePool<String> pool = new ResourcePool<>("failing", 1, () -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("connection refused");
+            }
+            return "connected";
+        });
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> pool.acquire(Duration.ofSeconds(1)));
+        assertEquals("connected", pool.withResource(Duration.ofMillis(100), resource -> resource));
+    }
+
+    @Test
+    void testCloseDestroysIdleResources() {
+        // Given
+        List<String> destroyed = new CopyOnWriteArrayList<>();
+        ResourcePool<String> pool = new ResourcePool<>("close", 2, () -> "resource", resource -> true, destroyed::add);
+        pool.withResource(Duration.ofSeconds(1), resource -> resource);
+
+        // When
+        pool.close();
+
+        // Then
+        assertEquals(List.of("resource"), destroyed);
+        assertThrows(IllegalStateException.class, () -> pool.acquire(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void testResourceReturnedWhileClosingIsDestroyedOnce() throws Exception {
+        for (int round = 0; round < 2_000; round++) {
+            // Given
+            List<Object> destroyed = new CopyOnWriteArrayList<>();
+            ResourcePool<Object> pool = new ResourcePool<>("race", 1, Object::new, resource -> true, destroyed::add);
+            ResourcePool<Object>.Lease lease = pool.acquire(Duration.ofSeconds(1));
+            CountDownLatch start = new CountDownLatch(1);
+
+            // When - devolução e close ao mesmo tempo
+            Thread giveBack = Thread.ofPlatform().start(() -> {
+                awaitQuietly(start);
+                lease.close();
+            });
+            Thread close = Thread.ofPlatform().start(() -> {
+                awaitQuietly(start);
+                pool.close();
+            });
+            start.countDown();
+            giveBack.join();
+            close.join();
+
+            // Then
+            assertEquals(1, destroyed.size(), "round " + round);
+            assertEquals(0, pool.stats().get("idle"), "round " + round);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferPipelineTest {
+
+    @Test
+    void testMultipleProducersThroughTwoStages() throws Exception {
+        // Given: 4 trabalhadoras dobram o valor, uma agregadora soma por lote
+        RingBuffer<long[]> ringBuffer = new RingBuffer<>(64, () -> new long[2]);
+        LongAdder sum = new LongAdder();
+        List<RingBufferPipeline.Stage<long[]>> stages = List.of(
+                new RingBufferPipeline.Stage<>("double", 4, worker -> (event, sequence, endOfBatch) -> event[1] = event[0] * 2),
+                new RingBufferPipeline.Stage<>("sum", 1, worker -> {
+                    long[] pending = new long[1];
+                    return (event, sequence, endOfBatch) -> {
+                        pending[0] += event[1];
+                        if (endOfBatch) {
+                            sum.add(pending[0]);
+                            pending[0] = 0;
+                        }
+                    };
+                }));
+
+        // When
+        RingBufferPipeline.Stats stats;
+        try (var pipeline = new RingBufferPipeline<>(ringBuffer, Thread.ofVirtual().factory(), stages)) {
+            Thread[] producers = new Thread[4];
+            for (int p = 0; p < producers.length; p++) {
+                int producer = p;
+                producers[p] = Thread.ofVirtual().start(() -> {
+                    for (long i = producer * 25_000L; i < (producer + 1) * 25_000L; i++) {
+                        long sequence = ringBuffer.next();
+                        ringBuffer.get(sequence)[0] = i;
+                        ringBuffer.publish(sequence);
+                    }
+                });
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            pipeline.drain();
+            stats = pipeline.stats();
+        }
+
+        // Then
+        assertEquals(2 * (99_999L * 100_000L / 2), sum.sum());
+        assertEquals(200_000, stats.events());
+        assertTrue(stats.maxBatchSize() <= 64);
+        assertEquals(0, stats.failed());
+    }
+
+    @Test
+    void testWorkersSplitSequencesAndSeeEndOfBatch() {
+        // Given
+        RingBuffer<AtomicLong> ringBuffer = new RingBuffer<>(16, AtomicLong::new);
+        List<String> handled = new CopyOnWriteArrayList<>();
+        List<RingBufferPipeline.Stage<AtomicLong>> stages = List.of(new RingBufferPipeline.Stage<>("record", 2,
+                worker -> (event, sequence, endOfBatch) -> handled.add(worker + ":" + sequence + (endOfBatch ? "!" : ""))));
+
+        // When
+        try (var pipeline = new RingBufferPipeline<>(ringBuffer, Thread.ofPlatform().daemon().factory(), stages)) {
+            for (int i = 0; i < 8; i++) {
+                ringBuffer.publish(ringBuffer.next());
+            }
+            pipeline.drain();
+        }
+
+        // Then: cada trabalhadora trata só a sua paridade e termina com o fim de um lote
+        assertEquals(8, handled.size());
+        for (String worker : List.of("0", "1")) {
+            List<String> own = handled.stream().filter(entry -> entry.startsWith(worker + ":")).toList();
+            assertEquals(4, own.size());
+            assertTrue(own.stream().allMatch(entry -> Long.parseLong(entry.substring(2).replace("!", "")) % 2 == Long.parseLong(worker)),
+                    own.toString());
+            assertTrue(own.get(own.size() - 1).endsWith("!"), own.toString());
+        }
+    }
+
+    @Test
+    void testHandlerFailuresAreCountedAndSkipped() {
+        // Given
+        RingBuffer<AtomicLong> ringBuffer = new RingBuffer<>(16, AtomicLong::new);
+        LongAdder handled = new LongAdder();
+        List<RingBufferPipeline.Stage<AtomicLong>> stages = List.of(new RingBufferPipeline.Stage<>("fail-odd", 1,
+                worker -> (event, sequence, endOfBatch) -> {
+                    if (sequence % 2 == 1) {
+                        throw new IllegalStateException("odd");
+                    }
+                    handled.increment();
+                }));
+
+        // When
+        RingBufferPipeline.Stats stats;
+        try (var pipeline = new RingBufferPipeline<>(ringBuffer, Thread.ofVirtual().factory(), stages)) {
+            for (int i = 0; i < 40; i++) {
+                ringBuffer.publish(ringBuffer.next());
+            }
+            pipeline.drain();
+            stats = pipeline.stats();
+        }
+
+        // Then
+        assertEquals(20, handled.sum());
+        assertEquals(20, stats.failed());
+        assertEquals(40, stats.events());
+    }
+
+    @Test
+    void testHandlerErrorDoesNotStopTheWorker() {
+        // Given
+        RingBuffer<AtomicLong> ringBuffer = new RingBuffer<>(16, AtomicLong::new);
+        LongAdder handled = new LongAdder();
+        List<RingBufferPipeline.Stage<AtomicLong>> stages = List.of(new RingBufferPipeline.Stage<>("fail-first", 1,
+                worker -> (event, sequence, endOfBatch) -> {
+                    if (sequence == 0) {
+                        throw new AssertionError("first");
+                    }
+                    handled.increment();
+                }));
+
+        // When
+        RingBufferPipeline.Stats stats;
+        try (var pipeline = new RingBufferPipeline<>(ringBuffer, Thread.ofVirtual().factory(), stages)) {
+            for (int i = 0; i < 40; i++) {
+                ringBuffer.publish(ringBuffer.next());
+            }
+            pipeline.drain();
+            stats = pipeline.stats();
+        }
+
+        // Then: a trabalhadora sobreviveu ao Error e consumiu o resto, inclusive depois de uma volta
+        assertEquals(39, handled.sum());
+        assertEquals(1, stats.failed());
+        assertEquals(40, stats.events());
+    }
+
+    @Test
+    void testStageNeedsWorkers() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RingBufferPipeline.Stage<AtomicLong>("empty", 0, worker -> (event, sequence, endOfBatch) -> { }));
+    }
+}
@@ -0,0 +1,85 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void testCapacityMustBePowerOfTwo() {
+        assertEquals(16, new RingBuffer<>(16, AtomicLong::new).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(12, AtomicLong::new));
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(0, AtomicLong::new));
+    }
+
+    @Test
+    void testSlotsArePreallocatedAndReusedAcrossLaps() {
+        // Given
+        RingBuffer<AtomicLong> ringBuffer = new RingBuffer<>(4, AtomicLong::new);
+
+        // Then
+        assertSame(ringBuffer.get(1), ringBuffer.get(5));
+        assertNotSame(ringBuffer.get(1), ringBuffer.get(2));
+    }
+
+    @Test
+    void testConsumersOnlySeeContiguousPublishedSequences() {
+        // Given
+        RingBuffer<AtomicLong> ringBuffer = new RingBuffer<>(8, AtomicLong::new);
+        long first = ringBuffer.next();
+        long second = ringBuffer.next();
+        long third = ringBuffer.next();
+
+        // When: o segundo produtor ainda não publicou
+        ringBuffer.publish(first);
+        ringBuffer.publish(third);
+
+        // Then
+        assertEquals(first, ringBuffer.highestPublishedSequence(0, ringBuffer.cursor()));
+        ringBuffer.publish(second);
+        assertEquals(third, ringBuffer.highestPublishedSequence(0, ringBuffer.cursor()));
+    }
+
+    @Test
+    void testPublishedLapDistinguishesWrappedSequences() {
+        // Given
+        RingBuffer<AtomicLong> ringBuffer = new RingBuffer<>(4, AtomicLong::new);
+
+        // When
+        ringBuffer.publish(ringBuffer.next());
+
+        // Then: o slot 0 foi publicado na primeira volta, não na segunda
+        assertTrue(ringBuffer.isPublished(0));
+        assertFalse(ringBuffer.isPublished(4));
+    }
+
+    @Test
+    void testProducerWaitsForSlowestConsumer() throws Exception {
+        // Given
+        RingBuffer<AtomicLong> ringBuffer = new RingBuffer<>(4, AtomicLong::new);
+        Sequence consumer = new Sequence(-1);
+        ringBuffer.addGatingSequences(consumer);
+        for (int i = 0; i < 4; i++) {
+            ringBuffer.publish(ringBuffer.next());
+        }
+
+        // When
+        CountDownLatch claimed = new CountDownLatch(1);
+        Thread producer = Thread.ofVirtual().start(() -> {
+            ringBuffer.next();
+            claimed.countDown();
+        });
+
+        // Then: o buffer está cheio até o consumidor avançar
+        assertFalse(claimed.await(100, TimeUnit.MILLISECONDS));
+        consumer.set(0);
+        assertTrue(claimed.await(5, TimeUnit.SECONDS));
+        producer.join();
+        assertEquals(4, ringBuffer.cursor());
+    }
+}
@@ -0,0 +1,49 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StripedCounterTest {
+
+    @Test
+    void testConcurrentIncrementsAreNotLost() {
+        // Given
+        StripedCounter counter = new StripedCounter();
+
+        // When
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, 1_000).forEach(i -> executor.submit(() -> {
+                for (int j = 0; j < 1_000; j++) {
+                    counter.increment();
+                }
+            }));
+        }
+
+        // Then
+        assertEquals(1_000_000, counter.sum());
+    }
+
+    @Test
+    void testStripesAreRoundedUpToPowerOfTwo() {
+        assertEquals(16, new StripedCounter(16).stripes());
+        assertEquals(32, new StripedCounter(17).stripes());
+        assertThrows(IllegalArgumentException.class, () -> new StripedCounter(0));
+    }
+
+    @Test
+    void testAddAcceptsNegativeDeltas() {
+        // Given
+        StripedCounter counter = new StripedCounter(4);
+
+        // When
+        counter.add(10);
+        counter.add(-3);
+
+        // Then
+        assertEquals(7, counter.sum());
+    }
+}
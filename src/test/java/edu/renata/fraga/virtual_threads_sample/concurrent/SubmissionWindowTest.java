@@ -0,0 +1,96 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SubmissionWindowTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testInFlightTasksNeverExceedWindow() {
+        // Given
+        SubmissionWindow window = new SubmissionWindow(executor, 8);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger observedPeak = new AtomicInteger();
+
+        // When
+        SubmissionWindow.Report report = window.run(200, i -> () -> {
+            observedPeak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+        });
+
+        // Then
+        assertEquals(200, report.completed());
+        assertEquals(0, report.failed());
+        assertTrue(observedPeak.get() <= 8);
+        assertTrue(report.peakInFlight() <= 8);
+        assertEquals(0, running.get());
+    }
+
+    @Test
+    void testMillionTasksCompleteWithoutRetainingResults() {
+        // Given
+        SubmissionWindow window = new SubmissionWindow(executor, 1_000);
+        LongAdder sum = new LongAdder();
+
+        // When
+        SubmissionWindow.Report report = window.run(1_000_000, i -> () -> sum.add(i));
+
+        // Then
+        assertEquals(1_000_000, report.completed());
+        assertEquals(999_999L * 1_000_000 / 2, sum.sum());
+    }
+
+    @Test
+    void testFailedTasksAreCountedAndDoNotStopSubmission() {
+        // Given
+        SubmissionWindow window = new SubmissionWindow(executor, 4);
+
+        // When
+        SubmissionWindow.Report report = window.run(100, i -> () -> {
+            if (i % 10 == 0) {
+                throw new IllegalStateException("task " + i);
+            }
+        });
+
+        // Then
+        assertEquals(90, report.completed());
+        assertEquals(10, report.failed());
+    }
+
+    @Test
+    void testRejectedSubmissionPropagates() {
+        // Given
+        executor.shutdown();
+        SubmissionWindow window = new SubmissionWindow(executor, 4);
+
+        // When & Then
+        assertThrows(RejectedExecutionException.class, () -> window.run(10, i -> () -> { }));
+    }
+
+    @Test
+    void testInvalidWindowIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SubmissionWindow(executor, 0));
+    }
+}
@@ -0,0 +1,63 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualMonitorTest {
+
+    @Test
+    void testCallIsMutuallyExclusive() {
+        // Given
+        VirtualMonitor monitor = new VirtualMonitor();
+        int[] counter = new int[1];
+
+        // When
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            IntStream.range(0, 1_000).forEach(i -> executor.submit(() -> monitor.run(() -> counter[0]++)));
+        }
+
+        // Then
+        assertEquals(1_000, monitor.call(() -> counter[0]));
+    }
+
+    @Test
+    void testAwaitUntilWakesOnSignal() throws Exception {
+        // Given
+        VirtualMonitor monitor = new VirtualMonitor();
+        boolean[] ready = new boolean[1];
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return monitor.awaitUntil(() -> ready[0], Duration.ofSeconds(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }, Executors.newVirtualThreadPerTaskExecutor());
+
+        // When
+        Thread.sleep(50);
+        monitor.signalAll(() -> ready[0] = true);
+
+        // Then
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testAwaitUntilTimesOut() throws Exception {
+        // Given
+        VirtualMonitor monitor = new VirtualMonitor();
+
+        // When
+        boolean result = monitor.awaitUntil(() -> false, Duration.ofMillis(20));
+
+        // Then
+        assertFalse(result);
+    }
+}
@@ -0,0 +1,217 @@
+package edu.renata.fraga.virtual_threads_sample.concurrent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadSchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VirtualThreadScheduler scheduler = new VirtualThreadScheduler("test-vt", 4, 1_000, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.dispose();
+    }
+
+    @Test
+    void testRunsTasksOnVirtualThreads() {
+        StepVerifier.create(Mono.fromCallable(() -> Thread.currentThread().isVirtual()).subscribeOn(scheduler))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void testMaxConcurrencyIsRespected() throws InterruptedException {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxObserved = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(20);
+
+        IntStream.range(0, 20).forEach(i -> scheduler.schedule(() -> {
+            maxObserved.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            done.countDown();
+        }));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(maxObserved.get() <= 4, "max concurrency exceeded: " + maxObserved.get());
+        await(() -> meterRegistry.get("vt.scheduler.tasks.completed").counter().count() == 20.0);
+    }
+
+    @Test
+    void testRejectsWhenPendingQueueIsFull() {
+        VirtualThreadScheduler small = new VirtualThreadScheduler("test-vt-small", 1, 2, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocker = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try {
+            small.schedule(blocker);
+            await(() -> small.getActiveCount() == 1 && small.getPendingCount() == 0);
+            small.schedule(blocker);
+            small.schedule(blocker);
+
+            assertThrows(RejectedExecutionException.class, () -> small.schedule(blocker));
+            assertEquals(1.0, meterRegistry.get("vt.scheduler.tasks.rejected").tag("scheduler", "test-vt-small").counter().count());
+        } finally {
+            release.countDown();
+            small.dispose();
+        }
+    }
+
+    @Test
+    void testWorkerPreservesOrder() throws InterruptedException {
+        Scheduler.Worker worker = scheduler.createWorker();
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(200);
+
+        IntStream.range(0, 200).forEach(i -> worker.schedule(() -> {
+            executed.add(i);
+            done.countDown();
+        }));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(IntStream.range(0, 200).boxed().toList(), executed);
+        worker.dispose();
+    }
+
+    @Test
+    void testPublishOnKeepsSequence() {
+        StepVerifier.create(Flux.range(0, 500).publishOn(scheduler).collectList())
+                .expectNext(IntStream.range(0, 500).boxed().toList())
+                .verifyComplete();
+    }
+
+    @Test
+    void testDelayedAndPeriodicTasks() {
+        StepVerifier.create(Mono.delay(Duration.ofMillis(20), scheduler).map(tick -> Thread.currentThread().isVirtual()))
+                .expectNext(true)
+                .verifyComplete();
+
+        StepVerifier.create(Flux.interval(Duration.ofMillis(5), scheduler).take(3))
+                .expectNext(0L, 1L, 2L)
+                .verifyComplete();
+    }
+
+    @Test
+    void testDisposeCancelsPendingAndRejectsNewTasks() throws InterruptedException {
+        VirtualThreadScheduler disposable = new VirtualThreadScheduler("test-vt-dispose", 1, 10, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicInteger executedAfterBlocker = new AtomicInteger();
+
+        try {
+            disposable.schedule(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Disposable pendingTask = disposable.schedule(executedAfterBlocker::incrementAndGet);
+
+            disposable.dispose();
+
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+            assertTrue(disposable.isDisposed());
+            assertTrue(pendingTask.isDisposed());
+            assertEquals(0, executedAfterBlocker.get());
+            assertThrows(RejectedExecutionException.class, () -> disposable.schedule(() -> { }));
+        } finally {
+            disposable.dispose();
+        }
+    }
+
+    @Test
+    void testDisposeCancelsTasksQueuedOnWorkers() throws InterruptedException {
+        VirtualThreadScheduler disposable = new VirtualThreadScheduler("test-vt-dispose-worker", 2, 10, meterRegistry);
+        Scheduler.Worker worker = disposable.createWorker();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicInteger executedAfterBlocker = new AtomicInteger();
+
+        try {
+            // Given
+            worker.schedule(() -> {
+                started.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            List<Disposable> queued = IntStream.range(0, 5)
+                    .mapToObj(i -> worker.schedule(executedAfterBlocker::incrementAndGet))
+                    .toList();
+
+            // When
+            disposable.dispose();
+
+            // Then
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+            assertTrue(worker.isDisposed());
+            assertTrue(queued.stream().allMatch(Disposable::isDisposed));
+            assertThrows(RejectedExecutionException.class, () -> worker.schedule(() -> { }));
+            assertThrows(RejectedExecutionException.class, () -> disposable.createWorker().schedule(() -> { }));
+            Thread.sleep(100);
+            assertEquals(0, executedAfterBlocker.get());
+        } finally {
+            disposable.dispose();
+        }
+    }
+
+    @Test
+    void testDisposeGracefullyWaitsForRunningTasks() {
+        AtomicInteger completed = new AtomicInteger();
+        IntStream.range(0, 10).forEach(i -> scheduler.schedule(() -> {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            completed.incrementAndGet();
+        }));
+
+        StepVerifier.create(scheduler.disposeGracefully())
+                .verifyComplete();
+        assertEquals(10, completed.get());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.PriorityAdmission;
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdmissionControllerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private PriorityAdmission requestAdmission = new PriorityAdmission("requests", 10, Duration.ofSeconds(2), meterRegistry);
+
+    @Spy
+    private PriorityAdmission taskAdmission = new PriorityAdmission("tasks", 100, Duration.ofSeconds(2), meterRegistry);
+
+    @InjectMocks
+    private AdmissionController admissionController;
+
+    @Test
+    void testStatsWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(admissionController).build();
+        requestAdmission.acquire(RequestClass.INTERACTIVE).close();
+
+        // When & Then
+        mockMvc.perform(get("/api/admission"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requests.name").value("requests"))
+                .andExpect(jsonPath("$.requests.maxConcurrency").value(10))
+                .andExpect(jsonPath("$.requests.classes.interactive.admitted").value(1))
+                .andExpect(jsonPath("$.requests.classes.interactive.queueLatency.count").value(1))
+                .andExpect(jsonPath("$.tasks.name").value("tasks"))
+                .andExpect(jsonPath("$.tasks.classes.benchmark.weight").value(1));
+    }
+
+    @Test
+    void testResetWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(admissionController).build();
+        requestAdmission.acquire(RequestClass.BATCH).close();
+
+        // When & Then
+        mockMvc.perform(delete("/api/admission"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requests.classes.batch.admitted").value(0));
+    }
+}
@@ -0,0 +1,105 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.virtual_threads_sample.metrics.JvmTelemetrySampler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ApiInfoControllerTest {
+
+    private MockMvc mockMvc;
+    private JvmTelemetrySampler telemetrySampler;
+
+    @BeforeEach
+    void setUp() {
+        telemetrySampler = new JvmTelemetrySampler(new ObjectMapper(), Duration.ofMillis(50), 8, false);
+        ApiInfoController apiInfoController = new ApiInfoController(new ObjectMapper(), Duration.ofHours(1), telemetrySampler);
+        mockMvc = MockMvcBuilders.standaloneSetup(apiInfoController).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        telemetrySampler.shutdown();
+    }
+
+    @Test
+    void testGetApiInfoWithMockMvc() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/info"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.name").value("Virtual Threads Sample API"))
+                .andExpect(jsonPath("$.documentation.swagger").value("/swagger-ui.html"));
+    }
+
+    @Test
+    void testGetApiInfoReturnsNotModifiedForMatchingETag() throws Exception {
+        // Given
+        String etag = mockMvc.perform(get("/api/info"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When & Then
+        mockMvc.perform(get("/api/info").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetApiInfoReturnsBodyForStaleETag() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/info").header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value("1.0.0"));
+    }
+
+    @Test
+    void testGetSystemInfoIsStableWithinSamplingInterval() throws Exception {
+        // When
+        String first = mockMvc.perform(get("/api/system-info"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.memory.max").exists())
+                .andExpect(jsonPath("$.processors").isNumber())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String second = mockMvc.perform(get("/api/system-info"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Then
+        assertEquals(first, second);
+        mockMvc.perform(get("/api/system-info").header(HttpHeaders.IF_NONE_MATCH, first))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testStreamSystemInfoSendsTelemetryFrames() throws Exception {
+        // When
+        MvcResult result = mockMvc.perform(get("/api/system-info/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!result.getResponse().getContentAsString().contains("allocationRateMbPerSecond")
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        // Then
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("event:telemetry"));
+        assertTrue(body.contains("\"carrierThreads\""));
+        assertTrue(body.contains("\"virtualThreads\""));
+        assertTrue(telemetrySampler.isSampling());
+        assertEquals(1, telemetrySampler.getSubscriberCount());
+    }
+}
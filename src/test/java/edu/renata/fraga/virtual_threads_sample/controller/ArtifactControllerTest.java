@@ -0,0 +1,139 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.service.ArtifactService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArtifactControllerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private ArtifactService artifactService;
+
+    @InjectMocks
+    private ArtifactController artifactController;
+
+    private MockMvc mockMvc;
+    private Path artifact;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(artifactController).build();
+        artifact = tempDir.resolve("report.txt");
+        Files.writeString(artifact, "0123456789", StandardCharsets.US_ASCII);
+    }
+
+    @Test
+    void testDownloadFullFile() throws Exception {
+        // Given
+        when(artifactService.find("report.txt")).thenReturn(Optional.of(artifact));
+
+        // When & Then
+        mockMvc.perform(get("/api/artifacts/report.txt"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "10"))
+                .andExpect(header().string(ArtifactController.TRANSFER_MODE_HEADER, "transferTo"))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void testDownloadRange() throws Exception {
+        // Given
+        when(artifactService.find("report.txt")).thenReturn(Optional.of(artifact));
+
+        // When & Then
+        mockMvc.perform(get("/api/artifacts/report.txt").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void testDownloadSuffixRange() throws Exception {
+        // Given
+        when(artifactService.find("report.txt")).thenReturn(Optional.of(artifact));
+
+        // When & Then
+        mockMvc.perform(get("/api/artifacts/report.txt").header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().string("789"));
+    }
+
+    @Test
+    void testDownloadUnsatisfiableRange() throws Exception {
+        // Given
+        when(artifactService.find("report.txt")).thenReturn(Optional.of(artifact));
+
+        // When & Then
+        mockMvc.perform(get("/api/artifacts/report.txt").header(HttpHeaders.RANGE, "bytes=20-30"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void testDownloadUsesSendfileWhenSupported() throws Exception {
+        // Given
+        when(artifactService.find("report.txt")).thenReturn(Optional.of(artifact));
+
+        // When & Then
+        mockMvc.perform(get("/api/artifacts/report.txt")
+                        .requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE)
+                        .header(HttpHeaders.RANGE, "bytes=4-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(ArtifactController.TRANSFER_MODE_HEADER, "sendfile"))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 4L))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 10L))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testDownloadUnknownArtifact() throws Exception {
+        // Given
+        when(artifactService.find("missing.bin")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/artifacts/missing.bin"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCreateDatasetRejectsInvalidSize() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/artifacts/dataset").param("sizeMb", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testDeleteUnknownArtifact() throws Exception {
+        // Given
+        when(artifactService.delete("missing.bin")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(delete("/api/artifacts/missing.bin"))
+                .andExpect(status().isNotFound());
+    }
+}
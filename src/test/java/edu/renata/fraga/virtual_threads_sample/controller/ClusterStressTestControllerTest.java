@@ -0,0 +1,87 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.service.DistributedStressTestService;
+import edu.renata.fraga.virtual_threads_sample.service.StressSliceRequest;
+import edu.renata.fraga.virtual_threads_sample.service.StressSliceResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterStressTestControllerTest {
+
+    @Mock
+    private DistributedStressTestService distributedStressTestService;
+
+    @InjectMocks
+    private ClusterStressTestController clusterStressTestController;
+
+    @Test
+    void testCoordinateWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(clusterStressTestController).build();
+        when(distributedStressTestService.coordinate(3000, 20, false))
+                .thenReturn(Map.of("nodes", 2, "completedTasks", 3000));
+
+        // When & Then
+        mockMvc.perform(get("/api/cluster/stress-test")
+                        .param("tasks", "3000")
+                        .param("taskDurationMs", "20")
+                        .param("includeSelf", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.completedTasks").value(3000));
+    }
+
+    @Test
+    void testCoordinateWithoutNodesIsBadRequest() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(clusterStressTestController).build();
+        when(distributedStressTestService.coordinate(10000, 100, false))
+                .thenThrow(new IllegalArgumentException("No nodes"));
+
+        // When & Then
+        mockMvc.perform(get("/api/cluster/stress-test").param("includeSelf", "false"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testRunSliceWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(clusterStressTestController).build();
+        when(distributedStressTestService.runSlice(any(StressSliceRequest.class)))
+                .thenReturn(new StressSliceResult("node-a", 10, 1L, 2L, "AAAA"));
+
+        // When & Then
+        mockMvc.perform(post("/api/cluster/stress-test/slice")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tasks\":10,\"taskDurationMs\":5,\"startAtEpochMillis\":0}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.node").value("node-a"))
+                .andExpect(jsonPath("$.histogram").value("AAAA"));
+    }
+
+    @Test
+    void testRunSliceRejectsInvalidTasks() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(clusterStressTestController).build();
+
+        // When & Then
+        mockMvc.perform(post("/api/cluster/stress-test/slice")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"tasks\":0,\"taskDurationMs\":5,\"startAtEpochMillis\":0}"))
+                .andExpect(status().isBadRequest());
+    }
+}
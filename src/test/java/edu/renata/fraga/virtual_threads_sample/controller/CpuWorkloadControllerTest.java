@@ -0,0 +1,99 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.service.CpuWorkload;
+import edu.renata.fraga.virtual_threads_sample.service.CpuWorkloadService;
+import edu.renata.fraga.virtual_threads_sample.service.ExecutionModel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class CpuWorkloadControllerTest {
+
+    @Mock
+    private CpuWorkloadService cpuWorkloadService;
+
+    @InjectMocks
+    private CpuWorkloadController cpuWorkloadController;
+
+    @Test
+    void testRun() {
+        // Given
+        when(cpuWorkloadService.run(CpuWorkload.SORTING, ExecutionModel.PLATFORM_THREADS, 10, 2))
+                .thenReturn(Map.of("executionModel", "PLATFORM_THREADS"));
+
+        // When
+        Map<String, Object> result = cpuWorkloadController.run(CpuWorkload.SORTING, ExecutionModel.PLATFORM_THREADS, 10, 2);
+
+        // Then
+        assertEquals("PLATFORM_THREADS", result.get("executionModel"));
+    }
+
+    @Test
+    void testRunWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(cpuWorkloadController).build();
+        when(cpuWorkloadService.run(eq(CpuWorkload.JSON), eq(ExecutionModel.REACTOR_PARALLEL), anyInt(), anyInt()))
+                .thenReturn(Map.of("workload", "JSON", "cpuUtilizationPercent", 42.0));
+
+        // When & Then
+        mockMvc.perform(get("/api/cpu-workloads/run")
+                        .param("workload", "JSON")
+                        .param("model", "REACTOR_PARALLEL"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.workload").value("JSON"))
+                .andExpect(jsonPath("$.cpuUtilizationPercent").value(42.0));
+    }
+
+    @Test
+    void testCompareWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(cpuWorkloadController).build();
+        when(cpuWorkloadService.compareExecutionModels(CpuWorkload.MIXED, 100, 10))
+                .thenReturn(Map.of("VIRTUAL_THREADS", Map.of(), "PARALLEL_STREAM", Map.of()));
+
+        // When & Then
+        mockMvc.perform(get("/api/cpu-workloads/compare"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.VIRTUAL_THREADS").exists())
+                .andExpect(jsonPath("$.PARALLEL_STREAM").exists());
+    }
+
+    @Test
+    void testRunRejectsNegativeIntensity() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(cpuWorkloadController).build();
+
+        // When & Then
+        mockMvc.perform(get("/api/cpu-workloads/run").param("intensity", "-1"))
+                .andExpect(status().isBadRequest());
+        verify(cpuWorkloadService, never()).run(any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testCompareRejectsTasksAboveTheLimit() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(cpuWorkloadController).build();
+
+        // When & Then
+        mockMvc.perform(get("/api/cpu-workloads/compare").param("tasks", "10001"))
+                .andExpect(status().isBadRequest());
+        verify(cpuWorkloadService, never()).compareExecutionModels(any(), anyInt(), anyInt());
+    }
+}
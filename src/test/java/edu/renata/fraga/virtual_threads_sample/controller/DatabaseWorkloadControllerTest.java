@@ -0,0 +1,103 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.service.DatabaseWorkloadService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatabaseWorkloadControllerTest {
+
+    @Mock
+    private DatabaseWorkloadService databaseWorkloadService;
+
+    @InjectMocks
+    private DatabaseWorkloadController databaseWorkloadController;
+
+    @Test
+    void testJdbcWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(databaseWorkloadController).build();
+        when(databaseWorkloadService.runJdbcOnVirtualThreads(200, 50, 5, 10))
+                .thenReturn(Map.of("strategy", "JDBC + HikariCP on Virtual Threads", "poolSize", 50));
+
+        // When & Then
+        mockMvc.perform(get("/api/database-workloads/jdbc")
+                        .param("queries", "200")
+                        .param("poolSize", "50")
+                        .param("queryLatencyMs", "5")
+                        .param("rows", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.poolSize").value(50));
+    }
+
+    @Test
+    void testR2dbcWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(databaseWorkloadController).build();
+        when(databaseWorkloadService.runR2dbc(1000, 10, 20, 100))
+                .thenReturn(Map.of("strategy", "R2DBC + r2dbc-pool"));
+
+        // When & Then
+        mockMvc.perform(get("/api/database-workloads/r2dbc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.strategy").value("R2DBC + r2dbc-pool"));
+    }
+
+    @Test
+    void testCompareRejectsPoolSizeOutOfRange() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(databaseWorkloadController).build();
+
+        // When & Then
+        mockMvc.perform(get("/api/database-workloads/compare").param("poolSize", "501"))
+                .andExpect(status().isBadRequest());
+        verify(databaseWorkloadService, never()).compare(anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testJdbcRejectsQueriesAboveTheLimit() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(databaseWorkloadController).build();
+
+        // When & Then
+        mockMvc.perform(get("/api/database-workloads/jdbc").param("queries", "100001"))
+                .andExpect(status().isBadRequest());
+        verify(databaseWorkloadService, never()).runJdbcOnVirtualThreads(anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testR2dbcRejectsQueryLatencyAboveTheLimit() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(databaseWorkloadController).build();
+
+        // When & Then
+        mockMvc.perform(get("/api/database-workloads/r2dbc").param("queryLatencyMs", "1001"))
+                .andExpect(status().isBadRequest());
+        verify(databaseWorkloadService, never()).runR2dbc(anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testCompareRejectsRowsAboveTheLimit() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(databaseWorkloadController).build();
+
+        // When & Then
+        mockMvc.perform(get("/api/database-workloads/compare").param("rows", "10001"))
+                .andExpect(status().isBadRequest());
+        verify(databaseWorkloadService, never()).compare(anyInt(), anyInt(), anyInt(), anyInt());
+    }
+}
@@ -0,0 +1,100 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.dataset.DatasetQuery;
+import edu.renata.fraga.virtual_threads_sample.service.DatasetExecutionModel;
+import edu.renata.fraga.virtual_threads_sample.service.DatasetQueryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class DatasetQueryControllerTest {
+
+    @Mock
+    private DatasetQueryService datasetQueryService;
+
+    @InjectMocks
+    private DatasetQueryController datasetQueryController;
+
+    @Test
+    void testQuery() {
+        // Given
+        DatasetQuery query = new DatasetQuery(3, 0, 99, 500, 0, 30, DatasetQuery.Measure.QUANTITY, DatasetQuery.GroupBy.CATEGORY);
+        when(datasetQueryService.query(query, DatasetExecutionModel.PARALLEL_STREAM, 5))
+                .thenReturn(Map.of("executionModel", "PARALLEL_STREAM"));
+
+        // When
+        Map<String, Object> result = datasetQueryController.query(DatasetExecutionModel.PARALLEL_STREAM,
+                3, 0, 99, 500, 0, 30, DatasetQuery.Measure.QUANTITY, DatasetQuery.GroupBy.CATEGORY, 5);
+
+        // Then
+        assertEquals("PARALLEL_STREAM", result.get("executionModel"));
+    }
+
+    @Test
+    void testQueryWithMockMvcUsesDefaults() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(datasetQueryController).build();
+        when(datasetQueryService.query(DatasetQuery.all(), DatasetExecutionModel.VIRTUAL_THREADS, 10))
+                .thenReturn(Map.of("executionModel", "VIRTUAL_THREADS", "latency", Map.of("p99Ms", 12.5)));
+
+        // When & Then
+        mockMvc.perform(get("/api/dataset/query"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.executionModel").value("VIRTUAL_THREADS"))
+                .andExpect(jsonPath("$.latency.p99Ms").value(12.5));
+    }
+
+    @Test
+    void testGenerateAndSweepWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(datasetQueryController).build();
+        when(datasetQueryService.generate(1_000_000, 8, 42L)).thenReturn(Map.of("records", 1_000_000, "partitions", 8));
+        when(datasetQueryService.partitionSweep(eq(100_000L), eq(List.of(1, 8, 64)), eq(42L), any(DatasetQuery.class), eq(2), eq(5)))
+                .thenReturn(Map.of("records", 100_000));
+
+        // When & Then
+        mockMvc.perform(post("/api/dataset").param("records", "1000000").param("partitions", "8"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.partitions").value(8));
+        mockMvc.perform(get("/api/dataset/partition-sweep").param("records", "100000").param("partitionCounts", "1,8,64"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.records").value(100_000));
+    }
+
+    @Test
+    void testInvalidParametersAreRejected() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(datasetQueryController).build();
+
+        mockMvc.perform(get("/api/dataset/query").param("region", "16"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/dataset/query/compare").param("minCategory", "10").param("maxCategory", "5"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/dataset/query").param("iterations", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/dataset/query/compare").param("warmupRounds", "-1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/dataset").param("records", "10").param("partitions", "11"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/dataset/partition-sweep").param("records", "10000000"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(datasetQueryService);
+    }
+}
@@ -0,0 +1,43 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class DiagnosticsControllerTest {
+
+    private final DiagnosticsController diagnosticsController = new DiagnosticsController();
+
+    @Test
+    void testBlockingCalls() {
+        // When
+        Map<String, Object> result = diagnosticsController.blockingCalls();
+
+        // Then
+        assertTrue(result.containsKey("enabled"));
+        assertTrue(result.containsKey("totalViolations"));
+        assertTrue(result.containsKey("countsByEndpoint"));
+        assertTrue(result.containsKey("recentViolations"));
+    }
+
+    @Test
+    void testBlockingCallsWithMockMvc() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(diagnosticsController).build();
+
+        mockMvc.perform(get("/api/diagnostics/blocking-calls"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enabled").exists())
+                .andExpect(jsonPath("$.countsByEndpoint").isMap());
+
+        mockMvc.perform(delete("/api/diagnostics/blocking-calls"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalViolations").value(0));
+    }
+}
@@ -0,0 +1,127 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.jobs.Job;
+import edu.renata.fraga.virtual_threads_sample.jobs.JobService;
+import edu.renata.fraga.virtual_threads_sample.jobs.JobStatus;
+import edu.renata.fraga.virtual_threads_sample.jobs.JobType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobControllerTest {
+
+    @Mock
+    private JobService jobService;
+
+    @Mock
+    private Job job;
+
+    @InjectMocks
+    private JobController jobController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(jobController).build();
+    }
+
+    @Test
+    void testSubmitReturnsAcceptedWithLocation() throws Exception {
+        // Given
+        when(jobService.submit(JobType.FILE_IO_COMPARE, Map.of("files", "10"))).thenReturn(job);
+        when(job.getId()).thenReturn("job-1");
+        when(job.toSummary()).thenReturn(Map.of("jobId", "job-1", "status", "QUEUED"));
+
+        // When & Then
+        mockMvc.perform(post("/api/jobs").param("type", "FILE_IO_COMPARE").param("files", "10"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/jobs/job-1"))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+    }
+
+    @Test
+    void testSubmitWhenLaneIsFullIsTooManyRequests() throws Exception {
+        // Given
+        when(jobService.submit(eq(JobType.CLUSTER_STRESS_TEST), any())).thenThrow(new RejectedExecutionException());
+
+        // When & Then
+        mockMvc.perform(post("/api/jobs").param("type", "CLUSTER_STRESS_TEST"))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    @Test
+    void testSubmitWithInvalidParameterIsBadRequest() throws Exception {
+        // Given
+        when(jobService.submit(eq(JobType.CPU_WORKLOADS_COMPARE), any()))
+                .thenThrow(new IllegalArgumentException("Parameter workload must be one of [MIXED]: FOO"));
+
+        // When & Then
+        mockMvc.perform(post("/api/jobs").param("type", "CPU_WORKLOADS_COMPARE").param("workload", "FOO"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testResultOfRunningJobIsConflict() throws Exception {
+        // Given
+        when(jobService.find("job-1")).thenReturn(Optional.of(job));
+        when(job.getStatus()).thenReturn(JobStatus.RUNNING);
+
+        // When & Then
+        mockMvc.perform(get("/api/jobs/job-1/result"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testResultOfSucceededJob() throws Exception {
+        // Given
+        when(jobService.find("job-1")).thenReturn(Optional.of(job));
+        when(job.getStatus()).thenReturn(JobStatus.SUCCEEDED);
+        when(job.getResult()).thenReturn(Map.of("durationMs", 42));
+
+        // When & Then
+        mockMvc.perform(get("/api/jobs/job-1/result"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.durationMs").value(42));
+    }
+
+    @Test
+    void testUnknownJobIsNotFound() throws Exception {
+        // Given
+        when(jobService.find("missing")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCancelFinishedJobIsConflict() throws Exception {
+        // Given
+        when(jobService.find("job-1")).thenReturn(Optional.of(job));
+        when(jobService.cancel("job-1")).thenReturn(false);
+        when(job.getStatus()).thenReturn(JobStatus.SUCCEEDED);
+
+        // When & Then
+        mockMvc.perform(delete("/api/jobs/job-1"))
+                .andExpect(status().isConflict());
+    }
+}
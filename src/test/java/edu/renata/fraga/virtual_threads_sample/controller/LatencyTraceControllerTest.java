@@ -0,0 +1,72 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.simulation.LatencySimulator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class LatencyTraceControllerTest {
+
+    @Spy
+    private LatencySimulator latencySimulator = new LatencySimulator();
+
+    @InjectMocks
+    private LatencyTraceController latencyTraceController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(latencyTraceController).build();
+    }
+
+    @Test
+    void testLoadCsvAndClear() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/latency-traces/csv")
+                        .contentType("text/csv")
+                        .param("mode", "REPLAY")
+                        .content("latencyMs,error\n10,false\n900,true\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("REPLAY"))
+                .andExpect(jsonPath("$.trace.samples").value(2))
+                .andExpect(jsonPath("$.trace.errorRate").value(0.5));
+
+        mockMvc.perform(get("/api/latency-traces"))
+                .andExpect(jsonPath("$.trace.latency.maxMs").isNumber());
+
+        mockMvc.perform(delete("/api/latency-traces"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("FIXED"));
+    }
+
+    @Test
+    void testReplayArrivalsWithoutArrivalColumnIsBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/latency-traces/csv")
+                        .contentType("text/csv")
+                        .param("replayArrivals", "true")
+                        .content("latencyMs\n10\n"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testInvalidHistogramLogIsBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/latency-traces/hdr-log")
+                        .contentType("text/plain")
+                        .content("#[StartTime: 0]\n"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,88 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.service.PinningBenchmarkService;
+import edu.renata.fraga.virtual_threads_sample.service.PinningScenario;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class PinningBenchmarkControllerTest {
+
+    @Mock
+    private PinningBenchmarkService pinningBenchmarkService;
+
+    @InjectMocks
+    private PinningBenchmarkController pinningBenchmarkController;
+
+    @Test
+    void testRunWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(pinningBenchmarkController).build();
+        when(pinningBenchmarkService.run(PinningScenario.OBJECT_WAIT, 32, 2, 10))
+                .thenReturn(Map.of("scenario", "OBJECT_WAIT", "carrierThreadGrowth", 24));
+
+        // When & Then
+        mockMvc.perform(get("/api/pinning-benchmarks/run")
+                        .param("scenario", "OBJECT_WAIT")
+                        .param("concurrency", "32")
+                        .param("operations", "2")
+                        .param("blockMs", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.carrierThreadGrowth").value(24));
+    }
+
+    @Test
+    void testSweepWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(pinningBenchmarkController).build();
+        when(pinningBenchmarkService.sweep(List.of(8, 64), 3, 20)).thenReturn(Map.of("levels", List.of()));
+
+        // When & Then
+        mockMvc.perform(get("/api/pinning-benchmarks/sweep").param("concurrency", "8,64"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.levels").isArray());
+    }
+
+    @Test
+    void testTooManyOperationsIsBadRequest() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(pinningBenchmarkController).build();
+
+        // When & Then
+        mockMvc.perform(get("/api/pinning-benchmarks/run")
+                        .param("concurrency", "10000")
+                        .param("operations", "100"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testPinningLongerThanTheCarrierBudgetIsBadRequest() throws Exception {
+        // Given - cada leva de threads presas bloquearia todas as carriers por 100 s
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(pinningBenchmarkController).build();
+
+        // When & Then
+        mockMvc.perform(get("/api/pinning-benchmarks/run")
+                        .param("scenario", "SYNCHRONIZED_BLOCKING")
+                        .param("concurrency", "1")
+                        .param("operations", "100")
+                        .param("blockMs", "1000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/pinning-benchmarks/sweep")
+                        .param("concurrency", "1")
+                        .param("operations", "20")
+                        .param("blockMs", "1000"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,69 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.service.HandoffMode;
+import edu.renata.fraga.virtual_threads_sample.service.PipelineBenchmarkService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class PipelineBenchmarkControllerTest {
+
+    @Mock
+    private PipelineBenchmarkService pipelineBenchmarkService;
+
+    @InjectMocks
+    private PipelineBenchmarkController pipelineBenchmarkController;
+
+    @Test
+    void testRunWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(pipelineBenchmarkController).build();
+        when(pipelineBenchmarkService.run(HandoffMode.BLOCKING_QUEUE, 1000, 2, 8, false, 1024))
+                .thenReturn(Map.of("mode", "BLOCKING_QUEUE", "workerThreads", "platform"));
+
+        // When & Then
+        mockMvc.perform(get("/api/pipeline-benchmarks/run")
+                        .param("mode", "BLOCKING_QUEUE")
+                        .param("messages", "1000")
+                        .param("producers", "2")
+                        .param("workers", "8")
+                        .param("virtualWorkers", "false")
+                        .param("bufferSize", "1024"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.workerThreads").value("platform"));
+    }
+
+    @Test
+    void testCompareWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(pipelineBenchmarkController).build();
+        when(pipelineBenchmarkService.compare(1000000, 4, 4, true, 8192))
+                .thenReturn(Map.of("speedups", Map.of("RING_BUFFER_vs_BLOCKING_QUEUE", 3.5)));
+
+        // When & Then
+        mockMvc.perform(get("/api/pipeline-benchmarks/compare"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.speedups.RING_BUFFER_vs_BLOCKING_QUEUE").value(3.5));
+    }
+
+    @Test
+    void testBufferSizeMustBePowerOfTwo() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(pipelineBenchmarkController).build();
+
+        // When & Then
+        mockMvc.perform(get("/api/pipeline-benchmarks/run").param("bufferSize", "1000"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,101 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.service.TracingOverheadService;
+import edu.renata.fraga.virtual_threads_sample.tracing.BatchSpanExporter;
+import edu.renata.fraga.virtual_threads_sample.tracing.InMemoryCollector;
+import edu.renata.fraga.virtual_threads_sample.tracing.Sampler;
+import edu.renata.fraga.virtual_threads_sample.tracing.Tracer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class TracingControllerTest {
+
+    @Spy
+    private Tracer tracer = new Tracer(Sampler.always(), span -> {
+    });
+
+    @Mock
+    private BatchSpanExporter spanExporter;
+
+    @Mock
+    private InMemoryCollector traceCollector;
+
+    @Mock
+    private TracingOverheadService tracingOverheadService;
+
+    @InjectMocks
+    private TracingController tracingController;
+
+    @Test
+    void testBreakdownWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(tracingController).build();
+        when(traceCollector.breakdown("sequential-calls")).thenReturn(Map.of("dominantChild", "call Service B"));
+
+        // When & Then
+        mockMvc.perform(get("/api/tracing/breakdown"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.dominantChild").value("call Service B"));
+    }
+
+    @Test
+    void testUpdateSampling() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(tracingController).build();
+
+        // When & Then
+        mockMvc.perform(put("/api/tracing/sampling")
+                        .param("headRatio", "0.1")
+                        .param("tailEnabled", "true")
+                        .param("tailLatencyMs", "500"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sampling.headRatio").value(0.1))
+                .andExpect(jsonPath("$.sampling.tailLatencyThresholdMs").value(500));
+    }
+
+    @Test
+    void testInvalidHeadRatioIsBadRequest() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(tracingController).build();
+
+        // When & Then
+        mockMvc.perform(put("/api/tracing/sampling").param("headRatio", "1.5"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testUnknownTraceIsNotFound() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(tracingController).build();
+
+        // When & Then
+        mockMvc.perform(get("/api/tracing/traces/0000000000000000000000000000abcd"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testOverheadWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(tracingController).build();
+        when(tracingOverheadService.measure(100_000, 5)).thenReturn(Map.of("overheadPercent", 1.5));
+
+        // When & Then
+        mockMvc.perform(get("/api/tracing/overhead"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.overheadPercent").value(1.5));
+    }
+}
@@ -1,19 +1,36 @@
 package edu.renata.fraga.virtual_threads_sample.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.virtual_threads_sample.concurrent.PriorityAdmission;
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import edu.renata.fraga.virtual_threads_sample.service.FileIoWorkloadService;
+import edu.renata.fraga.virtual_threads_sample.service.FileReadMode;
+import edu.renata.fraga.virtual_threads_sample.service.KeyedOrderingMode;
 import edu.renata.fraga.virtual_threads_sample.service.VirtualThreadService;
+import edu.renata.fraga.virtual_threads_sample.simulation.LatencySimulator;
+import edu.renata.fraga.virtual_threads_sample.simulation.LatencyTrace;
+import edu.renata.fraga.virtual_threads_sample.simulation.ReplayMode;
+import edu.renata.fraga.virtual_threads_sample.web.RequestClassContext;
+import edu.renata.fraga.virtual_threads_sample.websocket.ProgressFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.Duration;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -24,48 +41,85 @@ class VirtualThreadControllerTest {
     @Mock
     private VirtualThreadService virtualThreadService;
 
+    @Mock
+    private FileIoWorkloadService fileIoWorkloadService;
+
+    @Spy
+    private ProgressFeed progressFeed = new ProgressFeed(new ObjectMapper(), Duration.ofMillis(100));
+
+    @Spy
+    private PriorityAdmission taskAdmission = new PriorityAdmission("tasks", 10_000, Duration.ofSeconds(2),
+            new SimpleMeterRegistry());
+
+    @Spy
+    private LatencySimulator latencySimulator = new LatencySimulator();
+
     @InjectMocks
     private VirtualThreadController virtualThreadController;
 
     private MockMvc mockMvc;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(virtualThreadController, "submissionWindow", 10_000);
+    }
+
     @Test
     void testCompareThreads() {
         // Given
-        when(virtualThreadService.processWithVirtualThreads(anyInt()))
-                .thenReturn("Virtual Threads: Processed 100 tasks in 1.2s");
-        when(virtualThreadService.processWithPlatformThreads(anyInt()))
-                .thenReturn("Platform Threads: Processed 100 tasks in 2.1s");
+        when(virtualThreadService.compareThreads(100, 2, 5, 42L)).thenReturn(comparison());
 
         // When
-        Map<String, String> result = virtualThreadController.compareThreads(100);
+        Map<String, Object> result = virtualThreadController.compareThreads(100, 2, 5, 42L);
 
         // Then
         assertNotNull(result);
         assertTrue(result.containsKey("virtualThreads"));
         assertTrue(result.containsKey("platformThreads"));
         assertTrue(result.containsKey("currentThread"));
-        assertEquals("Virtual Threads: Processed 100 tasks in 1.2s", result.get("virtualThreads"));
-        assertEquals("Platform Threads: Processed 100 tasks in 2.1s", result.get("platformThreads"));
+        assertEquals(false, ((Map<?, ?>) result.get("comparison")).get("significant"));
     }
 
     @Test
     void testCompareThreadsWithMockMvc() throws Exception {
         // Given
         mockMvc = MockMvcBuilders.standaloneSetup(virtualThreadController).build();
-        
-        when(virtualThreadService.processWithVirtualThreads(anyInt()))
-                .thenReturn("Virtual Threads: Processed 50 tasks in 0.8s");
-        when(virtualThreadService.processWithPlatformThreads(anyInt()))
-                .thenReturn("Platform Threads: Processed 50 tasks in 1.5s");
+        when(virtualThreadService.compareThreads(50, 2, 5, 42L)).thenReturn(comparison());
 
         // When & Then
         mockMvc.perform(get("/api/virtual-threads/compare")
                         .param("tasks", "50"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.virtualThreads").exists())
+                .andExpect(jsonPath("$.virtualThreads.meanMs").value(104.2))
                 .andExpect(jsonPath("$.platformThreads").exists())
-                .andExpect(jsonPath("$.currentThread").exists());
+                .andExpect(jsonPath("$.currentThread").exists())
+                .andExpect(jsonPath("$.comparison.verdict").exists())
+                .andExpect(jsonPath("$.schedulingDelay.platformThreads.p99Ms").value(1.0))
+                .andExpect(jsonPath("$.serviceTime.virtualThreads.p99Ms").value(100.0));
+    }
+
+    @Test
+    void testCompareThreadsRejectsInvalidRounds() throws Exception {
+        mockMvc = MockMvcBuilders.standaloneSetup(virtualThreadController).build();
+
+        // Uma rodada só não permite estimar a variância
+        mockMvc.perform(get("/api/virtual-threads/compare").param("rounds", "1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/virtual-threads/compare").param("warmupRounds", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static Map<String, Object> comparison() {
+        return Map.of(
+                "virtualThreads", Map.of("n", 5, "meanMs", 104.2),
+                "platformThreads", Map.of("n", 5, "meanMs", 105.0),
+                "comparison", Map.of("significant", false, "verdict", "No significant difference at 95% confidence"),
+                "schedulingDelay", Map.of(
+                        "virtualThreads", Map.of("count", 1, "p99Ms", 1.0),
+                        "platformThreads", Map.of("count", 1, "p99Ms", 1.0)),
+                "serviceTime", Map.of(
+                        "virtualThreads", Map.of("count", 1, "p99Ms", 100.0),
+                        "platformThreads", Map.of("count", 1, "p99Ms", 100.0)));
     }
 
     @Test
@@ -125,6 +179,90 @@ class VirtualThreadControllerTest {
                 .andExpect(content().string("Completed 3 blocking operations successfully"));
     }
 
+    @Test
+    void testPooledBlockingWithMockMvc() throws Exception {
+        // Given
+        mockMvc = MockMvcBuilders.standaloneSetup(virtualThreadController).build();
+        when(virtualThreadService.processWithScarceResource(1000, 5, 2, 30_000))
+                .thenReturn(Map.of("completed", 1000, "pool", Map.of("peakWaiting", 995)));
+
+        // When & Then
+        mockMvc.perform(get("/api/virtual-threads/pooled-blocking")
+                        .param("operations", "1000")
+                        .param("poolSize", "5")
+                        .param("holdMs", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pool.peakWaiting").value(995));
+
+        mockMvc.perform(get("/api/virtual-threads/pooled-blocking").param("poolSize", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testKeyedOperationsWithMockMvc() throws Exception {
+        // Given
+        mockMvc = MockMvcBuilders.standaloneSetup(virtualThreadController).build();
+        when(virtualThreadService.processKeyedOperations(KeyedOrderingMode.SYNCHRONIZED_STRIPES, 1000, 10, 4, 1, 1000))
+                .thenReturn(Map.of("mode", "SYNCHRONIZED_STRIPES", "orderViolations", 0));
+
+        // When & Then
+        mockMvc.perform(get("/api/virtual-threads/keyed")
+                        .param("mode", "SYNCHRONIZED_STRIPES")
+                        .param("operations", "1000")
+                        .param("keys", "10")
+                        .param("stripes", "4")
+                        .param("holdMs", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("SYNCHRONIZED_STRIPES"));
+
+        mockMvc.perform(get("/api/virtual-threads/keyed").param("keys", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/virtual-threads/keyed/compare").param("maxMailboxSize", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testKeyedOperationsLongerThanTheSerialBudgetIsBadRequest() throws Exception {
+        // Given: 100000 operações de 100 ms em 4 faixas ficam ~2500 s serializadas
+        mockMvc = MockMvcBuilders.standaloneSetup(virtualThreadController).build();
+
+        // When & Then
+        mockMvc.perform(get("/api/virtual-threads/keyed")
+                        .param("mode", "SYNCHRONIZED_STRIPES")
+                        .param("operations", "100000")
+                        .param("keys", "100")
+                        .param("stripes", "4")
+                        .param("holdMs", "100"))
+                .andExpect(status().isBadRequest());
+        // Só o modo SYNCHRONIZED_STRIPES já estima 20000 operações × 5 ms / 2 faixas = 50000 ms
+        mockMvc.perform(get("/api/virtual-threads/keyed/compare")
+                        .param("operations", "20000")
+                        .param("keys", "100")
+                        .param("stripes", "2")
+                        .param("holdMs", "5"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testKeyedSerialBudgetUsesTheLoadedTraceLatency() throws Exception {
+        // Given: com o trace, cada operação pode esperar 1000 ms em vez do holdMs=1 pedido
+        mockMvc = MockMvcBuilders.standaloneSetup(virtualThreadController).build();
+        latencySimulator.load(LatencyTrace.fromCsv("""
+                latencyMs
+                1
+                1000
+                """), ReplayMode.REPLAY, false, 42L);
+
+        // When & Then
+        mockMvc.perform(get("/api/virtual-threads/keyed")
+                        .param("mode", "SYNCHRONIZED_STRIPES")
+                        .param("operations", "1000")
+                        .param("keys", "10")
+                        .param("stripes", "4")
+                        .param("holdMs", "1"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testManualVirtualThreadCreation() {
         // Given
@@ -176,6 +314,8 @@ class VirtualThreadControllerTest {
         assertTrue(result.containsKey("isDaemon"));
         assertTrue(result.containsKey("state"));
         assertTrue(result.containsKey("priority"));
+        assertEquals(false, result.get("priorityEffective"));
+        assertEquals("interactive", result.get("requestClass"));
     }
 
     @Test
@@ -187,5 +327,70 @@ class VirtualThreadControllerTest {
         assertNotNull(result);
         assertTrue(result.contains("Stress test completed"));
         assertTrue(result.contains("1000 tasks"));
+        verify(progressFeed).track("stress-test", 1000);
+    }
+
+    @Test
+    void testStressTestUsesConfiguredSubmissionWindow() {
+        // Given
+        ReflectionTestUtils.setField(virtualThreadController, "submissionWindow", 5);
+
+        // When
+        String result = virtualThreadController.stressTest(20);
+
+        // Then
+        assertTrue(result.contains("max 5 in flight"), result);
+    }
+
+    @Test
+    void testStressTestTasksAreAdmittedInRequestClass() {
+        // Given
+        RequestClassContext.set(RequestClass.BENCHMARK);
+
+        // When
+        try {
+            virtualThreadController.stressTest(100);
+        } finally {
+            RequestClassContext.clear();
+        }
+
+        // Then
+        assertEquals(100L, admitted(RequestClass.BENCHMARK));
+        assertEquals(0L, admitted(RequestClass.INTERACTIVE));
+    }
+
+    @Test
+    void testFileIoWithMockMvc() throws Exception {
+        // Given
+        mockMvc = MockMvcBuilders.standaloneSetup(virtualThreadController).build();
+        when(fileIoWorkloadService.run(FileReadMode.MEMORY_MAPPED, 10, 64))
+                .thenReturn(Map.of("mode", "MEMORY_MAPPED", "carrierThreadGrowth", 0));
+
+        // When & Then
+        mockMvc.perform(get("/api/virtual-threads/file-io")
+                        .param("mode", "MEMORY_MAPPED")
+                        .param("files", "10")
+                        .param("fileSizeKb", "64"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("MEMORY_MAPPED"))
+                .andExpect(jsonPath("$.carrierThreadGrowth").value(0));
+    }
+
+    @Test
+    void testCompareFileIoRejectsOversizedDataset() throws Exception {
+        // Given
+        mockMvc = MockMvcBuilders.standaloneSetup(virtualThreadController).build();
+
+        // When & Then
+        mockMvc.perform(get("/api/virtual-threads/file-io/compare")
+                        .param("files", "10000")
+                        .param("fileSizeKb", "1024"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @SuppressWarnings("unchecked")
+    private long admitted(RequestClass requestClass) {
+        Map<String, Object> classes = (Map<String, Object>) taskAdmission.stats().get("classes");
+        return (Long) ((Map<String, Object>) classes.get(requestClass.tag())).get("admitted");
     }
 }
@@ -1,17 +1,29 @@
 package edu.renata.fraga.virtual_threads_sample.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.renata.fraga.virtual_threads_sample.simulation.LatencySimulator;
+import edu.renata.fraga.virtual_threads_sample.simulation.LatencyTrace;
+import edu.renata.fraga.virtual_threads_sample.simulation.ReplayMode;
+import edu.renata.fraga.virtual_threads_sample.tracing.InMemoryCollector;
+import edu.renata.fraga.virtual_threads_sample.tracing.Sampler;
+import edu.renata.fraga.virtual_threads_sample.tracing.SpanData;
+import edu.renata.fraga.virtual_threads_sample.tracing.Tracer;
+import edu.renata.fraga.virtual_threads_sample.websocket.ProgressFeed;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.server.ResponseStatusException;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
 import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Executor;
 
@@ -29,6 +41,14 @@ class WebFluxVirtualThreadControllerTest {
     @InjectMocks
     private WebFluxVirtualThreadController controller;
 
+    private final LatencySimulator latencySimulator = new LatencySimulator();
+
+    private final ProgressFeed progressFeed = new ProgressFeed(new ObjectMapper(), Duration.ofMillis(100));
+
+    private final InMemoryCollector traceCollector = new InMemoryCollector(100, 10_000);
+
+    private final Tracer tracer = new Tracer(Sampler.always(), span -> traceCollector.export(List.of(span)));
+
     @BeforeEach
     void setUp() {
         // Use o scheduler padrão para testes
@@ -42,6 +62,18 @@ class WebFluxVirtualThreadControllerTest {
             var executorField = WebFluxVirtualThreadController.class.getDeclaredField("virtualThreadExecutor");
             executorField.setAccessible(true);
             executorField.set(controller, (Executor) Runnable::run);
+
+            var latencySimulatorField = WebFluxVirtualThreadController.class.getDeclaredField("latencySimulator");
+            latencySimulatorField.setAccessible(true);
+            latencySimulatorField.set(controller, latencySimulator);
+
+            var progressFeedField = WebFluxVirtualThreadController.class.getDeclaredField("progressFeed");
+            progressFeedField.setAccessible(true);
+            progressFeedField.set(controller, progressFeed);
+
+            var tracerField = WebFluxVirtualThreadController.class.getDeclaredField("tracer");
+            tracerField.setAccessible(true);
+            tracerField.set(controller, tracer);
         } catch (Exception e) {
             // Fallback - continue with mock
         }
@@ -127,6 +159,58 @@ class WebFluxVirtualThreadControllerTest {
                 .verifyComplete();
     }
 
+    @Test
+    void testSequentialCallsBreakdownShowsServiceBDominates() {
+        // When
+        StepVerifier.create(controller.sequentialCalls())
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Then: A 300 ms, B 400 ms, C 200 ms
+        Map<String, Object> breakdown = traceCollector.breakdown("sequential-calls");
+        assertEquals(1L, breakdown.get("spans"));
+        assertEquals("call Service B", breakdown.get("dominantChild"));
+        List<?> children = (List<?>) breakdown.get("children");
+        assertEquals(3, children.size());
+        assertTrue((Double) ((Map<?, ?>) children.get(0)).get("shareOfParent") > 0.4);
+    }
+
+    @Test
+    void testStressTestReactiveTasksAreChildrenOfTheRunAcrossSubscribeOn() {
+        // When
+        StepVerifier.create(controller.stressTestReactive(20))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        // Then
+        Map<String, Object> breakdown = traceCollector.breakdown("stress-test-reactive");
+        assertEquals(1L, breakdown.get("spans"));
+        Map<?, ?> tasks = (Map<?, ?>) ((List<?>) breakdown.get("children")).get(0);
+        assertEquals("stress-test-reactive.task", tasks.get("name"));
+        assertEquals(20L, tasks.get("count"));
+    }
+
+    @Test
+    void testStressTestReactiveTracksProgressOnlyWhileSubscribed() {
+        // Given: montado e nunca inscrito
+        Mono<Map<String, Object>> assembled = controller.stressTestReactive(20);
+
+        // Then
+        assertEquals(0, progressFeed.stats().get("workloadsInProgress"));
+
+        // When: inscrito e cancelado no meio
+        StepVerifier.create(controller.stressTestReactive(1_000))
+                .thenAwait(Duration.ofMillis(20))
+                .then(() -> assertEquals(1, progressFeed.stats().get("workloadsInProgress")))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(0, progressFeed.stats().get("workloadsInProgress"));
+        StepVerifier.create(assembled).expectNextCount(1).verifyComplete();
+        assertEquals(0, progressFeed.stats().get("workloadsInProgress"));
+    }
+
     @Test
     void testErrorHandling() {
         // When
@@ -178,6 +262,7 @@ class WebFluxVirtualThreadControllerTest {
                     assertTrue(response.containsKey("priority"));
                     assertTrue(response.containsKey("state"));
                     assertTrue(response.containsKey("scheduler"));
+                    assertEquals("interactive", response.get("requestClass"));
                     return true;
                 })
                 .verifyComplete();
@@ -252,9 +337,110 @@ class WebFluxVirtualThreadControllerTest {
                     assertTrue(response.containsKey("virtualThreadsUsed"));
                     assertTrue(response.containsKey("durationMs"));
                     assertTrue(response.containsKey("tasksPerSecond"));
+                    Map<?, ?> schedulingDelay = (Map<?, ?>) response.get("schedulingDelay");
+                    Map<?, ?> serviceTime = (Map<?, ?>) response.get("serviceTime");
+                    assertEquals(50L, schedulingDelay.get("count"));
+                    assertEquals(50L, serviceTime.get("count"));
+                    assertTrue((Double) serviceTime.get("p50Ms") >= 10.0);
                     
                     return true;
                 })
                 .verifyComplete();
     }
+
+    @Test
+    void testSchedulerBenchmark() {
+        // When
+        Mono<Map<String, Object>> result = controller.schedulerBenchmark("stress-test-reactive", 20);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextMatches(response -> {
+                    assertEquals("stress-test-reactive", response.get("workload"));
+                    assertTrue(response.get("virtualThreadScheduler") instanceof Map);
+                    assertTrue(response.get("boundedElastic") instanceof Map);
+                    Map<?, ?> boundedElastic = (Map<?, ?>) response.get("boundedElastic");
+                    assertEquals(20, boundedElastic.get("completedTasks"));
+                    assertEquals(0L, boundedElastic.get("rejectedTasks"));
+                    return true;
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testCompareSchedulersCountsFailuresPerScheduler() {
+        // Given - todas as chamadas do trace falham
+        latencySimulator.load(LatencyTrace.fromCsv("""
+                arrivalMs,latencyMs,error
+                0,5,503
+                """), ReplayMode.REPLAY, false, 1);
+
+        // When
+        Mono<Map<String, Object>> result = controller.compareSchedulers(3);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextMatches(response -> {
+                    Map<?, ?> failedTasks = (Map<?, ?>) response.get("failedTasks");
+                    assertEquals(3L, failedTasks.get("virtualThreadScheduler"));
+                    assertEquals(3L, failedTasks.get("boundedElastic"));
+                    assertTrue(((String) response.get("virtualThreadResult")).contains("completed 0 tasks, 3 failed"));
+                    return true;
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testSchedulerBenchmarkReplaysTraceArrivalsAndErrors() {
+        // Given
+        latencySimulator.load(LatencyTrace.fromCsv("""
+                arrivalMs,latencyMs,error
+                0,5,200
+                50,5,200
+                100,5,503
+                """), ReplayMode.REPLAY, true, 1);
+
+        // When
+        Mono<Map<String, Object>> result = controller.schedulerBenchmark("stress-test-reactive", 3);
+
+        // Then
+        StepVerifier.create(result)
+                .expectNextMatches(response -> {
+                    Map<?, ?> boundedElastic = (Map<?, ?>) response.get("boundedElastic");
+                    assertEquals(2, boundedElastic.get("completedTasks"));
+                    assertEquals(1L, boundedElastic.get("failedTasks"));
+                    assertTrue((Long) boundedElastic.get("durationMs") >= 100);
+                    return true;
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void testQueueingOnSaturatedSchedulerShowsAsSchedulingDelay() throws Exception {
+        // Given - um scheduler de uma thread só: 20 tarefas de 10 ms esperam umas pelas outras
+        Scheduler singleThread = Schedulers.newSingle("saturated");
+        try {
+            var schedulerField = WebFluxVirtualThreadController.class.getDeclaredField("virtualThreadScheduler");
+            schedulerField.setAccessible(true);
+            schedulerField.set(controller, singleThread);
+
+            // When
+            Map<String, Object> stressTest = controller.stressTestReactive(20).block(Duration.ofSeconds(10));
+            Map<String, Object> benchmark = controller.schedulerBenchmark("stress-test-reactive", 20).block(Duration.ofSeconds(10));
+
+            // Then - a tarefa mediana esperou cerca de 10 tarefas na fila
+            Map<?, ?> stressTestDelay = (Map<?, ?>) stressTest.get("schedulingDelay");
+            assertTrue((Double) stressTestDelay.get("p50Ms") >= 50.0, "stress-test p50 " + stressTestDelay.get("p50Ms"));
+            Map<?, ?> virtualResult = (Map<?, ?>) benchmark.get("virtualThreadScheduler");
+            Map<?, ?> benchmarkDelay = (Map<?, ?>) virtualResult.get("schedulingDelay");
+            assertTrue((Double) benchmarkDelay.get("p50Ms") >= 50.0, "benchmark p50 " + benchmarkDelay.get("p50Ms"));
+        } finally {
+            singleThread.dispose();
+        }
+    }
+
+    @Test
+    void testSchedulerBenchmarkWithUnknownWorkload() {
+        assertThrows(ResponseStatusException.class, () -> controller.schedulerBenchmark("unknown", 10));
+    }
 }
@@ -0,0 +1,71 @@
+package edu.renata.fraga.virtual_threads_sample.controller;
+
+import edu.renata.fraga.virtual_threads_sample.websocket.FanoutModel;
+import edu.renata.fraga.virtual_threads_sample.websocket.ProgressFeed;
+import edu.renata.fraga.virtual_threads_sample.websocket.WebSocketLoadHarness;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebSocketFanoutControllerTest {
+
+    @Mock
+    private ProgressFeed progressFeed;
+
+    @Mock
+    private WebSocketLoadHarness webSocketLoadHarness;
+
+    @InjectMocks
+    private WebSocketFanoutController webSocketFanoutController;
+
+    @Test
+    void testStatsListsEndpoints() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(webSocketFanoutController).build();
+        when(progressFeed.stats()).thenReturn(Map.of("framesPublished", 42));
+
+        // When & Then
+        mockMvc.perform(get("/api/websocket-fanout"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.endpoints.REACTIVE_SHARED_PUBLISHER").value("/ws/progress/reactive"))
+                .andExpect(jsonPath("$.framesPublished").value(42));
+    }
+
+    @Test
+    void testHarnessWithMockMvc() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(webSocketFanoutController).build();
+        when(webSocketLoadHarness.run(FanoutModel.REACTIVE_SHARED_PUBLISHER, 5000, Duration.ofMillis(2000)))
+                .thenReturn(Map.of("connected", 5000, "heapPerConnectionBytes", 9000));
+
+        // When & Then
+        mockMvc.perform(get("/api/websocket-fanout/harness")
+                        .param("model", "REACTIVE_SHARED_PUBLISHER")
+                        .param("connections", "5000")
+                        .param("measureMs", "2000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.connected").value(5000));
+    }
+
+    @Test
+    void testTooManyConnectionsIsBadRequest() throws Exception {
+        // Given
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(webSocketFanoutController).build();
+
+        // When & Then
+        mockMvc.perform(get("/api/websocket-fanout/harness/compare").param("connections", "100001"))
+                .andExpect(status().isBadRequest());
+    }
+}
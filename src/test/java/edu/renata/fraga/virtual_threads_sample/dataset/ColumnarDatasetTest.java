@@ -0,0 +1,114 @@
+package edu.renata.fraga.virtual_threads_sample.dataset;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarDatasetTest {
+
+    @Test
+    void testRecordsAreSplitIntoPartitionsOfEqualSize() {
+        // When
+        ColumnarDataset dataset = ColumnarDataset.generate(1_003, 4, 42L);
+
+        // Then - a divisão não é exata: as três primeiras partições recebem uma venda a mais
+        List<Partition> partitions = dataset.partitions();
+        assertEquals(4, partitions.size());
+        assertEquals(List.of(251, 251, 251, 250), partitions.stream().map(Partition::size).toList());
+        assertEquals(0L, partitions.get(0).firstRecord());
+        assertEquals(753L, partitions.get(3).firstRecord());
+        assertEquals(1_003L, dataset.records());
+    }
+
+    @Test
+    void testSameSeedGivesSameResultWithAnyPartitionCount() {
+        // Given
+        DatasetQuery query = new DatasetQuery(3, 0, 199, 5_000, 30, 200,
+                DatasetQuery.Measure.REVENUE_CENTS, DatasetQuery.GroupBy.CATEGORY);
+
+        // When
+        Map<String, Object> onePartition = scanAll(ColumnarDataset.generate(100_000, 1, 7L), query).toMap();
+        Map<String, Object> manyPartitions = scanAll(ColumnarDataset.generate(100_000, 37, 7L), query).toMap();
+        Map<String, Object> otherSeed = scanAll(ColumnarDataset.generate(100_000, 37, 8L), query).toMap();
+
+        // Then
+        assertEquals(onePartition, manyPartitions);
+        assertNotEquals(onePartition, otherSeed);
+    }
+
+    @Test
+    void testScanMatchesFiltersAndAggregates() {
+        // Given
+        ColumnarDataset dataset = ColumnarDataset.generate(200_000, 8, 42L);
+
+        // When
+        PartialAggregate all = scanAll(dataset, DatasetQuery.all());
+        PartialAggregate byRegion = scanAll(dataset, new DatasetQuery(DatasetQuery.ANY_REGION, 0, ColumnarDataset.CATEGORIES - 1,
+                0, 0, ColumnarDataset.DAYS - 1, DatasetQuery.Measure.REVENUE_CENTS, DatasetQuery.GroupBy.REGION));
+        PartialAggregate oneRegion = scanAll(dataset, new DatasetQuery(5, 0, ColumnarDataset.CATEGORIES - 1,
+                0, 0, ColumnarDataset.DAYS - 1, DatasetQuery.Measure.QUANTITY, DatasetQuery.GroupBy.NONE));
+
+        // Then - sem filtro todas as vendas passam, e o total agrupado é o mesmo
+        assertEquals(200_000L, all.scannedRecords());
+        assertEquals(200_000L, all.matchedRecords());
+        assertEquals(all.sum(), byRegion.sum());
+        assertEquals(ColumnarDataset.REGIONS, ((List<?>) byRegion.toMap().get("groups")).size());
+        // Cada região tem perto de 1/16 das vendas, com quantidades de 1 a 100
+        assertTrue(oneRegion.matchedRecords() > 11_000 && oneRegion.matchedRecords() < 14_000);
+        Map<String, Object> total = oneRegion.toMap();
+        assertEquals(1L, total.get("min"));
+        assertEquals(100L, total.get("max"));
+        assertEquals(50.5, (Double) total.get("avg"), 1.0);
+    }
+
+    @Test
+    void testCategoriesAreSkewedTowardsTheFirstOnes() {
+        // Given
+        ColumnarDataset dataset = ColumnarDataset.generate(100_000, 4, 42L);
+        DatasetQuery firstTenth = new DatasetQuery(DatasetQuery.ANY_REGION, 0, 99, 0, 0, ColumnarDataset.DAYS - 1,
+                DatasetQuery.Measure.QUANTITY, DatasetQuery.GroupBy.NONE);
+
+        // When
+        long matched = scanAll(dataset, firstTenth).matchedRecords();
+
+        // Then - com categoria = u² * 1000, 10% das categorias ficam com raiz(0,1) ≈ 32% das vendas
+        assertTrue(matched > 30_000 && matched < 34_000, "matched " + matched);
+    }
+
+    @Test
+    void testFootprintCountsPrimitiveColumns() {
+        // When
+        ColumnarDataset dataset = ColumnarDataset.generate(1_000_000, 1, 42L);
+
+        // Then - 1 + 2 + 2 + 4 + 8 bytes por venda, mais os cabeçalhos dos arrays
+        assertEquals(17_000_080L, dataset.footprintBytes());
+        assertEquals(17.0, (Double) dataset.describe().get("bytesPerRecord"), 0.001);
+    }
+
+    @Test
+    void testInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ColumnarDataset.generate(0, 1, 42L));
+        assertThrows(IllegalArgumentException.class, () -> ColumnarDataset.generate(10, 11, 42L));
+        assertThrows(IllegalArgumentException.class, () -> new DatasetQuery(16, 0, 10, 0, 0, 10,
+                DatasetQuery.Measure.QUANTITY, DatasetQuery.GroupBy.NONE));
+        assertThrows(IllegalArgumentException.class, () -> new DatasetQuery(-1, 10, 5, 0, 0, 10,
+                DatasetQuery.Measure.QUANTITY, DatasetQuery.GroupBy.NONE));
+        assertThrows(IllegalArgumentException.class, () -> new DatasetQuery(-1, 0, 10, 0, 0, 365,
+                DatasetQuery.Measure.QUANTITY, DatasetQuery.GroupBy.NONE));
+    }
+
+    @Test
+    void testAggregatesWithDifferentGroupingCannotBeMerged() {
+        assertThrows(IllegalArgumentException.class, () -> PartialAggregate.empty(DatasetQuery.GroupBy.NONE)
+                .merge(PartialAggregate.empty(DatasetQuery.GroupBy.REGION)));
+    }
+
+    private static PartialAggregate scanAll(ColumnarDataset dataset, DatasetQuery query) {
+        return dataset.partitions().stream()
+                .map(partition -> partition.scan(query))
+                .reduce(PartialAggregate.empty(query.groupBy()), PartialAggregate::merge);
+    }
+}
@@ -0,0 +1,118 @@
+package edu.renata.fraga.virtual_threads_sample.diagnostics;
+
+import edu.renata.fraga.virtual_threads_sample.controller.WebFluxVirtualThreadController;
+import edu.renata.fraga.virtual_threads_sample.simulation.LatencySimulator;
+import edu.renata.fraga.virtual_threads_sample.tracing.Tracer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// BlockHound.install vale para a JVM inteira: roda na task blockHoundTest, em uma JVM própria
+@Tag("blockhound")
+class BlockingCallDetectorTest {
+
+    private final BlockingCallDetector detector = BlockingCallDetector.getInstance();
+
+    @BeforeAll
+    static void installDetector() {
+        BlockingCallDetector.getInstance().install();
+    }
+
+    @AfterEach
+    void tearDown() {
+        EndpointContext.clear();
+    }
+
+    @Test
+    void testBlockingCallOnParallelSchedulerIsDetected() {
+        // Given
+        EndpointContext.set("GET /test/blocking-on-parallel");
+
+        // When
+        Mono.fromCallable(() -> {
+                    Thread.sleep(5);
+                    return true;
+                })
+                .subscribeOn(Schedulers.parallel())
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertTrue(detector.isInstalled());
+        assertTrue(detector.violationsFor("GET /test/blocking-on-parallel") >= 1);
+        BlockingCallViolation violation = detector.recentViolations().stream()
+                .filter(v -> v.endpoint().equals("GET /test/blocking-on-parallel"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(violation.threadName().startsWith("parallel-"));
+        assertTrue(violation.blockingMethod().contains("sleep"));
+        assertFalse(violation.stackTrace().isEmpty());
+    }
+
+    @Test
+    void testBlockingCallOnBoundedElasticIsAllowed() {
+        // Given
+        EndpointContext.set("GET /test/blocking-on-elastic");
+
+        // When
+        Mono.fromCallable(() -> {
+                    Thread.sleep(5);
+                    return true;
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .block(Duration.ofSeconds(5));
+
+        // Then
+        assertEquals(0, detector.violationsFor("GET /test/blocking-on-elastic"));
+    }
+
+    @Test
+    void testCompareSchedulersDoesNotBlockSubscribingThread() {
+        // Given
+        WebFluxVirtualThreadController controller = new WebFluxVirtualThreadController();
+        ReflectionTestUtils.setField(controller, "virtualThreadScheduler", Schedulers.boundedElastic());
+        ReflectionTestUtils.setField(controller, "latencySimulator", new LatencySimulator());
+        ReflectionTestUtils.setField(controller, "tracer", Tracer.disabled());
+
+        // When - inscrição feita em uma thread não bloqueante, como um event loop
+        Map<String, Object> result = Mono.defer(() -> {
+                    EndpointContext.set("GET /compare-schedulers");
+                    return controller.compareSchedulers(3);
+                })
+                .subscribeOn(Schedulers.parallel())
+                .block(Duration.ofSeconds(10));
+
+        // Then
+        assertNotNull(result);
+        assertEquals(0, detector.violationsFor("GET /compare-schedulers"));
+    }
+
+    @Test
+    void testRecentViolationsAreBounded() {
+        EndpointContext.set("GET /test/many");
+        Mono.fromRunnable(() -> {
+                    for (int i = 0; i < 150; i++) {
+                        try {
+                            Thread.sleep(0, 1);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                })
+                .subscribeOn(Schedulers.parallel())
+                .block(Duration.ofSeconds(5));
+
+        List<BlockingCallViolation> recent = detector.recentViolations();
+        assertTrue(recent.size() <= 100);
+        assertTrue(detector.countsByEndpoint().get("GET /test/many") >= 100);
+    }
+}
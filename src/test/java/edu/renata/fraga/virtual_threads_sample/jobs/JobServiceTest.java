@@ -0,0 +1,230 @@
+package edu.renata.fraga.virtual_threads_sample.jobs;
+
+import edu.renata.fraga.virtual_threads_sample.service.CpuWorkloadService;
+import edu.renata.fraga.virtual_threads_sample.service.DatabaseWorkloadService;
+import edu.renata.fraga.virtual_threads_sample.service.DistributedStressTestService;
+import edu.renata.fraga.virtual_threads_sample.service.FileIoWorkloadService;
+import edu.renata.fraga.virtual_threads_sample.service.VirtualThreadService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JobServiceTest {
+
+    @Mock
+    private VirtualThreadService virtualThreadService;
+    @Mock
+    private CpuWorkloadService cpuWorkloadService;
+    @Mock
+    private DatabaseWorkloadService databaseWorkloadService;
+    @Mock
+    private FileIoWorkloadService fileIoWorkloadService;
+    @Mock
+    private DistributedStressTestService distributedStressTestService;
+
+    private JobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        jobService = new JobService(virtualThreadService, cpuWorkloadService, databaseWorkloadService,
+                fileIoWorkloadService, distributedStressTestService, 1, 1, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    void testJobRunsOnJobLaneAndCollectsResults() throws Exception {
+        // Given
+        when(virtualThreadService.compareThreads(50, 1, 3, 7L)).thenAnswer(invocation ->
+                Map.of("thread", Thread.currentThread().getName()));
+
+        // When
+        Job job = jobService.submit(JobType.VIRTUAL_THREADS_COMPARE,
+                Map.of("tasks", "50", "warmupRounds", "1", "rounds", "3", "seed", "7"));
+        awaitFinished(job);
+
+        // Then
+        assertEquals(JobStatus.SUCCEEDED, job.getStatus());
+        assertEquals(Map.of("thread", "job-lane-1"), job.getResult());
+        assertEquals(1.0, job.toSummary().get("progress"));
+    }
+
+    @Test
+    void testFullLaneRejectsSubmission() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(distributedStressTestService.coordinate(10, 0, true)).thenAnswer(invocation -> {
+            release.await();
+            return Map.of();
+        });
+        Job running = jobService.submit(JobType.CLUSTER_STRESS_TEST, Map.of("tasks", "10", "taskDurationMs", "0"));
+        Job queued = jobService.submit(JobType.CLUSTER_STRESS_TEST, Map.of("tasks", "10", "taskDurationMs", "0"));
+
+        // When & Then
+        assertThrows(RejectedExecutionException.class,
+                () -> jobService.submit(JobType.CLUSTER_STRESS_TEST, Map.of()));
+        assertEquals(2, jobService.list().size());
+
+        release.countDown();
+        awaitFinished(running);
+        awaitFinished(queued);
+        assertEquals(JobStatus.SUCCEEDED, queued.getStatus());
+    }
+
+    @Test
+    void testCancelInterruptsRunningJob() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        when(distributedStressTestService.coordinate(10_000, 100, true)).thenAnswer(invocation -> {
+            started.countDown();
+            Thread.sleep(60_000);
+            return Map.of();
+        });
+        Job job = jobService.submit(JobType.CLUSTER_STRESS_TEST, Map.of());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        boolean cancelled = jobService.cancel(job.getId());
+
+        // Then
+        assertTrue(cancelled);
+        assertEquals(JobStatus.CANCELLED, job.getStatus());
+        assertFalse(jobService.cancel(job.getId()));
+        assertNull(job.getResult());
+    }
+
+    @Test
+    void testCancelledQueuedJobNeverRuns() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(distributedStressTestService.coordinate(10_000, 100, true)).thenAnswer(invocation -> {
+            release.await();
+            return Map.of();
+        });
+        Job running = jobService.submit(JobType.CLUSTER_STRESS_TEST, Map.of());
+        Job queued = jobService.submit(JobType.FILE_IO_COMPARE, Map.of());
+
+        // When
+        assertTrue(jobService.cancel(queued.getId()));
+        release.countDown();
+        awaitFinished(running);
+
+        // Then
+        assertEquals(JobStatus.CANCELLED, queued.getStatus());
+        assertEquals("cancelled", queued.toSummary().get("phase"));
+    }
+
+    @Test
+    void testCancelledQueuedJobFreesItsQueueSlot() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(distributedStressTestService.coordinate(10_000, 100, true)).thenAnswer(invocation -> {
+            release.await();
+            return Map.of();
+        });
+        Job running = jobService.submit(JobType.CLUSTER_STRESS_TEST, Map.of());
+        Job queued = jobService.submit(JobType.FILE_IO_COMPARE, Map.of());
+
+        // When
+        assertTrue(jobService.cancel(queued.getId()));
+
+        // Then: a fila (capacidade 1) aceita outro job sem esperar o primeiro terminar
+        assertEquals(0, jobService.laneStats().get("queued"));
+        Job next = jobService.submit(JobType.FILE_IO_COMPARE, Map.of());
+        assertEquals(JobStatus.QUEUED, next.getStatus());
+        release.countDown();
+        awaitFinished(running);
+    }
+
+    @Test
+    void testInvalidParametersAreRejectedAtSubmit() {
+        // When & Then
+        IllegalArgumentException notANumber = assertThrows(IllegalArgumentException.class,
+                () -> jobService.submit(JobType.DATABASE_WORKLOADS_COMPARE, Map.of("poolSize", "abc")));
+        assertTrue(notANumber.getMessage().contains("poolSize"));
+        IllegalArgumentException unknownWorkload = assertThrows(IllegalArgumentException.class,
+                () -> jobService.submit(JobType.CPU_WORKLOADS_COMPARE, Map.of("workload", "FOO")));
+        assertTrue(unknownWorkload.getMessage().contains("workload"));
+        assertThrows(IllegalArgumentException.class,
+                () -> jobService.submit(JobType.CLUSTER_STRESS_TEST, Map.of("includeSelf", "maybe")));
+        assertThrows(IllegalArgumentException.class,
+                () -> jobService.submit(JobType.FILE_IO_COMPARE, Map.of("files", "0")));
+        assertTrue(jobService.list().isEmpty());
+    }
+
+    @Test
+    void testParametersAboveTheSynchronousLimitsAreRejectedAtSubmit() {
+        // When & Then: os mesmos limites dos endpoints síncronos (WorkloadLimits)
+        assertThrows(IllegalArgumentException.class,
+                () -> jobService.submit(JobType.FILE_IO_COMPARE, Map.of("files", "2048", "fileSizeKb", "1024")));
+        assertThrows(IllegalArgumentException.class,
+                () -> jobService.submit(JobType.FILE_IO_COMPARE, Map.of("files", "1", "fileSizeKb", "2097152")));
+        assertThrows(IllegalArgumentException.class,
+                () -> jobService.submit(JobType.DATABASE_WORKLOADS_COMPARE, Map.of("poolSize", "501")));
+        assertThrows(IllegalArgumentException.class,
+                () -> jobService.submit(JobType.CPU_WORKLOADS_COMPARE, Map.of("intensity", "1000000")));
+        assertThrows(IllegalArgumentException.class,
+                () -> jobService.submit(JobType.CPU_WORKLOADS_COMPARE, Map.of("tasks", "100000000")));
+        assertThrows(IllegalArgumentException.class,
+                () -> jobService.submit(JobType.VIRTUAL_THREADS_COMPARE, Map.of("rounds", "1")));
+        assertThrows(IllegalArgumentException.class,
+                () -> jobService.submit(JobType.CLUSTER_STRESS_TEST, Map.of("tasks", "2000000")));
+        assertTrue(jobService.list().isEmpty());
+    }
+
+    @Test
+    void testFailureIsReportedOnJob() throws Exception {
+        // Given
+        when(fileIoWorkloadService.run(any(), anyInt(), anyInt())).thenThrow(new IllegalStateException("disk full"));
+
+        // When
+        Job job = jobService.submit(JobType.FILE_IO_COMPARE, Map.of("files", "1"));
+        awaitFinished(job);
+
+        // Then
+        assertEquals(JobStatus.FAILED, job.getStatus());
+        assertTrue(job.toSummary().get("error").toString().contains("disk full"));
+    }
+
+    @Test
+    void testOldestFinishedJobsAreEvicted() throws Exception {
+        // Given
+        when(virtualThreadService.compareThreads(1, 2, 5, 42L)).thenReturn(Map.of());
+
+        // When
+        Job first = jobService.submit(JobType.VIRTUAL_THREADS_COMPARE, Map.of("tasks", "1"));
+        awaitFinished(first);
+        for (int i = 0; i < 2; i++) {
+            awaitFinished(jobService.submit(JobType.VIRTUAL_THREADS_COMPARE, Map.of("tasks", "1")));
+        }
+        jobService.submit(JobType.VIRTUAL_THREADS_COMPARE, Map.of("tasks", "1"));
+
+        // Then
+        assertTrue(jobService.find(first.getId()).isEmpty());
+    }
+
+    private static void awaitFinished(Job job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!job.getStatus().isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.getStatus().isFinished(), "job did not finish: " + job.toSummary());
+    }
+}
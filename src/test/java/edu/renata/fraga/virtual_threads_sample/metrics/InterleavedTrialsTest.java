@@ -0,0 +1,104 @@
+package edu.renata.fraga.virtual_threads_sample.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InterleavedTrialsTest {
+
+    @Test
+    void testWarmupRoundsAreDiscardedAndEveryRoundRunsEachStrategyOnce() {
+        // Given
+        List<String> calls = new ArrayList<>();
+        Map<String, InterleavedTrials.Trial> strategies = new LinkedHashMap<>();
+        strategies.put("a", warmup -> calls.add((warmup ? "warmup-" : "") + "a"));
+        strategies.put("b", warmup -> calls.add((warmup ? "warmup-" : "") + "b"));
+
+        // When
+        InterleavedTrials.Report report = InterleavedTrials.run(strategies, 2, 10, 42L);
+
+        // Then
+        assertEquals(24, calls.size());
+        assertTrue(calls.subList(0, 4).stream().allMatch(call -> call.startsWith("warmup-")));
+        assertTrue(calls.subList(4, 24).stream().noneMatch(call -> call.startsWith("warmup-")));
+        assertEquals(20, report.trials().size());
+        for (int round = 0; round < 10; round++) {
+            int r = round;
+            assertEquals(2, report.trials().stream().filter(trial -> trial.round() == r).map(InterleavedTrials.TrialResult::strategy).distinct().count());
+        }
+        assertEquals(10, report.durationsMillis("a").length);
+    }
+
+    @Test
+    void testOrderIsRandomizedAndReproducibleBySeed() {
+        // When
+        List<String> first = firstInRound(InterleavedTrials.run(noop(), 0, 30, 7L));
+        List<String> second = firstInRound(InterleavedTrials.run(noop(), 0, 30, 7L));
+
+        // Then - com 30 rodadas, "a" e "b" abrem rodadas; a mesma semente repete a ordem
+        assertEquals(first, second);
+        assertTrue(first.contains("a"));
+        assertTrue(first.contains("b"));
+    }
+
+    @Test
+    void testStatisticsReportGcAndSafepointsPerStrategy() {
+        // Given - cada repetição aloca o bastante para provocar coletas
+        Map<String, InterleavedTrials.Trial> strategies = new LinkedHashMap<>();
+        strategies.put("allocating", warmup -> {
+            for (int i = 0; i < 200; i++) {
+                byte[] garbage = new byte[1024 * 1024];
+                garbage[i] = 1;
+            }
+        });
+        strategies.put("idle", warmup -> sleep(5));
+
+        // When
+        InterleavedTrials.Report report = InterleavedTrials.run(strategies, 1, 3, 42L);
+
+        // Then
+        Map<String, Object> statistics = report.statistics("idle");
+        assertEquals(3, statistics.get("n"));
+        assertTrue((Double) statistics.get("meanMs") >= 5.0);
+        assertTrue(statistics.keySet().containsAll(List.of("gcCollections", "gcTimeMs", "trialsWithGc", "safepoints", "timeToSafepointMs")));
+        Map<String, Object> trial = report.trialsToMaps().get(0);
+        assertTrue(trial.keySet().containsAll(List.of("round", "position", "strategy", "durationMs", "gcCollections", "safepoints")));
+        assertNotNull(report.compare("allocating", "idle").get("verdict"));
+    }
+
+    @Test
+    void testInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> InterleavedTrials.run(Map.of(), 0, 1, 1L));
+        assertThrows(IllegalArgumentException.class, () -> InterleavedTrials.run(noop(), -1, 1, 1L));
+        assertThrows(IllegalArgumentException.class, () -> InterleavedTrials.run(noop(), 0, 0, 1L));
+    }
+
+    private static Map<String, InterleavedTrials.Trial> noop() {
+        Map<String, InterleavedTrials.Trial> strategies = new LinkedHashMap<>();
+        strategies.put("a", warmup -> {
+        });
+        strategies.put("b", warmup -> {
+        });
+        return strategies;
+    }
+
+    private static List<String> firstInRound(InterleavedTrials.Report report) {
+        return report.trials().stream()
+                .filter(trial -> trial.position() == 0)
+                .map(InterleavedTrials.TrialResult::strategy)
+                .toList();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
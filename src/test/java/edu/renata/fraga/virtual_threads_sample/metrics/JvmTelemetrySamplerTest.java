@@ -0,0 +1,126 @@
+package edu.renata.fraga.virtual_threads_sample.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JvmTelemetrySamplerTest {
+
+    private final JvmTelemetrySampler telemetrySampler = new JvmTelemetrySampler(new ObjectMapper(), Duration.ofMillis(50), 2, false);
+
+    @AfterEach
+    void tearDown() {
+        telemetrySampler.shutdown();
+    }
+
+    @Test
+    void testSampleNowCollectsAllSections() {
+        // When
+        Map<String, Object> frame = telemetrySampler.sampleNow();
+
+        // Then
+        assertTrue(frame.keySet().containsAll(
+                List.of("timestamp", "heap", "gc", "carrierThreads", "virtualThreads", "cpu", "allocationRateMbPerSecond")));
+        Map<?, ?> heap = (Map<?, ?>) frame.get("heap");
+        assertTrue((Long) heap.get("used") > 0);
+        Map<?, ?> carriers = (Map<?, ?>) frame.get("carrierThreads");
+        assertTrue((Integer) carriers.get("parallelism") > 0);
+        assertTrue((Double) frame.get("allocationRateMbPerSecond") >= 0);
+    }
+
+    @Test
+    void testMountedCarriersReflectRunningVirtualThreads() throws Exception {
+        // Given
+        CountDownLatch running = new CountDownLatch(1);
+        Thread virtualThread = Thread.ofVirtual().start(() -> {
+            running.countDown();
+            while (!Thread.currentThread().isInterrupted()) {
+                Thread.onSpinWait();
+            }
+        });
+        running.await();
+
+        try {
+            // When
+            Map<?, ?> carriers = (Map<?, ?>) telemetrySampler.sampleNow().get("carrierThreads");
+
+            // Then
+            assertTrue((Integer) carriers.get("poolSize") >= 1);
+            assertTrue((Integer) carriers.get("active") >= 1);
+        } finally {
+            virtualThread.interrupt();
+            virtualThread.join();
+        }
+    }
+
+    @Test
+    void testSamplingStartsOnlyWithSubscribers() {
+        // Given
+        assertFalse(telemetrySampler.isSampling());
+
+        // When
+        telemetrySampler.subscribe();
+
+        // Then
+        assertTrue(telemetrySampler.isSampling());
+        assertEquals(1, telemetrySampler.getSubscriberCount());
+    }
+
+    @Test
+    void testSlowSubscriberDropsFramesWithoutDelayingOthers() throws Exception {
+        // Given - um cliente preso no envio e outro que recebe normalmente
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger fastFrames = new AtomicInteger();
+        telemetrySampler.subscribe(new SseEmitter(0L) {
+            @Override
+            public void send(SseEventBuilder builder) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        telemetrySampler.subscribe(new SseEmitter(0L) {
+            @Override
+            public void send(SseEventBuilder builder) {
+                fastFrames.incrementAndGet();
+            }
+        });
+
+        try {
+            // When
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (fastFrames.get() < 10 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+
+            // Then - a amostragem continuou e a fila do cliente lento descartou os frames antigos
+            assertTrue(fastFrames.get() >= 10, "fast subscriber frames: " + fastFrames.get());
+            assertTrue(telemetrySampler.getDroppedFrames() > 0);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testVirtualThreadCountingIsOptIn() {
+        // When
+        telemetrySampler.subscribe();
+        Map<?, ?> virtualThreads = (Map<?, ?>) telemetrySampler.sampleNow().get("virtualThreads");
+
+        // Then
+        assertEquals(-1L, ((Number) virtualThreads.get("startedSinceStreamStart")).longValue());
+        assertEquals(-1L, ((Number) virtualThreads.get("live")).longValue());
+    }
+}
@@ -0,0 +1,70 @@
+package edu.renata.fraga.virtual_threads_sample.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrialStatisticsTest {
+
+    @Test
+    void testSummaryHasMeanAndStudentConfidenceInterval() {
+        // When
+        Map<String, Object> summary = TrialStatistics.summarize(new double[]{10, 12, 14, 16, 18});
+
+        // Then - média 14, desvio 3,162; margem = 2,776 * 3,162 / raiz(5)
+        assertEquals(5, summary.get("n"));
+        assertEquals(14.0, (Double) summary.get("meanMs"), 1e-9);
+        assertEquals(3.1623, (Double) summary.get("stdDevMs"), 1e-3);
+        assertEquals(14.0 - 3.9256, (Double) summary.get("ci95LowMs"), 1e-3);
+        assertEquals(14.0 + 3.9256, (Double) summary.get("ci95HighMs"), 1e-3);
+        assertEquals(10.0, summary.get("minMs"));
+        assertEquals(18.0, summary.get("maxMs"));
+    }
+
+    @Test
+    void testClearlySeparatedSamplesAreSignificant() {
+        // When
+        Map<String, Object> comparison = TrialStatistics.compare(
+                "virtualThreads", new double[]{100, 101, 99, 100, 102},
+                "platformThreads", new double[]{150, 149, 151, 152, 148});
+
+        // Then
+        assertEquals(true, comparison.get("significant"));
+        assertEquals("virtualThreads", comparison.get("faster"));
+        assertTrue((Double) comparison.get("differenceMs") < 0);
+        assertTrue((Double) comparison.get("ci95HighMs") < 0);
+        assertTrue((Double) comparison.get("speedup") > 1.4);
+        assertTrue(comparison.get("verdict").toString().startsWith("virtualThreads is faster"));
+    }
+
+    @Test
+    void testOverlappingNoisySamplesAreNotSignificant() {
+        // When
+        Map<String, Object> comparison = TrialStatistics.compare(
+                "virtualThreads", new double[]{100, 130, 90, 120, 105},
+                "platformThreads", new double[]{110, 95, 125, 100, 115});
+
+        // Then - o intervalo da diferença contém zero
+        assertEquals(false, comparison.get("significant"));
+        assertNull(comparison.get("faster"));
+        assertTrue((Double) comparison.get("ci95LowMs") < 0);
+        assertTrue((Double) comparison.get("ci95HighMs") > 0);
+        assertTrue(comparison.get("verdict").toString().startsWith("No significant difference"));
+    }
+
+    @Test
+    void testCriticalValueMatchesStudentTable() {
+        assertEquals(12.706, TrialStatistics.tCritical(1), 1e-3);
+        assertEquals(2.776, TrialStatistics.tCritical(4.7), 1e-3);
+        assertEquals(2.021, TrialStatistics.tCritical(40), 2e-3);
+        assertEquals(1.984, TrialStatistics.tCritical(100), 2e-3);
+    }
+
+    @Test
+    void testSingleTrialCannotBeCompared() {
+        assertThrows(IllegalArgumentException.class, () -> TrialStatistics.compare(
+                "a", new double[]{1}, "b", new double[]{2, 3}));
+    }
+}
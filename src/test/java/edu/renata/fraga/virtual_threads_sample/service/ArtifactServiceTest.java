@@ -0,0 +1,152 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArtifactServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ArtifactService artifactService;
+
+    @BeforeEach
+    void setUp() {
+        artifactService = new ArtifactService(tempDir.resolve("artifacts"), 4);
+    }
+
+    @Test
+    void testCreateDataset() throws Exception {
+        // When
+        Map<String, Object> dataset = artifactService.createDataset(2);
+
+        // Then
+        assertEquals("dataset-2mb.bin", dataset.get("name"));
+        assertEquals(2L * 1024 * 1024, dataset.get("sizeBytes"));
+        assertEquals("/api/artifacts/dataset-2mb.bin", dataset.get("downloadUrl"));
+        assertTrue(artifactService.find("dataset-2mb.bin").isPresent());
+        assertFalse(Files.exists(artifactService.getDirectory().resolve("dataset-2mb.bin.partial")));
+    }
+
+    @Test
+    void testCreateThreadDumpIncludesVirtualThreads() throws Exception {
+        // Given
+        Thread virtualThread = Thread.ofVirtual().name("dump-me").start(() -> {
+            try {
+                Thread.sleep(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        try {
+            // When
+            Map<String, Object> dump = artifactService.createThreadDump();
+
+            // Then
+            Path file = artifactService.find((String) dump.get("name")).orElseThrow();
+            assertTrue(Files.readString(file).contains("dump-me"));
+        } finally {
+            virtualThread.interrupt();
+        }
+    }
+
+    @Test
+    void testFindRejectsPathTraversal() throws Exception {
+        // Given
+        Files.writeString(tempDir.resolve("secret.txt"), "secret");
+        artifactService.createDataset(1);
+
+        // When & Then
+        assertTrue(artifactService.find("../secret.txt").isEmpty());
+        assertTrue(artifactService.find("..").isEmpty());
+        assertTrue(artifactService.find("missing.bin").isEmpty());
+    }
+
+    @Test
+    void testListDescribesArtifacts() {
+        // Given
+        assertEquals(List.of(), artifactService.list());
+        artifactService.createDataset(1);
+
+        // When
+        List<Map<String, Object>> artifacts = artifactService.list();
+
+        // Then
+        assertEquals(1, artifacts.size());
+        assertEquals("dataset-1mb.bin", artifacts.get(0).get("name"));
+    }
+
+    @Test
+    void testPartialFilesAreNeitherListedNorDownloadable() throws Exception {
+        // Given
+        artifactService.createDataset(1);
+        Files.writeString(artifactService.getDirectory().resolve("dataset-2mb.bin.123.partial"), "in progress");
+
+        // When & Then
+        assertEquals(List.of("dataset-1mb.bin"),
+                artifactService.list().stream().map(artifact -> artifact.get("name")).toList());
+        assertTrue(artifactService.find("dataset-2mb.bin.123.partial").isEmpty());
+    }
+
+    @Test
+    void testConcurrentDatasetsOfSameSizeDoNotShareTheTemporaryFile() throws Exception {
+        // Given
+        List<Thread> writers = IntStream.range(0, 4)
+                .mapToObj(i -> Thread.ofVirtual().start(() -> artifactService.createDataset(3)))
+                .toList();
+
+        // When
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        // Then
+        assertEquals(3L * 1024 * 1024, Files.size(artifactService.find("dataset-3mb.bin").orElseThrow()));
+        try (Stream<Path> files = Files.list(artifactService.getDirectory())) {
+            assertEquals(List.of("dataset-3mb.bin"), files.map(file -> file.getFileName().toString()).toList());
+        }
+    }
+
+    @Test
+    void testOldestArtifactsAreEvictedAboveTheRetentionLimit() throws Exception {
+        // Given
+        artifactService.createDataset(2);
+        Files.setLastModifiedTime(artifactService.find("dataset-2mb.bin").orElseThrow(), FileTime.fromMillis(1_000));
+        artifactService.createDataset(1);
+
+        // When
+        artifactService.createDataset(3);
+
+        // Then
+        assertTrue(artifactService.find("dataset-2mb.bin").isEmpty());
+        assertTrue(artifactService.find("dataset-1mb.bin").isPresent());
+        assertTrue(artifactService.find("dataset-3mb.bin").isPresent());
+    }
+
+    @Test
+    void testDeleteRemovesArtifact() {
+        // Given
+        artifactService.createDataset(1);
+
+        // When
+        Optional<Map<String, Object>> deleted = artifactService.delete("dataset-1mb.bin");
+
+        // Then
+        assertEquals("dataset-1mb.bin", deleted.orElseThrow().get("name"));
+        assertTrue(artifactService.find("dataset-1mb.bin").isEmpty());
+        assertTrue(artifactService.delete("dataset-1mb.bin").isEmpty());
+    }
+}
@@ -0,0 +1,61 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.HybridExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CpuWorkloadServiceTest {
+
+    private final CpuWorkloadService cpuWorkloadService =
+            new CpuWorkloadService(new HybridExecutor(new SimpleMeterRegistry()));
+
+    @ParameterizedTest
+    @EnumSource(ExecutionModel.class)
+    void testRunOnEveryExecutionModel(ExecutionModel model) {
+        Map<String, Object> result = cpuWorkloadService.run(CpuWorkload.HASHING, model, 8, 1);
+
+        assertEquals("HASHING", result.get("workload"));
+        assertEquals(model.name(), result.get("executionModel"));
+        assertEquals(8, result.get("totalTasks"));
+        assertTrue(result.containsKey("cpuUtilizationPercent"));
+        assertTrue(result.containsKey("processCpuTimeMs"));
+        assertTrue(result.containsKey("tasksPerSecond"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(CpuWorkload.class)
+    void testEveryWorkloadIsDeterministic(CpuWorkload workload) {
+        if (workload == CpuWorkload.JSON || workload == CpuWorkload.MIXED) {
+            // O payload JSON inclui o nome da thread, então só comparamos na mesma thread
+            assertEquals(workload.execute(1, 1), workload.execute(1, 1));
+        } else {
+            Map<String, Object> first = cpuWorkloadService.run(workload, ExecutionModel.PARALLEL_STREAM, 4, 1);
+            Map<String, Object> second = cpuWorkloadService.run(workload, ExecutionModel.VIRTUAL_THREADS, 4, 1);
+            assertEquals(first.get("checksum"), second.get("checksum"));
+        }
+    }
+
+    @Test
+    void testHybridReportsClassification() {
+        Map<String, Object> result = cpuWorkloadService.run(CpuWorkload.SORTING, ExecutionModel.HYBRID, 8, 1);
+
+        assertEquals("CPU_BOUND", result.get("hybridClassification"));
+        assertTrue(result.containsKey("measuredCpuRatio"));
+    }
+
+    @Test
+    void testCompareExecutionModels() {
+        Map<String, Object> result = cpuWorkloadService.compareExecutionModels(CpuWorkload.SORTING, 4, 1);
+
+        assertEquals(ExecutionModel.values().length, result.size());
+        for (ExecutionModel model : ExecutionModel.values()) {
+            assertTrue(result.containsKey(model.name()));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseWorkloadServiceTest {
+
+    private final DatabaseWorkloadService databaseWorkloadService = new DatabaseWorkloadService();
+
+    @Test
+    void testJdbcOnVirtualThreadsReadsAllRows() {
+        // When
+        Map<String, Object> result = databaseWorkloadService.runJdbcOnVirtualThreads(20, 5, 5, 10);
+
+        // Then
+        assertEquals(20, result.get("queries"));
+        assertEquals(5, result.get("poolSize"));
+        assertEquals(200L, result.get("rowsRead"));
+        assertEquals(0L, result.get("failures"));
+        assertTrue(result.containsKey("pinnedEvents"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> connectionWait = (Map<String, Object>) result.get("connectionWait");
+        assertEquals(20L, connectionWait.get("count"));
+    }
+
+    @Test
+    void testR2dbcReadsAllRows() {
+        // When
+        Map<String, Object> result = databaseWorkloadService.runR2dbc(20, 5, 5, 10);
+
+        // Then
+        assertEquals("R2DBC + r2dbc-pool", result.get("strategy"));
+        assertEquals(200L, result.get("rowsRead"));
+        assertEquals(0L, result.get("failures"));
+        assertEquals(0L, result.get("rejected"));
+    }
+
+    @Test
+    void testR2dbcQueueingShowsAsConnectionWait() {
+        // When
+        Map<String, Object> result = databaseWorkloadService.runR2dbc(20, 2, 20, 1);
+
+        // Then: só 2 consultas ficam inscritas por vez, e as demais esperam desde a chegada do lote
+        assertTrue((Long) result.get("durationMs") >= 200);
+        assertEquals(0L, result.get("rejected"));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> connectionWait = (Map<String, Object>) result.get("connectionWait");
+        assertEquals(20L, connectionWait.get("count"));
+        assertTrue((Double) connectionWait.get("maxMs") >= 150);
+    }
+
+    @Test
+    void testPoolSizeLimitsThroughput() {
+        // When
+        Map<String, Object> result = databaseWorkloadService.runJdbcOnVirtualThreads(20, 2, 20, 1);
+
+        // Then: 20 consultas de 20ms em 2 conexões levam ao menos 10 rodadas
+        assertTrue((Long) result.get("durationMs") >= 200);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> connectionWait = (Map<String, Object>) result.get("connectionWait");
+        assertTrue((Double) connectionWait.get("maxMs") > 0);
+    }
+
+    @Test
+    void testCompareRunsBothStrategies() {
+        // When
+        Map<String, Object> result = databaseWorkloadService.compare(10, 5, 1, 5);
+
+        // Then
+        assertTrue(result.containsKey("jdbcVirtualThreads"));
+        assertTrue(result.containsKey("r2dbc"));
+    }
+}
@@ -0,0 +1,111 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import edu.renata.fraga.virtual_threads_sample.dataset.DatasetQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatasetQueryServiceTest {
+
+    private static final DatasetQuery REVENUE_BY_REGION = new DatasetQuery(DatasetQuery.ANY_REGION, 0, 499, 1_000,
+            0, 179, DatasetQuery.Measure.REVENUE_CENTS, DatasetQuery.GroupBy.REGION);
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final DatasetQueryService datasetQueryService = new DatasetQueryService(executor, 100_000, 8, 42L);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @ParameterizedTest
+    @EnumSource(DatasetExecutionModel.class)
+    void testQueryOnEveryExecutionModel(DatasetExecutionModel model) {
+        // When
+        Map<String, Object> result = datasetQueryService.query(REVENUE_BY_REGION, model, 3);
+
+        // Then
+        assertEquals(model.name(), result.get("executionModel"));
+        assertEquals(8, result.get("partitions"));
+        assertEquals(3L, ((Map<?, ?>) result.get("latency")).get("count"));
+        assertEquals(24L, ((Map<?, ?>) result.get("partitionScan")).get("count"));
+        Map<?, ?> aggregate = (Map<?, ?>) result.get("result");
+        assertEquals(100_000L, aggregate.get("scannedRecords"));
+        assertTrue((Long) aggregate.get("matchedRecords") > 0);
+        assertTrue((Long) result.get("datasetFootprintBytes") > 1_700_000);
+        assertTrue(result.containsKey("processAllocatedBytesPerQuery"));
+        assertEquals("process", result.get("allocationScope"));
+        assertTrue(result.containsKey("cpuUtilizationPercent"));
+    }
+
+    @Test
+    void testEveryExecutionModelMergesToTheSameResult() {
+        // When
+        Map<String, Object> comparison = datasetQueryService.compareExecutionModels(REVENUE_BY_REGION, 0, 1, 42L);
+
+        // Then
+        Object expected = ((Map<?, ?>) comparison.get(DatasetExecutionModel.SINGLE_THREADED.name())).get("result");
+        for (DatasetExecutionModel model : DatasetExecutionModel.values()) {
+            assertEquals(expected, ((Map<?, ?>) comparison.get(model.name())).get("result"));
+        }
+        assertEquals(100_000L, ((Map<?, ?>) comparison.get("dataset")).get("records"));
+    }
+
+    @Test
+    void testComparisonInterleavesModelsAndDiscardsWarmup() {
+        // When
+        Map<String, Object> comparison = datasetQueryService.compareExecutionModels(REVENUE_BY_REGION, 2, 3, 7L);
+
+        // Then: só as rodadas medidas entram nas latências, uma consulta por modelo em cada rodada
+        List<?> trials = (List<?>) comparison.get("trials");
+        assertEquals(3 * DatasetExecutionModel.values().length, trials.size());
+        for (DatasetExecutionModel model : DatasetExecutionModel.values()) {
+            Map<?, ?> report = (Map<?, ?>) comparison.get(model.name());
+            assertEquals(3, report.get("iterations"));
+            assertEquals(3L, ((Map<?, ?>) report.get("latency")).get("count"));
+            assertTrue(report.containsKey("statistics"));
+        }
+        Map<?, ?> comparisons = (Map<?, ?>) comparison.get("comparison");
+        assertTrue(comparisons.containsKey("VIRTUAL_THREADS vs SINGLE_THREADED"));
+        assertEquals(2, comparison.get("warmupRounds"));
+    }
+
+    @Test
+    void testGenerateReplacesDataset() {
+        // When
+        Map<String, Object> generated = datasetQueryService.generate(50_000, 5, 7L);
+
+        // Then
+        assertEquals(50_000L, generated.get("records"));
+        assertEquals(5, generated.get("partitions"));
+        assertTrue(generated.containsKey("generationMs"));
+        Map<String, Object> result = datasetQueryService.query(DatasetQuery.all(), DatasetExecutionModel.VIRTUAL_THREADS, 1);
+        assertEquals(5, result.get("partitions"));
+        assertEquals(50_000L, ((Map<?, ?>) result.get("result")).get("matchedRecords"));
+    }
+
+    @Test
+    void testPartitionSweepKeepsTheCurrentDataset() {
+        // When
+        Map<String, Object> sweep = datasetQueryService.partitionSweep(20_000, List.of(1, 4, 64), 42L, DatasetQuery.all(), 1, 2);
+
+        // Then
+        assertEquals(20_000L, sweep.get("records"));
+        for (String partitions : List.of("1", "4", "64")) {
+            Map<?, ?> models = (Map<?, ?>) sweep.get(partitions);
+            assertEquals(DatasetExecutionModel.values().length, models.size());
+            Map<?, ?> virtualThreads = (Map<?, ?>) models.get("VIRTUAL_THREADS");
+            assertTrue(virtualThreads.containsKey("recordsPerSecond"));
+            assertTrue(((Number) virtualThreads.get("meanMs")).doubleValue() > 0);
+        }
+        assertEquals(100_000L, datasetQueryService.describe().get("records"));
+    }
+}
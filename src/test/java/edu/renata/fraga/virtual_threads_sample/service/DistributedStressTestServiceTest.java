@@ -0,0 +1,233 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import edu.renata.fraga.virtual_threads_sample.Application;
+import edu.renata.fraga.virtual_threads_sample.metrics.LatencySummary;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistributedStressTestServiceTest {
+
+    @Test
+    void testRunSliceWaitsForStartAndRecordsLatencies() {
+        // Given
+        DistributedStressTestService service = new DistributedStressTestService(
+                RestClient.builder(), List.of(), "node-a", Duration.ofMillis(100), Duration.ofSeconds(2),
+                    Duration.ofSeconds(10), 10_000);
+        long startAt = System.currentTimeMillis() + 200;
+
+        // When
+        StressSliceResult result = service.runSlice(new StressSliceRequest(50, 20, startAt));
+
+        // Then
+        assertEquals("node-a", result.node());
+        assertEquals(50, result.tasks());
+        assertTrue(result.startedAtEpochMillis() >= startAt);
+        Histogram histogram = DistributedStressTestService.decode(result.histogram());
+        assertEquals(50, histogram.getTotalCount());
+        assertTrue(histogram.getMinValue() >= Duration.ofMillis(20).toNanos());
+    }
+
+    @Test
+    void testHistogramEncodingRoundTrip() {
+        // Given
+        ConcurrentHistogram histogram = LatencySummary.newHistogram();
+        LatencySummary.record(histogram, 1_000_000);
+        LatencySummary.record(histogram, 5_000_000);
+
+        // When
+        Histogram decoded = DistributedStressTestService.decode(DistributedStressTestService.encode(histogram));
+
+        // Then
+        assertEquals(2, decoded.getTotalCount());
+        assertEquals(histogram.getMaxValue(), decoded.getMaxValue());
+    }
+
+    @Test
+    void testCoordinateMergesPeerHistogramsAndReportsFailures() throws Exception {
+        // Given - um peer que responde a fatia e outro indisponível
+        ConcurrentHistogram peerHistogram = LatencySummary.newHistogram();
+        for (int i = 0; i < 5; i++) {
+            LatencySummary.record(peerHistogram, 30_000_000);
+        }
+        long now = System.currentTimeMillis();
+        String peerResponse = """
+                {"node":"peer-1","tasks":5,"startedAtEpochMillis":%d,"finishedAtEpochMillis":%d,"histogram":"%s"}
+                """.formatted(now, now + 50, DistributedStressTestService.encode(peerHistogram));
+        HttpServer peer1 = startPeer(exchange -> {
+            assertEquals("POST", exchange.getRequestMethod());
+            respond(exchange, 200, peerResponse);
+        });
+        HttpServer peer2 = startPeer(exchange -> respond(exchange, 503, ""));
+        try {
+            DistributedStressTestService service = new DistributedStressTestService(RestClient.builder(),
+                    List.of(baseUrl(peer1), " " + baseUrl(peer2) + " "), "coordinator", Duration.ofMillis(50),
+                    Duration.ofSeconds(2), Duration.ofSeconds(10), 10_000);
+
+            // When
+            Map<String, Object> result = service.coordinate(15, 10, true);
+
+            // Then
+            assertEquals(3, result.get("nodes"));
+            assertEquals(10, result.get("completedTasks"));
+            Map<?, ?> latency = (Map<?, ?>) result.get("latency");
+            assertEquals(10L, latency.get("count"));
+            assertEquals(2, ((List<?>) result.get("perNode")).size());
+            assertTrue(((Map<?, ?>) result.get("failedNodes")).containsKey(baseUrl(peer2)));
+        } finally {
+            peer1.stop(0);
+            peer2.stop(0);
+        }
+    }
+
+    @Test
+    void testSilentPeerTimesOutIntoFailedNodes() throws Exception {
+        // Given - um peer que aceita a conexão e nunca responde
+        try (ServerSocket silentPeer = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            String peer = "http://localhost:" + silentPeer.getLocalPort();
+            DistributedStressTestService service = new DistributedStressTestService(RestClient.builder(),
+                    List.of(peer), "coordinator", Duration.ofMillis(50), Duration.ofSeconds(1),
+                    Duration.ofMillis(300), 10_000);
+
+            // When
+            long start = System.nanoTime();
+            Map<String, Object> result = service.coordinate(10, 10, true);
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            // Then - a fatia local terminou e o peer caiu no tempo de leitura da fatia
+            assertEquals(5, result.get("completedTasks"));
+            assertTrue(((Map<?, ?>) result.get("failedNodes")).containsKey(peer));
+            assertTrue(elapsedMs < 5_000, "coordinator waited " + elapsedMs + " ms");
+        }
+    }
+
+    @Test
+    void testRunSliceKeepsAtMostTheWindowInFlight() {
+        // Given: janela de 10 tarefas, 40 tarefas de 50 ms
+        DistributedStressTestService service = new DistributedStressTestService(
+                RestClient.builder(), List.of(), "node-a", Duration.ofMillis(10), Duration.ofSeconds(2),
+                Duration.ofSeconds(10), 10);
+
+        // When
+        StressSliceResult result = service.runSlice(new StressSliceRequest(40, 50, System.currentTimeMillis()));
+
+        // Then: 4 levas em sequência, não 40 tarefas de uma vez
+        assertEquals(40, result.tasks());
+        assertTrue(result.finishedAtEpochMillis() - result.startedAtEpochMillis() >= 200);
+    }
+
+    @Test
+    void testCoordinateWithFewerTasksThanNodesSkipsEmptySlices() {
+        // Given: peers que nem existem; com uma tarefa, só este nó recebe fatia
+        DistributedStressTestService service = new DistributedStressTestService(RestClient.builder(),
+                List.of("http://localhost:1", "http://localhost:2"), "coordinator", Duration.ofMillis(10),
+                Duration.ofSeconds(1), Duration.ofSeconds(1), 10_000);
+
+        // When
+        Map<String, Object> result = service.coordinate(1, 1, true);
+
+        // Then
+        assertEquals(1, result.get("nodes"));
+        assertEquals(2, result.get("idleNodes"));
+        assertEquals(1, result.get("completedTasks"));
+        assertEquals(Map.of(), result.get("failedNodes"));
+    }
+
+    @Test
+    void testReadTimeoutGrowsWithTheSlice() {
+        // Given
+        DistributedStressTestService service = new DistributedStressTestService(
+                RestClient.builder(), List.of(), "node-a", Duration.ofMillis(10), Duration.ofSeconds(2),
+                    Duration.ofSeconds(1), 10_000);
+        long startAt = System.currentTimeMillis() + 10_000;
+
+        // When
+        Duration small = service.readTimeout(new StressSliceRequest(1, 100, startAt));
+        Duration large = service.readTimeout(new StressSliceRequest(1_000_000, 5_000, startAt));
+
+        // Then
+        assertTrue(small.toMillis() >= 11_000 && small.toMillis() <= 11_200, "small slice: " + small);
+        assertTrue(large.toMillis() >= 25_000, "large slice: " + large);
+    }
+
+    @Test
+    void testCoordinateWithoutNodesFails() {
+        // Given
+        DistributedStressTestService service = new DistributedStressTestService(
+                RestClient.builder(), List.of(), "node-a", Duration.ofMillis(10), Duration.ofSeconds(2),
+                    Duration.ofSeconds(10), 10_000);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> service.coordinate(10, 1, false));
+    }
+
+    @Test
+    void testCoordinateAcrossRunningInstances() {
+        // Given: duas instâncias reais da aplicação, em portas aleatórias
+        try (ConfigurableApplicationContext peer1 = startInstance("peer-1");
+             ConfigurableApplicationContext peer2 = startInstance("peer-2")) {
+            DistributedStressTestService coordinator = new DistributedStressTestService(
+                    RestClient.builder(), List.of(baseUrl(peer1), baseUrl(peer2)), "coordinator", Duration.ofMillis(300),
+                    Duration.ofSeconds(2), Duration.ofSeconds(10), 10_000);
+
+            // When
+            Map<String, Object> result = coordinator.coordinate(300, 50, true);
+
+            // Then
+            assertEquals(300, result.get("completedTasks"));
+            assertEquals(Map.of(), result.get("failedNodes"));
+            assertEquals(300L, ((Map<?, ?>) result.get("latency")).get("count"));
+            List<?> perNode = (List<?>) result.get("perNode");
+            assertEquals(List.of("coordinator", "peer-1", "peer-2"),
+                    perNode.stream().map(node -> ((Map<?, ?>) node).get("node")).toList());
+            assertTrue((Double) result.get("clusterTasksPerSecond") > 0);
+        }
+    }
+
+    private static HttpServer startPeer(HttpHandler sliceHandler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext(DistributedStressTestService.SLICE_PATH, sliceHandler);
+        server.start();
+        return server;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static String baseUrl(HttpServer server) {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    private static ConfigurableApplicationContext startInstance(String nodeName) {
+        return new SpringApplicationBuilder(Application.class)
+                .run("--server.port=0", "--cluster.node-name=" + nodeName);
+    }
+
+    private static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+}
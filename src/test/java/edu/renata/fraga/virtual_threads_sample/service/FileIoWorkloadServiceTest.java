@@ -0,0 +1,96 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileIoWorkloadServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileIoWorkloadService fileIoWorkloadService;
+
+    @BeforeEach
+    void setUp() {
+        fileIoWorkloadService = new FileIoWorkloadService(tempDir);
+    }
+
+    @Test
+    void testPrepareDatasetGeneratesFilesOnce() throws Exception {
+        // When
+        List<Path> files = fileIoWorkloadService.prepareDataset(3, 4);
+        long firstModified = Files.getLastModifiedTime(files.get(0)).toMillis();
+        List<Path> again = fileIoWorkloadService.prepareDataset(3, 4);
+
+        // Then
+        assertEquals(files, again);
+        assertEquals(4 * 1024, Files.size(files.get(2)));
+        assertEquals(firstModified, Files.getLastModifiedTime(again.get(0)).toMillis());
+    }
+
+    @Test
+    void testNewDatasetReplacesThePreviousOne() throws Exception {
+        // Given
+        List<Path> previous = fileIoWorkloadService.prepareDataset(3, 4);
+        Path leftover = Files.createDirectories(tempDir.resolve("1x1kb"));
+
+        // When
+        List<Path> current = fileIoWorkloadService.prepareDataset(2, 8);
+
+        // Then - só o dataset atual fica em disco
+        assertFalse(Files.exists(previous.get(0).getParent()));
+        assertFalse(Files.exists(leftover));
+        assertEquals(8 * 1024, Files.size(current.get(1)));
+        try (var datasets = Files.list(tempDir)) {
+            assertEquals(List.of(current.get(0).getParent()), datasets.toList());
+        }
+    }
+
+    @Test
+    void testShutdownDeletesTheDataset() {
+        // Given
+        Path baseDirectory = tempDir.resolve("file-io");
+        FileIoWorkloadService service = new FileIoWorkloadService(baseDirectory);
+        service.run(FileReadMode.MEMORY_MAPPED, 2, 4);
+
+        // When
+        service.shutdown();
+
+        // Then
+        assertFalse(Files.exists(baseDirectory));
+    }
+
+    @Test
+    void testAllModesReadTheSameBytes() {
+        // When
+        Map<String, Object> result = fileIoWorkloadService.compareModes(8, 100);
+
+        // Then
+        Object expectedChecksum = ((Map<?, ?>) result.get("BLOCKING_VIRTUAL_THREADS")).get("checksum");
+        for (FileReadMode mode : FileReadMode.values()) {
+            Map<?, ?> modeResult = (Map<?, ?>) result.get(mode.name());
+            assertEquals(8L * 100 * 1024, modeResult.get("totalBytes"), mode.name());
+            assertEquals(expectedChecksum, modeResult.get("checksum"), mode.name());
+        }
+    }
+
+    @Test
+    void testRunReportsCarrierThreads() {
+        // When
+        Map<String, Object> result = fileIoWorkloadService.run(FileReadMode.BLOCKING_VIRTUAL_THREADS, 20, 16);
+
+        // Then
+        assertEquals("BLOCKING_VIRTUAL_THREADS", result.get("mode"));
+        assertTrue((Integer) result.get("carrierThreadsPeak") >= (Integer) result.get("carrierThreadsBefore"));
+        assertTrue((Integer) result.get("carrierThreadGrowth") >= 0);
+        assertTrue((Double) result.get("throughputMbPerSecond") > 0);
+    }
+}
@@ -0,0 +1,76 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import edu.renata.fraga.virtual_threads_sample.metrics.CarrierThreadMonitor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PinningBenchmarkServiceTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final PinningBenchmarkService pinningBenchmarkService = new PinningBenchmarkService(executor);
+    // Bem acima do número de carriers, para o pinning virar gargalo
+    private final int concurrency = CarrierThreadMonitor.carrierParallelism() * 8;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testSynchronizedBlockingCollapsesComparedToReentrantLock() {
+        // When
+        Map<String, Object> pinned = pinningBenchmarkService.run(PinningScenario.SYNCHRONIZED_BLOCKING, concurrency, 2, 20);
+        Map<String, Object> lock = pinningBenchmarkService.run(PinningScenario.REENTRANT_LOCK_BLOCKING, concurrency, 2, 20);
+
+        // Then
+        assertEquals((long) concurrency * 2, pinned.get("operations"));
+        assertEquals((long) concurrency * 2, lock.get("operations"));
+        assertTrue((Double) lock.get("opsPerSecond") > 2 * (Double) pinned.get("opsPerSecond"),
+                "lock " + lock + " pinned " + pinned);
+        long pinnedEvents = (Long) pinned.get("pinnedEvents");
+        assertTrue(pinnedEvents == -1 || pinnedEvents > 0);
+    }
+
+    @Test
+    void testBlockingClassInitializerPinsCarrier() {
+        // When
+        Map<String, Object> classInit = pinningBenchmarkService.run(PinningScenario.CLASS_INIT_BLOCKING, concurrency, 1, 20);
+        Map<String, Object> lazy = pinningBenchmarkService.run(PinningScenario.ASYNC_LAZY_INIT, concurrency, 1, 20);
+
+        // Then
+        assertEquals((long) concurrency, classInit.get("operations"));
+        assertTrue((Double) lazy.get("opsPerSecond") > 2 * (Double) classInit.get("opsPerSecond"),
+                "lazy " + lazy + " classInit " + classInit);
+    }
+
+    @Test
+    void testConditionAwaitDoesNotAddCarriers() {
+        // When
+        Map<String, Object> condition = pinningBenchmarkService.run(PinningScenario.CONDITION_AWAIT, concurrency, 2, 20);
+
+        // Then
+        assertEquals(0, condition.get("carrierThreadGrowth"));
+        assertTrue((Double) condition.get("efficiency") > 0.3);
+    }
+
+    @Test
+    void testSweepPairsEachPinningScenarioWithAlternatives() {
+        // When
+        Map<String, Object> result = pinningBenchmarkService.sweep(List.of(2), 1, 5);
+
+        // Then
+        List<?> levels = (List<?>) result.get("levels");
+        assertEquals(1, levels.size());
+        Map<?, ?> level = (Map<?, ?>) levels.get(0);
+        assertEquals(PinningScenario.values().length, ((Map<?, ?>) level.get("scenarios")).size());
+        assertEquals(4, ((Map<?, ?>) level.get("speedupOverPinning")).size());
+        assertTrue(((Map<?, ?>) level.get("speedupOverPinning")).containsKey("STAMPED_LOCK_BLOCKING_vs_SYNCHRONIZED_BLOCKING"));
+    }
+}
@@ -0,0 +1,61 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PipelineBenchmarkServiceTest {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final PipelineBenchmarkService pipelineBenchmarkService = new PipelineBenchmarkService(executor);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testAllModesDeliverEveryMessage() {
+        // Given
+        long expectedChecksum = LongStream.range(0, 50_000).map(PipelineBenchmarkService::transform).sum();
+
+        // When & Then
+        for (HandoffMode mode : HandoffMode.values()) {
+            for (boolean virtualWorkers : new boolean[]{true, false}) {
+                Map<String, Object> result = pipelineBenchmarkService.run(mode, 50_000, 3, 3, virtualWorkers, 256);
+                assertEquals(expectedChecksum, result.get("checksum"), mode + " virtual=" + virtualWorkers);
+            }
+        }
+    }
+
+    @Test
+    void testRingBufferReportsBatches() {
+        // When
+        Map<String, Object> result = pipelineBenchmarkService.run(HandoffMode.RING_BUFFER, 100_000, 4, 2, true, 1024);
+
+        // Then
+        Map<?, ?> batching = (Map<?, ?>) result.get("batching");
+        // Dois estágios: as trabalhadoras dividem as 100 mil mensagens e a agregadora vê todas
+        assertEquals(200_000L, batching.get("events"));
+        assertTrue((Long) batching.get("maxBatchSize") <= 1024);
+        assertEquals("virtual", result.get("workerThreads"));
+    }
+
+    @Test
+    void testCompareReportsSpeedupOverOtherModes() {
+        // When
+        Map<String, Object> result = pipelineBenchmarkService.compare(20_000, 2, 2, true, 512);
+
+        // Then
+        Map<?, ?> speedups = (Map<?, ?>) result.get("speedups");
+        assertTrue(speedups.containsKey("RING_BUFFER_vs_COMPLETABLE_FUTURE_PER_TASK"));
+        assertTrue(speedups.containsKey("RING_BUFFER_vs_BLOCKING_QUEUE"));
+        assertEquals(3, ((Map<?, ?>) result.get("modes")).size());
+    }
+}
@@ -0,0 +1,47 @@
+package edu.renata.fraga.virtual_threads_sample.service;
+
+import edu.renata.fraga.virtual_threads_sample.tracing.Sampler;
+import edu.renata.fraga.virtual_threads_sample.tracing.Tracer;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracingOverheadServiceTest {
+
+    @Test
+    void testTracedRoundsExportOneSpanPerTask() {
+        // Given
+        TracingOverheadService service = new TracingOverheadService(new Tracer(Sampler.always(), span -> {
+        }));
+
+        // When
+        Map<String, Object> result = service.measure(10_000, 3);
+
+        // Then
+        Map<?, ?> exporter = (Map<?, ?>) result.get("exporter");
+        // Aquecimento + 3 rodadas, cada uma com um span por tarefa e o da rodada
+        long expectedSpans = 20_001L + 3 * 10_001L;
+        assertEquals(expectedSpans, (Long) exporter.get("exported") + (Long) exporter.get("dropped"));
+        // Cada rodada com tracing é exportada antes da rodada seguinte começar
+        assertEquals(0L, result.get("exportFlushTimeouts"));
+        assertTrue((Double) result.get("exportFlushMedianMs") >= 0);
+        assertTrue((Double) result.get("untracedTasksPerSecond") > 0);
+        assertTrue(result.containsKey("overheadPercent"));
+        assertEquals(TracingOverheadService.OVERHEAD_BUDGET_PERCENT, result.get("overheadBudgetPercent"));
+    }
+
+    @Test
+    void testUnsampledTracingExportsNothing() {
+        // Given
+        TracingOverheadService service = new TracingOverheadService(Tracer.disabled());
+
+        // When
+        Map<String, Object> result = service.measure(1_000, 1);
+
+        // Then
+        Map<?, ?> exporter = (Map<?, ?>) result.get("exporter");
+        assertEquals(0L, exporter.get("exported"));
+    }
+}
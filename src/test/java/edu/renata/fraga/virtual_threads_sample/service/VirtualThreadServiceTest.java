@@ -1,9 +1,19 @@
 package edu.renata.fraga.virtual_threads_sample.service;
 
+import edu.renata.fraga.virtual_threads_sample.simulation.LatencySimulator;
+import edu.renata.fraga.virtual_threads_sample.simulation.LatencyTrace;
+import edu.renata.fraga.virtual_threads_sample.simulation.ReplayMode;
+import edu.renata.fraga.virtual_threads_sample.tracing.Sampler;
+import edu.renata.fraga.virtual_threads_sample.tracing.SpanData;
+import edu.renata.fraga.virtual_threads_sample.tracing.Tracer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -31,6 +41,140 @@ class VirtualThreadServiceTest {
         assertTrue(result.contains("Platform Threads"));
     }
 
+    @Test
+    void testPlatformThreadsQueueingShowsAsSchedulingDelay() {
+        // 300 tarefas de 100 ms em um pool de 200 threads: 100 tarefas esperam uma rodada inteira
+        Map<String, Object> result = virtualThreadService.measureWithPlatformThreads(300);
+
+        Map<?, ?> schedulingDelay = (Map<?, ?>) result.get("schedulingDelay");
+        Map<?, ?> serviceTime = (Map<?, ?>) result.get("serviceTime");
+        assertEquals(300L, schedulingDelay.get("count"));
+        assertTrue((Double) schedulingDelay.get("p99Ms") >= 50.0);
+        assertTrue((Double) serviceTime.get("p50Ms") >= 100.0);
+        assertTrue((Double) serviceTime.get("p50Ms") < 200.0);
+        assertTrue(result.get("summary").toString().contains("scheduling delay p99"));
+    }
+
+    @Test
+    void testVirtualThreadsHaveNoQueueingDelay() {
+        Map<String, Object> result = virtualThreadService.measureWithVirtualThreads(300);
+
+        Map<?, ?> schedulingDelay = (Map<?, ?>) result.get("schedulingDelay");
+        assertEquals(300L, schedulingDelay.get("count"));
+        assertTrue((Double) schedulingDelay.get("p50Ms") < 50.0);
+    }
+
+    @Test
+    void testCompareThreadsInterleavesMeasuredRoundsAfterWarmup() {
+        // When
+        Map<String, Object> result = virtualThreadService.compareThreads(10, 1, 3, 42L);
+
+        // Then - só as rodadas medidas entram nas estatísticas e nos percentis
+        List<?> trials = (List<?>) result.get("trials");
+        assertEquals(6, trials.size());
+        assertEquals(3, ((Map<?, ?>) result.get("virtualThreads")).get("n"));
+        assertEquals(3, ((Map<?, ?>) result.get("platformThreads")).get("n"));
+        Map<?, ?> schedulingDelay = (Map<?, ?>) result.get("schedulingDelay");
+        assertEquals(30L, ((Map<?, ?>) schedulingDelay.get("virtualThreads")).get("count"));
+        Map<?, ?> comparison = (Map<?, ?>) result.get("comparison");
+        assertNotNull(comparison.get("verdict"));
+        assertTrue(((Map<?, ?>) trials.get(0)).containsKey("gcTimeMs"));
+    }
+
+    @Test
+    void testSubmissionIsLimitedBySubmissionWindow() {
+        // Given
+        VirtualThreadService service = new VirtualThreadService(new LatencySimulator(), Tracer.disabled(), 50);
+
+        // When
+        Map<String, Object> result = service.measureWithVirtualThreads(200);
+
+        // Then
+        Map<?, ?> submission = (Map<?, ?>) result.get("submission");
+        assertEquals(200L, submission.get("completed"));
+        assertEquals(50, submission.get("maxInFlight"));
+        assertTrue((Integer) submission.get("peakInFlight") <= 50);
+        // 200 tarefas de 100 ms com 50 em andamento: ao menos 4 rodadas
+        assertTrue((Long) result.get("durationMs") >= 400);
+    }
+
+    @Test
+    void testTasksTakeLatenciesAndErrorsFromLoadedTrace() {
+        // Given: 10% das chamadas levam 300 ms e falham, o resto leva 5 ms
+        LatencySimulator latencySimulator = new LatencySimulator();
+        latencySimulator.load(LatencyTrace.fromCsv("""
+                latencyMs,error
+                5,false
+                5,false
+                5,false
+                5,false
+                5,false
+                5,false
+                5,false
+                5,false
+                5,false
+                300,true
+                """), ReplayMode.REPLAY, false, 1);
+        VirtualThreadService service = new VirtualThreadService(latencySimulator, Tracer.disabled(), 1_000);
+
+        // When
+        Map<String, Object> result = service.measureWithVirtualThreads(100);
+
+        // Then
+        Map<?, ?> submission = (Map<?, ?>) result.get("submission");
+        Map<?, ?> serviceTime = (Map<?, ?>) result.get("serviceTime");
+        assertEquals(10L, submission.get("failed"));
+        assertEquals(90L, submission.get("completed"));
+        assertTrue((Double) serviceTime.get("p50Ms") < 50.0);
+        assertTrue((Double) serviceTime.get("p99Ms") >= 300.0);
+        assertEquals("trace", result.get("latencySource"));
+    }
+
+    @Test
+    void testScarceResourceQueuesOperations() {
+        // When: 200 operações de 10 ms em 4 recursos, ao menos 50 rodadas
+        Map<String, Object> result = virtualThreadService.processWithScarceResource(200, 4, 10, 30_000);
+
+        // Then
+        Map<?, ?> pool = (Map<?, ?>) result.get("pool");
+        assertEquals(200L, result.get("completed"));
+        assertEquals(0L, result.get("timedOutOrFailed"));
+        assertEquals(4L, pool.get("created"));
+        assertTrue((Long) result.get("durationMs") >= 500);
+        assertTrue((Double) ((Map<?, ?>) pool.get("waitTime")).get("p99Ms") > 100.0);
+        assertTrue((Double) pool.get("utilization") > 0.5);
+    }
+
+    @Test
+    void testKeyedSerialExecutorKeepsOrderPerKeyWithBoundedMailboxes() {
+        // When: 100 operações por chave, caixas de 10, a submissão espera quando a caixa enche
+        Map<String, Object> result = virtualThreadService.processKeyedOperations(
+                KeyedOrderingMode.KEYED_SERIAL_EXECUTOR, 2_000, 20, 4, 2, 10);
+
+        // Then
+        Map<?, ?> mailboxes = (Map<?, ?>) result.get("mailboxes");
+        assertEquals(0L, result.get("orderViolations"));
+        assertEquals(0L, result.get("overlapViolations"));
+        assertTrue((Long) result.get("rejectedSubmissions") > 0);
+        assertEquals(2_000L, mailboxes.get("executed"));
+        assertTrue((Integer) mailboxes.get("peakMailboxDepth") <= 10);
+    }
+
+    @Test
+    void testSynchronizedStripesSerializeUnrelatedKeys() {
+        // When: 8 chaves em 2 faixas de lock, 4 chaves por faixa
+        Map<String, Object> stripes = virtualThreadService.processKeyedOperations(
+                KeyedOrderingMode.SYNCHRONIZED_STRIPES, 400, 8, 2, 5, 1_000);
+        Map<String, Object> keyed = virtualThreadService.processKeyedOperations(
+                KeyedOrderingMode.KEYED_SERIAL_EXECUTOR, 400, 8, 2, 5, 1_000);
+
+        // Then: cada faixa executa 200 operações de 5 ms em série; cada chave só 50
+        assertEquals(0L, stripes.get("overlapViolations"));
+        assertTrue((Long) stripes.get("durationMs") >= 900);
+        assertTrue((Long) keyed.get("durationMs") < (Long) stripes.get("durationMs"));
+        assertEquals(0L, keyed.get("orderViolations"));
+    }
+
     @Test
     void testBlockingOperation() {
         String result = virtualThreadService.simulateBlockingOperation();
@@ -64,4 +208,24 @@ class VirtualThreadServiceTest {
         assertTrue(result.contains("Virtual: true"));
         assertTrue(result.contains("Thread criada via Factory"));
     }
+
+    @Test
+    void testEachTaskIsTracedAsChildOfTheRun() {
+        // Given
+        List<SpanData> spans = new CopyOnWriteArrayList<>();
+        VirtualThreadService service = new VirtualThreadService(new LatencySimulator(),
+                new Tracer(Sampler.always(), spans::add), 1_000);
+
+        // When
+        service.measureWithVirtualThreads(50);
+
+        // Then
+        SpanData run = spans.stream().filter(SpanData::isRoot).findFirst().orElseThrow();
+        List<SpanData> tasks = spans.stream().filter(span -> span.name().equals("virtual-threads.task")).toList();
+        assertEquals("virtual-threads.compare", run.name());
+        assertEquals(50, tasks.size());
+        assertTrue(tasks.stream().allMatch(task -> task.parentSpanId() == run.context().spanId()
+                && task.context().traceId().equals(run.context().traceId())
+                && task.virtualThread()));
+    }
 }
@@ -0,0 +1,91 @@
+package edu.renata.fraga.virtual_threads_sample.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencySimulatorTest {
+
+    private static final String BIMODAL = """
+            latencyMs,error
+            1,false
+            1,false
+            1,false
+            200,true
+            """;
+
+    @Test
+    void testWithoutTraceUsesDefaultLatency() {
+        // Given
+        LatencySimulator simulator = new LatencySimulator();
+
+        // When
+        long waited = simulator.simulate(Duration.ofMillis(20));
+
+        // Then
+        assertEquals(20, waited);
+        assertTrue(simulator.describe().isEmpty());
+        assertEquals(Duration.ZERO, simulator.arrivalOffset(5));
+    }
+
+    @Test
+    void testReplayFollowsTraceOrderAndThrowsOnErrors() {
+        // Given
+        LatencySimulator simulator = new LatencySimulator();
+        simulator.load(LatencyTrace.fromCsv(BIMODAL), ReplayMode.REPLAY, false, 0);
+
+        // When & Then
+        assertEquals(1, simulator.simulate(Duration.ofSeconds(1)));
+        assertEquals(1, simulator.simulate(Duration.ofSeconds(1)));
+        assertEquals(1, simulator.simulate(Duration.ofSeconds(1)));
+        assertThrows(SimulatedFailureException.class, () -> simulator.simulate(Duration.ofSeconds(1)));
+        assertEquals(4L, simulator.describe().orElseThrow().get("callsSimulated"));
+    }
+
+    @Test
+    void testSamplingIsReproducibleForSameSeed() {
+        // Given
+        LatencySimulator first = new LatencySimulator();
+        LatencySimulator second = new LatencySimulator();
+        first.load(LatencyTrace.fromCsv(BIMODAL), ReplayMode.SAMPLE, false, 7);
+        second.load(LatencyTrace.fromCsv(BIMODAL), ReplayMode.SAMPLE, false, 7);
+
+        // When
+        long[] a = LongStream.range(0, 200).map(i -> first.next(Duration.ZERO).latencyNanos()).toArray();
+        long[] b = LongStream.range(0, 200).map(i -> second.next(Duration.ZERO).latencyNanos()).toArray();
+
+        // Then
+        assertArrayEquals(a, b);
+        long slow = LongStream.of(a).filter(latency -> latency >= 200_000_000).count();
+        assertTrue(slow > 20 && slow < 80, "slow samples: " + slow);
+    }
+
+    @Test
+    void testArrivalReplayWaitsForTraceOffsets() {
+        // Given
+        LatencySimulator simulator = new LatencySimulator();
+        simulator.load(LatencyTrace.fromCsv("arrivalMs,latencyMs\n0,1\n80,1\n"), ReplayMode.SAMPLE, true, 0);
+        long start = System.nanoTime();
+
+        // When
+        long submitted = simulator.awaitArrival(1, start);
+
+        // Then
+        assertEquals(start + 80_000_000, submitted);
+        assertTrue(System.nanoTime() - start >= 80_000_000);
+    }
+
+    @Test
+    void testIncompatibleOptionsAreRejected() {
+        // Given
+        LatencySimulator simulator = new LatencySimulator();
+        LatencyTrace withoutArrivals = LatencyTrace.fromCsv("latencyMs\n1\n");
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> simulator.load(withoutArrivals, ReplayMode.SAMPLE, true, 0));
+    }
+}
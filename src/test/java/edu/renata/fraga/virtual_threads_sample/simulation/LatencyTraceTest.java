@@ -0,0 +1,85 @@
+package edu.renata.fraga.virtual_threads_sample.simulation;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyTraceTest {
+
+    @Test
+    void testCsvWithHeaderIsSortedByArrival() {
+        // Given
+        LatencyTrace trace = LatencyTrace.fromCsv("""
+                error,latencyMs,arrivalMs
+                503,40,1700000000200
+                false,10,1700000000000
+                0,20.5,1700000000100
+                """);
+
+        // When & Then
+        assertTrue(trace.hasArrivals());
+        assertEquals(new LatencySample(10_000_000, false), trace.replay(0));
+        assertEquals(new LatencySample(20_500_000, false), trace.replay(1));
+        assertEquals(new LatencySample(40_000_000, true), trace.replay(2));
+        assertEquals(new LatencySample(10_000_000, false), trace.replay(3));
+        assertEquals(0, trace.arrivalOffsetNanos(0));
+        assertEquals(200_000_000, trace.arrivalOffsetNanos(2));
+        // Segunda volta: deslocada pela duração do trace mais o intervalo médio
+        assertEquals(300_000_000, trace.arrivalOffsetNanos(3));
+        assertEquals(1.0 / 3, (Double) trace.summary().get("errorRate"), 1e-9);
+    }
+
+    @Test
+    void testCsvWithoutHeaderUsesColumnCount() {
+        // When
+        LatencyTrace latencies = LatencyTrace.fromCsv("5\n7\n");
+        LatencyTrace withArrivals = LatencyTrace.fromCsv("0,5\n10,7\n");
+
+        // Then
+        assertFalse(latencies.hasArrivals());
+        assertEquals(7_000_000, latencies.replay(1).latencyNanos());
+        assertTrue(withArrivals.hasArrivals());
+        assertEquals(10_000_000, withArrivals.arrivalOffsetNanos(1));
+    }
+
+    @Test
+    void testInvalidCsvIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> LatencyTrace.fromCsv(""));
+        assertThrows(IllegalArgumentException.class, () -> LatencyTrace.fromCsv("durationMs\n5\n"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyTrace.fromCsv("latencyMs\nabc\n"));
+        assertThrows(IllegalArgumentException.class, () -> LatencyTrace.fromCsv("latencyMs\n-1\n"));
+    }
+
+    @Test
+    void testHistogramLogIsSampledByPercentile() {
+        // Given: distribuição bimodal, 90% em 2 ms e 10% em 800 ms, gravada em microssegundos
+        Histogram interval = new Histogram(3);
+        interval.recordValueWithCount(2_000, 900);
+        interval.recordValueWithCount(800_000, 100);
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        HistogramLogWriter writer = new HistogramLogWriter(log);
+        writer.outputLogFormatVersion();
+        writer.outputLegend();
+        writer.outputIntervalHistogram(interval);
+
+        // When
+        LatencyTrace trace = LatencyTrace.fromHistogramLog(log.toByteArray(), TimeUnit.MICROSECONDS, 0.25);
+
+        // Then
+        assertFalse(trace.hasSamples());
+        assertEquals(1000L, trace.summary().get("samples"));
+        assertEquals(2, trace.sample(0.5, 0.9).latencyMillis());
+        assertEquals(800, trace.sample(0.95, 0.9).latencyMillis(), 1);
+        assertFalse(trace.sample(0.5, 0.3).error());
+        assertTrue(trace.sample(0.5, 0.2).error());
+        assertThrows(IllegalStateException.class, () -> trace.replay(0));
+        Map<?, ?> latency = (Map<?, ?>) trace.summary().get("latency");
+        assertTrue((Double) latency.get("p99Ms") > 700);
+    }
+}
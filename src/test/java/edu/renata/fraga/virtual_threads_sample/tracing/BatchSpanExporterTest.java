@@ -0,0 +1,77 @@
+package edu.renata.fraga.virtual_threads_sample.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchSpanExporterTest {
+
+    @Test
+    void testSpansFromManyVirtualThreadsAreExportedInBatches() {
+        // Given
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        SpanSink sink = batch -> batchSizes.add(batch.size());
+
+        // When
+        try (BatchSpanExporter exporter = new BatchSpanExporter(List.of(sink), 200_000, 512)) {
+            Tracer tracer = new Tracer(Sampler.always(), exporter);
+            try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < 100_000; i++) {
+                    executor.submit(tracer.wrap("task", () -> {
+                    }));
+                }
+            }
+            assertTrue(exporter.flush(Duration.ofSeconds(10)));
+
+            // Then
+            Map<String, Object> stats = exporter.stats();
+            assertEquals(100_000L, stats.get("exported"));
+            assertEquals(0L, stats.get("dropped"));
+            assertEquals(100_000, batchSizes.stream().mapToInt(Integer::intValue).sum());
+            assertTrue(batchSizes.stream().allMatch(size -> size <= 512));
+        }
+    }
+
+    @Test
+    void testFullQueueDropsInsteadOfBlocking() throws Exception {
+        // Given: o destino fica parado no primeiro lote
+        CountDownLatch exporting = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SpanSink sink = batch -> {
+            exporting.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        try (BatchSpanExporter exporter = new BatchSpanExporter(List.of(sink), 10, 10)) {
+            Tracer tracer = new Tracer(Sampler.always(), exporter);
+            tracer.startSpan("first").close();
+            assertTrue(exporting.await(5, TimeUnit.SECONDS));
+
+            // When
+            long start = System.nanoTime();
+            for (int i = 0; i < 100; i++) {
+                tracer.startSpan("span").close();
+            }
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+            // Then
+            assertEquals(90L, exporter.getDropped());
+            assertTrue(elapsedMs < 1_000, "elapsed " + elapsedMs);
+            release.countDown();
+            assertTrue(exporter.flush(Duration.ofSeconds(5)));
+            assertEquals(11L, exporter.stats().get("exported"));
+        }
+    }
+}
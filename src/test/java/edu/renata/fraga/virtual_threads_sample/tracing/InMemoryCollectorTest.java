@@ -0,0 +1,66 @@
+package edu.renata.fraga.virtual_threads_sample.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryCollectorTest {
+
+    private static final SpanContext ROOT = new SpanContext(1, 1, 10, true);
+
+    @Test
+    void testBreakdownRanksChildrenByShareOfParent() {
+        // Given: raiz de 1000 ms com filhos de 300, 500 e 100 ms
+        InMemoryCollector collector = new InMemoryCollector(10, 100);
+        collector.export(List.of(
+                child("call Service A", 11, 300),
+                child("call Service B", 12, 500),
+                child("call Service C", 13, 100),
+                span("request", ROOT, 0, 1_000)));
+
+        // When
+        Map<String, Object> breakdown = collector.breakdown("request");
+
+        // Then
+        assertEquals("call Service B", breakdown.get("dominantChild"));
+        List<?> children = (List<?>) breakdown.get("children");
+        assertEquals(List.of("call Service B", "call Service A", "call Service C"),
+                children.stream().map(child -> ((Map<?, ?>) child).get("name")).toList());
+        assertEquals(0.5, (Double) ((Map<?, ?>) children.get(0)).get("shareOfParent"), 1e-9);
+        assertEquals(0.1, (Double) breakdown.get("selfShare"), 1e-9);
+    }
+
+    @Test
+    void testRetentionIsBoundedByTracesAndSpansPerTrace() {
+        // Given
+        InMemoryCollector collector = new InMemoryCollector(2, 3);
+
+        // When
+        for (long trace = 1; trace <= 3; trace++) {
+            SpanContext root = new SpanContext(0, trace, 100, true);
+            for (int i = 0; i < 5; i++) {
+                collector.export(List.of(span("child", new SpanContext(0, trace, 200 + i, true), 100, 1)));
+            }
+            collector.export(List.of(span("root", root, 0, 10)));
+        }
+
+        // Then
+        assertTrue(collector.trace(new SpanContext(0, 1, 100, true).traceId()).isEmpty());
+        List<SpanData> last = collector.trace(new SpanContext(0, 3, 100, true).traceId());
+        assertEquals(4, last.size());
+        assertTrue(last.stream().anyMatch(SpanData::isRoot));
+        assertEquals(6L, collector.stats().get("spansNotRetained"));
+        assertEquals(18L, collector.getSpansReceived());
+    }
+
+    private static SpanData child(String name, long spanId, long durationMs) {
+        return span(name, new SpanContext(ROOT.traceIdHigh(), ROOT.traceIdLow(), spanId, true), ROOT.spanId(), durationMs);
+    }
+
+    private static SpanData span(String name, SpanContext context, long parentSpanId, long durationMs) {
+        return new SpanData(name, context, parentSpanId, 0, durationMs * 1_000_000, 1, true, Map.of(), null);
+    }
+}
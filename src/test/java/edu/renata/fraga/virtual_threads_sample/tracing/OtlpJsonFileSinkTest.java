@@ -0,0 +1,53 @@
+package edu.renata.fraga.virtual_threads_sample.tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OtlpJsonFileSinkTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testEachBatchIsOneOtlpJsonLine() throws Exception {
+        // Given
+        ObjectMapper objectMapper = new ObjectMapper();
+        Path file = directory.resolve("traces/spans.jsonl");
+        SpanContext root = new SpanContext(1, 2, 3, true);
+        SpanData parent = new SpanData("request", root, 0, 1_000, 500, 1, false, Map.of(), null);
+        SpanData child = new SpanData("call Service A", new SpanContext(1, 2, 4, true), 3, 1_100, 200, 42, true,
+                Map.of("peer.service", "Service A"), "SimulatedFailureException: down");
+
+        // When
+        try (OtlpJsonFileSink sink = new OtlpJsonFileSink(objectMapper, "virtual-threads-sample", file)) {
+            sink.export(List.of(child, parent));
+            sink.export(List.of(parent));
+        }
+
+        // Then
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        JsonNode resourceSpans = objectMapper.readTree(lines.get(0)).get("resourceSpans").get(0);
+        assertEquals("virtual-threads-sample",
+                resourceSpans.at("/resource/attributes/0/value/stringValue").asText());
+        JsonNode spans = resourceSpans.at("/scopeSpans/0/spans");
+        assertEquals(2, spans.size());
+        JsonNode otlpChild = spans.get(0);
+        assertEquals("00000000000000010000000000000002", otlpChild.get("traceId").asText());
+        assertEquals("0000000000000004", otlpChild.get("spanId").asText());
+        assertEquals("0000000000000003", otlpChild.get("parentSpanId").asText());
+        assertEquals("1100", otlpChild.get("startTimeUnixNano").asText());
+        assertEquals("1300", otlpChild.get("endTimeUnixNano").asText());
+        assertEquals(2, otlpChild.at("/status/code").asInt());
+        assertFalse(spans.get(1).has("parentSpanId"));
+    }
+}
@@ -0,0 +1,179 @@
+package edu.renata.fraga.virtual_threads_sample.tracing;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracerTest {
+
+    private final List<SpanData> exported = new CopyOnWriteArrayList<>();
+
+    @Test
+    void testWrappedTaskKeepsParentAcrossVirtualThreadHop() throws Exception {
+        // Given
+        Tracer tracer = new Tracer(Sampler.always(), exported::add);
+
+        // When
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor();
+             Span root = tracer.startSpan("root")) {
+            CompletableFuture.supplyAsync(tracer.wrap("child", () -> {
+                try (Span grandchild = tracer.startSpan("grandchild")) {
+                    return grandchild.context();
+                }
+            }), executor).get();
+        }
+
+        // Then
+        SpanData root = find("root");
+        SpanData child = find("child");
+        SpanData grandchild = find("grandchild");
+        assertTrue(root.isRoot());
+        assertEquals(root.context().spanId(), child.parentSpanId());
+        assertEquals(child.context().spanId(), grandchild.parentSpanId());
+        assertEquals(root.context().traceId(), grandchild.context().traceId());
+        assertTrue(child.virtualThread());
+        assertFalse(root.virtualThread());
+        assertNull(tracer.currentSpan());
+    }
+
+    @Test
+    void testReactorContextCarriesParentThroughSubscribeOn() {
+        // Given
+        Tracer tracer = new Tracer(Sampler.always(), exported::add);
+        Scheduler scheduler = Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor());
+
+        // When
+        Mono<List<Integer>> run = tracer.traceMono("run", Flux.range(0, 10)
+                .flatMap(i -> tracer.fromCallable("task", () -> i).subscribeOn(scheduler))
+                .collectList());
+
+        // Then
+        StepVerifier.create(run).expectNextCount(1).verifyComplete();
+        SpanData root = find("run");
+        List<SpanData> tasks = exported.stream().filter(span -> span.name().equals("task")).toList();
+        assertEquals(10, tasks.size());
+        assertTrue(tasks.stream().allMatch(task -> task.parentSpanId() == root.context().spanId() && task.virtualThread()));
+        scheduler.dispose();
+    }
+
+    @Test
+    void testErrorsAreRecordedOnTheSpan() {
+        // Given
+        Tracer tracer = new Tracer(Sampler.always(), exported::add);
+
+        // When
+        StepVerifier.create(tracer.fromCallable("failing", () -> {
+                    throw new IllegalStateException("boom");
+                }))
+                .verifyError(IllegalStateException.class);
+
+        // Then
+        assertEquals("IllegalStateException: boom", find("failing").error());
+    }
+
+    @Test
+    void testHeadSamplingDecidesForTheWholeTrace() {
+        // Given
+        Tracer tracer = new Tracer(Sampler.headOnly(0.25), exported::add);
+
+        // When
+        for (int i = 0; i < 4_000; i++) {
+            try (Span root = tracer.startSpan("root")) {
+                tracer.startSpan("child").close();
+            }
+        }
+
+        // Then: pais e filhos entram ou saem juntos
+        long roots = exported.stream().filter(SpanData::isRoot).count();
+        long children = exported.size() - roots;
+        assertEquals(roots, children);
+        assertTrue(roots > 800 && roots < 1_200, "roots " + roots);
+        assertEquals(4_000L, tracer.stats().get("tracesStarted"));
+    }
+
+    @Test
+    void testTailSamplingKeepsSlowAndFailedTracesOnly() throws Exception {
+        // Given
+        Tracer tracer = new Tracer(new Sampler(0.0, true, Duration.ofMillis(50), true, 100), exported::add);
+
+        // When
+        try (Span fast = tracer.startSpan("fast")) {
+            tracer.startSpan("fast-child").close();
+        }
+        try (Span slow = tracer.startSpan("slow")) {
+            try (Span child = tracer.startSpan("slow-child")) {
+                Thread.sleep(60);
+            }
+        }
+        try (Span failed = tracer.startSpan("failed")) {
+            try (Span child = tracer.startSpan("failed-child")) {
+                child.recordError(new RuntimeException("x"));
+            }
+        }
+
+        // Then
+        assertEquals(List.of("failed", "failed-child", "slow", "slow-child"),
+                exported.stream().map(SpanData::name).sorted().toList());
+        Map<String, Object> stats = tracer.stats();
+        assertEquals(2L, stats.get("tracesKeptByTail"));
+        assertEquals(1L, stats.get("tracesDroppedByTail"));
+    }
+
+    @Test
+    void testTailBufferIsBoundedPerTrace() {
+        // Given
+        Tracer tracer = new Tracer(new Sampler(0.0, true, Duration.ZERO, true, 10), exported::add);
+
+        // When
+        try (Span root = tracer.startSpan("root")) {
+            for (int i = 0; i < 50; i++) {
+                tracer.startSpan("child").close();
+            }
+            root.recordError(new RuntimeException("keep"));
+        }
+
+        // Then
+        assertEquals(11, exported.size());
+        assertEquals(40L, tracer.stats().get("spansRejectedByTailBuffer"));
+    }
+
+    @Test
+    void testUnsampledSpansAreNotExported() {
+        // Given
+        Tracer tracer = Tracer.disabled();
+
+        // When
+        try (Span root = tracer.startSpan("root")) {
+            assertFalse(root.isRecording());
+            assertSame(root, tracer.currentSpan());
+        }
+
+        // Then
+        assertEquals(0L, tracer.stats().get("spansExported"));
+    }
+
+    @Test
+    void testTraceparentFollowsW3cFormat() {
+        // Given
+        SpanContext context = new SpanContext(0x1L, 0xabcL, 0xffL, true);
+
+        // When & Then
+        assertEquals("00-00000000000000010000000000000abc-00000000000000ff-01", context.traceparent());
+    }
+
+    private SpanData find(String name) {
+        return exported.stream().filter(span -> span.name().equals(name)).findFirst().orElseThrow();
+    }
+}
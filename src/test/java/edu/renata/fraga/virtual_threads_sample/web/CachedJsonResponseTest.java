@@ -0,0 +1,87 @@
+package edu.renata.fraga.virtual_threads_sample.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedJsonResponseTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testImmutableResponseIsSerializedOnce() {
+        // Given
+        AtomicInteger serializations = new AtomicInteger();
+        Object body = new Object() {
+            public String getName() {
+                serializations.incrementAndGet();
+                return "api";
+            }
+        };
+        CachedJsonResponse response = CachedJsonResponse.of(objectMapper, body);
+
+        // When
+        ResponseEntity<byte[]> first = response.toResponseEntity();
+        ResponseEntity<byte[]> second = response.toResponseEntity();
+
+        // Then
+        assertEquals(1, serializations.get());
+        assertSame(first.getBody(), second.getBody());
+        assertEquals("{\"name\":\"api\"}", new String(first.getBody(), StandardCharsets.UTF_8));
+        assertEquals(MediaType.APPLICATION_JSON, first.getHeaders().getContentType());
+        assertTrue(first.getHeaders().getETag().matches("\"[0-9a-f]{32}\""));
+    }
+
+    @Test
+    void testETagDoesNotDependOnMapOrder() {
+        // Given
+        Map<String, Object> ab = new LinkedHashMap<>();
+        ab.put("a", 1);
+        ab.put("b", 2);
+        Map<String, Object> ba = new LinkedHashMap<>();
+        ba.put("b", 2);
+        ba.put("a", 1);
+
+        // When & Then
+        assertEquals(CachedJsonResponse.of(objectMapper, ab).getETag(), CachedJsonResponse.of(objectMapper, ba).getETag());
+        assertNotEquals(CachedJsonResponse.of(objectMapper, ab).getETag(),
+                CachedJsonResponse.of(objectMapper, Map.of("a", 1, "b", 3)).getETag());
+    }
+
+    @Test
+    void testSampledResponseRefreshesAfterInterval() {
+        // Given
+        AtomicLong clock = new AtomicLong();
+        AtomicInteger value = new AtomicInteger();
+        CachedJsonResponse response = CachedJsonResponse.sampled(objectMapper,
+                () -> Map.of("value", value.incrementAndGet()), Duration.ofSeconds(1), clock::get);
+        String initial = response.getETag();
+
+        // When
+        clock.addAndGet(Duration.ofMillis(999).toNanos());
+        String beforeInterval = response.getETag();
+        clock.addAndGet(Duration.ofMillis(1).toNanos());
+        ResponseEntity<byte[]> afterInterval = response.toResponseEntity();
+
+        // Then
+        assertEquals(initial, beforeInterval);
+        assertNotEquals(initial, afterInterval.getHeaders().getETag());
+        assertEquals("{\"value\":2}", new String(afterInterval.getBody(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testSampledResponseRequiresPositiveInterval() {
+        assertThrows(IllegalArgumentException.class,
+                () -> CachedJsonResponse.sampled(objectMapper, Map::of, Duration.ZERO));
+    }
+}
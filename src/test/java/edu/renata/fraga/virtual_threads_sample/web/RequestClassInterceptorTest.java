@@ -0,0 +1,156 @@
+package edu.renata.fraga.virtual_threads_sample.web;
+
+import edu.renata.fraga.virtual_threads_sample.concurrent.PriorityAdmission;
+import edu.renata.fraga.virtual_threads_sample.concurrent.RequestClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class RequestClassInterceptorTest {
+
+    private PriorityAdmission admission;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        admission = new PriorityAdmission("requests", 4, Duration.ofSeconds(2), new SimpleMeterRegistry());
+        mockMvc = MockMvcBuilders.standaloneSetup(new SampleController())
+                .addInterceptors(new RequestClassInterceptor(admission, RequestClassInterceptor.DEFAULT_HEADER, Duration.ofMillis(200)))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        admission.close();
+    }
+
+    @Test
+    void testUnannotatedEndpointIsInteractive() throws Exception {
+        mockMvc.perform(get("/info"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Request-Class", "interactive"))
+                .andExpect(jsonPath("$.requestClass").value("interactive"));
+
+        assertEquals(1L, admitted(RequestClass.INTERACTIVE));
+        assertEquals(0, admission.running());
+    }
+
+    @Test
+    void testEndpointAnnotationSetsClass() throws Exception {
+        mockMvc.perform(get("/stress"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requestClass").value("benchmark"));
+
+        assertEquals(1L, admitted(RequestClass.BENCHMARK));
+        assertEquals(0, admission.running());
+    }
+
+    @Test
+    void testHeaderLowersEndpointClass() throws Exception {
+        mockMvc.perform(get("/info").header("X-Request-Class", "Batch"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Request-Class", "batch"))
+                .andExpect(jsonPath("$.requestClass").value("batch"));
+
+        assertEquals(1L, admitted(RequestClass.BATCH));
+        assertEquals(0L, admitted(RequestClass.INTERACTIVE));
+    }
+
+    @Test
+    void testHeaderCannotRaiseAnnotatedClass() throws Exception {
+        mockMvc.perform(get("/stress").header("X-Request-Class", "interactive"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Request-Class", "benchmark"))
+                .andExpect(jsonPath("$.requestClass").value("benchmark"));
+
+        assertEquals(1L, admitted(RequestClass.BENCHMARK));
+        assertEquals(0L, admitted(RequestClass.INTERACTIVE));
+    }
+
+    @Test
+    void testUnknownHeaderIsRejected() throws Exception {
+        mockMvc.perform(get("/info").header("X-Request-Class", "urgent"))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(0, admission.running());
+    }
+
+    @Test
+    void testContextIsClearedAfterRequest() throws Exception {
+        // When
+        mockMvc.perform(get("/stress")).andExpect(status().isOk());
+
+        // Then - a thread do teste atendeu a requisição e não ficou com a classe dela
+        assertEquals(RequestClass.INTERACTIVE, RequestClassContext.current());
+    }
+
+    @Test
+    void testStreamReleasesItsSlotOnceStarted() throws Exception {
+        // When
+        mockMvc.perform(get("/stream"))
+                .andExpect(request().asyncStarted());
+
+        // Then - o stream continua aberto, mas não ocupa vaga
+        assertEquals(1L, admitted(RequestClass.INTERACTIVE));
+        assertEquals(0, admission.running());
+    }
+
+    @Test
+    void testRequestWaitingPastMaxWaitGetsServiceUnavailable() throws Exception {
+        // Given - todas as vagas ocupadas
+        PriorityAdmission.Permit[] permits = new PriorityAdmission.Permit[4];
+        for (int i = 0; i < permits.length; i++) {
+            permits[i] = admission.acquire(RequestClass.INTERACTIVE);
+        }
+        try {
+            // When / Then
+            mockMvc.perform(get("/stress"))
+                    .andExpect(status().isServiceUnavailable());
+            assertEquals(0, admission.queued(RequestClass.BENCHMARK));
+        } finally {
+            for (PriorityAdmission.Permit permit : permits) {
+                permit.close();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private long admitted(RequestClass requestClass) {
+        Map<String, Object> classes = (Map<String, Object>) admission.stats().get("classes");
+        return (Long) ((Map<String, Object>) classes.get(requestClass.tag())).get("admitted");
+    }
+
+    @RestController
+    public static class SampleController {
+
+        @GetMapping("/info")
+        public Map<String, Object> info() {
+            return Map.of("requestClass", RequestClassContext.current().tag());
+        }
+
+        @RequestPriority(RequestClass.BENCHMARK)
+        @GetMapping("/stress")
+        public Map<String, Object> stress() {
+            return Map.of("requestClass", RequestClassContext.current().tag());
+        }
+
+        @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        public SseEmitter stream() {
+            return new SseEmitter(0L);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package edu.renata.fraga.virtual_threads_sample.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressFeedTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProgressFeed progressFeed = new ProgressFeed(objectMapper, Duration.ofMillis(20));
+
+    @AfterEach
+    void tearDown() {
+        progressFeed.shutdown();
+    }
+
+    @Test
+    void testBlockingSubscriberReceivesTrackedProgress() throws Exception {
+        // Given
+        progressFeed.subscriberOpened(FanoutModel.VIRTUAL_THREAD_PER_CONNECTION);
+        ProgressFeed.Tracker tracker = progressFeed.track("stress-test", 10);
+        for (int i = 0; i < 4; i++) {
+            tracker.increment();
+        }
+
+        // When
+        ProgressFeed.Frame first = progressFeed.awaitFrameAfter(0, Duration.ofSeconds(5));
+        ProgressFeed.Frame second = progressFeed.awaitFrameAfter(first.sequence(), Duration.ofSeconds(5));
+
+        // Then
+        assertTrue(second.sequence() > first.sequence());
+        Map<?, ?> workloads = (Map<?, ?>) objectMapper.readValue(second.json(), Map.class).get("workloads");
+        Map<?, ?> progress = (Map<?, ?>) workloads.get(tracker.getId());
+        assertEquals(4, progress.get("completed"));
+        assertEquals(40.0, progress.get("percent"));
+        assertEquals(false, progress.get("finished"));
+        assertTrue(WebSocketLoadHarness.publishedAtEpochMicros(second.json()) > 0);
+    }
+
+    @Test
+    void testFinishedWorkloadIsPublishedOnceMore() throws Exception {
+        // Given
+        progressFeed.subscriberOpened(FanoutModel.VIRTUAL_THREAD_PER_CONNECTION);
+        ProgressFeed.Tracker tracker = progressFeed.track("stress-test", 1);
+        ProgressFeed.Frame before = progressFeed.awaitFrameAfter(0, Duration.ofSeconds(5));
+
+        // When
+        tracker.increment();
+        tracker.close();
+        ProgressFeed.Frame finished = progressFeed.awaitFrameAfter(before.sequence(), Duration.ofSeconds(5));
+        ProgressFeed.Frame after = progressFeed.awaitFrameAfter(finished.sequence(), Duration.ofSeconds(5));
+
+        // Then
+        assertTrue(finished.json().contains("\"finished\":true"));
+        assertFalse(after.json().contains(tracker.getId()));
+    }
+
+    @Test
+    void testReactiveSubscribersShareOnePublisherAndStopIt() throws Exception {
+        // Given
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+
+        // When
+        Disposable firstSubscription = progressFeed.frames().subscribe(first::add);
+        Disposable secondSubscription = progressFeed.frames().subscribe(second::add);
+        Thread.sleep(200);
+
+        // Then
+        assertEquals(2, progressFeed.getSubscriberCount(FanoutModel.REACTIVE_SHARED_PUBLISHER));
+        assertTrue(progressFeed.isPublishing());
+        assertFalse(first.isEmpty());
+        assertFalse(second.isEmpty());
+
+        firstSubscription.dispose();
+        secondSubscription.dispose();
+        assertEquals(0, progressFeed.getSubscriberCount(FanoutModel.REACTIVE_SHARED_PUBLISHER));
+        assertFalse(progressFeed.isPublishing());
+    }
+
+    @Test
+    void testNoFramesWithoutSubscribers() throws Exception {
+        // When
+        ProgressFeed.Frame frame = progressFeed.awaitFrameAfter(0, Duration.ofMillis(100));
+
+        // Then
+        assertNull(frame);
+        assertEquals(0, progressFeed.getFramesPublished());
+    }
+}
@@ -0,0 +1,60 @@
+package edu.renata.fraga.virtual_threads_sample.websocket;
+
+import edu.renata.fraga.virtual_threads_sample.Application;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketLoadHarnessTest {
+
+    private static ConfigurableApplicationContext context;
+    private static WebSocketLoadHarness harness;
+
+    @BeforeAll
+    static void startServer() {
+        context = new SpringApplicationBuilder(Application.class)
+                .run("--server.port=0", "--websocket.fanout.interval=50ms");
+        harness = context.getBean(WebSocketLoadHarness.class);
+    }
+
+    @AfterAll
+    static void stopServer() {
+        context.close();
+    }
+
+    @Test
+    void testVirtualThreadPerConnectionBroadcastsToEveryClient() {
+        // When
+        Map<String, Object> result = harness.run(FanoutModel.VIRTUAL_THREAD_PER_CONNECTION, 200, Duration.ofMillis(500));
+
+        // Then
+        assertDelivered(result);
+    }
+
+    @Test
+    void testReactiveSharedPublisherBroadcastsToEveryClient() {
+        // When
+        Map<String, Object> result = harness.run(FanoutModel.REACTIVE_SHARED_PUBLISHER, 200, Duration.ofMillis(500));
+
+        // Then
+        assertDelivered(result);
+    }
+
+    private static void assertDelivered(Map<String, Object> result) {
+        assertEquals(200L, result.get("connected"), result.toString());
+        assertEquals(200, result.get("serverSubscribers"));
+        assertTrue((Long) result.get("framesPublished") >= 5);
+        assertTrue((Double) result.get("deliveryRatio") > 0.8, result.toString());
+        Map<?, ?> latency = (Map<?, ?>) result.get("broadcastLatency");
+        assertTrue((Long) latency.get("count") > 0);
+        assertTrue((Double) latency.get("p50Ms") < 1_000.0);
+        assertEquals(true, result.get("allDisconnected"));
+    }
+}